@@ -0,0 +1,293 @@
+/*
+ * Copyright 2026 agent
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package it.uniroma2.sag.kelp.data.dataset;
+
+import it.uniroma2.sag.kelp.data.example.Example;
+import it.uniroma2.sag.kelp.data.example.ExamplePair;
+import it.uniroma2.sag.kelp.data.example.SimpleExample;
+import it.uniroma2.sag.kelp.data.label.Label;
+import it.uniroma2.sag.kelp.data.label.LabelFactory;
+import it.uniroma2.sag.kelp.data.label.NumericLabel;
+import it.uniroma2.sag.kelp.data.representation.BinaryRepresentation;
+import it.uniroma2.sag.kelp.data.representation.Representation;
+import it.uniroma2.sag.kelp.data.representation.RepresentationFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * A reader of the datasets written by a <code>BinaryDatasetWriter</code>. The examples are
+ * memory-mapped, so the file is not copied in the heap, and thanks to the index stored in the
+ * file any example can be read in constant time through <code>readExample</code>, that can be
+ * invoked concurrently by different threads. The examples can be also read sequentially, as
+ * with a <code>DatasetReader</code>.
+ * <p>
+ * The labels are parsed once, when the file is opened, and shared by all the examples read.
+ * <p>
+ * NOTE: the sequential reading methods are not thread-safe
+ *
+ * @author agent
+ */
+public class BinaryDatasetReader {
+
+	private static final long MAXIMUM_REGION_SIZE = 1L << 30;
+
+	private String filename;
+	private RandomAccessFile file;
+
+	private String[] dictionary;
+	private Label[] labels;
+	private long[] offsets;
+	private MappedByteBuffer[] regions;
+	private long[] regionOffsets;
+
+	private int nextExample;
+
+	/**
+	 * @param filename the path of the file to be read
+	 * @throws IOException
+	 */
+	public BinaryDatasetReader(String filename) throws IOException {
+		this.filename = filename;
+		this.file = new RandomAccessFile(filename, "r");
+		try {
+			this.readTrailer();
+		} catch (IOException e) {
+			this.file.close();
+			throw e;
+		}
+	}
+
+	private void readTrailer() throws IOException {
+		long length = this.file.length();
+		if (length < BinaryDatasetWriter.HEADER_SIZE + BinaryDatasetWriter.FOOTER_SIZE) {
+			throw new IOException("DatasetIO Exception: " + this.filename + " is not a binary dataset");
+		}
+		this.file.seek(0);
+		int magicNumber = this.file.readInt();
+		int version = this.file.readInt();
+		this.file.seek(length - BinaryDatasetWriter.FOOTER_SIZE);
+		long dictionaryOffset = this.file.readLong();
+		long indexOffset = this.file.readLong();
+		if (magicNumber != BinaryDatasetWriter.MAGIC_NUMBER || this.file.readInt() != BinaryDatasetWriter.MAGIC_NUMBER) {
+			throw new IOException("DatasetIO Exception: " + this.filename + " is not a binary dataset");
+		}
+		if (version != BinaryDatasetWriter.FORMAT_VERSION) {
+			throw new IOException("DatasetIO Exception: unsupported binary dataset version " + version);
+		}
+
+		FileChannel channel = this.file.getChannel();
+		ByteBuffer trailer = channel.map(MapMode.READ_ONLY, dictionaryOffset,
+				length - BinaryDatasetWriter.FOOTER_SIZE - dictionaryOffset);
+		this.dictionary = new String[trailer.getInt()];
+		this.labels = new Label[this.dictionary.length];
+		for (int i = 0; i < this.dictionary.length; i++) {
+			boolean isLabel = trailer.get() != 0;
+			byte[] bytes = new byte[trailer.getInt()];
+			trailer.get(bytes);
+			this.dictionary[i] = new String(bytes, BinaryDatasetWriter.UTF8);
+			if (isLabel) {
+				this.labels[i] = LabelFactory.parseLabel(this.dictionary[i]);
+			}
+		}
+		trailer.position((int) (indexOffset - dictionaryOffset));
+		long numberOfExamples = trailer.getLong();
+		if (numberOfExamples > Integer.MAX_VALUE) {
+			throw new IOException("DatasetIO Exception: too many examples in " + this.filename);
+		}
+		this.offsets = new long[(int) numberOfExamples];
+		trailer.asLongBuffer().get(this.offsets);
+
+		this.mapRegions(channel, dictionaryOffset);
+	}
+
+	/**
+	 * Maps the examples in regions of at most <code>MAXIMUM_REGION_SIZE</code> bytes, each one
+	 * containing whole records
+	 */
+	private void mapRegions(FileChannel channel, long examplesEnd) throws IOException {
+		List<Long> regionStarts = new ArrayList<Long>();
+		long regionStart = BinaryDatasetWriter.HEADER_SIZE;
+		regionStarts.add(regionStart);
+		for (long offset : this.offsets) {
+			if (offset - regionStart >= MAXIMUM_REGION_SIZE) {
+				regionStart = offset;
+				regionStarts.add(regionStart);
+			}
+		}
+		this.regions = new MappedByteBuffer[regionStarts.size()];
+		this.regionOffsets = new long[regionStarts.size()];
+		for (int i = 0; i < this.regions.length; i++) {
+			long start = regionStarts.get(i);
+			long end = i + 1 < this.regions.length ? regionStarts.get(i + 1) : examplesEnd;
+			if (end - start > Integer.MAX_VALUE) {
+				throw new IOException("DatasetIO Exception: example too large in " + this.filename);
+			}
+			this.regionOffsets[i] = start;
+			this.regions[i] = channel.map(MapMode.READ_ONLY, start, end - start);
+		}
+	}
+
+	/**
+	 * @return the path of the file being read
+	 */
+	public String getFilename() {
+		return filename;
+	}
+
+	/**
+	 * @return the number of examples in the file
+	 */
+	public int getNumberOfExamples() {
+		return this.offsets.length;
+	}
+
+	/**
+	 * Reads the <code>i</code>-th example of the file. This method can be invoked concurrently
+	 * by different threads.
+	 *
+	 * @param i the position of the example in the file
+	 * @return the <code>i</code>-th example
+	 * @throws IOException
+	 * @throws InstantiationException
+	 */
+	public Example readExample(int i) throws IOException, InstantiationException {
+		if (i < 0 || i >= this.offsets.length) {
+			throw new IndexOutOfBoundsException("Example " + i + " does not exist: the dataset contains "
+					+ this.offsets.length + " examples");
+		}
+		long offset = this.offsets[i];
+		int region = Arrays.binarySearch(this.regionOffsets, offset);
+		if (region < 0) {
+			region = -region - 2;
+		}
+		ByteBuffer record = this.regions[region].duplicate();
+		record.position((int) (offset - this.regionOffsets[region]));
+		int recordLength = record.getInt();
+		record.limit(record.position() + recordLength);
+		return this.readExample(record);
+	}
+
+	private Example readExample(ByteBuffer record) throws IOException, InstantiationException {
+		byte type = record.get();
+
+		Label[] exampleLabels = new Label[record.getInt()];
+		for (int j = 0; j < exampleLabels.length; j++) {
+			exampleLabels[j] = this.labels[record.getInt()];
+		}
+		NumericLabel[] regressionLabels = new NumericLabel[record.getInt()];
+		for (int j = 0; j < regressionLabels.length; j++) {
+			Label property = this.labels[record.getInt()];
+			regressionLabels[j] = new NumericLabel(property, record.getFloat());
+		}
+
+		Example example;
+		if (type == BinaryDatasetWriter.EXAMPLE_PAIR) {
+			Example left = this.readExample(record);
+			Example right = this.readExample(record);
+			example = new ExamplePair(left, right);
+		} else if (type == BinaryDatasetWriter.SIMPLE_EXAMPLE) {
+			example = new SimpleExample();
+		} else {
+			throw new IllegalStateException("Unknown example type " + type + " in " + this.filename);
+		}
+		for (Label label : exampleLabels) {
+			example.addLabel(label);
+		}
+		for (NumericLabel regressionLabel : regressionLabels) {
+			example.addLabel(regressionLabel);
+		}
+
+		int numberOfRepresentations = record.getInt();
+		HashMap<String, Representation> representations = new HashMap<String, Representation>();
+		for (int j = 0; j < numberOfRepresentations; j++) {
+			String representationType = this.dictionary[record.getInt()];
+			int nameId = record.getInt();
+			String representationName = nameId == BinaryDatasetWriter.NULL_STRING ? null : this.dictionary[nameId];
+			byte encoding = record.get();
+			byte[] body = new byte[record.getInt()];
+			record.get(body);
+			Representation representation;
+			if (encoding == BinaryDatasetWriter.BINARY_REPRESENTATION) {
+				representation = RepresentationFactory.getInstance().newRepresentation(representationType);
+				if (!(representation instanceof BinaryRepresentation)) {
+					throw new IOException("DatasetIO Exception: " + representationType
+							+ " representations cannot be read from a binary encoding");
+				}
+				((BinaryRepresentation) representation).readData(new DataInputStream(new ByteArrayInputStream(body)));
+			} else {
+				representation = RepresentationFactory.getInstance().parseRepresentation(
+						representationType, new String(body, BinaryDatasetWriter.UTF8));
+			}
+			representations.put(representationName, representation);
+		}
+		example.setRepresentations(representations);
+		return example;
+	}
+
+	/**
+	 * Checks whether there is at least another example to read
+	 *
+	 * @return <code>true</code> if there is at least another example to read, <code>false</code>
+	 * otherwise
+	 */
+	public boolean hasNext() {
+		return this.nextExample < this.offsets.length;
+	}
+
+	/**
+	 * Returns the next example
+	 *
+	 * @return the next example
+	 * @throws IOException
+	 * @throws InstantiationException
+	 */
+	public Example readNextExample() throws IOException, InstantiationException {
+		if (!this.hasNext()) {
+			throw new IOException("DatasetIO Exception: There is no example to read!");
+		}
+		Example example = this.readExample(this.nextExample);
+		this.nextExample++;
+		return example;
+	}
+
+	/**
+	 * Restarts the sequential reading from the first example
+	 */
+	public void restartReading() {
+		this.nextExample = 0;
+	}
+
+	/**
+	 * Closes the file. The mapped examples are released when they are garbage collected
+	 *
+	 * @throws IOException
+	 */
+	public void close() throws IOException {
+		this.file.close();
+	}
+
+}
@@ -0,0 +1,223 @@
+/*
+ * Copyright 2026 agent
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package it.uniroma2.sag.kelp.data.dataset;
+
+import it.uniroma2.sag.kelp.data.example.Example;
+import it.uniroma2.sag.kelp.data.example.ExamplePair;
+import it.uniroma2.sag.kelp.data.label.Label;
+import it.uniroma2.sag.kelp.data.label.NumericLabel;
+import it.uniroma2.sag.kelp.data.representation.BinaryRepresentation;
+import it.uniroma2.sag.kelp.data.representation.Representation;
+import it.uniroma2.sag.kelp.data.representation.RepresentationFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map.Entry;
+
+/**
+ * A utility class to write datasets in a compact binary format, that can be read by a
+ * <code>BinaryDatasetReader</code>.
+ * <p>
+ * The file consists of a header, the sequence of the examples, a dictionary and an index:
+ * <ul>
+ * <li>header: the magic number and the format version (2 ints)</li>
+ * <li>examples: every example is a record prefixed by its length in bytes (int). A record contains
+ * the example type (byte, 0 for simple examples and 1 for example pairs), the classification
+ * labels (an int counter followed by their dictionary ids), the regression labels (an int counter
+ * followed by the pairs dictionary id of the property, float value), the left and right examples
+ * (only for pairs, without the length prefix) and the representations (an int counter followed
+ * by the dictionary ids of the representation type and identifier, by the encoding of the
+ * representation body (byte, 0 for textual and 1 for binary) and by the body bytes prefixed by
+ * their length)</li>
+ * <li>dictionary: an int counter followed by the strings, each one as a flag (byte, 1 if the
+ * string is a label, 0 otherwise) and UTF-8 bytes prefixed by their length</li>
+ * <li>index: a long counter followed by the offset of every example record (longs)</li>
+ * <li>footer: the offsets of the dictionary and of the index (2 longs) and the magic number</li>
+ * </ul>
+ * All the numbers are big-endian. The labels, the representation types and the representation
+ * identifiers are encoded by their id in the dictionary.
+ * <p>
+ * The representations implementing <code>BinaryRepresentation</code> are stored with their own
+ * binary encoding (<code>BinaryRepresentation.writeData</code>); any other representation is stored
+ * through its textual description (<code>Representation.getTextFromData</code>), that is parsed
+ * again when the dataset is read.
+ *
+ * @author agent
+ */
+public class BinaryDatasetWriter {
+
+	static final int MAGIC_NUMBER = 0x4B4C5042;//"KLPB"
+	static final int FORMAT_VERSION = 2;
+	static final int HEADER_SIZE = 8;
+	static final int FOOTER_SIZE = 20;
+	static final byte SIMPLE_EXAMPLE = 0;
+	static final byte EXAMPLE_PAIR = 1;
+	static final int NULL_STRING = -1;
+	static final byte TEXTUAL_REPRESENTATION = 0;
+	static final byte BINARY_REPRESENTATION = 1;
+	static final Charset UTF8 = Charset.forName("UTF-8");
+
+	private DataOutputStream output;
+	private long position;
+
+	private HashMap<String, Integer> dictionary;
+	private List<String> dictionaryEntries;
+	private BitSet labelEntries;
+	private long[] offsets;
+	private int numberOfExamples;
+
+	private ByteArrayOutputStream recordBuffer;
+	private DataOutputStream record;
+	private ByteArrayOutputStream representationBuffer;
+	private DataOutputStream representationRecord;
+
+	/**
+	 * @param outputFilePath the path of the file to be written
+	 * @throws IOException
+	 */
+	public BinaryDatasetWriter(String outputFilePath) throws IOException {
+		this.output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(outputFilePath), 1 << 16));
+		this.dictionary = new HashMap<String, Integer>();
+		this.dictionaryEntries = new ArrayList<String>();
+		this.labelEntries = new BitSet();
+		this.offsets = new long[1024];
+		this.recordBuffer = new ByteArrayOutputStream();
+		this.record = new DataOutputStream(this.recordBuffer);
+		this.representationBuffer = new ByteArrayOutputStream();
+		this.representationRecord = new DataOutputStream(this.representationBuffer);
+
+		this.output.writeInt(MAGIC_NUMBER);
+		this.output.writeInt(FORMAT_VERSION);
+		this.position = HEADER_SIZE;
+	}
+
+	/**
+	 * Writes an example
+	 *
+	 * @param e the example to be written
+	 * @throws IOException
+	 */
+	public void writeNextExample(Example e) throws IOException {
+		this.recordBuffer.reset();
+		this.writeExample(e);
+		if (this.numberOfExamples == this.offsets.length) {
+			this.offsets = Arrays.copyOf(this.offsets, this.offsets.length * 2);
+		}
+		this.offsets[this.numberOfExamples] = this.position;
+		this.numberOfExamples++;
+
+		this.output.writeInt(this.recordBuffer.size());
+		this.recordBuffer.writeTo(this.output);
+		this.position += 4 + this.recordBuffer.size();
+	}
+
+	private void writeExample(Example e) throws IOException {
+		this.record.writeByte(e instanceof ExamplePair ? EXAMPLE_PAIR : SIMPLE_EXAMPLE);
+
+		Label[] labels = e.getLabels();
+		this.record.writeInt(labels.length);
+		for (Label label : labels) {
+			this.record.writeInt(this.getLabelId(label));
+		}
+		NumericLabel[] regressionLabels = e.getRegressionLabels();
+		this.record.writeInt(regressionLabels.length);
+		for (NumericLabel regressionLabel : regressionLabels) {
+			this.record.writeInt(this.getLabelId(regressionLabel.getProperty()));
+			this.record.writeFloat(regressionLabel.getValue());
+		}
+
+		if (e instanceof ExamplePair) {
+			ExamplePair pair = (ExamplePair) e;
+			this.writeExample(pair.getLeftExample());
+			this.writeExample(pair.getRightExample());
+		}
+
+		this.record.writeInt(e.getNumberOfRepresentations());
+		for (Entry<String, Representation> entry : e.getRepresentations().entrySet()) {
+			Representation representation = entry.getValue();
+			String representationType = RepresentationFactory.getRepresentationIdentifier(representation.getClass());
+			this.record.writeInt(this.getDictionaryId(representationType));
+			this.record.writeInt(entry.getKey() == null ? NULL_STRING : this.getDictionaryId(entry.getKey()));
+			if (representation instanceof BinaryRepresentation) {
+				this.representationBuffer.reset();
+				((BinaryRepresentation) representation).writeData(this.representationRecord);
+				this.record.writeByte(BINARY_REPRESENTATION);
+				this.record.writeInt(this.representationBuffer.size());
+				this.representationBuffer.writeTo(this.record);
+			} else {
+				byte[] body = representation.getTextFromData().getBytes(UTF8);
+				this.record.writeByte(TEXTUAL_REPRESENTATION);
+				this.record.writeInt(body.length);
+				this.record.write(body);
+			}
+		}
+	}
+
+	private int getLabelId(Label label) {
+		int id = this.getDictionaryId(label.toString());
+		this.labelEntries.set(id);
+		return id;
+	}
+
+	private int getDictionaryId(String entry) {
+		Integer id = this.dictionary.get(entry);
+		if (id == null) {
+			id = this.dictionaryEntries.size();
+			this.dictionary.put(entry, id);
+			this.dictionaryEntries.add(entry);
+		}
+		return id.intValue();
+	}
+
+	/**
+	 * Writes the dictionary and the index, and closes the file
+	 *
+	 * @throws IOException
+	 */
+	public void close() throws IOException {
+		long dictionaryOffset = this.position;
+		this.output.writeInt(this.dictionaryEntries.size());
+		for (int i = 0; i < this.dictionaryEntries.size(); i++) {
+			byte[] bytes = this.dictionaryEntries.get(i).getBytes(UTF8);
+			this.output.writeByte(this.labelEntries.get(i) ? 1 : 0);
+			this.output.writeInt(bytes.length);
+			this.output.write(bytes);
+			this.position += 5 + bytes.length;
+		}
+		this.position += 4;
+
+		long indexOffset = this.position;
+		this.output.writeLong(this.numberOfExamples);
+		for (int i = 0; i < this.numberOfExamples; i++) {
+			this.output.writeLong(this.offsets[i]);
+		}
+
+		this.output.writeLong(dictionaryOffset);
+		this.output.writeLong(indexOffset);
+		this.output.writeInt(MAGIC_NUMBER);
+		this.output.close();
+	}
+
+}
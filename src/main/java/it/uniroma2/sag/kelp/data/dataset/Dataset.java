@@ -101,9 +101,18 @@ public interface Dataset {
 	
 		
 	/**
-	 * Returns an array containing all the stored examples
+	 * Returns an array containing all the stored examples (optional operation)
+	 * <p>
+	 * The returned list can be unmodifiable, e.g. the one of a <code>SimpleDataset</code>: the
+	 * examples must be added through <code>addExample</code>, and a list to be modified must be
+	 * copied first.
+	 * <p>
+	 * A dataset that does not keep its examples in memory (e.g. a <code>StreamingDataset</code>)
+	 * does not support this operation: its examples must be read sequentially through
+	 * <code>reset</code>, <code>hasNextExample</code> and <code>getNextExample</code>.
 	 * 
 	 * @return the stored examples
+	 * @throws UnsupportedOperationException if the dataset does not keep its examples in memory
 	 */
 	public List<Example> getExamples();
 	
@@ -120,17 +129,20 @@ public interface Dataset {
 	
 	/**
 	 * @return a random example
+	 * @throws UnsupportedOperationException if the dataset does not support random access
 	 */
 	public Example getRandExample();
 	
 	/**
 	 * @param k the number of examples to be returned
 	 * @return a list containing <code>k</code> random examples
+	 * @throws UnsupportedOperationException if the dataset does not support random access
 	 */
 	public List<Example> getRandExamples(int k);
 	
 	/**
 	 * @return a Dataset containing all the examples in this Dataset in a shuffled order
+	 * @throws UnsupportedOperationException if the dataset does not support random access
 	 */
 	public Dataset getShuffledDataset();
 	
@@ -16,6 +16,7 @@ package it.uniroma2.sag.kelp.data.dataset;
 
 import it.uniroma2.sag.kelp.data.example.Example;
 import it.uniroma2.sag.kelp.data.example.ExampleFactory;
+import it.uniroma2.sag.kelp.utils.ParallelGZIPInputStream;
 
 import java.io.BufferedReader;
 import java.io.FileInputStream;
@@ -23,7 +24,6 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.UnsupportedEncodingException;
-import java.util.zip.GZIPInputStream;
 
 /**
  * A utility class to read dataset in the platform format.
@@ -35,8 +35,23 @@ public class DatasetReader {
 	protected String nextRow;
 	private boolean hasNextRow;
 	private String filename;
+	protected boolean lazyRepresentations;
 
 	public DatasetReader(String filename) throws IOException {
+		this(filename, false);
+	}
+
+	/**
+	 * @param filename the path of the file to be read
+	 * @param lazyRepresentations whether the representations of the examples must be parsed
+	 * only when they are accessed for the first time (see
+	 * <code>ExampleFactory.parseExample(String, boolean)</code>). In this case a malformed
+	 * representation raises an <code>IllegalStateException</code> when it is accessed, e.g. by a
+	 * kernel, instead of an <code>InstantiationException</code> from <code>readNextExample</code>
+	 * @throws IOException
+	 */
+	public DatasetReader(String filename, boolean lazyRepresentations) throws IOException {
+		this.lazyRepresentations = lazyRepresentations;
 		this.inputBuffer=openBufferedReader(filename);
 		this.hasNextRow = true;
 		this.nextRow = this.inputBuffer.readLine();
@@ -47,9 +62,9 @@ public class DatasetReader {
 	protected BufferedReader openBufferedReader(String filename) throws IOException,
 			FileNotFoundException, UnsupportedEncodingException {
 		InputStreamReader reader = null;
-		GZIPInputStream gzis = null;
+		ParallelGZIPInputStream gzis = null;
 		if (filename.endsWith(".gz")) {
-			gzis = new GZIPInputStream(new FileInputStream(filename));
+			gzis = new ParallelGZIPInputStream(new FileInputStream(filename));
 			reader = new InputStreamReader(gzis, "UTF8");
 		} else {
 			reader = new InputStreamReader(new FileInputStream(filename),
@@ -98,7 +113,7 @@ public class DatasetReader {
 			throw new IOException(
 					"DatasetIO Exception: There is no example to read!");
 		}
-		Example example = ExampleFactory.parseExample(nextRow);
+		Example example = ExampleFactory.parseExample(nextRow, this.lazyRepresentations);
 		this.nextRow = this.inputBuffer.readLine();
 		this.checkRowValidity();
 		return example;
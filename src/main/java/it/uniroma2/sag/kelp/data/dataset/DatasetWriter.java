@@ -1,6 +1,7 @@
 package it.uniroma2.sag.kelp.data.dataset;
 
 import it.uniroma2.sag.kelp.data.example.Example;
+import it.uniroma2.sag.kelp.utils.ParallelGZIPOutputStream;
 
 import java.io.BufferedWriter;
 import java.io.File;
@@ -8,12 +9,11 @@ import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStreamWriter;
-import java.util.zip.GZIPOutputStream;
 
 public class DatasetWriter {
 
 	private BufferedWriter writer;
-	private GZIPOutputStream zip;
+	private ParallelGZIPOutputStream zip;
 	private String outputFilePath;
 
 	public DatasetWriter(String outputFilePath) throws FileNotFoundException,
@@ -21,7 +21,7 @@ public class DatasetWriter {
 		this.outputFilePath = outputFilePath;
 
 		if (outputFilePath.endsWith(".gz")) {
-			zip = new GZIPOutputStream(new FileOutputStream(new File(
+			zip = new ParallelGZIPOutputStream(new FileOutputStream(new File(
 					outputFilePath)));
 			writer = new BufferedWriter(new OutputStreamWriter(zip, "UTF-8"));
 		} else {
@@ -31,7 +31,8 @@ public class DatasetWriter {
 	}
 	
 	public void writeNextExample(Example e) throws IOException{
-		writer.append(e.toString() + "\n");
+		e.appendTo(writer);
+		writer.write('\n');
 	}
 
 	public void close() throws IOException {
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2026 agent
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package it.uniroma2.sag.kelp.data.dataset;
+
+import it.uniroma2.sag.kelp.data.example.Example;
+
+import java.util.AbstractList;
+import java.util.Random;
+import java.util.RandomAccess;
+
+/**
+ * An unmodifiable list of examples backed by an array of positions over an array of examples,
+ * which can be shared by many lists. It allows to create subsets, unions and permutations
+ * of the examples (e.g. the splits, the folds and the shuffles of a dataset) by copying only
+ * their positions.
+ * <p>
+ * The array of examples must never be modified after the creation of the list.
+ *
+ * @author agent
+ */
+class IndexedExampleList extends AbstractList<Example> implements RandomAccess {
+
+	private final Example[] base;
+	private final int[] indices;
+
+	/**
+	 * Initializes a list containing all the examples of <code>base</code>, in the same order
+	 *
+	 * @param base the examples
+	 */
+	IndexedExampleList(Example[] base) {
+		this.base = base;
+		this.indices = new int[base.length];
+		for (int i = 0; i < this.indices.length; i++) {
+			this.indices[i] = i;
+		}
+	}
+
+	/**
+	 * @param base the examples
+	 * @param indices the positions in <code>base</code> of the examples of the list. The array
+	 * is not copied, and it must not be shared with other lists
+	 */
+	IndexedExampleList(Example[] base, int[] indices) {
+		this.base = base;
+		this.indices = indices;
+	}
+
+	@Override
+	public Example get(int index) {
+		if (index >= this.indices.length) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.indices.length);
+		}
+		return this.base[this.indices[index]];
+	}
+
+	@Override
+	public int size() {
+		return this.indices.length;
+	}
+
+	/**
+	 * @return the array of examples the list is backed by
+	 */
+	Example[] getBase() {
+		return this.base;
+	}
+
+	/**
+	 * Returns the position in the backing array of the <code>index</code>-th example of the list
+	 */
+	int getBaseIndex(int index) {
+		return this.indices[index];
+	}
+
+	/**
+	 * Permutes the examples with the same algorithm of <code>Collections.shuffle</code>, so that
+	 * the same permutation is obtained with the same random generator
+	 *
+	 * @param randomGenerator a random number generator
+	 */
+	void shuffle(Random randomGenerator) {
+		for (int i = this.indices.length; i > 1; i--) {
+			int j = randomGenerator.nextInt(i);
+			int tmp = this.indices[i - 1];
+			this.indices[i - 1] = this.indices[j];
+			this.indices[j] = tmp;
+		}
+	}
+
+}
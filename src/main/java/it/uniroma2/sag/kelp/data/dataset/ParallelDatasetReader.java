@@ -0,0 +1,351 @@
+/*
+ * Copyright 2026 agent
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package it.uniroma2.sag.kelp.data.dataset;
+
+import it.uniroma2.sag.kelp.data.example.Example;
+import it.uniroma2.sag.kelp.data.example.ExampleFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * A <code>DatasetReader</code> that parses the examples in parallel. A thread reads (and
+ * decompresses) the file, splitting it in batches of rows, while a pool of workers parses
+ * the batches into <code>Example</code>s. The examples can be returned in the same order they
+ * appear in the file, or in the order their batches are parsed, which avoids waiting for
+ * slow batches.
+ * <p>
+ * The number of batches that have been read but not returned yet is bounded, so the memory
+ * occupation does not depend on the size of the file.
+ * <p>
+ * NOTE: the reader must be closed to release its threads
+ *
+ * @author agent
+ */
+public class ParallelDatasetReader extends DatasetReader {
+
+	private static final int DEFAULT_BATCH_SIZE = 256;
+	private static final int BATCHES_PER_THREAD = 4;
+
+	private final int numberOfThreads;
+	private final boolean preserveOrder;
+	private final int batchSize;
+
+	private Reading reading;
+
+	private List<Example> currentBatch;
+	private int currentBatchPosition;
+	private int consumedBatches;
+	private int totalBatches;
+	private Exception failure;
+
+	/**
+	 * The state shared by the threads of a single reading of the file. Every call to
+	 * <code>restartReading</code> creates a new one, so the threads of a previous reading
+	 * can never publish their batches in the current one
+	 */
+	private class Reading {
+		private final BlockingQueue<Batch> parsedBatches;
+		private final Semaphore batchesInFlight;
+		private final ExecutorService workers;
+		private Thread readingThread;
+
+		Reading() {
+			this.parsedBatches = new LinkedBlockingQueue<Batch>();
+			this.batchesInFlight = new Semaphore(numberOfThreads * BATCHES_PER_THREAD);
+			this.workers = Executors.newFixedThreadPool(numberOfThreads, new ThreadFactory() {
+				public Thread newThread(Runnable runnable) {
+					Thread thread = new Thread(runnable, "kelp-dataset-parser");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+		}
+
+		/**
+		 * Stops the reading and parsing threads of this reading
+		 */
+		void stop() {
+			this.readingThread.interrupt();
+			this.workers.shutdownNow();
+		}
+	}
+
+	/**
+	 * A batch of rows being parsed. When the batch is the last one, <code>totalBatches</code> contains
+	 * the number of batches containing examples
+	 */
+	private class Batch extends FutureTask<List<Example>> {
+		private final Reading reading;
+		private final boolean last;
+		private final int totalBatches;
+
+		Batch(Reading reading, Callable<List<Example>> parsing) {
+			super(parsing);
+			this.reading = reading;
+			this.last = false;
+			this.totalBatches = -1;
+		}
+
+		Batch(Reading reading, int totalBatches) {
+			super(new Callable<List<Example>>() {
+				public List<Example> call() {
+					return null;
+				}
+			});
+			this.reading = reading;
+			this.last = true;
+			this.totalBatches = totalBatches;
+		}
+
+		@Override
+		protected void done() {
+			if (!preserveOrder && !this.last) {
+				this.reading.parsedBatches.add(this);
+			}
+		}
+	}
+
+	/**
+	 * Initializes a reader parsing the examples with as many threads as the available processors,
+	 * returning them in the same order they appear in the file
+	 *
+	 * @param filename the path of the file to be read
+	 * @throws IOException
+	 */
+	public ParallelDatasetReader(String filename) throws IOException {
+		this(filename, Runtime.getRuntime().availableProcessors(), true);
+	}
+
+	/**
+	 * @param filename the path of the file to be read
+	 * @param numberOfThreads the number of threads parsing the examples
+	 * @param preserveOrder whether the examples must be returned in the same order they appear
+	 * in the file
+	 * @throws IOException
+	 */
+	public ParallelDatasetReader(String filename, int numberOfThreads, boolean preserveOrder) throws IOException {
+		this(filename, numberOfThreads, preserveOrder, DEFAULT_BATCH_SIZE);
+	}
+
+	/**
+	 * @param filename the path of the file to be read
+	 * @param numberOfThreads the number of threads parsing the examples
+	 * @param preserveOrder whether the examples must be returned in the same order they appear
+	 * in the file
+	 * @param batchSize the number of rows parsed by a single task
+	 * @throws IOException
+	 */
+	public ParallelDatasetReader(String filename, int numberOfThreads, boolean preserveOrder, int batchSize)
+			throws IOException {
+		this(filename, numberOfThreads, preserveOrder, batchSize, false);
+	}
+
+	/**
+	 * @param filename the path of the file to be read
+	 * @param numberOfThreads the number of threads parsing the examples
+	 * @param preserveOrder whether the examples must be returned in the same order they appear
+	 * in the file
+	 * @param batchSize the number of rows parsed by a single task
+	 * @param lazyRepresentations whether the representations of the examples must be parsed
+	 * only when they are accessed for the first time. In this case a malformed representation
+	 * raises an <code>IllegalStateException</code> when it is accessed, e.g. by a kernel, instead
+	 * of an <code>InstantiationException</code> from <code>readNextExample</code>
+	 * @throws IOException
+	 */
+	public ParallelDatasetReader(String filename, int numberOfThreads, boolean preserveOrder, int batchSize,
+			boolean lazyRepresentations) throws IOException {
+		super(filename, lazyRepresentations);
+		if (numberOfThreads < 1) {
+			throw new IllegalArgumentException("Invalid number of threads: " + numberOfThreads);
+		}
+		if (batchSize < 1) {
+			throw new IllegalArgumentException("Invalid batch size: " + batchSize);
+		}
+		this.numberOfThreads = numberOfThreads;
+		this.preserveOrder = preserveOrder;
+		this.batchSize = batchSize;
+		this.startReading();
+	}
+
+	private void startReading() {
+		this.currentBatch = null;
+		this.currentBatchPosition = 0;
+		this.consumedBatches = 0;
+		this.totalBatches = -1;
+		this.failure = null;
+
+		final Reading reading = new Reading();
+		final BufferedReader input = this.inputBuffer;
+		final String firstRow = this.nextRow;
+		reading.readingThread = new Thread(new Runnable() {
+			public void run() {
+				readRows(reading, input, firstRow);
+			}
+		}, "kelp-dataset-reader");
+		reading.readingThread.setDaemon(true);
+		this.reading = reading;
+		reading.readingThread.start();
+	}
+
+	/**
+	 * Reads the rows of the file, submitting them in batches to the workers. It stops at the end of the
+	 * file or at the first empty row, as <code>DatasetReader</code> does
+	 */
+	private void readRows(Reading reading, BufferedReader input, String firstRow) {
+		int submittedBatches = 0;
+		try {
+			String row = firstRow;
+			while (row != null && row.trim().length() > 0) {
+				final List<String> rows = new ArrayList<String>(this.batchSize);
+				while (rows.size() < this.batchSize && row != null && row.trim().length() > 0) {
+					rows.add(row);
+					row = input.readLine();
+				}
+				reading.batchesInFlight.acquire();
+				Batch batch = new Batch(reading, new Callable<List<Example>>() {
+					public List<Example> call() throws Exception {
+						List<Example> examples = new ArrayList<Example>(rows.size());
+						for (String row : rows) {
+							examples.add(ExampleFactory.parseExample(row, lazyRepresentations));
+						}
+						return examples;
+					}
+				});
+				if (this.preserveOrder) {
+					reading.parsedBatches.add(batch);
+				}
+				reading.workers.execute(batch);
+				submittedBatches++;
+			}
+		} catch (final IOException e) {
+			Batch failedBatch = new Batch(reading, new Callable<List<Example>>() {
+				public List<Example> call() throws Exception {
+					throw e;
+				}
+			});
+			if (this.preserveOrder) {
+				reading.parsedBatches.add(failedBatch);
+			}
+			failedBatch.run();
+			submittedBatches++;
+		} catch (InterruptedException e) {
+			//the reader has been closed
+			return;
+		}
+		//the submitted batches are still parsed, but no thread is needed after them
+		reading.workers.shutdown();
+		Batch last = new Batch(reading, submittedBatches);
+		last.run();
+		reading.parsedBatches.add(last);
+	}
+
+	/**
+	 * Takes the next parsed batch, if the current one has been completely returned
+	 *
+	 * @return <code>false</code> if all the examples have been returned
+	 */
+	private boolean fetchNextBatch() {
+		while (this.failure == null
+				&& (this.currentBatch == null || this.currentBatchPosition == this.currentBatch.size())) {
+			if (this.totalBatches >= 0 && this.consumedBatches == this.totalBatches) {
+				return false;
+			}
+			try {
+				Batch batch = this.reading.parsedBatches.take();
+				if (batch.last) {
+					this.totalBatches = batch.totalBatches;
+					continue;
+				}
+				this.currentBatch = batch.get();
+				this.currentBatchPosition = 0;
+				this.consumedBatches++;
+				this.reading.batchesInFlight.release();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				this.failure = e;
+			} catch (ExecutionException e) {
+				Throwable cause = e.getCause();
+				this.failure = cause instanceof Exception ? (Exception) cause : e;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public boolean hasNext() {
+		return this.fetchNextBatch();
+	}
+
+	@Override
+	public Example readNextExample() throws IOException, InstantiationException {
+		if (!this.fetchNextBatch()) {
+			throw new IOException(
+					"DatasetIO Exception: There is no example to read!");
+		}
+		if (this.failure != null) {
+			Exception e = this.failure;
+			if (e instanceof IOException) {
+				throw (IOException) e;
+			}
+			if (e instanceof InstantiationException) {
+				throw (InstantiationException) e;
+			}
+			if (e instanceof RuntimeException) {
+				throw (RuntimeException) e;
+			}
+			throw new IOException(e);
+		}
+		Example example = this.currentBatch.get(this.currentBatchPosition);
+		this.currentBatchPosition++;
+		return example;
+	}
+
+	@Override
+	public void restartReading() throws IOException {
+		super.restartReading();
+		this.startReading();
+	}
+
+	/**
+	 * Stops the reading and parsing threads, and closes the reading buffer. It waits for the
+	 * reading thread to terminate, so that it does not use the buffer anymore
+	 *
+	 * @throws IOException
+	 */
+	@Override
+	public void close() throws IOException {
+		this.reading.stop();
+		super.close();
+		try {
+			this.reading.readingThread.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+}
@@ -15,23 +15,40 @@
 
 package it.uniroma2.sag.kelp.data.dataset;
 
+import gnu.trove.list.array.TIntArrayList;
 import it.uniroma2.sag.kelp.data.example.Example;
 import it.uniroma2.sag.kelp.data.label.Label;
 import it.uniroma2.sag.kelp.data.label.NumericLabel;
 import it.uniroma2.sag.kelp.data.manipulator.Manipulator;
 import it.uniroma2.sag.kelp.data.representation.Vector;
 
+import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map.Entry;
 import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Pattern;
 
 /**
  * A SimpleDataset that represent a whole dataset in memory.
+ * <p>
+ * The datasets returned by <code>split</code>, <code>splitClassDistributionInvariant</code>,
+ * <code>nFolding</code>, <code>nFoldingClassDistributionInvariant</code>,
+ * <code>getShuffledDataset</code> and <code>concatenate</code> are views sharing the examples
+ * of the original dataset: they only store the positions of their examples and their label
+ * counts. A view is turned into an independent dataset when an example is added to it.
  * 
  * @author Giuseppe Castellucci, Simone Filice
  */
@@ -39,12 +56,20 @@ public class SimpleDataset implements Dataset {
 
 	private static final long DEFAULT_SEED=1;
 	
-	private ArrayList<Example> examples;
+	private List<Example> examples;
 	private HashMap<Label, Integer> examplesPerClass;
 	private int exampleIndex = 0;
 	private Random randomGenerator;
 	private long initialSeed = DEFAULT_SEED;
 	private HashSet<Label> regressionProperties;
+	/**
+	 * The positions of the examples of each class, <code>null</code> if it must be rebuilt
+	 */
+	private HashMap<Label, TIntArrayList> examplesOfClass;
+	/**
+	 * The examples in an array that can be shared with views, <code>null</code> if it must be rebuilt
+	 */
+	private IndexedExampleList indexedExamples;
 
 	/**
 	 * Initializes an empty dataset
@@ -54,32 +79,129 @@ public class SimpleDataset implements Dataset {
 		this.examplesPerClass = new HashMap<Label, Integer>();
 		this.randomGenerator = new Random(DEFAULT_SEED);
 		this.regressionProperties = new HashSet<Label>();
+		this.examplesOfClass = new HashMap<Label, TIntArrayList>();
 	}
 
 	/**
-	 * Add an example to the dataset
+	 * Initializes a view over the examples of other datasets
+	 */
+	private SimpleDataset(IndexedExampleList examples, HashMap<Label, Integer> examplesPerClass,
+			HashSet<Label> regressionProperties) {
+		this.examples = examples;
+		this.examplesPerClass = examplesPerClass;
+		this.randomGenerator = new Random(DEFAULT_SEED);
+		this.regressionProperties = regressionProperties;
+	}
+
+	/**
+	 * Add an example to the dataset, assigning it a dense index if it has not one
+	 * yet (see <code>Example.getIndex()</code>)
 	 * 
 	 * @param example
 	 *            the example to be added
 	 */
 	@Override
 	public void addExample(Example example) {
+		example.assignIndex();
+		if (!(this.examples instanceof ArrayList)) {
+			//this dataset is a view: it becomes independent
+			this.examples = new ArrayList<Example>(this.examples);
+		}
 		this.examples.add(example);
-		Label[] labels = example.getLabels();//labels contains all the classification labels
-		for (Label label : labels) {
-			if (!this.examplesPerClass.containsKey(label)) {
-				this.examplesPerClass.put(label, new Integer(1));
+		this.indexedExamples = null;
+		countLabels(example, this.examplesPerClass, this.regressionProperties);
+		if (this.examplesOfClass != null) {
+			indexLabels(example, this.examples.size() - 1, this.examplesOfClass);
+		}
+	}
+
+	private static void indexLabels(Example example, int position, HashMap<Label, TIntArrayList> examplesOfClass) {
+		for (Label label : example.getClassificationLabels()) {
+			TIntArrayList positions = examplesOfClass.get(label);
+			if (positions == null) {
+				positions = new TIntArrayList();
+				examplesOfClass.put(label, positions);
+			}
+			positions.add(position);
+		}
+	}
+
+	/**
+	 * Returns the positions of the examples of each class, building them if needed (e.g. in views)
+	 */
+	private HashMap<Label, TIntArrayList> getExamplesOfClass() {
+		if (this.examplesOfClass == null) {
+			HashMap<Label, TIntArrayList> index = new HashMap<Label, TIntArrayList>();
+			for (int i = 0; i < this.examples.size(); i++) {
+				indexLabels(this.examples.get(i), i, index);
+			}
+			this.examplesOfClass = index;
+		}
+		return this.examplesOfClass;
+	}
+
+	private static void countLabels(Example example, HashMap<Label, Integer> examplesPerClass,
+			HashSet<Label> regressionProperties) {
+		for (Label label : example.getClassificationLabels()) {
+			Integer currentExamples = examplesPerClass.get(label);
+			if (currentExamples == null) {
+				examplesPerClass.put(label, new Integer(1));
 			} else {
-				int currentExamples = this.examplesPerClass.get(label)
-						.intValue();
-				this.examplesPerClass.put(label, new Integer(
-						currentExamples + 1));
+				examplesPerClass.put(label, new Integer(currentExamples.intValue() + 1));
 			}
 		}
-		
-		NumericLabel[] regressionLabels = example.getRegressionLabels();
-		for(NumericLabel regressionLabel : regressionLabels){
-			this.regressionProperties.add(regressionLabel.getProperty());
+		for (NumericLabel regressionLabel : example.getRegressionValues()) {
+			regressionProperties.add(regressionLabel.getProperty());
+		}
+	}
+
+	/**
+	 * Returns the examples as an <code>IndexedExampleList</code>, in order to create views over them
+	 */
+	private IndexedExampleList getIndexedExamples() {
+		if (this.examples instanceof IndexedExampleList) {
+			return (IndexedExampleList) this.examples;
+		}
+		if (this.indexedExamples == null) {
+			this.indexedExamples = new IndexedExampleList(this.examples.toArray(new Example[this.examples.size()]));
+		}
+		return this.indexedExamples;
+	}
+
+	/**
+	 * Builds a view over some examples of a dataset, collecting their positions and
+	 * counting their labels
+	 */
+	private static class ViewBuilder {
+		private final IndexedExampleList parent;
+		private int[] indices;
+		private int size;
+		private final HashMap<Label, Integer> examplesPerClass;
+		private final HashSet<Label> regressionProperties;
+
+		ViewBuilder(IndexedExampleList parent, int expectedSize) {
+			this.parent = parent;
+			this.indices = new int[Math.max(expectedSize, 1)];
+			this.examplesPerClass = new HashMap<Label, Integer>();
+			this.regressionProperties = new HashSet<Label>();
+		}
+
+		/**
+		 * Adds the example in position <code>position</code> of the parent dataset
+		 */
+		void add(int position) {
+			if (this.size == this.indices.length) {
+				this.indices = Arrays.copyOf(this.indices, this.size * 2);
+			}
+			this.indices[this.size] = this.parent.getBaseIndex(position);
+			this.size++;
+			countLabels(this.parent.get(position), this.examplesPerClass, this.regressionProperties);
+		}
+
+		SimpleDataset build() {
+			int[] viewIndices = this.size == this.indices.length ? this.indices : Arrays.copyOf(this.indices, this.size);
+			return new SimpleDataset(new IndexedExampleList(this.parent.getBase(), viewIndices),
+					this.examplesPerClass, this.regressionProperties);
 		}
 	}
 
@@ -184,7 +306,13 @@ public class SimpleDataset implements Dataset {
 	 */
 	public void shuffleExamples(Random randomGenerator) {
 		this.reset();
-		Collections.shuffle(this.examples, randomGenerator);
+		this.examplesOfClass = null;
+		this.indexedExamples = null;
+		if (this.examples instanceof IndexedExampleList) {
+			((IndexedExampleList) this.examples).shuffle(randomGenerator);
+		} else {
+			Collections.shuffle(this.examples, randomGenerator);
+		}
 	}
 
 	/**
@@ -201,9 +329,10 @@ public class SimpleDataset implements Dataset {
 	 */
 	public SimpleDataset[] splitClassDistributionInvariant(float percentage) {
 		// TODO: sistemare, per esempi non etichettati e per esempi multi label
-		SimpleDataset[] datasets = new SimpleDataset[2];
-		datasets[0] = new SimpleDataset();
-		datasets[1] = new SimpleDataset();
+		IndexedExampleList indexedExamples = this.getIndexedExamples();
+		ViewBuilder[] datasets = new ViewBuilder[2];
+		datasets[0] = new ViewBuilder(indexedExamples, (int) (this.getNumberOfExamples() * percentage));
+		datasets[1] = new ViewBuilder(indexedExamples, (int) (this.getNumberOfExamples() * (1 - percentage)));
 		HashMap<Label, Integer> examplesD0 = new HashMap<Label, Integer>();
 		List<Label> labels = this.getClassificationLabels();
 		for (Label label : labels) {
@@ -216,13 +345,13 @@ public class SimpleDataset implements Dataset {
 			int currentPositiveExamples = examplesD0.get(label);
 			if (currentPositiveExamples < this
 					.getNumberOfPositiveExamples(label) * percentage) {
-				datasets[0].addExample(currentExample);
+				datasets[0].add(i);
 				examplesD0.put(label, new Integer(currentPositiveExamples + 1));
 			} else {
-				datasets[1].addExample(currentExample);
+				datasets[1].add(i);
 			}
 		}
-		return datasets;
+		return new SimpleDataset[] { datasets[0].build(), datasets[1].build() };
 	}
 
 	/**
@@ -238,18 +367,18 @@ public class SimpleDataset implements Dataset {
 	 * @return two datasets generated by splitting this one
 	 */
 	public SimpleDataset[] split(float percentage) {
-		SimpleDataset[] datasets = new SimpleDataset[2];
-		datasets[0] = new SimpleDataset();
-		datasets[1] = new SimpleDataset();
+		IndexedExampleList indexedExamples = this.getIndexedExamples();
+		ViewBuilder[] datasets = new ViewBuilder[2];
+		datasets[0] = new ViewBuilder(indexedExamples, (int) (this.getNumberOfExamples() * percentage) + 1);
+		datasets[1] = new ViewBuilder(indexedExamples, (int) (this.getNumberOfExamples() * (1 - percentage)) + 1);
 		for (int i = 0; i < this.getNumberOfExamples(); i++) {
-			Example currentExample = this.getExample(i);
 			if (i < this.getNumberOfExamples() * percentage) {
-				datasets[0].addExample(currentExample);
+				datasets[0].add(i);
 			} else {
-				datasets[1].addExample(currentExample);
+				datasets[1].add(i);
 			}
 		}
-		return datasets;
+		return new SimpleDataset[] { datasets[0].build(), datasets[1].build() };
 	}
 
 	/**
@@ -267,9 +396,10 @@ public class SimpleDataset implements Dataset {
 	 */
 	public SimpleDataset[] nFoldingClassDistributionInvariant(int n) {
 		// TODO: sistemare, per esempi non etichettati e per esempi multi label
-		SimpleDataset[] datasets = new SimpleDataset[n];
+		IndexedExampleList indexedExamples = this.getIndexedExamples();
+		ViewBuilder[] datasets = new ViewBuilder[n];
 		for (int i = 0; i < n; i++) {
-			datasets[i] = new SimpleDataset();
+			datasets[i] = new ViewBuilder(indexedExamples, this.getNumberOfExamples() / n + 1);
 		}
 		HashMap<Label, Integer> usedExamples = new HashMap<Label, Integer>();
 		List<Label> labels = this.getClassificationLabels();
@@ -283,14 +413,14 @@ public class SimpleDataset implements Dataset {
 			int currentPositiveExamples = usedExamples.get(label);
 			int partitionIndex = n * currentPositiveExamples
 					/ this.getNumberOfPositiveExamples(label);
-			datasets[partitionIndex].addExample(currentExample);
+			datasets[partitionIndex].add(i);
 			usedExamples.put(label, new Integer(currentPositiveExamples + 1));
 		}
 
 //		for (int i = 0; i < n; i++) {
 //			datasets[i].shuffleExamples(new Random());
 //		}
-		return datasets;
+		return build(datasets);
 	}
 
 	/**
@@ -306,26 +436,136 @@ public class SimpleDataset implements Dataset {
 	 *         examples
 	 */
 	public SimpleDataset[] nFolding(int n) {
-		SimpleDataset[] datasets = new SimpleDataset[n];
+		IndexedExampleList indexedExamples = this.getIndexedExamples();
+		ViewBuilder[] datasets = new ViewBuilder[n];
 		for (int i = 0; i < n; i++) {
-			datasets[i] = new SimpleDataset();
+			datasets[i] = new ViewBuilder(indexedExamples, this.getNumberOfExamples() / n + 1);
 		}
 		for (int i = 0; i < this.getNumberOfExamples(); i++) {
-			Example currentExample = this.getExample(i);
 			int partitionIndex = n * i / this.getNumberOfExamples();
-			datasets[partitionIndex].addExample(currentExample);
+			datasets[partitionIndex].add(i);
+		}
+		return build(datasets);
+	}
+
+	private static SimpleDataset[] build(ViewBuilder[] builders) {
+		SimpleDataset[] datasets = new SimpleDataset[builders.length];
+		for (int i = 0; i < builders.length; i++) {
+			datasets[i] = builders[i].build();
 		}
 		return datasets;
 	}
 
+	/**
+	 * Returns a dataset containing all the examples of <code>datasets</code>, in the same order.
+	 * If <code>datasets</code> are views over the same examples (e.g. the folds returned by
+	 * <code>nFolding</code>), the result is a view as well, and it is built by merging only the
+	 * positions and the label counts of the examples.
+	 * 
+	 * @param datasets
+	 *            the datasets to be concatenated
+	 * @return a dataset containing all the examples of <code>datasets</code>
+	 */
+	public static SimpleDataset concatenate(SimpleDataset... datasets) {
+		Example[] base = null;
+		int size = 0;
+		for (SimpleDataset dataset : datasets) {
+			if (!(dataset.examples instanceof IndexedExampleList)
+					|| (base != null && ((IndexedExampleList) dataset.examples).getBase() != base)) {
+				SimpleDataset concatenation = new SimpleDataset();
+				for (SimpleDataset datasetToBeAdded : datasets) {
+					concatenation.addExamples(datasetToBeAdded);
+				}
+				return concatenation;
+			}
+			base = ((IndexedExampleList) dataset.examples).getBase();
+			size += dataset.getNumberOfExamples();
+		}
+		int[] indices = new int[size];
+		HashMap<Label, Integer> examplesPerClass = new HashMap<Label, Integer>();
+		HashSet<Label> regressionProperties = new HashSet<Label>();
+		int position = 0;
+		for (SimpleDataset dataset : datasets) {
+			IndexedExampleList examples = (IndexedExampleList) dataset.examples;
+			for (int i = 0; i < examples.size(); i++) {
+				indices[position] = examples.getBaseIndex(i);
+				position++;
+			}
+			for (Entry<Label, Integer> entry : dataset.examplesPerClass.entrySet()) {
+				Integer currentExamples = examplesPerClass.get(entry.getKey());
+				int count = entry.getValue().intValue() + (currentExamples == null ? 0 : currentExamples.intValue());
+				examplesPerClass.put(entry.getKey(), new Integer(count));
+			}
+			regressionProperties.addAll(dataset.regressionProperties);
+		}
+		return new SimpleDataset(new IndexedExampleList(base == null ? new Example[0] : base, indices),
+				examplesPerClass, regressionProperties);
+	}
+
+	/**
+	 * Returns the stored examples. The list is not copied, but it is unmodifiable, as the
+	 * splitting and label indices of this dataset are built over it: the examples must be added
+	 * through <code>addExample</code> and reordered through <code>shuffleExamples</code>.
+	 * 
+	 * @return an unmodifiable list of the stored examples
+	 */
 	@Override
 	public List<Example> getExamples() {
-		return this.examples;
+		return Collections.unmodifiableList(this.examples);
+	}
+
+	/**
+	 * Returns a view containing the examples of this dataset that are positive examples
+	 * of at least one of <code>labels</code>, in the same order they have in this dataset.
+	 * The examples are retrieved through an index from each label to the positions of its
+	 * examples, so the cost is proportional to the number of extracted examples.
+	 * 
+	 * @param labels
+	 *            labels of interest
+	 * @return a dataset with only the examples of the labels of interest
+	 */
+	public SimpleDataset getExamplesOfClasses(List<Label> labels) {
+		HashMap<Label, TIntArrayList> index = this.getExamplesOfClass();
+		int size = 0;
+		for (Label label : labels) {
+			TIntArrayList positions = index.get(label);
+			if (positions != null) {
+				size += positions.size();
+			}
+		}
+		int[] extractedPositions = new int[size];
+		int extracted = 0;
+		for (Label label : labels) {
+			TIntArrayList positions = index.get(label);
+			if (positions != null) {
+				for (int i = 0; i < positions.size(); i++) {
+					extractedPositions[extracted] = positions.get(i);
+					extracted++;
+				}
+			}
+		}
+		if (labels.size() > 1) {
+			//restores the original order, removing the examples of more than one label of interest
+			Arrays.sort(extractedPositions);
+			extracted = 0;
+			for (int i = 0; i < extractedPositions.length; i++) {
+				if (i == 0 || extractedPositions[i] != extractedPositions[i - 1]) {
+					extractedPositions[extracted] = extractedPositions[i];
+					extracted++;
+				}
+			}
+		}
+		ViewBuilder builder = new ViewBuilder(this.getIndexedExamples(), extracted);
+		for (int i = 0; i < extracted; i++) {
+			builder.add(extractedPositions[i]);
+		}
+		return builder.build();
 	}
 
 	/**
 	 * This method extracts examples of given {@code labels} from
-	 * {@code dataset}
+	 * {@code dataset}. If {@code dataset} is a <code>SimpleDataset</code> the
+	 * examples are extracted through <code>getExamplesOfClasses</code>
 	 * 
 	 * @param dataset
 	 *            original dataset
@@ -338,6 +578,9 @@ public class SimpleDataset implements Dataset {
 	public static Dataset extractExamplesOfClasses(Dataset dataset,
 			List<Label> labels) throws InstantiationException,
 			IllegalAccessException {
+		if (dataset.getClass() == SimpleDataset.class) {
+			return ((SimpleDataset) dataset).getExamplesOfClasses(labels);
+		}
 		// Dataset newDataset = new SimpleDataset();
 		Dataset newDataset = dataset.getClass().newInstance();
 		for (Example e : dataset.getExamples()) {
@@ -363,6 +606,100 @@ public class SimpleDataset implements Dataset {
 		this.populate(reader);
 	}
 	
+	/**
+	 * Populate the dataset by reading it from a KeLP compliant file,
+	 * parsing the examples with <code>numberOfThreads</code> threads. The examples
+	 * are added in the same order they appear in the file.
+	 * 
+	 * @param filename the path of the file to be read
+	 * @param numberOfThreads the number of threads parsing the examples
+	 * @throws Exception
+	 */
+	public void populate(String filename, int numberOfThreads) throws Exception {
+		ParallelDatasetReader reader = new ParallelDatasetReader(filename, numberOfThreads, true);
+		this.populate(reader);
+	}
+	
+	/**
+	 * Populate the dataset by reading a set of shards, i.e. KeLP compliant files each one
+	 * containing a part of the dataset (see <code>saveShards</code>). Every shard is read
+	 * by its own thread, and the examples are added shard by shard, following the
+	 * lexicographic order of the shard file names.
+	 * 
+	 * @param shards a directory, whose (non hidden) files are the shards, or a file path whose
+	 * file name can contain the wildcards <code>*</code> and <code>?</code>, e.g.
+	 * <code>data/train.part-*.gz</code>
+	 * @param numberOfThreads the maximum number of shards read at the same time
+	 * @throws Exception
+	 */
+	public void populateShards(String shards, int numberOfThreads) throws Exception {
+		List<File> shardFiles = listShards(shards);
+		if (shardFiles.isEmpty()) {
+			throw new FileNotFoundException("No shard matches " + shards);
+		}
+		ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(numberOfThreads, shardFiles.size())));
+		List<Future<List<Example>>> readings = new ArrayList<Future<List<Example>>>();
+		try {
+			for (final File shardFile : shardFiles) {
+				readings.add(executor.submit(new Callable<List<Example>>() {
+					public List<Example> call() throws Exception {
+						List<Example> shardExamples = new ArrayList<Example>();
+						DatasetReader reader = new DatasetReader(shardFile.getPath());
+						try {
+							while (reader.hasNext()) {
+								shardExamples.add(reader.readNextExample());
+							}
+						} finally {
+							reader.close();
+						}
+						return shardExamples;
+					}
+				}));
+			}
+			for (Future<List<Example>> reading : readings) {
+				for (Example example : reading.get()) {
+					this.addExample(example);
+				}
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private static List<File> listShards(String shards) {
+		File path = new File(shards);
+		File directory;
+		Pattern namePattern = null;
+		if (path.isDirectory()) {
+			directory = path;
+		} else {
+			directory = path.getAbsoluteFile().getParentFile();
+			StringBuilder regex = new StringBuilder();
+			for (char c : path.getName().toCharArray()) {
+				if (c == '*') {
+					regex.append(".*");
+				} else if (c == '?') {
+					regex.append('.');
+				} else {
+					regex.append(Pattern.quote(String.valueOf(c)));
+				}
+			}
+			namePattern = Pattern.compile(regex.toString());
+		}
+		List<File> shardFiles = new ArrayList<File>();
+		File[] files = directory.listFiles();
+		if (files != null) {
+			for (File file : files) {
+				boolean matches = namePattern == null ? !file.isHidden() : namePattern.matcher(file.getName()).matches();
+				if (file.isFile() && matches) {
+					shardFiles.add(file);
+				}
+			}
+		}
+		Collections.sort(shardFiles);
+		return shardFiles;
+	}
+	
 	/**
 	 * Populate the dataset using the provided <code>reader</code>
 	 * 
@@ -377,6 +714,62 @@ public class SimpleDataset implements Dataset {
 		reader.close();
 	}
 
+	/**
+	 * Populate the dataset by reading it from a binary file written by a
+	 * <code>BinaryDatasetWriter</code>
+	 * 
+	 * @param reader the binary reader
+	 * @throws Exception
+	 */
+	public void populate(BinaryDatasetReader reader) throws Exception {
+		this.populate(reader, 1);
+	}
+
+	/**
+	 * Populate the dataset by reading it from a binary file written by a
+	 * <code>BinaryDatasetWriter</code>, decoding the examples with <code>numberOfThreads</code>
+	 * threads. The examples are added in the same order they appear in the file.
+	 * 
+	 * @param reader the binary reader
+	 * @param numberOfThreads the number of threads decoding the examples
+	 * @throws Exception
+	 */
+	public void populate(final BinaryDatasetReader reader, int numberOfThreads) throws Exception {
+		final Example[] examples = new Example[reader.getNumberOfExamples()];
+		if (numberOfThreads <= 1) {
+			for (int i = 0; i < examples.length; i++) {
+				examples[i] = reader.readExample(i);
+			}
+		} else {
+			ExecutorService executor = Executors.newFixedThreadPool(numberOfThreads);
+			List<Future<Object>> decodings = new ArrayList<Future<Object>>();
+			int slice = (examples.length + numberOfThreads - 1) / numberOfThreads;
+			for (int from = 0; from < examples.length; from += slice) {
+				final int begin = from;
+				final int end = Math.min(examples.length, from + slice);
+				decodings.add(executor.submit(new Callable<Object>() {
+					public Object call() throws Exception {
+						for (int i = begin; i < end; i++) {
+							examples[i] = reader.readExample(i);
+						}
+						return null;
+					}
+				}));
+			}
+			try {
+				for (Future<Object> decoding : decodings) {
+					decoding.get();
+				}
+			} finally {
+				executor.shutdown();
+			}
+		}
+		for (Example example : examples) {
+			this.addExample(example);
+		}
+		reader.close();
+	}
+
 	@Override
 	public Example getRandExample() {
 		int index = this.randomGenerator.nextInt(this.getNumberOfExamples());
@@ -402,13 +795,15 @@ public class SimpleDataset implements Dataset {
 
 	@Override
 	public SimpleDataset getShuffledDataset() {
-		SimpleDataset shuffled = new SimpleDataset();
-		ArrayList<Example> copiedExamples = new ArrayList<Example>(this.examples);
-		Collections.shuffle(copiedExamples, this.randomGenerator);
-		for(Example example : copiedExamples){
-			shuffled.addExample(example);
+		IndexedExampleList indexedExamples = this.getIndexedExamples();
+		int[] indices = new int[indexedExamples.size()];
+		for (int i = 0; i < indices.length; i++) {
+			indices[i] = indexedExamples.getBaseIndex(i);
 		}
-		return shuffled;
+		IndexedExampleList shuffledExamples = new IndexedExampleList(indexedExamples.getBase(), indices);
+		shuffledExamples.shuffle(this.randomGenerator);
+		return new SimpleDataset(shuffledExamples, new HashMap<Label, Integer>(this.examplesPerClass),
+				new HashSet<Label>(this.regressionProperties));
 	}
 
 	@Override
@@ -453,4 +848,104 @@ public class SimpleDataset implements Dataset {
 		datasetWriter.close();
 	}
 
+	/**
+	 * Save the dataset in <code>numberOfShards</code> files, each one containing a contiguous
+	 * part of the examples. The shards are written in parallel by at most as many threads as the
+	 * available processors, and they are named by inserting
+	 * <code>.part-</code> and the 5-digit shard number before the ".gz" extension (if any), e.g. the
+	 * shards of <code>data.gz</code> are <code>data.part-00000.gz</code>,
+	 * <code>data.part-00001.gz</code>, ... They can be read through <code>populateShards</code>.
+	 * 
+	 * @param outputFilePath
+	 *            the file path of the whole dataset
+	 * @param numberOfShards
+	 *            the number of shards
+	 * @return the file paths of the shards
+	 * @throws IOException
+	 */
+	public List<String> saveShards(String outputFilePath, int numberOfShards) throws IOException {
+		return this.saveShards(outputFilePath, numberOfShards, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Save the dataset in <code>numberOfShards</code> files, as <code>saveShards(String, int)</code>
+	 * does, writing at most <code>numberOfThreads</code> shards at the same time
+	 * 
+	 * @param outputFilePath
+	 *            the file path of the whole dataset
+	 * @param numberOfShards
+	 *            the number of shards
+	 * @param numberOfThreads
+	 *            the maximum number of shards written at the same time
+	 * @return the file paths of the shards
+	 * @throws IOException
+	 */
+	public List<String> saveShards(String outputFilePath, int numberOfShards, int numberOfThreads) throws IOException {
+		if (numberOfShards < 1) {
+			throw new IllegalArgumentException("Invalid number of shards: " + numberOfShards);
+		}
+		String prefix = outputFilePath;
+		String suffix = "";
+		if (outputFilePath.endsWith(".gz")) {
+			prefix = outputFilePath.substring(0, outputFilePath.length() - 3);
+			suffix = ".gz";
+		}
+		List<String> shardPaths = new ArrayList<String>();
+		ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(numberOfThreads, numberOfShards)));
+		List<Future<Object>> writings = new ArrayList<Future<Object>>();
+		try {
+			for (int shard = 0; shard < numberOfShards; shard++) {
+				final String shardPath = prefix + String.format(".part-%05d", shard) + suffix;
+				final List<Example> shardExamples = this.examples.subList(
+						(int) ((long) this.examples.size() * shard / numberOfShards),
+						(int) ((long) this.examples.size() * (shard + 1) / numberOfShards));
+				shardPaths.add(shardPath);
+				writings.add(executor.submit(new Callable<Object>() {
+					public Object call() throws IOException {
+						DatasetWriter datasetWriter = new DatasetWriter(shardPath);
+						try {
+							for (Example e : shardExamples) {
+								datasetWriter.writeNextExample(e);
+							}
+						} finally {
+							datasetWriter.close();
+						}
+						return null;
+					}
+				}));
+			}
+			for (Future<Object> writing : writings) {
+				writing.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while saving " + outputFilePath);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			}
+			throw new IOException(cause);
+		} finally {
+			executor.shutdown();
+		}
+		return shardPaths;
+	}
+
+	/**
+	 * Save the dataset in the compact binary format of <code>BinaryDatasetWriter</code>, that
+	 * can be loaded much faster than the textual one.
+	 * 
+	 * @param outputFilePath
+	 *            the file path
+	 * @throws IOException
+	 */
+	public void saveBinary(String outputFilePath) throws IOException {
+		BinaryDatasetWriter datasetWriter = new BinaryDatasetWriter(outputFilePath);
+		for (Example e : getExamples()) {
+			datasetWriter.writeNextExample(e);
+		}
+		datasetWriter.close();
+	}
+
 }
@@ -0,0 +1,311 @@
+/*
+ * Copyright 2026 agent
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package it.uniroma2.sag.kelp.data.dataset;
+
+import it.uniroma2.sag.kelp.data.example.Example;
+import it.uniroma2.sag.kelp.data.label.Label;
+import it.uniroma2.sag.kelp.data.label.NumericLabel;
+import it.uniroma2.sag.kelp.data.manipulator.Manipulator;
+import it.uniroma2.sag.kelp.data.representation.Vector;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * A Dataset that reads its examples from a file while they are iterated, without keeping them
+ * in memory. Thus it can be exploited by the algorithms processing one example at a time (e.g. the
+ * <code>OnlineLearningAlgorithm</code>s) on datasets larger than the heap.
+ * <p>
+ * The examples are accessed through <code>getNextExample</code>, <code>getNextExamples</code>
+ * and <code>reset</code>. The operations requiring random access to the examples
+ * (<code>getExamples</code>, <code>getRandExample</code>, <code>getShuffledDataset</code>, ...)
+ * and <code>addExample</code> are not supported. The statistics about the dataset (number of
+ * examples, classification labels, ...) are computed with an additional reading of the file,
+ * the first time they are required.
+ * <p>
+ * The examples can be read ahead and parsed by a pool of threads, through a
+ * <code>ParallelDatasetReader</code>: the number of examples read ahead is bounded.
+ *
+ * @author agent
+ */
+public class StreamingDataset implements Dataset {
+
+	private String filename;
+	private int readAheadThreads;
+	private DatasetReader reader;
+	private List<Manipulator> manipulators;
+
+	private boolean statisticsComputed = false;
+	private int numberOfExamples;
+	private HashMap<Label, Integer> examplesPerClass;
+	private HashSet<Label> regressionProperties;
+
+	/**
+	 * Initializes a dataset reading the examples from <code>filename</code> in the invoking thread
+	 *
+	 * @param filename the path of the KeLP compliant file containing the examples
+	 * @throws IOException
+	 */
+	public StreamingDataset(String filename) throws IOException {
+		this(filename, 0);
+	}
+
+	/**
+	 * Initializes a dataset reading the examples from <code>filename</code>
+	 *
+	 * @param filename the path of the KeLP compliant file containing the examples
+	 * @param readAheadThreads the number of threads reading ahead and parsing the examples,
+	 * 0 to read the examples in the invoking thread
+	 * @throws IOException
+	 */
+	public StreamingDataset(String filename, int readAheadThreads) throws IOException {
+		this.filename = filename;
+		this.readAheadThreads = readAheadThreads;
+		this.manipulators = new ArrayList<Manipulator>();
+		this.reader = this.openReader();
+	}
+
+	private DatasetReader openReader() throws IOException {
+		if (this.readAheadThreads > 0) {
+			return new ParallelDatasetReader(this.filename, this.readAheadThreads, true);
+		}
+		return new DatasetReader(this.filename);
+	}
+
+	/**
+	 * @return the path of the file containing the examples
+	 */
+	public String getFilename() {
+		return filename;
+	}
+
+	/**
+	 * Not supported: the examples are read from the file
+	 *
+	 * @throws UnsupportedOperationException
+	 */
+	@Override
+	public void addExample(Example e) {
+		throw new UnsupportedOperationException("Examples cannot be added to a StreamingDataset");
+	}
+
+	@Override
+	public Example getNextExample() {
+		if (!this.reader.hasNext()) {
+			return null;
+		}
+		try {
+			Example example = this.reader.readNextExample();
+			for (Manipulator manipulator : this.manipulators) {
+				example.manipulate(manipulator);
+			}
+			return example;
+		} catch (IOException e) {
+			throw new IllegalStateException("Cannot read the next example from " + this.filename, e);
+		} catch (InstantiationException e) {
+			throw new IllegalStateException("Cannot parse the next example from " + this.filename, e);
+		}
+	}
+
+	@Override
+	public List<Example> getNextExamples(int n) {
+		ArrayList<Example> examples = new ArrayList<Example>(n);
+		while (examples.size() < n && this.reader.hasNext()) {
+			examples.add(this.getNextExample());
+		}
+		return examples;
+	}
+
+	@Override
+	public boolean hasNextExample() {
+		return this.reader.hasNext();
+	}
+
+	@Override
+	public void reset() {
+		try {
+			this.reader.restartReading();
+		} catch (IOException e) {
+			throw new IllegalStateException("Cannot restart the reading of " + this.filename, e);
+		}
+	}
+
+	/**
+	 * Closes the file containing the examples
+	 *
+	 * @throws IOException
+	 */
+	public void close() throws IOException {
+		this.reader.close();
+	}
+
+	/**
+	 * Reads the whole file, computing the number of examples, the number of examples per class
+	 * and the regression properties
+	 */
+	private synchronized void computeStatistics() {
+		if (this.statisticsComputed) {
+			return;
+		}
+		this.numberOfExamples = 0;
+		this.examplesPerClass = new HashMap<Label, Integer>();
+		this.regressionProperties = new HashSet<Label>();
+		try {
+			DatasetReader statisticsReader = this.openReader();
+			try {
+				while (statisticsReader.hasNext()) {
+					Example example = statisticsReader.readNextExample();
+					this.numberOfExamples++;
+					for (Label label : example.getLabels()) {
+						Integer currentExamples = this.examplesPerClass.get(label);
+						if (currentExamples == null) {
+							this.examplesPerClass.put(label, new Integer(1));
+						} else {
+							this.examplesPerClass.put(label, new Integer(currentExamples.intValue() + 1));
+						}
+					}
+					for (NumericLabel regressionLabel : example.getRegressionLabels()) {
+						this.regressionProperties.add(regressionLabel.getProperty());
+					}
+				}
+			} finally {
+				statisticsReader.close();
+			}
+		} catch (IOException e) {
+			throw new IllegalStateException("Cannot read " + this.filename, e);
+		} catch (InstantiationException e) {
+			throw new IllegalStateException("Cannot parse " + this.filename, e);
+		}
+		this.statisticsComputed = true;
+	}
+
+	@Override
+	public int getNumberOfPositiveExamples(Label positiveClass) {
+		this.computeStatistics();
+		Integer number = this.examplesPerClass.get(positiveClass);
+		if (number == null) {
+			return 0;
+		}
+		return number.intValue();
+	}
+
+	@Override
+	public int getNumberOfNegativeExamples(Label positiveClass) {
+		return this.getNumberOfExamples() - this.getNumberOfPositiveExamples(positiveClass);
+	}
+
+	@Override
+	public int getNumberOfExamples() {
+		this.computeStatistics();
+		return this.numberOfExamples;
+	}
+
+	@Override
+	public List<Label> getClassificationLabels() {
+		this.computeStatistics();
+		return new ArrayList<Label>(this.examplesPerClass.keySet());
+	}
+
+	@Override
+	public List<Label> getRegressionProperties() {
+		this.computeStatistics();
+		return new ArrayList<Label>(this.regressionProperties);
+	}
+
+	/**
+	 * Not supported: the examples are not kept in memory
+	 *
+	 * @throws UnsupportedOperationException
+	 */
+	@Override
+	public List<Example> getExamples() {
+		throw new UnsupportedOperationException("A StreamingDataset does not keep its examples in memory");
+	}
+
+	@Override
+	public Vector getZeroVector(String representationIdentifier) {
+		try {
+			DatasetReader firstExampleReader = new DatasetReader(this.filename);
+			Example example;
+			try {
+				example = firstExampleReader.readNextExample();
+			} finally {
+				firstExampleReader.close();
+			}
+			for (Manipulator manipulator : this.manipulators) {
+				example.manipulate(manipulator);
+			}
+			Vector vector = (Vector) example.getRepresentation(representationIdentifier);
+			return vector.getZeroVector();
+		} catch (IOException e) {
+			throw new IllegalStateException("Cannot read " + this.filename, e);
+		} catch (InstantiationException e) {
+			throw new IllegalStateException("Cannot parse " + this.filename, e);
+		}
+	}
+
+	/**
+	 * Not supported: the examples are not kept in memory
+	 *
+	 * @throws UnsupportedOperationException
+	 */
+	@Override
+	public Example getRandExample() {
+		throw new UnsupportedOperationException("A StreamingDataset does not support random access");
+	}
+
+	/**
+	 * Not supported: the examples are not kept in memory
+	 *
+	 * @throws UnsupportedOperationException
+	 */
+	@Override
+	public List<Example> getRandExamples(int k) {
+		throw new UnsupportedOperationException("A StreamingDataset does not support random access");
+	}
+
+	/**
+	 * Not supported: the examples are not kept in memory
+	 *
+	 * @throws UnsupportedOperationException
+	 */
+	@Override
+	public Dataset getShuffledDataset() {
+		throw new UnsupportedOperationException("A StreamingDataset cannot be shuffled");
+	}
+
+	/**
+	 * It has no effect, as a StreamingDataset does not support random operations
+	 */
+	@Override
+	public void setSeed(long seed) {
+	}
+
+	/**
+	 * The manipulators are applied to every example when it is read, also after a
+	 * <code>reset</code>
+	 */
+	@Override
+	public void manipulate(Manipulator... manipulators) {
+		for (Manipulator manipulator : manipulators) {
+			this.manipulators.add(manipulator);
+		}
+	}
+
+}
@@ -20,11 +20,15 @@ import it.uniroma2.sag.kelp.data.label.NumericLabel;
 import it.uniroma2.sag.kelp.data.manipulator.Manipulator;
 import it.uniroma2.sag.kelp.data.representation.Representation;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.commons.lang3.SerializationUtils;
 
@@ -47,7 +51,13 @@ import com.fasterxml.jackson.databind.annotation.JsonTypeIdResolver;
 @JsonIdentityInfo(generator=ObjectIdGenerators.IntSequenceGenerator.class, property="ID")
 public abstract class Example implements Serializable {
 	private static final long serialVersionUID = 755613612497626480L;
-	private static long created = 0;
+	private static final AtomicLong created = new AtomicLong();
+	private static final AtomicInteger indexed = new AtomicInteger();
+	
+	/**
+	 * The index of the examples that have not been added to any dataset
+	 */
+	public static final int NO_INDEX = -1;
 
 	
 	private HashSet<Label> classificationLabels;
@@ -56,6 +66,8 @@ public abstract class Example implements Serializable {
 	@JsonIgnore
 	private HashMap<Label, Integer> propertyToIndexMapping;
 	private long exampleId;
+	@JsonIgnore
+	private transient int exampleIndex = NO_INDEX;
 	
 	//private HashMap<Integer, Integer> cacheIndex;
 
@@ -64,21 +76,20 @@ public abstract class Example implements Serializable {
 	 */
 	public Example() {
 		this.classificationLabels = new HashSet<Label>();		
-		this.exampleId = this.generateUniqueIdentifier();
+		this.exampleId = generateUniqueIdentifier();
 		this.regressionValues = new ArrayList<NumericLabel>();
 		this.propertyToIndexMapping = new HashMap<Label, Integer>();
 		//this.cacheIndex = new HashMap<Integer, Integer>();
 	}
 
 	/**
-	 * Generates a unique identifier to be assigned to a new example
+	 * Generates a unique identifier to be assigned to a new example. It is lock-free, so that
+	 * examples can be created concurrently by many threads
 	 * 
 	 * @return the ID
 	 */
-	private synchronized long generateUniqueIdentifier(){
-		long id = created;
-		created++;
-		return id;
+	private static long generateUniqueIdentifier(){
+		return created.getAndIncrement();
 	}
 
 	/**
@@ -96,6 +107,40 @@ public abstract class Example implements Serializable {
 		return this.exampleId;
 	}
 	
+	/**
+	 * Returns the dense index of the example. The examples are indexed with consecutive
+	 * integers 0, 1, 2, ... in the order they are added to a dataset for the first time, so that
+	 * the examples of the first loaded dataset have the indices 0, 1, ..., n-1.
+	 * The index never changes, thus an example has the same index in all the datasets (e.g. the
+	 * folds of a cross validation) it belongs to, and it can be used as an array offset by the
+	 * caches.
+	 * <p>
+	 * The index belongs to the running JVM: it is neither serialized nor written in JSON, so a
+	 * deserialized example has <code>NO_INDEX</code> until it is added to a dataset.
+	 * 
+	 * @return the example index, <code>NO_INDEX</code> if the example has never been added to
+	 * a dataset
+	 */
+	@JsonIgnore
+	public int getIndex() {
+		return this.exampleIndex;
+	}
+	
+	/**
+	 * Assigns to this example the next dense index, if it has not an index yet. It is invoked 
+	 * when the example is added to a dataset
+	 */
+	public synchronized void assignIndex() {
+		if(this.exampleIndex==NO_INDEX){
+			this.exampleIndex = indexed.getAndIncrement();
+		}
+	}
+	
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		this.exampleIndex = NO_INDEX;
+	}
+	
 
 	/**
 	 * Sets the example classificationLabels
@@ -257,14 +302,45 @@ public abstract class Example implements Serializable {
 	}
 	
 	protected String getTextualLabelPart(){
-		String ret = "";
-		for(Label label : this.getLabels()){
-			ret +=label.toString() + ExampleFactory.LABEL_SEPARATOR;
+		StringBuilder ret = new StringBuilder();
+		try {
+			this.appendTextualLabelPart(ret);
+		} catch (IOException e) {
+			//a StringBuilder never throws IOExceptions
+			throw new IllegalStateException(e);
 		}
-		for(NumericLabel label : this.getRegressionLabels()){
-			ret +=label.toString() + ExampleFactory.LABEL_SEPARATOR;
+		return ret.toString();
+	}
+	
+	/**
+	 * Appends the labels of this example to <code>output</code>, in the same format
+	 * returned by <code>getTextualLabelPart</code>
+	 * 
+	 * @param output where the labels must be appended
+	 * @throws IOException
+	 */
+	protected void appendTextualLabelPart(Appendable output) throws IOException{
+		for(Label label : this.classificationLabels){
+			output.append(label.toString()).append(ExampleFactory.LABEL_SEPARATOR);
 		}
-		return ret;
+		for(NumericLabel label : this.regressionValues){
+			output.append(label.toString()).append(ExampleFactory.LABEL_SEPARATOR);
+		}
+	}
+	
+	/**
+	 * Appends the textual description of this example to <code>output</code>, in the same
+	 * format returned by <code>toString</code> and parsed by <code>ExampleFactory</code>.
+	 * <p>
+	 * This implementation appends the result of <code>toString</code>: subclasses should override
+	 * it to write the description directly into <code>output</code>, without building
+	 * intermediate strings
+	 * 
+	 * @param output where the description must be appended
+	 * @throws IOException
+	 */
+	public void appendTo(Appendable output) throws IOException {
+		output.append(this.toString());
 	}
 	
 	/**
@@ -17,11 +17,12 @@ package it.uniroma2.sag.kelp.data.example;
 
 import it.uniroma2.sag.kelp.data.label.Label;
 import it.uniroma2.sag.kelp.data.label.LabelFactory;
+import it.uniroma2.sag.kelp.data.representation.AppendableRepresentation;
 import it.uniroma2.sag.kelp.data.representation.Representation;
 import it.uniroma2.sag.kelp.data.representation.RepresentationFactory;
 
+import java.io.IOException;
 import java.util.AbstractMap;
-import java.util.HashMap;
 import java.util.Map.Entry;
 
 import org.slf4j.Logger;
@@ -62,28 +63,100 @@ public class ExampleFactory {
 	 */
 	public static Entry<String, Representation> parseSingleRepresentation(String textualRepresentation) throws InstantiationException{
 		int beginHeaderIndex = textualRepresentation.indexOf(BEGIN_REPRESENTATION);
-		int endHeaderIndex = textualRepresentation.indexOf(DELIMITER, beginHeaderIndex + BEGIN_REPRESENTATION.length());
-		String representationHeader = textualRepresentation.substring(beginHeaderIndex + BEGIN_REPRESENTATION.length(), endHeaderIndex);
-		int endRepresentation = textualRepresentation.indexOf(END_REPRESENTATION);
-		String representationBody = textualRepresentation.substring(endHeaderIndex+1, endRepresentation).trim();
-		logger.debug("representation header: " + representationHeader);
-		logger.debug("representation body: " + representationBody);
+		if(beginHeaderIndex==-1){
+			throw new InstantiationException("Malformed representation: " + textualRepresentation);
+		}
+		return parseRepresentation(textualRepresentation, beginHeaderIndex, null);
+	}
+	
+	/**
+	 * Parses the representation whose header begins at <code>beginHeaderIndex</code>, scanning
+	 * <code>text</code> in place: only the representation header and body are extracted as Strings
+	 * 
+	 * @param text the text containing the representation
+	 * @param beginHeaderIndex the position of the BEGIN_REPRESENTATION delimiter
+	 * @param nextPosition if not <code>null</code>, its first element is set to the position
+	 * following the representation
+	 * @return the representation identifier (<code>null</code> if not specified) and the representation
+	 * @throws InstantiationException
+	 */
+	private static Entry<String, Representation> parseRepresentation(String text, int beginHeaderIndex, int[] nextPosition) throws InstantiationException{
+		String[] scannedRepresentation = scanRepresentation(text, beginHeaderIndex, nextPosition);
+		String representationName = scannedRepresentation[0];
+		String representationType = scannedRepresentation[1];
+		String representationBody = scannedRepresentation[2];
+		if(logger.isDebugEnabled()){
+			logger.debug("representation type: " + representationType);
+			logger.debug("representation name: " + representationName);
+			logger.debug("representation body: " + representationBody);
+		}
+		Representation representation = representationFactory.parseRepresentation(representationType, representationBody);
+		return new AbstractMap.SimpleEntry<String, Representation>(representationName, representation);
+	}
+	
+	/**
+	 * Scans the representation whose header begins at <code>beginHeaderIndex</code>, without parsing its body
+	 * 
+	 * @param text the text containing the representation
+	 * @param beginHeaderIndex the position of the BEGIN_REPRESENTATION delimiter
+	 * @param nextPosition if not <code>null</code>, its first element is set to the position
+	 * following the representation
+	 * @return the representation identifier (<code>null</code> if not specified), type and body
+	 * @throws InstantiationException
+	 */
+	private static String[] scanRepresentation(String text, int beginHeaderIndex, int[] nextPosition) throws InstantiationException{
+		int beginHeaderEnd = beginHeaderIndex + BEGIN_REPRESENTATION.length();
+		int endHeaderIndex = text.indexOf(DELIMITER, beginHeaderEnd);
+		int endRepresentation = endHeaderIndex==-1 ? -1 : text.indexOf(END_REPRESENTATION, endHeaderIndex);
+		if(endRepresentation==-1){
+			throw new InstantiationException("Malformed representation: " + text.substring(beginHeaderIndex));
+		}
+		if(nextPosition!=null){
+			int endRepresentationEndIndex = text.indexOf(DELIMITER, endRepresentation+1);
+			nextPosition[0] = endRepresentationEndIndex==-1 ? text.length() : endRepresentationEndIndex+1;
+		}
 		
-		int descriptionSeparator = representationHeader.indexOf(REPRESENTATION_TYPE_NAME_SEPARATOR);
+		int descriptionSeparator = indexOf(text, REPRESENTATION_TYPE_NAME_SEPARATOR.charAt(0), beginHeaderEnd, endHeaderIndex);
 		String representationType;
 		String representationName;
 		if(descriptionSeparator==-1){
-			representationType=representationHeader;
-			representationName=null;
+			representationType = text.substring(beginHeaderEnd, endHeaderIndex);
+			representationName = null;
 		}else{
-			representationType = representationHeader.substring(0, descriptionSeparator);
-			representationName = representationHeader.substring(descriptionSeparator+1);
+			representationType = text.substring(beginHeaderEnd, descriptionSeparator);
+			representationName = text.substring(descriptionSeparator+1, endHeaderIndex);
 		}
-		logger.debug("representation type: " + representationType);
-		logger.debug("representation name: " + representationName);		 
-		Representation representation = representationFactory.parseRepresentation(representationType, representationBody);
-		Entry<String, Representation> entry = new AbstractMap.SimpleEntry<String, Representation>(representationName, representation);
-		return entry;
+		
+		int beginBody = skipWhitespaces(text, endHeaderIndex+1, endRepresentation);
+		int endBody = endRepresentation;
+		while(endBody>beginBody && text.charAt(endBody-1)<=' '){
+			endBody--;
+		}
+		return new String[]{representationName, representationType, text.substring(beginBody, endBody)};
+	}
+	
+	/**
+	 * Returns the position of the first occurrence of <code>c</code> in <code>text</code> between
+	 * <code>from</code> (inclusive) and <code>to</code> (exclusive), or -1 if there is none
+	 */
+	private static int indexOf(String text, char c, int from, int to){
+		for(int i=from; i<to; i++){
+			if(text.charAt(i)==c){
+				return i;
+			}
+		}
+		return -1;
+	}
+	
+	/**
+	 * Returns the position of the first non-whitespace character (as defined by <code>String.trim()</code>)
+	 * in <code>text</code> between <code>from</code> (inclusive) and <code>to</code> (exclusive)
+	 */
+	private static int skipWhitespaces(String text, int from, int to){
+		while(from<to && text.charAt(from)<=' '){
+			from++;
+		}
+		return from;
 	}
 	
 	public static String getTextualRepresentation(Representation representation){
@@ -91,76 +164,129 @@ public class ExampleFactory {
 	}
 	
 	public static String getTextualRepresentation(Representation representation, String identifier){
-		String ret="";
+		StringBuilder ret = new StringBuilder();
+		try {
+			appendTextualRepresentation(ret, representation, identifier);
+		} catch (IOException e) {
+			//a StringBuilder never throws IOExceptions
+			throw new IllegalStateException(e);
+		}
+		return ret.toString();
+	}
+	
+	/**
+	 * Appends the textual description of <code>representation</code> to <code>output</code>,
+	 * in the same format returned by <code>getTextualRepresentation</code>. If
+	 * <code>representation</code> is an <code>AppendableRepresentation</code> its body is
+	 * written directly into <code>output</code>
+	 * 
+	 * @param output where the description must be appended
+	 * @param representation the representation
+	 * @param identifier the name of the representation, <code>null</code> if it has no name
+	 * @throws IOException
+	 */
+	public static void appendTextualRepresentation(Appendable output, Representation representation, String identifier) throws IOException{
 		String representationType=RepresentationFactory.getRepresentationIdentifier(representation.getClass());
-		String identifierPart = "";
+		output.append(BEGIN_REPRESENTATION).append(representationType);
 		if(identifier!=null){
-			identifierPart=ExampleFactory.REPRESENTATION_TYPE_NAME_SEPARATOR + identifier;
-		}
-		ret += ExampleFactory.BEGIN_REPRESENTATION
-				+ representationType				
-				+ identifierPart
-				+ ExampleFactory.DELIMITER
-				+ " "
-				+ representation.getTextFromData()
-				+ ExampleFactory.END_REPRESENTATION
-				+ representationType
-				+ ExampleFactory.DELIMITER;
-		return ret;
+			output.append(REPRESENTATION_TYPE_NAME_SEPARATOR).append(identifier);
+		}
+		output.append(DELIMITER).append(' ');
+		if(representation instanceof AppendableRepresentation){
+			((AppendableRepresentation)representation).appendTextFromData(output);
+		}else{
+			output.append(representation.getTextFromData());
+		}
+		output.append(END_REPRESENTATION).append(representationType).append(DELIMITER);
 	}
 	
 	public static Example parseExample(String exampleDescription) throws InstantiationException{
+		return parseExample(exampleDescription, false);
+	}
+	
+	/**
+	 * Initializes and returns the example described in <code>exampleDescription</code>. If
+	 * <code>lazyRepresentations</code> is <code>true</code> the labels are parsed immediately, while
+	 * the textual description of every representation is stored in the example and parsed the first
+	 * time the representation is accessed: this saves time and memory when only some of the
+	 * representations are used.
+	 * <p>
+	 * NOTE: in lazy mode a malformed representation is not detected here: an
+	 * <code>IllegalStateException</code> is thrown when the representation is accessed, e.g. during
+	 * a kernel computation, instead of an <code>InstantiationException</code> at loading time.
+	 * 
+	 * @param exampleDescription the the textual description of the example to be instantiated
+	 * @param lazyRepresentations whether the representations must be parsed when they are accessed
+	 * @return the example described in <code>exampleDescription</code>
+	 * @throws InstantiationException
+	 */
+	public static Example parseExample(String exampleDescription, boolean lazyRepresentations) throws InstantiationException{
 		
-		//System.out.println("INPUT: " + exampleDescription);
 		int beginFirstRepIndex = exampleDescription.indexOf(DELIMITER);
-		String labelsPart = exampleDescription.substring(0, beginFirstRepIndex).trim();
-		String representationsPart = exampleDescription.substring(beginFirstRepIndex).trim();
-		//System.out.println("Label part: " + labelsPart);
-		//System.out.println("representation part: " + representationsPart);
+		if(beginFirstRepIndex==-1){
+			throw new InstantiationException("Malformed example: no representation in " + exampleDescription);
+		}
+		int representationsStart = skipWhitespaces(exampleDescription, beginFirstRepIndex, exampleDescription.length());
 		Example example;
-		if(representationsPart.startsWith(BEGIN_PAIR)){
-			example = parseExamplePair(representationsPart);
+		if(exampleDescription.startsWith(BEGIN_PAIR, representationsStart)){
+			example = parseExamplePair(exampleDescription.substring(representationsStart).trim(), lazyRepresentations);
 		}else{
-			example = parseSimpleExample(representationsPart);
+			SimpleExample simpleExample = new SimpleExample();
+			parseRepresentations(exampleDescription, representationsStart, simpleExample, lazyRepresentations);
+			example = simpleExample;
 		}
-		//ADDING LABELS
-		String [] stringLabels = labelsPart.split(LABEL_SEPARATOR);
-		for(String labelDescription : stringLabels){
-			if(labelDescription.trim().length()>0){
-				Label label = LabelFactory.parseLabel(labelDescription.trim());
+		//ADDING LABELS: they are separated by LABEL_SEPARATOR, and scanned in place
+		int labelStart = 0;
+		while(labelStart<beginFirstRepIndex){
+			int labelEnd = exampleDescription.indexOf(LABEL_SEPARATOR, labelStart);
+			if(labelEnd==-1 || labelEnd>beginFirstRepIndex){
+				labelEnd = beginFirstRepIndex;
+			}
+			int begin = skipWhitespaces(exampleDescription, labelStart, labelEnd);
+			int end = labelEnd;
+			while(end>begin && exampleDescription.charAt(end-1)<=' '){
+				end--;
+			}
+			if(end>begin){
+				Label label = LabelFactory.parseLabel(exampleDescription.substring(begin, end));
 				example.addLabel(label);
 			}
+			labelStart = labelEnd + LABEL_SEPARATOR.length();
 		}
 		return example;
 	}
 
-	private static HashMap<String, Representation> parseRepresentations(String representationsPart) throws InstantiationException {
-		HashMap<String, Representation> representations = new HashMap<String, Representation>();
-		String representationRemaining = representationsPart.trim();
+	/**
+	 * Parses all the representations in <code>text</code> starting from <code>from</code>, in a single
+	 * pass over the text, adding them to <code>example</code>
+	 */
+	private static void parseRepresentations(String text, int from, SimpleExample example, boolean lazyRepresentations) throws InstantiationException {
 		int representationCount=0;
-		while(representationRemaining.length()>0){
-			int endRepresentationStartIndex = representationRemaining.indexOf(END_REPRESENTATION);
-			int endRepresentationEndIndex = representationRemaining.indexOf(DELIMITER, endRepresentationStartIndex+1);
-			String representationDescription = representationRemaining.substring(0, endRepresentationEndIndex+1);
-			Entry<String, Representation> entry = parseSingleRepresentation(representationDescription);
-						
-			representationRemaining = representationRemaining.substring(endRepresentationEndIndex+1).trim(); 
-			String representationName = entry.getKey();
-			if(representationName==null){
-				representationName = Integer.toString(representationCount);
+		int[] nextPosition = new int[1];
+		int position = skipWhitespaces(text, from, text.length());
+		while(position<text.length()){
+			int beginHeaderIndex = text.indexOf(BEGIN_REPRESENTATION, position);
+			if(beginHeaderIndex==-1){
+				throw new InstantiationException("Malformed representation: " + text.substring(position));
 			}
-			representations.put(representationName, entry.getValue());
+			if(lazyRepresentations){
+				String[] scannedRepresentation = scanRepresentation(text, beginHeaderIndex, nextPosition);
+				String representationName = scannedRepresentation[0];
+				if(representationName==null){
+					representationName = Integer.toString(representationCount);
+				}
+				example.addUnparsedRepresentation(representationName, scannedRepresentation[1], scannedRepresentation[2]);
+			}else{
+				Entry<String, Representation> entry = parseRepresentation(text, beginHeaderIndex, nextPosition);
+				String representationName = entry.getKey();
+				if(representationName==null){
+					representationName = Integer.toString(representationCount);
+				}
+				example.addRepresentation(representationName, entry.getValue());
+			}
+			position = skipWhitespaces(text, nextPosition[0], text.length());
 			representationCount++;
 		}
-		return representations;
-	}
-	
-	private static SimpleExample parseSimpleExample(String representationsPart) throws InstantiationException {
-		SimpleExample example = new SimpleExample();
-		HashMap<String, Representation> representations = parseRepresentations( representationsPart);
-		example.setRepresentations(representations);
-		
-		return example;
 	}
 	
 	/**
@@ -169,7 +295,7 @@ public class ExampleFactory {
 	 * @param exampleDescription the the textual description of the example to be instantiated 
 	 * @return the example described in <code>exampleDescription</code>
 	 */
-	private static ExamplePair parseExamplePair(String examplePairDescription) throws InstantiationException {
+	private static ExamplePair parseExamplePair(String examplePairDescription, boolean lazyRepresentations) throws InstantiationException {
 		int begin = examplePairDescription.indexOf(BEGIN_PAIR) + BEGIN_PAIR.length();
 		int end = examplePairDescription.lastIndexOf(END_PAIR);
 		
@@ -200,13 +326,11 @@ public class ExampleFactory {
 		}
 		String leftExampleDescr = pairWithoutBrackets.substring(0, pairSeparatorIndex - PAIR_SEPARATOR.length()).trim();
 		String rightExampleDescr = pairWithoutBrackets.substring(pairSeparatorIndex).trim();
-		Example leftExample = parseExample(leftExampleDescr);
-		Example rightExample = parseExample(rightExampleDescr);
+		Example leftExample = parseExample(leftExampleDescr, lazyRepresentations);
+		Example rightExample = parseExample(rightExampleDescr, lazyRepresentations);
 		ExamplePair pair = new  ExamplePair(leftExample, rightExample);
 		if(examplePairDescription.length() > end + END_PAIR.length() ){
-			String pairDirectRepresentations = examplePairDescription.substring(end+1);
-			HashMap<String, Representation> representations = parseRepresentations( pairDirectRepresentations);
-			pair.setRepresentations(representations);
+			parseRepresentations(examplePairDescription, end + END_PAIR.length(), pair, lazyRepresentations);
 		}
 		
 		return pair;
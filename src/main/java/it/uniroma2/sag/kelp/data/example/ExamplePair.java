@@ -16,9 +16,8 @@
 package it.uniroma2.sag.kelp.data.example;
 
 import it.uniroma2.sag.kelp.data.manipulator.Manipulator;
-import it.uniroma2.sag.kelp.data.representation.Representation;
 
-import java.util.Map.Entry;
+import java.io.IOException;
 
 import com.fasterxml.jackson.annotation.JsonTypeName;
 
@@ -74,18 +73,14 @@ public class ExamplePair extends SimpleExample{
 //	}
 	
 	@Override
-	public String toString(){
-		String ret = this.getTextualLabelPart();
-		ret += ExampleFactory.BEGIN_PAIR + leftExample.toString() + ExampleFactory.PAIR_SEPARATOR + rightExample.toString() + ExampleFactory.END_PAIR;
-		for(Entry<String, Representation> entry: this.getRepresentations().entrySet()){
-			Representation representation = entry.getValue();
-			String identifier = entry.getKey();
-			
-			ret += ExampleFactory.getTextualRepresentation(representation, identifier)					
-					+ ExampleFactory.REPRESENTATION_SEPARATOR;
-			
-		}
-		return ret;
+	public void appendTo(Appendable output) throws IOException {
+		this.appendTextualLabelPart(output);
+		output.append(ExampleFactory.BEGIN_PAIR);
+		leftExample.appendTo(output);
+		output.append(ExampleFactory.PAIR_SEPARATOR);
+		rightExample.appendTo(output);
+		output.append(ExampleFactory.END_PAIR);
+		this.appendTextualRepresentations(output);
 	}
 	
 	/**
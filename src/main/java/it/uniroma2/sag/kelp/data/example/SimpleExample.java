@@ -18,7 +18,11 @@ package it.uniroma2.sag.kelp.data.example;
 import it.uniroma2.sag.kelp.data.label.Label;
 import it.uniroma2.sag.kelp.data.manipulator.Manipulator;
 import it.uniroma2.sag.kelp.data.representation.Representation;
+import it.uniroma2.sag.kelp.data.representation.RepresentationFactory;
 
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -27,6 +31,11 @@ import com.fasterxml.jackson.annotation.JsonTypeName;
 
 /**
  * An <code>Example</code> composed by a set of <code>Representation</code>s.
+ * <p>
+ * The representations can be parsed lazily (see <code>ExampleFactory.parseExample(String, boolean)</code>):
+ * in this case each representation is parsed the first time it is accessed, and a malformed one
+ * raises an <code>IllegalStateException</code>. The pending representations are parsed before
+ * the example is serialized.
  * @author Simone Filice
  */
 @JsonTypeName("simple")
@@ -37,7 +46,36 @@ public class SimpleExample extends Example {
 	 */
 	private static final long serialVersionUID = -8619029107770256417L;
 	
-	private HashMap<String,Representation> representations;
+	private volatile HashMap<String,Representation> representations;
+	
+	/**
+	 * The representations that have not been parsed yet, <code>null</code> if all the
+	 * representations have been parsed
+	 */
+	private volatile HashMap<String, UnparsedRepresentation> unparsedRepresentations;
+	
+	/**
+	 * The textual description of a representation, parsed only when the representation is
+	 * accessed for the first time
+	 */
+	private static class UnparsedRepresentation implements Serializable {
+		private static final long serialVersionUID = 4917730474393850367L;
+		private final String type;
+		private final String body;
+		
+		UnparsedRepresentation(String type, String body) {
+			this.type = type;
+			this.body = body;
+		}
+		
+		Representation parse() {
+			try {
+				return RepresentationFactory.getInstance().parseRepresentation(this.type, this.body);
+			} catch (InstantiationException e) {
+				throw new IllegalStateException("Cannot parse the " + this.type + " representation: " + this.body, e);
+			}
+		}
+	}
 	
 	/**
 	 * Initializes an empty example (0 labels and 0 representations)
@@ -63,30 +101,119 @@ public class SimpleExample extends Example {
 	}
 	
 	@Override
-	public void setRepresentations(HashMap<String, Representation> representations) {
+	public synchronized void setRepresentations(HashMap<String, Representation> representations) {
 
 		this.representations.clear();
 		this.representations=representations;
+		this.unparsedRepresentations = null;
 	}
 	
 	@Override
 	public Map<String, Representation> getRepresentations() {
+		if (this.unparsedRepresentations != null) {
+			this.parseAllRepresentations();
+		}
 		return this.representations;
 	}
 	
+	/**
+	 * Adds a representation. The representations are published through a copy of the
+	 * representation map, as in <code>parseRepresentation</code>, so that a concurrent lazy
+	 * parsing cannot discard the new representation
+	 */
 	@Override
-	public void addRepresentation(String representationName, Representation representation) {
-		representations.put(representationName, representation);
+	public synchronized void addRepresentation(String representationName, Representation representation) {
+		this.removeUnparsedRepresentation(representationName);
+		HashMap<String, Representation> updated = new HashMap<String, Representation>(this.representations);
+		updated.put(representationName, representation);
+		this.representations = updated;
+	}
+	
+	/**
+	 * Adds a representation that will be parsed only when it is accessed for the first time
+	 * 
+	 * @param representationName the name of the representation
+	 * @param representationType the identifier of the representation class
+	 * @param representationBody the textual description of the representation
+	 */
+	synchronized void addUnparsedRepresentation(String representationName, String representationType,
+			String representationBody) {
+		if (this.representations.containsKey(representationName)) {
+			HashMap<String, Representation> updated = new HashMap<String, Representation>(this.representations);
+			updated.remove(representationName);
+			this.representations = updated;
+		}
+		if (this.unparsedRepresentations == null) {
+			this.unparsedRepresentations = new HashMap<String, UnparsedRepresentation>();
+		}
+		this.unparsedRepresentations.put(representationName, new UnparsedRepresentation(representationType,
+				representationBody));
+	}
+	
+	private void removeUnparsedRepresentation(String representationName) {
+		HashMap<String, UnparsedRepresentation> unparsed = this.unparsedRepresentations;
+		if (unparsed != null) {
+			unparsed.remove(representationName);
+			if (unparsed.isEmpty()) {
+				this.unparsedRepresentations = null;
+			}
+		}
+	}
+	
+	/**
+	 * Parses the representation <code>representationName</code>, if it has not been parsed yet.
+	 * The parsed representations are published through a copy of the representation map, so that
+	 * <code>getRepresentation</code> does not need any lock to access them.
+	 */
+	private synchronized Representation parseRepresentation(String representationName) {
+		HashMap<String, UnparsedRepresentation> unparsed = this.unparsedRepresentations;
+		if (unparsed != null) {
+			UnparsedRepresentation unparsedRepresentation = unparsed.get(representationName);
+			if (unparsedRepresentation != null) {
+				HashMap<String, Representation> parsed = new HashMap<String, Representation>(this.representations);
+				parsed.put(representationName, unparsedRepresentation.parse());
+				this.representations = parsed;
+				this.removeUnparsedRepresentation(representationName);
+			}
+		}
+		return this.representations.get(representationName);
+	}
+	
+	private synchronized void parseAllRepresentations() {
+		HashMap<String, UnparsedRepresentation> unparsed = this.unparsedRepresentations;
+		if (unparsed != null) {
+			HashMap<String, Representation> parsed = new HashMap<String, Representation>(this.representations);
+			for (Entry<String, UnparsedRepresentation> entry : unparsed.entrySet()) {
+				parsed.put(entry.getKey(), entry.getValue().parse());
+			}
+			this.representations = parsed;
+			this.unparsedRepresentations = null;
+		}
+	}
+	
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		this.parseAllRepresentations();
+		out.defaultWriteObject();
 	}
 	
 	@Override
 	public int getNumberOfRepresentations() {
+		if (this.unparsedRepresentations != null) {
+			synchronized (this) {
+				HashMap<String, UnparsedRepresentation> unparsed = this.unparsedRepresentations;
+				return representations.size() + (unparsed == null ? 0 : unparsed.size());
+			}
+		}
 		return representations.size();
 	}
 	
 	@Override
 	public Representation getRepresentation(String representationName) {
-		return this.representations.get(representationName);
+		Representation representation = this.representations.get(representationName);
+		if (representation == null && this.unparsedRepresentations != null) {
+			representation = this.parseRepresentation(representationName);
+		}
+		return representation;
 	}
 	
 	@Override
@@ -115,7 +242,7 @@ public class SimpleExample extends Example {
 			return true;
 		}
 		if (this.getNumberOfRepresentations() == example.getNumberOfRepresentations()) {
-			for(Entry<String, Representation> entry: this.representations.entrySet()){
+			for(Entry<String, Representation> entry: this.getRepresentations().entrySet()){
 				if(!entry.getValue().equals(example.getRepresentation(entry.getKey()))){
 					return false;
 				}
@@ -128,30 +255,52 @@ public class SimpleExample extends Example {
 		return true;
 	}
 	
+	@Override
+	public void appendTo(Appendable output) throws IOException {
+		this.appendTextualLabelPart(output);
+		this.appendTextualRepresentations(output);
+	}
+	
 	@Override
 	public String toString() {
-		String ret = this.getTextualLabelPart();
-		for(Entry<String, Representation> entry: this.representations.entrySet()){
-			Representation representation = entry.getValue();
-			String identifier = entry.getKey();
-			
-			ret += ExampleFactory.getTextualRepresentation(representation, identifier)					
-					+ ExampleFactory.REPRESENTATION_SEPARATOR;
-			
+		StringBuilder ret = new StringBuilder();
+		try {
+			this.appendTo(ret);
+		} catch (IOException e) {
+			//a StringBuilder never throws IOExceptions
+			throw new IllegalStateException(e);
 		}
 		return ret.toString();
 	}
 	
+	/**
+	 * Appends the textual description of the representations of this example to <code>output</code>
+	 * 
+	 * @param output where the representations must be appended
+	 * @throws IOException
+	 */
+	protected void appendTextualRepresentations(Appendable output) throws IOException {
+		for(Entry<String, Representation> entry: this.getRepresentations().entrySet()){
+			ExampleFactory.appendTextualRepresentation(output, entry.getValue(), entry.getKey());
+			output.append(ExampleFactory.REPRESENTATION_SEPARATOR);
+		}
+	}
+	
 	public String printExample(String... representations) {
 		if (representations == null || representations.length==0) {
 			return toString();
 		} else {
 			StringBuilder ret = new StringBuilder();
-			ret.append(this.getTextualLabelPart());
-			for (String repr : representations) {
-				Representation representation = this.representations.get(repr);
-				ret.append(ExampleFactory.getTextualRepresentation(representation, repr)					
-						+ ExampleFactory.REPRESENTATION_SEPARATOR);
+			try {
+				this.appendTextualLabelPart(ret);
+				for (String repr : representations) {
+					Representation representation = this.getRepresentation(repr);
+					ExampleFactory.appendTextualRepresentation(ret, representation, repr);
+					ret.append(ExampleFactory.REPRESENTATION_SEPARATOR);
+				}
+			} catch (IOException e) {
+				//a StringBuilder never throws IOExceptions
+				throw new IllegalStateException(e);
 			}
 			return ret.toString().trim();
 		}
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2026 agent
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package it.uniroma2.sag.kelp.data.representation;
+
+import java.io.IOException;
+
+/**
+ * A <code>Representation</code> that can write its textual description directly into an
+ * <code>Appendable</code> (e.g. the <code>Writer</code> of a dataset file), without building
+ * an intermediate <code>String</code>. It is exploited when the examples are serialized; the
+ * representations not implementing this interface are serialized through
+ * <code>getTextFromData</code>.
+ *
+ * @author agent
+ */
+public interface AppendableRepresentation extends Representation {
+
+	/**
+	 * Appends to <code>output</code> the same textual description returned by
+	 * <code>getTextFromData</code>
+	 *
+	 * @param output
+	 *            where the textual description must be appended
+	 * @throws IOException
+	 */
+	public void appendTextFromData(Appendable output) throws IOException;
+
+}
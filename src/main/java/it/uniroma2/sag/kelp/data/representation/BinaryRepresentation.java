@@ -0,0 +1,53 @@
+/*
+ * Copyright 2026 agent
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package it.uniroma2.sag.kelp.data.representation;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * A <code>Representation</code> that can be encoded in a compact binary form. It is exploited
+ * by <code>BinaryDatasetWriter</code> and <code>BinaryDatasetReader</code>; the representations
+ * not implementing this interface are stored through their textual description, which is
+ * parsed again when they are read.
+ * <p>
+ * The implementations must have an empty constructor, as required by
+ * <code>RepresentationFactory</code>.
+ *
+ * @author agent
+ */
+public interface BinaryRepresentation extends Representation {
+
+	/**
+	 * Writes the content of this representation to <code>output</code>
+	 *
+	 * @param output
+	 *            where the representation must be written
+	 * @throws IOException
+	 */
+	public void writeData(DataOutput output) throws IOException;
+
+	/**
+	 * Initializes this representation with the content written by <code>writeData</code>
+	 *
+	 * @param input
+	 *            where the representation must be read from
+	 * @throws IOException
+	 */
+	public void readData(DataInput input) throws IOException;
+
+}
@@ -147,6 +147,31 @@ public class RepresentationFactory {
 
 	}
 
+	/**
+	 * Instantiates an empty representation of the given type, through its empty constructor
+	 * 
+	 * @param representationType
+	 *            the identifier of the representation class to be instantiated
+	 * @return a new representation of type <code>representationType</code>
+	 * @throws InstantiationException if the class has no accessible empty constructor
+	 */
+	public Representation newRepresentation(String representationType) throws InstantiationException {
+		Class<? extends Representation> representationClass = this.representationImplementations
+				.get(representationType);
+		if (representationClass == null) {
+			throw new IllegalArgumentException("unrecognized representation "
+					+ representationType);
+		}
+		try {
+			return representationClass.newInstance();
+		} catch (IllegalAccessException e) {
+			throw new InstantiationException("Cannot initialize "
+					+ representationType + " representations: "
+					+ " missing empty constructor of the class "
+					+ representationClass.getSimpleName());
+		}
+	}
+
 	/**
 	 * Returns the identifier of a given class
 	 * 
@@ -0,0 +1,389 @@
+/*
+ * Copyright 2026 agent
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package it.uniroma2.sag.kelp.kernel;
+
+import it.uniroma2.sag.kelp.data.dataset.Dataset;
+import it.uniroma2.sag.kelp.data.example.Example;
+import it.uniroma2.sag.kelp.kernel.cache.KernelCacheSnapshot;
+import it.uniroma2.sag.kelp.kernel.cache.MappedGramMatrix;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Computes in parallel the kernel matrix between two lists of examples, i.e. the Gram Matrix of a
+ * dataset (symmetric case) or the kernel values between a set of test examples and a set of
+ * support vectors (rectangular case).
+ * <p>
+ * The matrix is split into square tiles of <code>tileSize</code> rows and columns; in the symmetric
+ * case only the tiles of the upper triangle are computed. Every thread repeatedly takes the next
+ * tile to be computed, so that the work is balanced even when the cost of the kernel computations
+ * is very uneven (e.g. tree kernels over trees of different sizes).
+ * <p>
+ * All the values are computed through <code>Kernel.innerProduct</code>: the values already in the
+ * kernel cache are reused, and the computed values are stored in the kernel cache. Thus
+ * <code>fillKernelCache</code> can be used to fill the cache of a kernel before the learning.
+ *
+ * @author agent
+ */
+public class GramMatrixBuilder {
+
+	private static final int DEFAULT_TILE_SIZE = 64;
+
+	private Kernel kernel;
+	private int numberOfThreads;
+	private int tileSize;
+
+	/**
+	 * Consumes the computed kernel values. Implementations must be thread-safe, as the values
+	 * are produced concurrently by many threads
+	 */
+	private interface KernelValueConsumer {
+		void consume(int row, int column, float value);
+	}
+
+	/**
+	 * Initializes a builder using as many threads as the available processors
+	 *
+	 * @param kernel the kernel to be evaluated
+	 */
+	public GramMatrixBuilder(Kernel kernel) {
+		this(kernel, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * @param kernel the kernel to be evaluated
+	 * @param numberOfThreads the number of threads computing the kernel values
+	 */
+	public GramMatrixBuilder(Kernel kernel, int numberOfThreads) {
+		this.kernel = kernel;
+		this.setNumberOfThreads(numberOfThreads);
+		this.tileSize = DEFAULT_TILE_SIZE;
+	}
+
+	/**
+	 * @return the kernel to be evaluated
+	 */
+	public Kernel getKernel() {
+		return kernel;
+	}
+
+	/**
+	 * @param kernel the kernel to be evaluated
+	 */
+	public void setKernel(Kernel kernel) {
+		this.kernel = kernel;
+	}
+
+	/**
+	 * @return the number of threads computing the kernel values
+	 */
+	public int getNumberOfThreads() {
+		return numberOfThreads;
+	}
+
+	/**
+	 * @param numberOfThreads the number of threads computing the kernel values
+	 */
+	public void setNumberOfThreads(int numberOfThreads) {
+		if (numberOfThreads < 1) {
+			throw new IllegalArgumentException("Invalid number of threads: " + numberOfThreads);
+		}
+		this.numberOfThreads = numberOfThreads;
+	}
+
+	/**
+	 * @return the number of rows (and columns) of a tile
+	 */
+	public int getTileSize() {
+		return tileSize;
+	}
+
+	/**
+	 * @param tileSize the number of rows (and columns) of a tile
+	 */
+	public void setTileSize(int tileSize) {
+		if (tileSize < 1) {
+			throw new IllegalArgumentException("Invalid tile size: " + tileSize);
+		}
+		this.tileSize = tileSize;
+	}
+
+	/**
+	 * Computes all the pairwise kernel values among the examples of <code>dataset</code>, storing
+	 * them in the kernel cache
+	 *
+	 * @param dataset the dataset whose Gram Matrix must be computed
+	 */
+	public void fillKernelCache(Dataset dataset) {
+		this.computeSymmetric(dataset.getExamples(), new KernelValueConsumer() {
+			public void consume(int row, int column, float value) {
+			}
+		});
+	}
+
+	/**
+	 * Computes all the kernel values between the examples in <code>rows</code> and the examples
+	 * in <code>columns</code>, storing them in the kernel cache
+	 *
+	 * @param rows the first list of examples (e.g. the test examples)
+	 * @param columns the second list of examples (e.g. the support vectors)
+	 */
+	public void fillKernelCache(List<Example> rows, List<Example> columns) {
+		this.computeRectangular(rows, columns, new KernelValueConsumer() {
+			public void consume(int row, int column, float value) {
+			}
+		});
+	}
+
+	/**
+	 * Computes the Gram Matrix of <code>dataset</code>
+	 *
+	 * @param dataset the dataset whose Gram Matrix must be computed
+	 * @return the full (symmetric) Gram Matrix, where the i-th row refers to the i-th example of
+	 * <code>dataset</code>
+	 */
+	public float[][] computeDenseMatrix(Dataset dataset) {
+		List<Example> examples = dataset.getExamples();
+		final float[][] matrix = new float[examples.size()][examples.size()];
+		this.computeSymmetric(examples, new KernelValueConsumer() {
+			public void consume(int row, int column, float value) {
+				matrix[row][column] = value;
+				matrix[column][row] = value;
+			}
+		});
+		return matrix;
+	}
+
+	/**
+	 * Computes the kernel values between the examples in <code>rows</code> and the examples
+	 * in <code>columns</code>
+	 *
+	 * @param rows the first list of examples (e.g. the test examples)
+	 * @param columns the second list of examples (e.g. the support vectors)
+	 * @return the kernel matrix, where the element (i, j) is the kernel value between the i-th
+	 * example of <code>rows</code> and the j-th example of <code>columns</code>
+	 */
+	public float[][] computeDenseMatrix(List<Example> rows, List<Example> columns) {
+		final float[][] matrix = new float[rows.size()][columns.size()];
+		this.computeRectangular(rows, columns, new KernelValueConsumer() {
+			public void consume(int row, int column, float value) {
+				matrix[row][column] = value;
+			}
+		});
+		return matrix;
+	}
+
+	/**
+	 * Computes the upper triangle of the Gram Matrix of <code>dataset</code>, packed row by row: the
+	 * kernel value between the i-th and the j-th example, with i&lt;=j, is in position
+	 * <code>i*n - i*(i-1)/2 + j - i</code>.
+	 * <p>
+	 * NOTE: a packed matrix cannot exceed the maximum size of a Java array (about 65k examples):
+	 * larger matrices can be computed in a <code>MappedGramMatrix</code>
+	 *
+	 * @param dataset the dataset whose Gram Matrix must be computed
+	 * @return the packed upper triangle of the Gram Matrix
+	 */
+	public float[] computePackedMatrix(Dataset dataset) {
+		List<Example> examples = dataset.getExamples();
+		final long n = examples.size();
+		long size = n * (n + 1) / 2;
+		if (size > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Too many examples for a packed matrix: " + n);
+		}
+		final float[] matrix = new float[(int) size];
+		this.computeSymmetric(examples, new KernelValueConsumer() {
+			public void consume(int row, int column, float value) {
+				long i = row;
+				matrix[(int) (i * n - ((i * (i - 1)) >> 1) + column - i)] = value;
+			}
+		});
+		return matrix;
+	}
+
+	/**
+	 * Computes the Gram Matrix of <code>dataset</code>, storing it in <code>matrix</code>. The kernel
+	 * values already in <code>matrix</code> are not recomputed.
+	 *
+	 * @param dataset the dataset whose Gram Matrix must be computed
+	 * @param matrix the matrix where the kernel values must be stored. Its fingerprints must match
+	 * the kernel and <code>dataset</code> (see <code>KernelCacheSnapshot.fingerprint</code>)
+	 * @throws IOException if the kernel cannot be serialized to compute its fingerprint
+	 */
+	public void computeGramMatrix(Dataset dataset, final MappedGramMatrix matrix) throws IOException {
+		final List<Example> examples = dataset.getExamples();
+		if (!Arrays.equals(matrix.getKernelFingerprint(), KernelCacheSnapshot.fingerprint(this.kernel))) {
+			throw new IllegalArgumentException("The Gram Matrix " + matrix.getFile()
+					+ " has been created for a different kernel");
+		}
+		if (!Arrays.equals(matrix.getDatasetFingerprint(), KernelCacheSnapshot.fingerprint(dataset))) {
+			throw new IllegalArgumentException("The Gram Matrix " + matrix.getFile()
+					+ " has been created for different examples");
+		}
+		if (matrix.isReadOnly()) {
+			throw new IllegalArgumentException("The Gram Matrix " + matrix.getFile() + " is read-only");
+		}
+		this.runTiles(new TileSet(examples.size(), examples.size(), true) {
+			@Override
+			void computeTile(int firstRow, int lastRow, int firstColumn, int lastColumn) {
+				for (int i = firstRow; i < lastRow; i++) {
+					for (int j = Math.max(firstColumn, i); j < lastColumn; j++) {
+						if (Float.isNaN(matrix.getValue(i, j))) {
+							matrix.setValue(i, j, kernel.innerProduct(examples.get(i), examples.get(j)));
+						}
+					}
+				}
+			}
+		});
+	}
+
+	private void computeSymmetric(final List<Example> examples, final KernelValueConsumer consumer) {
+		this.runTiles(new TileSet(examples.size(), examples.size(), true) {
+			@Override
+			void computeTile(int firstRow, int lastRow, int firstColumn, int lastColumn) {
+				for (int i = firstRow; i < lastRow; i++) {
+					Example exA = examples.get(i);
+					for (int j = Math.max(firstColumn, i); j < lastColumn; j++) {
+						consumer.consume(i, j, kernel.innerProduct(exA, examples.get(j)));
+					}
+				}
+			}
+		});
+	}
+
+	private void computeRectangular(final List<Example> rows, final List<Example> columns,
+			final KernelValueConsumer consumer) {
+		this.runTiles(new TileSet(rows.size(), columns.size(), false) {
+			@Override
+			void computeTile(int firstRow, int lastRow, int firstColumn, int lastColumn) {
+				for (int i = firstRow; i < lastRow; i++) {
+					Example exA = rows.get(i);
+					for (int j = firstColumn; j < lastColumn; j++) {
+						consumer.consume(i, j, kernel.innerProduct(exA, columns.get(j)));
+					}
+				}
+			}
+		});
+	}
+
+	/**
+	 * The tiles of a matrix, that are taken by the threads in row-major order
+	 */
+	private abstract class TileSet {
+		private final int numberOfRows;
+		private final int numberOfColumns;
+		private final boolean symmetric;
+		private final int tileRows;
+		private final int tileColumns;
+		private final int numberOfTiles;
+		private final AtomicInteger nextTile = new AtomicInteger();
+
+		TileSet(int numberOfRows, int numberOfColumns, boolean symmetric) {
+			this.numberOfRows = numberOfRows;
+			this.numberOfColumns = numberOfColumns;
+			this.symmetric = symmetric;
+			this.tileRows = (numberOfRows + tileSize - 1) / tileSize;
+			this.tileColumns = (numberOfColumns + tileSize - 1) / tileSize;
+			long tiles = symmetric ? (long) tileRows * (tileRows + 1) / 2 : (long) tileRows * tileColumns;
+			if (tiles > Integer.MAX_VALUE) {
+				throw new IllegalArgumentException("Too many tiles: increase the tile size");
+			}
+			this.numberOfTiles = (int) tiles;
+		}
+
+		/**
+		 * Computes the tiles until all of them have been taken
+		 */
+		void computeTiles() {
+			int tile;
+			while ((tile = this.nextTile.getAndIncrement()) < this.numberOfTiles) {
+				int tileRow;
+				int tileColumn;
+				if (this.symmetric) {
+					//the row r starts at the tile r*tileRows - r*(r-1)/2
+					tileRow = 0;
+					int rowLength = this.tileRows;
+					while (tile >= rowLength) {
+						tile -= rowLength;
+						rowLength--;
+						tileRow++;
+					}
+					tileColumn = tileRow + tile;
+				} else {
+					tileRow = tile / this.tileColumns;
+					tileColumn = tile % this.tileColumns;
+				}
+				int firstRow = tileRow * tileSize;
+				int firstColumn = tileColumn * tileSize;
+				this.computeTile(firstRow, Math.min(firstRow + tileSize, this.numberOfRows),
+						firstColumn, Math.min(firstColumn + tileSize, this.numberOfColumns));
+			}
+		}
+
+		/**
+		 * Computes the kernel values in the rows from <code>firstRow</code> (inclusive) to
+		 * <code>lastRow</code> (exclusive) and in the columns from <code>firstColumn</code> (inclusive)
+		 * to <code>lastColumn</code> (exclusive)
+		 */
+		abstract void computeTile(int firstRow, int lastRow, int firstColumn, int lastColumn);
+	}
+
+	private void runTiles(final TileSet tiles) {
+		if (this.numberOfThreads == 1) {
+			tiles.computeTiles();
+			return;
+		}
+		ExecutorService executor = Executors.newFixedThreadPool(this.numberOfThreads);
+		try {
+			List<Future<Void>> futures = new ArrayList<Future<Void>>();
+			for (int i = 0; i < this.numberOfThreads; i++) {
+				futures.add(executor.submit(new Callable<Void>() {
+					public Void call() {
+						tiles.computeTiles();
+						return null;
+					}
+				}));
+			}
+			for (Future<Void> future : futures) {
+				future.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while computing the kernel matrix", e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new IllegalStateException(cause);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+}
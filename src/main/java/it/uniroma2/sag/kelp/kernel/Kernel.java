@@ -20,8 +20,12 @@ import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
-import java.util.zip.GZIPInputStream;
-import java.util.zip.GZIPOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import com.fasterxml.jackson.annotation.JsonIdentityInfo;
 import com.fasterxml.jackson.annotation.JsonIgnore;
@@ -30,13 +34,25 @@ import com.fasterxml.jackson.annotation.ObjectIdGenerators;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.annotation.JsonTypeIdResolver;
 
+import it.uniroma2.sag.kelp.data.dataset.Dataset;
 import it.uniroma2.sag.kelp.data.example.Example;
 import it.uniroma2.sag.kelp.kernel.cache.KernelCache;
+import it.uniroma2.sag.kelp.kernel.cache.PrimitiveSquaredNormCache;
 import it.uniroma2.sag.kelp.kernel.cache.SquaredNormCache;
+import it.uniroma2.sag.kelp.utils.ParallelGZIPInputStream;
+import it.uniroma2.sag.kelp.utils.ParallelGZIPOutputStream;
+import it.uniroma2.sag.kelp.utils.StripedCounter;
 
 
 /**
  * Abstract class for a generic kernel function
+ * <p>
+ * A kernel can be evaluated concurrently by many threads: the statistics are kept in
+ * striped counters and all the <code>KernelCache</code> and <code>SquaredNormCache</code>
+ * implementations in this package are thread-safe. Thus a trained kernel (and the whole tree of
+ * <code>KernelComposition</code>s and <code>KernelCombination</code>s it is part of) can be
+ * shared among threads, provided that <code>kernelComputation</code> does not modify any state
+ * shared among invocations, and that the kernel tree is not modified during the evaluations.
  * 
  * @author Simone Filice
  */
@@ -45,17 +61,23 @@ import it.uniroma2.sag.kelp.kernel.cache.SquaredNormCache;
 @JsonIdentityInfo(generator = ObjectIdGenerators.IntSequenceGenerator.class, property = "kernelID")
 public abstract class Kernel {
 
+	/**
+	 * The number of kernel computations performed by a single task when a kernel row
+	 * is computed in parallel
+	 */
+	private static final int ROW_CHUNK_SIZE = 64;
+
 	@JsonIgnore
-	private long numberOfKernelComputations=0;
+	private final StripedCounter numberOfKernelComputations = new StripedCounter();
 
 	@JsonIgnore
-	private long numberOfHits=0;
+	private final StripedCounter numberOfHits = new StripedCounter();
 
 	@JsonIgnore
-	private SquaredNormCache normCache=null;
+	private volatile SquaredNormCache normCache=null;
 
 	@JsonIgnore
-	private KernelCache cache = null;
+	private volatile KernelCache cache = null;
 
 	/**
 	 * Returns the kernel similarity between the given examples. This
@@ -70,7 +92,7 @@ public abstract class Kernel {
 	 *         <code>exB</code>
 	 */
 	public final float innerProduct(Example exA, Example exB) {
-		this.numberOfKernelComputations++;
+		this.numberOfKernelComputations.increment();
 		float kernelResult;
 		Example first = exA;
 		Example second = exB;
@@ -78,14 +100,15 @@ public abstract class Kernel {
 			first=exB;
 			second = exA;
 		}
-		if (this.cache != null) {
-			Float cacheValue = this.cache.getKernelValue(first, second);
-			if(cacheValue != null){
-				this.numberOfHits++;
-				kernelResult = cacheValue.floatValue();
+		KernelCache cache = this.cache;
+		if (cache != null) {
+			float cacheValue = cache.getPrimitiveKernelValue(first, second);
+			if(!Float.isNaN(cacheValue)){
+				this.numberOfHits.increment();
+				kernelResult = cacheValue;
 			}else{
 				kernelResult = this.kernelComputation(first, second);
-				this.cache.setKernelValue(first, second, kernelResult);
+				cache.setKernelValue(first, second, kernelResult);
 			}
 		}else{
 			kernelResult = this.kernelComputation(first, second);
@@ -93,6 +116,126 @@ public abstract class Kernel {
 		return kernelResult;
 	}
 
+	/**
+	 * Computes the kernel similarities between an example and all the examples of a dataset, i.e.
+	 * a row of the Gram Matrix
+	 * 
+	 * @param example the example whose kernel row must be computed
+	 * @param dataset the dataset the row refers to
+	 * @param row the array to be filled: the i-th element will be the kernel similarity between
+	 * <code>example</code> and the i-th example of <code>dataset</code>
+	 */
+	public void innerProductRow(Example example, Dataset dataset, float[] row) {
+		this.innerProductRow(example, dataset.getExamples(), row, null);
+	}
+
+	/**
+	 * Computes the kernel similarities between an example and a list of examples, i.e.
+	 * a row of the Gram Matrix
+	 * 
+	 * @param example the example whose kernel row must be computed
+	 * @param examples the examples the row refers to
+	 * @param row the array to be filled: the i-th element will be the kernel similarity between
+	 * <code>example</code> and the i-th example in <code>examples</code>
+	 */
+	public void innerProductRow(Example example, List<Example> examples, float[] row) {
+		this.innerProductRow(example, examples, row, null);
+	}
+
+	/**
+	 * Computes the kernel similarities between an example and a list of examples, i.e.
+	 * a row of the Gram Matrix. 
+	 * <p>
+	 * The values in the kernel cache are read in bulk, and only the missing ones are computed 
+	 * (in parallel, if an <code>executor</code> is provided) and then stored in the kernel cache.
+	 * It is equivalent to invoking <code>innerProduct</code> for each example in <code>examples</code>,
+	 * avoiding the overhead of a cache access per pair
+	 * 
+	 * @param example the example whose kernel row must be computed
+	 * @param examples the examples the row refers to
+	 * @param row the array to be filled: the i-th element will be the kernel similarity between
+	 * <code>example</code> and the i-th example in <code>examples</code>
+	 * @param executor the executor computing the missing kernel values, <code>null</code> to compute
+	 * them in the invoking thread
+	 */
+	public void innerProductRow(final Example example, final List<Example> examples, final float[] row,
+			ExecutorService executor) {
+		int size = examples.size();
+		if (row.length < size) {
+			throw new IllegalArgumentException("The row has " + row.length + " elements, but "
+					+ size + " examples are given");
+		}
+		this.numberOfKernelComputations.add(size);
+		KernelCache cache = this.cache;
+		final int[] missing = new int[size];
+		int numberOfMissing = 0;
+		if (cache != null) {
+			cache.getKernelRow(example, examples, row);
+			for (int i = 0; i < size; i++) {
+				if (Float.isNaN(row[i])) {
+					missing[numberOfMissing] = i;
+					numberOfMissing++;
+				}
+			}
+			this.numberOfHits.add(size - numberOfMissing);
+		} else {
+			for (int i = 0; i < size; i++) {
+				missing[i] = i;
+			}
+			numberOfMissing = size;
+		}
+
+		if (executor == null || numberOfMissing <= ROW_CHUNK_SIZE) {
+			this.computeRowValues(example, examples, row, missing, 0, numberOfMissing);
+		} else {
+			List<Future<Void>> futures = new ArrayList<Future<Void>>();
+			for (int from = 0; from < numberOfMissing; from += ROW_CHUNK_SIZE) {
+				final int start = from;
+				final int end = Math.min(from + ROW_CHUNK_SIZE, numberOfMissing);
+				futures.add(executor.submit(new Callable<Void>() {
+					public Void call() {
+						computeRowValues(example, examples, row, missing, start, end);
+						return null;
+					}
+				}));
+			}
+			try {
+				for (Future<Void> future : futures) {
+					future.get();
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("Interrupted while computing a kernel row", e);
+			} catch (ExecutionException e) {
+				Throwable cause = e.getCause();
+				if (cause instanceof RuntimeException) {
+					throw (RuntimeException) cause;
+				}
+				if (cause instanceof Error) {
+					throw (Error) cause;
+				}
+				throw new IllegalStateException(cause);
+			}
+		}
+
+		if (cache != null && numberOfMissing > 0) {
+			cache.setKernelRow(example, examples, row, missing, numberOfMissing);
+		}
+	}
+
+	private void computeRowValues(Example example, List<Example> examples, float[] row, int[] positions,
+			int from, int to) {
+		for (int p = from; p < to; p++) {
+			int i = positions[p];
+			Example other = examples.get(i);
+			if (example.getId() > other.getId()) {
+				row[i] = this.kernelComputation(other, example);
+			} else {
+				row[i] = this.kernelComputation(example, other);
+			}
+		}
+	}
+
 	/**
 	 * Sets the cache in which storing the squared norms in the RKHS defined
 	 * by this kernel
@@ -159,19 +302,26 @@ public abstract class Kernel {
 
 	public float squaredNorm(Example example){
 
-		this.numberOfKernelComputations++;
-		if (this.normCache != null) {
+		this.numberOfKernelComputations.increment();
+		SquaredNormCache normCache = this.normCache;
+		if (normCache != null) {
 
-			Float cacheValue = this.normCache.getSquaredNorm(example);
-			if (cacheValue == null) {
+			float cacheValue;
+			if (normCache instanceof PrimitiveSquaredNormCache) {
+				cacheValue = ((PrimitiveSquaredNormCache) normCache).getPrimitiveSquaredNorm(example);
+			} else {
+				Float boxedValue = normCache.getSquaredNorm(example);
+				cacheValue = boxedValue == null ? Float.NaN : boxedValue.floatValue();
+			}
+			if (Float.isNaN(cacheValue)) {
 
 
 				float squaredNorm=this.innerProduct(example, example);
-				this.normCache.setSquaredNormValue(example, squaredNorm);
+				normCache.setSquaredNormValue(example, squaredNorm);
 				return squaredNorm;
 			}
-			this.numberOfHits++;
-			return cacheValue.floatValue();
+			this.numberOfHits.increment();
+			return cacheValue;
 		}
 		return this.innerProduct(example, example);
 	}
@@ -210,7 +360,7 @@ public abstract class Kernel {
 	 */
 	@JsonIgnore
 	public long getKernelComputations(){
-		return numberOfKernelComputations;
+		return numberOfKernelComputations.sum();
 	}
 
 	/**
@@ -220,7 +370,7 @@ public abstract class Kernel {
 	 */
 	@JsonIgnore
 	public long getNumberOfHits(){
-		return numberOfHits;
+		return numberOfHits.sum();
 	}
 
 	/**
@@ -230,7 +380,7 @@ public abstract class Kernel {
 	 */
 	@JsonIgnore
 	public long getNumberOfMisses(){
-		return numberOfKernelComputations-numberOfHits;
+		return numberOfKernelComputations.sum()-numberOfHits.sum();
 	}
 
 	/**
@@ -238,8 +388,8 @@ public abstract class Kernel {
 	 * cache hits and misses)
 	 */
 	public void reset(){
-		this.numberOfHits=0;
-		this.numberOfKernelComputations=0;
+		this.numberOfHits.reset();
+		this.numberOfKernelComputations.reset();
 	}
 
 	/**
@@ -258,7 +408,7 @@ public abstract class Kernel {
 		ObjectMapper mapper = new ObjectMapper();
 
 		if (outputFilePath.endsWith(".gz")) {
-			GZIPOutputStream zip = new GZIPOutputStream(new FileOutputStream(
+			ParallelGZIPOutputStream zip = new ParallelGZIPOutputStream(new FileOutputStream(
 					new File(outputFilePath)));
 			mapper.writeValue(zip, kernel);
 		} else {
@@ -283,7 +433,7 @@ public abstract class Kernel {
 		ObjectMapper mapper = new ObjectMapper();
 
 		if (inputFilePath.endsWith(".gz")) {
-			GZIPInputStream zip = new GZIPInputStream(new FileInputStream(
+			ParallelGZIPInputStream zip = new ParallelGZIPInputStream(new FileInputStream(
 					new File(inputFilePath)));
 			return mapper.readValue(zip, Kernel.class);
 		} else {
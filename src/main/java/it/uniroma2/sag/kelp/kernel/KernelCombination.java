@@ -20,6 +20,9 @@ import java.util.List;
 
 /**
  * It is a kernel that operates combining other kernels
+ * <p>
+ * It can be evaluated concurrently by many threads as long as the list of kernels to combine 
+ * is not modified during the evaluations
  * 
  * @author Simone Filice
  */
@@ -18,6 +18,9 @@ package it.uniroma2.sag.kelp.kernel;
 
 /**
  * It is a kernel that operates enriching the computation performed by another kernel
+ * <p>
+ * It can be evaluated concurrently by many threads as long as the base kernel is not replaced
+ * during the evaluations
  * 
  * @author Simone Filice
  */
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2026 agent
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package it.uniroma2.sag.kelp.kernel;
+
+import gnu.trove.map.hash.TLongIntHashMap;
+import it.uniroma2.sag.kelp.data.dataset.Dataset;
+import it.uniroma2.sag.kelp.data.example.Example;
+import it.uniroma2.sag.kelp.kernel.cache.KernelCacheSnapshot;
+import it.uniroma2.sag.kelp.kernel.cache.MappedGramMatrix;
+
+import java.io.File;
+import java.io.IOException;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonTypeName;
+
+/**
+ * A kernel whose values are read from a precomputed Gram Matrix, stored in a
+ * <code>MappedGramMatrix</code> file, instead of being computed. Every example is identified by its
+ * position in the dataset the Gram Matrix has been computed on.
+ * <p>
+ * After the deserialization, <code>setExamples</code> must be invoked to open the Gram Matrix file.
+ * The file is opened in read-only mode, thus it can be shared among many processes. As the kernel
+ * that computed the matrix is not known, only the fingerprint of the dataset is checked.
+ *
+ * @author agent
+ */
+@JsonTypeName("precomputed")
+public class PrecomputedKernel extends Kernel {
+
+	private static final int NULL_POSITION = -1;
+
+	private String gramMatrixFile;
+
+	@JsonIgnore
+	private volatile MappedGramMatrix matrix;
+
+	@JsonIgnore
+	private volatile TLongIntHashMap examplePositions;
+
+	/**
+	 * Initializes a kernel reading its values from <code>gramMatrixFile</code>
+	 *
+	 * @param gramMatrixFile the path of the file containing the Gram Matrix
+	 * @param dataset the dataset the Gram Matrix has been computed on
+	 * @throws IOException
+	 */
+	public PrecomputedKernel(String gramMatrixFile, Dataset dataset) throws IOException {
+		super();
+		this.gramMatrixFile = gramMatrixFile;
+		this.setExamples(dataset);
+	}
+
+	public PrecomputedKernel() {
+		super();
+	}
+
+	/**
+	 * @return the path of the file containing the Gram Matrix
+	 */
+	public String getGramMatrixFile() {
+		return gramMatrixFile;
+	}
+
+	/**
+	 * @param gramMatrixFile the path of the file containing the Gram Matrix
+	 * <p>
+	 * NOTE: it is effective at the next invocation of <code>setExamples</code>
+	 */
+	public void setGramMatrixFile(String gramMatrixFile) {
+		this.gramMatrixFile = gramMatrixFile;
+	}
+
+	/**
+	 * Opens the Gram Matrix file, assigning to each example of <code>dataset</code> its position in
+	 * the dataset
+	 *
+	 * @param dataset the dataset the Gram Matrix has been computed on
+	 * @throws IOException if the file cannot be opened, or it contains a Gram Matrix computed on
+	 * different examples
+	 */
+	@JsonIgnore
+	public synchronized void setExamples(Dataset dataset) throws IOException {
+		File file = new File(this.gramMatrixFile);
+		MappedGramMatrix newMatrix = MappedGramMatrix.open(file, true, null, KernelCacheSnapshot.fingerprint(dataset));
+		this.close();
+		this.examplePositions = MappedGramMatrix.getExamplePositions(dataset);
+		this.matrix = newMatrix;
+	}
+
+	/**
+	 * Closes the Gram Matrix file
+	 *
+	 * @throws IOException
+	 */
+	public synchronized void close() throws IOException {
+		MappedGramMatrix oldMatrix = this.matrix;
+		this.matrix = null;
+		if (oldMatrix != null) {
+			oldMatrix.close();
+		}
+	}
+
+	@Override
+	protected float kernelComputation(Example exA, Example exB) {
+		MappedGramMatrix matrix = this.matrix;
+		if (matrix == null) {
+			throw new IllegalStateException("The Gram Matrix file has not been opened: invoke setExamples");
+		}
+		TLongIntHashMap positions = this.examplePositions;
+		int positionA = positions.get(exA.getId());
+		int positionB = positions.get(exB.getId());
+		if (positionA == NULL_POSITION || positionB == NULL_POSITION) {
+			throw new IllegalArgumentException("The examples " + exA.getId() + " and " + exB.getId()
+					+ " are not both in the Gram Matrix " + this.gramMatrixFile);
+		}
+		float value = matrix.getValue(positionA, positionB);
+		if (Float.isNaN(value)) {
+			throw new IllegalArgumentException("The kernel value between the examples " + exA.getId()
+					+ " and " + exB.getId() + " is missing in the Gram Matrix " + this.gramMatrixFile);
+		}
+		return value;
+	}
+
+}
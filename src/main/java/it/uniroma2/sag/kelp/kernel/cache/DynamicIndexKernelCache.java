@@ -15,14 +15,9 @@
 
 package it.uniroma2.sag.kelp.kernel.cache;
 
-import gnu.trove.map.hash.TIntLongHashMap;
-import gnu.trove.map.hash.TLongIntHashMap;
 import it.uniroma2.sag.kelp.data.example.Example;
 
 import java.io.Serializable;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.LinkedList;
 import java.util.List;
 
 import com.fasterxml.jackson.annotation.JsonTypeName;
@@ -34,8 +29,15 @@ import com.fasterxml.jackson.annotation.JsonTypeName;
  * parameter. It is the optimal solution when all the pairwise kernel computations
  * between all the examples in the datasets can be simultaneously stored in cache, but examples IDs
  * are not consecutive making FixIndexKernelCache not working. 
- * Given a number of examples to store m, the memory occupation is about m*(m+1)/2 floats = m*(m+1)*2B
- * it uses a Least Recently Used policy when free space is required
+ * Given a number of examples to store m, the memory occupation is about m*(m+1)/2 floats = m*(m+1)*2B,
+ * or m*(m+1)B if the kernel values are stored as half precision floats (see <code>setHalfPrecision</code>).
+ * The kernel values are stored in pages indexed by <code>long</code>s, so more than 65k examples
+ * can be stored (an int index over the triangular matrix overflows at about 65k examples).
+ * it uses a Least Recently Used policy when free space is required, discarding a single example
+ * in constant time.
+ * The examples added to a dataset are mapped to their cache positions through their dense index,
+ * without any hashing (see <code>Example.getIndex()</code>).
+ * All the operations are synchronized on the cache instance
  * 
  * @author      Simone Filice
  */
@@ -44,20 +46,15 @@ public class DynamicIndexKernelCache extends KernelCache implements Serializable
 
 	private static final long serialVersionUID = -4866777451585203988L;
 	private static final float INVALID_KERNEL_VALUE = Float.NaN; // do not change this
-	private static final float FLUSHING_PERCENTAGE = 0.1f;
-	private static final long NULL_EXAMPLE_ID = -1;
-	private static final int NULL_POSITION = -1;
+	private static final int NULL_POSITION = ExamplePositionTable.NULL_POSITION;
 
-	private int cacheSize;//the number of kernel computations that can be stored
+	private long cacheSize;//the number of kernel computations that can be stored
 	private int examplesToStore;
-	private int examplesToDiscard;
 	
-	private TLongIntHashMap fromExampleIdToCachePosition;
-	private TIntLongHashMap fromCachePositionToExampleId;
-	private float [] kernelValue;
-	private long accessesCounter;
-	private long [] exampleLastAccess;
-	private ArrayList<Integer> freePositions;
+	private ExamplePositionTable examplePositions;
+	private KernelValueArray kernelValue;
+	private boolean halfPrecision;
+	private LeastRecentlyUsedPositions positions;
 	
 	
 
@@ -74,9 +71,22 @@ public class DynamicIndexKernelCache extends KernelCache implements Serializable
 		setExamplesToStore(examplesToStore);
 	}
 
+	/**
+	 * Initializes a DynamicIndexKernelCache that can contain all the possible pairwise kernel computations
+	 * between up to <code>examplesToStore</code> examples
+	 * 
+	 * @param examplesToStore the maximum number of examples whose pairwise kernel computations
+	 * can be simultaneously stored
+	 * @param halfPrecision whether the kernel values must be stored as half precision floats
+	 */
+	public DynamicIndexKernelCache(int examplesToStore, boolean halfPrecision){
+		this();
+		this.halfPrecision = halfPrecision;
+		setExamplesToStore(examplesToStore);
+	}
+
 	public DynamicIndexKernelCache(){
 		super();
-		this.freePositions = new ArrayList<Integer>();
 	}
 
 	/**
@@ -97,199 +107,238 @@ public class DynamicIndexKernelCache extends KernelCache implements Serializable
 	 * <p>
 	 * NOTE: all the already stored kernel computations will be lost
 	 */
-	public void setExamplesToStore(int examplesToStore) {
+	public synchronized void setExamplesToStore(int examplesToStore) {
 		this.examplesToStore = examplesToStore;
-		this.cacheSize = examplesToStore*(examplesToStore+1)/2;
+		this.cacheSize = (long)examplesToStore*(examplesToStore+1)/2;
 
-		this.fromExampleIdToCachePosition = new TLongIntHashMap(examplesToStore, 0.75f, NULL_EXAMPLE_ID, NULL_POSITION);
-		this.fromCachePositionToExampleId = new TIntLongHashMap(examplesToStore, 0.75f, NULL_POSITION, NULL_EXAMPLE_ID);
+		this.examplePositions = new ExamplePositionTable(examplesToStore);
 
-		this.kernelValue = new float [this.cacheSize];
-		//Arrays.fill(this.cachedExample, INVALID_EXAMPLE_VALUE);
-		Arrays.fill(this.kernelValue, INVALID_KERNEL_VALUE);
+		if(this.halfPrecision){
+			this.kernelValue = new PagedHalfFloatArray(this.cacheSize);
+		}else{
+			this.kernelValue = new PagedFloatArray(this.cacheSize);
+		}
+		this.kernelValue.fill(INVALID_KERNEL_VALUE);
 		
-		for(int i=0; i<examplesToStore; i++){
-			this.freePositions.add(i);
+		this.positions = new LeastRecentlyUsedPositions(examplesToStore);
+	}
+
+	/**
+	 * Returns whether the kernel values are stored as IEEE 754 half precision floats,
+	 * halving the memory occupation (see <code>PagedHalfFloatArray</code>)
+	 * 
+	 * @return the halfPrecision
+	 */
+	public boolean isHalfPrecision() {
+		return halfPrecision;
+	}
+
+	/**
+	 * Sets whether the kernel values are stored as IEEE 754 half precision floats,
+	 * halving the memory occupation. The relative error of the stored values is at
+	 * most 2^-11, which is negligible for normalized kernels
+	 * 
+	 * @param halfPrecision the halfPrecision to set
+	 * <p>
+	 * NOTE: all the already stored kernel computations will be lost
+	 */
+	public synchronized void setHalfPrecision(boolean halfPrecision) {
+		this.halfPrecision = halfPrecision;
+		if(this.kernelValue!=null){
+			this.setExamplesToStore(this.examplesToStore);
 		}
-		this.exampleLastAccess = new long[examplesToStore];
-		Arrays.fill(this.exampleLastAccess, 0);
-		this.accessesCounter=0;
-		this.examplesToDiscard = (int) (FLUSHING_PERCENTAGE*this.examplesToStore)+1;
 	}
 
 	@Override
 	protected Float getStoredKernelValue(Example exA, Example exB) {
-		long idA = exA.getId();
-		long idB = exB.getId();
-
-		int positionA = this.fromExampleIdToCachePosition.get(idA);
-		int positionB = this.fromExampleIdToCachePosition.get(idB);
+		float value = this.getStoredPrimitiveKernelValue(exA, exB);
+		if(Float.isNaN(value)){
+			return null;
+		}
+		return new Float(value);
+	}
+	
+	@Override
+	protected synchronized float getStoredPrimitiveKernelValue(Example exA, Example exB) {
+		int positionA = this.examplePositions.get(exA);
+		int positionB = this.examplePositions.get(exB);
 
 		if(positionA==NULL_POSITION || positionB==NULL_POSITION){
-			return null;
+			return INVALID_KERNEL_VALUE;
 		}
 		
-		int kernelIndex=this.getKernelValueIndex(positionA, positionB);
+		long kernelIndex=this.getKernelValueIndex(positionA, positionB);
 
-		float value =this.kernelValue[kernelIndex];
+		float value =this.kernelValue.get(kernelIndex);
 		if(Float.isNaN(value)){
-			return null;
+			return INVALID_KERNEL_VALUE;
 		}
-		this.exampleLastAccess[positionA] = this.accessesCounter;
-		this.accessesCounter++;
-		this.exampleLastAccess[positionB] = this.accessesCounter;
-		this.accessesCounter++;
+		this.positions.touch(positionA);
+		this.positions.touch(positionB);
 		//System.out.println("found: " + value);
-		return new Float(value);
+		return value;
 	}
 
-	private int getKernelValueIndex(int indexA, int indexB){
-
-		int minimum=indexA;
-		int maximum=indexB;
-		if(indexA>indexB){
-			minimum=indexB;
-			maximum=indexA;
-		}
-		if(minimum==0){
-			return maximum;
-		}
-
-		int index=minimum*(this.examplesToStore-1);
-		index-=((minimum-1)*minimum)>>1;
-
-		return index+maximum;
+	private long getKernelValueIndex(int indexA, int indexB){
+		return getTriangularIndex(indexA, indexB, this.examplesToStore);
 	}
 
 	@Override
-	public void setKernelValue(Example exA, Example exB, float value) {
-		long idA = exA.getId();
-		long idB = exB.getId();
-		
-		int positionA = this.fromExampleIdToCachePosition.get(idA);
-		int positionB = this.fromExampleIdToCachePosition.get(idB);
+	public synchronized void setKernelValue(Example exA, Example exB, float value) {
+		int positionA = this.examplePositions.get(exA);
+		int positionB = this.examplePositions.get(exB);
 
 		if(positionA!=NULL_POSITION){
-			this.exampleLastAccess[positionA] = this.accessesCounter;
+			this.positions.touch(positionA);
 		}
 		if(positionB!=NULL_POSITION){
-			this.exampleLastAccess[positionB] = this.accessesCounter;
+			this.positions.touch(positionB);
 		}
 		
 		if(positionA==NULL_POSITION){
 			//System.out.println("not found example " + exA.getId());
-			positionA=this.insertNewExample(idA);
+			positionA=this.insertNewExample(exA);
 			
 		}
 		
 		if(positionB==NULL_POSITION){
-			if(idA==idB){
+			if(exA.getId()==exB.getId()){
 				positionB=positionA;
 			}else{
-				positionB=this.insertNewExample(idB);
+				positionB=this.insertNewExample(exB);
 			}
 			//System.out.println("not found example " + exA.getId());
 			
 			
 		}
 
-		int kernelIndex=this.getKernelValueIndex(positionA, positionB);
-		this.kernelValue[kernelIndex] = value;
-		this.accessesCounter++;
+		long kernelIndex=this.getKernelValueIndex(positionA, positionB);
+		this.kernelValue.set(kernelIndex, value);
 
 
 	}
 	
-	private int insertNewExample(long exampleID){
+	private int insertNewExample(Example example){
 		
-		if(this.freePositions.size()==0){
-			this.removeOldValues();
+		if(!this.positions.hasFreePositions()){
+			this.removeOldValue();
 		}
 		
-		int position = this.freePositions.remove(this.freePositions.size()-1);
-		this.fromExampleIdToCachePosition.put(exampleID, position);
-		this.fromCachePositionToExampleId.put(position, exampleID);
-		this.exampleLastAccess[position] = this.accessesCounter;
+		int position = this.positions.acquire();
+		this.examplePositions.put(example, position);
 		return position;
 	}
 	
-	private void removeOldValues(){
-		LinkedList<Integer> indicesToClean = findIndicesSmallerNValues(this.exampleLastAccess, this.examplesToDiscard);
-		long accessShift = this.exampleLastAccess[indicesToClean.getFirst()];
-		for(int i=0; i<this.exampleLastAccess.length; i++){
-			this.exampleLastAccess[i]=this.exampleLastAccess[i]-accessShift;
-		}
-		this.accessesCounter -= accessShift;
-		
-		for(int index : indicesToClean){
-			this.freePositions.add(index);
-			this.invalidKernelValues(index);
-			this.exampleLastAccess[index]=0;
-			
-			this.fromExampleIdToCachePosition.remove(this.fromCachePositionToExampleId.get(index));
-			this.fromCachePositionToExampleId.remove(index);
-		}
-
+	private void removeOldValue(){
+		long start = System.nanoTime();
+		int index = this.positions.releaseLeastRecentlyUsed();
+		this.exampleEvicted(index);
+		this.invalidKernelValues(index);
+		this.examplePositions.remove(index);
+		this.recordEviction(System.nanoTime()-start);
 	}
 
 	private void invalidKernelValues(int exampleIndex){
 		
 		int counter=0;
-		int baseIndex=0;
-		int indexToInvalidate=0;
+		long baseIndex=0;
+		long indexToInvalidate=0;
 		while(counter<exampleIndex){
 			indexToInvalidate=baseIndex+exampleIndex;
 
-			this.kernelValue[indexToInvalidate] = INVALID_KERNEL_VALUE; 
+			this.kernelValue.set(indexToInvalidate, INVALID_KERNEL_VALUE); 
 			counter++;
 			baseIndex+=(this.examplesToStore-counter);
 		}
 
-		int startingIndex = this.getKernelValueIndex(exampleIndex, exampleIndex);
-		for(int i = 0; i<this.examplesToStore-counter; i++){
-			this.kernelValue[startingIndex+i] = INVALID_KERNEL_VALUE;
-		}
+		long startingIndex = this.getKernelValueIndex(exampleIndex, exampleIndex);
+		this.kernelValue.fill(startingIndex, startingIndex+this.examplesToStore-counter, INVALID_KERNEL_VALUE);
+		this.recordInvalidation();
 	}
 	
+	/**
+	 * @return the number of examples that can be simultaneously stored
+	 */
 	@Override
-	public void flushCache() {
-		this.accessesCounter=0;
-		this.fromExampleIdToCachePosition.clear();
-		this.fromCachePositionToExampleId.clear();
-		Arrays.fill(this.exampleLastAccess, 0);
-		Arrays.fill(this.kernelValue, INVALID_KERNEL_VALUE);
-		this.freePositions.clear();
-		for(int i=0; i<examplesToStore; i++){
-			this.freePositions.add(i);
-		}
-		this.accessesCounter=0;
+	public long getCapacity() {
+		return this.examplesToStore;
+	}
+	
+	/**
+	 * @return the number of examples currently stored
+	 */
+	@Override
+	public synchronized long getOccupancy() {
+		return this.positions==null ? 0 : this.positions.getNumberOfUsedPositions();
+	}
+	
+	@Override
+	public long getMemoryUsage() {
+		//the position tables take about 6 ints per example
+		return this.cacheSize*(this.halfPrecision ? 2 : 4) + 24L*this.examplesToStore;
+	}
+	
+	/**
+	 * Invoked when the kernel computations of the example in <code>position</code> are going to be
+	 * discarded to free space, while they can still be read through <code>getCachedExampleId</code> and
+	 * <code>getCachedKernelValue</code>. The default implementation does nothing
+	 * 
+	 * @param position the cache position of the discarded example
+	 */
+	protected void exampleEvicted(int position){
 		
 	}
 	
-	private static LinkedList<Integer> findIndicesSmallerNValues(long [] values, int n){
-		LinkedList<Integer> indices = new LinkedList<Integer>();
-		for(int i=0; i<n; i++){
-			insertIntoOrderedList(indices, values, i, values[i]);
+	/**
+	 * Returns the ID of the example assigned to a cache position
+	 * 
+	 * @param position a cache position, in [0, examplesToStore)
+	 * @return the ID of the example, or -1 if the position is free
+	 */
+	protected long getCachedExampleId(int position){
+		return this.examplePositions.getExampleId(position);
+	}
+	
+	/**
+	 * Returns the kernel computation between the examples assigned to two cache positions
+	 * 
+	 * @param positionA a cache position, in [0, examplesToStore)
+	 * @param positionB a cache position, in [0, examplesToStore)
+	 * @return the kernel computation, or <code>Float.NaN</code> if it is not stored
+	 */
+	protected float getCachedKernelValue(int positionA, int positionB){
+		return this.kernelValue.get(this.getKernelValueIndex(positionA, positionB));
+	}
+	
+	@Override
+	protected synchronized void visitStoredKernelValues(List<Example> examples, StoredKernelValueVisitor visitor) {
+		long[] exampleIds = new long[this.examplesToStore];
+		for(int i=0; i<this.examplesToStore; i++){
+			exampleIds[i] = this.examplePositions.getExampleId(i);
 		}
-		
-		for(int i=n; i<values.length; i++){
-			if(values[i]<values[indices.get(0)]){
-				indices.remove();
-				insertIntoOrderedList(indices, values, i, values[i]);
+		int[] listPositions = findExamples(exampleIds, examples);
+		for(int i=0; i<this.examplesToStore; i++){
+			if(listPositions[i]<0){
+				continue;
+			}
+			for(int j=i; j<this.examplesToStore; j++){
+				if(listPositions[j]<0){
+					continue;
+				}
+				float value = this.kernelValue.get(this.getKernelValueIndex(i, j));
+				if(!Float.isNaN(value)){
+					visitor.visit(Math.min(listPositions[i], listPositions[j]),
+							Math.max(listPositions[i], listPositions[j]), value);
+				}
 			}
 		}
-		return indices;
 	}
 	
-	private static void insertIntoOrderedList(List<Integer> indices, long[] values, int elementIndex, long elementValue){
-		int position=0;
-		for(int index : indices){
-			if(values[index]<elementValue){
-				break;
-			}
-			position++;
-		}
-		indices.add(position, elementIndex);
+	@Override
+	public synchronized void flushCache() {
+		this.examplePositions.clear();
+		this.kernelValue.fill(INVALID_KERNEL_VALUE);
+		this.positions.clear();
 	}
 
 }
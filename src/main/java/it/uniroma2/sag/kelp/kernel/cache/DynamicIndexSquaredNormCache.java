@@ -17,39 +17,32 @@ package it.uniroma2.sag.kelp.kernel.cache;
 
 /**
  * Cache that stores quadratic norms. It has a fix dimension.
- * When the cache is full a Last recently used strategy is applied for eliminating some entries
+ * When the cache is full a Least Recently Used strategy is applied for eliminating a single entry
+ * in constant time.
+ * The examples added to a dataset are mapped to their cache positions through their dense index,
+ * without any hashing (see <code>Example.getIndex()</code>).
+ * All the operations are synchronized on the cache instance
  * 
  * @author      Simone Filice
  */
 
-import gnu.trove.map.hash.TIntLongHashMap;
-import gnu.trove.map.hash.TLongIntHashMap;
 import it.uniroma2.sag.kelp.data.example.Example;
 
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.LinkedList;
-import java.util.List;
 
 import com.fasterxml.jackson.annotation.JsonTypeName;
 
 @JsonTypeName("dynamicIndex")
-public class DynamicIndexSquaredNormCache implements SquaredNormCache{
+public class DynamicIndexSquaredNormCache implements PrimitiveSquaredNormCache{
 	
 	private static final float INVALID_NORM_VALUE = Float.NaN; // do not change this
-	private static final float FLUSHING_PERCENTAGE = 0.1f;
-	private static final long NULL_EXAMPLE_ID = -1;
-	private static final int NULL_POSITION = -1;
+	private static final int NULL_POSITION = ExamplePositionTable.NULL_POSITION;
 
 	private int examplesToStore;
-	private int examplesToDiscard;
 	
-	private TLongIntHashMap fromExampleIdToCachePosition;
-	private TIntLongHashMap fromCachePositionToExampleId;
+	private ExamplePositionTable examplePositions;
 	private float [] normValues;
-	private long accessesCounter;
-	private long [] exampleLastAccess;
-	private ArrayList<Integer> freePositions;
+	private LeastRecentlyUsedPositions positions;
 	
 	
 
@@ -66,7 +59,7 @@ public class DynamicIndexSquaredNormCache implements SquaredNormCache{
 	}
 
 	public DynamicIndexSquaredNormCache(){
-		this.freePositions = new ArrayList<Integer>();
+		
 	}
 
 	/**
@@ -87,148 +80,81 @@ public class DynamicIndexSquaredNormCache implements SquaredNormCache{
 	 * <p>
 	 * NOTE: all the already stored norms will be lost
 	 */
-	public void setExamplesToStore(int examplesToStore) {
+	public synchronized void setExamplesToStore(int examplesToStore) {
 		this.examplesToStore = examplesToStore;
 
-		this.fromExampleIdToCachePosition = new TLongIntHashMap(examplesToStore, 0.75f, NULL_EXAMPLE_ID, NULL_POSITION);
-		this.fromCachePositionToExampleId = new TIntLongHashMap(examplesToStore, 0.75f, NULL_POSITION, NULL_EXAMPLE_ID);
+		this.examplePositions = new ExamplePositionTable(examplesToStore);
 
 		this.normValues = new float [examplesToStore];
 		//Arrays.fill(this.cachedExample, INVALID_EXAMPLE_VALUE);
 		Arrays.fill(this.normValues, INVALID_NORM_VALUE);
 		
-		for(int i=0; i<examplesToStore; i++){
-			this.freePositions.add(i);
-		}
-		this.exampleLastAccess = new long[examplesToStore];
-		Arrays.fill(this.exampleLastAccess, 0);
-		this.accessesCounter=0;
-		this.examplesToDiscard = (int) (FLUSHING_PERCENTAGE*this.examplesToStore)+1;
+		this.positions = new LeastRecentlyUsedPositions(examplesToStore);
 	}
 	
-	private int insertNewExample(long exampleID){
+	private int insertNewExample(Example example){
 		
-		if(this.freePositions.size()==0){
-			this.removeOldValues();
+		if(!this.positions.hasFreePositions()){
+			this.removeOldValue();
 		}
 		
-		int position = this.freePositions.remove(this.freePositions.size()-1);
-		this.fromExampleIdToCachePosition.put(exampleID, position);
-		this.fromCachePositionToExampleId.put(position, exampleID);
-		this.exampleLastAccess[position] = this.accessesCounter;
+		int position = this.positions.acquire();
+		this.examplePositions.put(example, position);
 		return position;
 	}
 	
-	private void removeOldValues(){
-		LinkedList<Integer> indicesToClean = findIndicesSmallerNValues(this.exampleLastAccess, this.examplesToDiscard);
-		long accessShift = this.exampleLastAccess[indicesToClean.getFirst()];
-		for(int i=0; i<this.exampleLastAccess.length; i++){
-			this.exampleLastAccess[i]=this.exampleLastAccess[i]-accessShift;
-		}
-		this.accessesCounter -= accessShift;
-		
-		for(int index : indicesToClean){
-			this.freePositions.add(index);
-			this.normValues[index]=INVALID_NORM_VALUE;
-			this.exampleLastAccess[index]=0;
-			
-			this.fromExampleIdToCachePosition.remove(this.fromCachePositionToExampleId.get(index));
-			this.fromCachePositionToExampleId.remove(index);
-		}
-
+	private void removeOldValue(){
+		int index = this.positions.releaseLeastRecentlyUsed();
+		this.normValues[index]=INVALID_NORM_VALUE;
+		this.examplePositions.remove(index);
 	}
 	
-//	@Override
-//	public void flushCache() {
-//		this.accessesCounter=0;
-//		this.fromExampleIdToCachePosition.clear();
-//		this.fromCachePositionToExampleId.clear();
-//		Arrays.fill(this.exampleLastAccess, 0);
-//		Arrays.fill(this.kernelValue, INVALID_KERNEL_VALUE);
-//		this.freePositions.clear();
-//		for(int i=0; i<examplesToStore; i++){
-//			this.freePositions.add(i);
-//		}
-//		this.accessesCounter=0;
-//		
-//	}
-	
-	private static LinkedList<Integer> findIndicesSmallerNValues(long [] values, int n){
-		LinkedList<Integer> indices = new LinkedList<Integer>();
-		for(int i=0; i<n; i++){
-			insertIntoOrderedList(indices, values, i, values[i]);
-		}
-		
-		for(int i=n; i<values.length; i++){
-			if(values[i]<values[indices.get(0)]){
-				indices.remove();
-				insertIntoOrderedList(indices, values, i, values[i]);
-			}
+	@Override
+	public Float getSquaredNorm(Example example) {
+		float value = this.getPrimitiveSquaredNorm(example);
+		if(Float.isNaN(value)){
+			return null;
 		}
-		return indices;
+		return new Float(value);
 	}
 	
-	private static void insertIntoOrderedList(List<Integer> indices, long[] values, int elementIndex, long elementValue){
-		int position=0;
-		for(int index : indices){
-			if(values[index]<elementValue){
-				break;
-			}
-			position++;
-		}
-		indices.add(position, elementIndex);
-	}
-
 	@Override
-	public Float getSquaredNorm(Example example) {
-		long id = example.getId();
-	
-		int position = this.fromExampleIdToCachePosition.get(id);
+	public synchronized float getPrimitiveSquaredNorm(Example example) {
+		int position = this.examplePositions.get(example);
 
 		if(position==NULL_POSITION){
-			return null;
+			return INVALID_NORM_VALUE;
 		}
 
 		float value =this.normValues[position];
 		if(Float.isNaN(value)){
-			return null;
+			return INVALID_NORM_VALUE;
 		}
-		this.exampleLastAccess[position] = this.accessesCounter;
-		this.accessesCounter++;
+		this.positions.touch(position);
 		//System.out.println("found: " + value);
-		return new Float(value);
+		return value;
 	}
 
 	@Override
-	public void setSquaredNormValue(Example example, float squaredNorm) {
-		long id = example.getId();
-		
-		int position = this.fromExampleIdToCachePosition.get(id);
+	public synchronized void setSquaredNormValue(Example example, float squaredNorm) {
+		int position = this.examplePositions.get(example);
 
 		if(position!=NULL_POSITION){
-			this.exampleLastAccess[position] = this.accessesCounter;
+			this.positions.touch(position);
 		}else{
-			position=this.insertNewExample(id);
+			position=this.insertNewExample(example);
 			
 		}
 		
 		this.normValues[position] = squaredNorm;
-		this.accessesCounter++;
 		
 	}
 
 	@Override
-	public void flush() {
-		this.accessesCounter=0;
-		this.fromExampleIdToCachePosition.clear();
-		this.fromCachePositionToExampleId.clear();
-		Arrays.fill(this.exampleLastAccess, 0);
+	public synchronized void flush() {
+		this.examplePositions.clear();
 		Arrays.fill(this.normValues, INVALID_NORM_VALUE);
-		this.freePositions.clear();
-		for(int i=0; i<examplesToStore; i++){
-			this.freePositions.add(i);
-		}
-		this.accessesCounter=0;
+		this.positions.clear();
 	}
 
 }
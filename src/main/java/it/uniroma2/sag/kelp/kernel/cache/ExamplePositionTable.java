@@ -0,0 +1,143 @@
+/*
+ * Copyright 2026 agent
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package it.uniroma2.sag.kelp.kernel.cache;
+
+import gnu.trove.map.hash.TLongIntHashMap;
+import it.uniroma2.sag.kelp.data.example.Example;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Maps the examples to the positions of a cache. The examples having a dense index
+ * (see <code>Example.getIndex()</code>) are looked up in an array indexed by their index, without
+ * any hashing, while the examples that have never been added to a dataset are looked up by ID
+ * in a hash map.
+ * <p>
+ * NOTE: this class is not thread-safe
+ *
+ * @author agent
+ */
+class ExamplePositionTable implements Serializable {
+
+	private static final long serialVersionUID = -2203870981451233214L;
+	static final int NULL_POSITION = -1;
+	private static final long NULL_EXAMPLE_ID = -1;
+	private static final int MINIMUM_TABLE_SIZE = 16;
+
+	private int[] fromExampleIndexToPosition;
+	private TLongIntHashMap fromExampleIdToPosition;
+	private long[] fromPositionToExampleId;
+	private int[] fromPositionToExampleIndex;
+
+	/**
+	 * @param numberOfPositions the number of positions of the cache
+	 */
+	ExamplePositionTable(int numberOfPositions) {
+		this.fromExampleIndexToPosition = new int[Math.max(numberOfPositions, MINIMUM_TABLE_SIZE)];
+		Arrays.fill(this.fromExampleIndexToPosition, NULL_POSITION);
+		this.fromExampleIdToPosition = new TLongIntHashMap(MINIMUM_TABLE_SIZE, 0.75f, NULL_EXAMPLE_ID, NULL_POSITION);
+		this.fromPositionToExampleId = new long[numberOfPositions];
+		Arrays.fill(this.fromPositionToExampleId, NULL_EXAMPLE_ID);
+		this.fromPositionToExampleIndex = new int[numberOfPositions];
+		Arrays.fill(this.fromPositionToExampleIndex, Example.NO_INDEX);
+	}
+
+	/**
+	 * Returns the position assigned to <code>example</code>
+	 *
+	 * @param example the example to be looked up
+	 * @return the position of <code>example</code>, <code>NULL_POSITION</code> if it has no position
+	 */
+	int get(Example example) {
+		int index = example.getIndex();
+		if (index == Example.NO_INDEX) {
+			return this.fromExampleIdToPosition.get(example.getId());
+		}
+		if (index >= this.fromExampleIndexToPosition.length) {
+			return NULL_POSITION;
+		}
+		int position = this.fromExampleIndexToPosition[index];
+		if (position == NULL_POSITION || this.fromPositionToExampleId[position] != example.getId()) {
+			return NULL_POSITION;
+		}
+		return position;
+	}
+
+	/**
+	 * Assigns a free position to <code>example</code>
+	 *
+	 * @param example the example
+	 * @param position the position to be assigned
+	 */
+	void put(Example example, int position) {
+		int index = example.getIndex();
+		if (index == Example.NO_INDEX) {
+			this.fromExampleIdToPosition.put(example.getId(), position);
+		} else {
+			if (index >= this.fromExampleIndexToPosition.length) {
+				int oldLength = this.fromExampleIndexToPosition.length;
+				int newLength = (int) Math.min(Integer.MAX_VALUE, Math.max(index + 1L, 2L * oldLength));
+				this.fromExampleIndexToPosition = Arrays.copyOf(this.fromExampleIndexToPosition, newLength);
+				Arrays.fill(this.fromExampleIndexToPosition, oldLength, newLength, NULL_POSITION);
+			}
+			this.fromExampleIndexToPosition[index] = position;
+		}
+		this.fromPositionToExampleId[position] = example.getId();
+		this.fromPositionToExampleIndex[position] = index;
+	}
+
+	/**
+	 * Returns the ID of the example assigned to <code>position</code>
+	 *
+	 * @param position a position
+	 * @return the ID of the example, or -1 if the position is free
+	 */
+	long getExampleId(int position) {
+		return this.fromPositionToExampleId[position];
+	}
+
+	/**
+	 * Removes the example assigned to <code>position</code>
+	 *
+	 * @param position the position to be freed
+	 */
+	void remove(int position) {
+		long id = this.fromPositionToExampleId[position];
+		if (id == NULL_EXAMPLE_ID) {
+			return;
+		}
+		int index = this.fromPositionToExampleIndex[position];
+		if (index == Example.NO_INDEX) {
+			this.fromExampleIdToPosition.remove(id);
+		} else {
+			this.fromExampleIndexToPosition[index] = NULL_POSITION;
+		}
+		this.fromPositionToExampleId[position] = NULL_EXAMPLE_ID;
+		this.fromPositionToExampleIndex[position] = Example.NO_INDEX;
+	}
+
+	/**
+	 * Removes all the examples
+	 */
+	void clear() {
+		for (int position = 0; position < this.fromPositionToExampleId.length; position++) {
+			this.remove(position);
+		}
+		this.fromExampleIdToPosition.clear();
+	}
+
+}
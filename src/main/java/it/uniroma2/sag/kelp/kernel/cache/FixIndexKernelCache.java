@@ -18,11 +18,18 @@ package it.uniroma2.sag.kelp.kernel.cache;
 /**
  * Cache for kernel computations. It is the optimal solution when all the pairwise kernel computations
  * between all the examples in the Dataset can be simultaneously stored in cache. 
- * Given a number of examples to store m, the memory occupation is about m*(m+1)/2 floats = m*(m+1)*2B
+ * Given a number of examples to store m, the memory occupation is about m*(m+1)/2 floats = m*(m+1)*2B,
+ * or m*(m+1)B if the kernel values are stored as half precision floats (see <code>setHalfPrecision</code>).
+ * The kernel values are stored in pages indexed by <code>long</code>s, so more than 65k examples
+ * can be stored (an int index over the triangular matrix overflows at about 65k examples).
  * Once the cache is initialized, its dimension is immutable. 
- * Every example has some reserved cache space that depends on its ID. It means that if two examples have
- * have IDs pointing at the same memory space, their kernel computations cannot be simultaneously stored
- * in cache.   
+ * Every example has some reserved cache space that depends on its dense index (see <code>Example.getIndex()</code>),
+ * or on its ID if it has never been added to a dataset. It means that if two examples have
+ * have indices pointing at the same memory space, their kernel computations cannot be simultaneously stored
+ * in cache. As the examples of a dataset have consecutive indices, no collision occurs when the
+ * cache can store all the examples of the dataset.   
+ * <p>
+ * All the operations are synchronized on the cache instance
  * 
  * @author      Simone Filice
  */
@@ -32,6 +39,7 @@ import it.uniroma2.sag.kelp.data.example.Example;
 
 import java.io.Serializable;
 import java.util.Arrays;
+import java.util.List;
 
 import com.fasterxml.jackson.annotation.JsonTypeName;
 
@@ -43,11 +51,12 @@ public class FixIndexKernelCache extends KernelCache implements Serializable{
 	private static final float INVALID_KERNEL_VALUE = Float.NaN; // se si cambia, bisogna cambiare anche il getKernelValue
 	private static final long INVALID_EXAMPLE_VALUE = -1;
 	
-	private int cacheSize;//the number of kernel computations that can be stored
+	private long cacheSize;//the number of kernel computations that can be stored
 	private int examplesToStore;
 
 	private long [] cachedExample;
-	private float [] kernelValue;
+	private KernelValueArray kernelValue;
+	private boolean halfPrecision;
 	
 	/**
 	 * Initializes a FixIndexKernelCache that can contain all the possible pairwise kernel computations
@@ -61,6 +70,20 @@ public class FixIndexKernelCache extends KernelCache implements Serializable{
 		setExamplesToStore(examplesToStore);
 	}
 	
+	/**
+	 * Initializes a FixIndexKernelCache that can contain all the possible pairwise kernel computations
+	 * between up to <code>examplesToStore</code> examples
+	 * 
+	 * @param examplesToStore the maximum number of examples whose pairwise kernel computations
+	 * can be simultaneously stored
+	 * @param halfPrecision whether the kernel values must be stored as half precision floats
+	 */
+	public FixIndexKernelCache(int examplesToStore, boolean halfPrecision){
+		this();
+		this.halfPrecision = halfPrecision;
+		setExamplesToStore(examplesToStore);
+	}
+
 	public FixIndexKernelCache(){
 		super();
 	}
@@ -83,59 +106,83 @@ public class FixIndexKernelCache extends KernelCache implements Serializable{
 	 * <p>
 	 * NOTE: all the already stored kernel computations will be lost
 	 */
-	public void setExamplesToStore(int examplesToStore) {
+	public synchronized void setExamplesToStore(int examplesToStore) {
 		this.examplesToStore = examplesToStore;
-		this.cacheSize = examplesToStore*(examplesToStore+1)/2;
+		this.cacheSize = (long)examplesToStore*(examplesToStore+1)/2;
 		this.cachedExample = new long[examplesToStore];
-		this.kernelValue = new float [this.cacheSize];
+		if(this.halfPrecision){
+			this.kernelValue = new PagedHalfFloatArray(this.cacheSize);
+		}else{
+			this.kernelValue = new PagedFloatArray(this.cacheSize);
+		}
 		Arrays.fill(this.cachedExample, INVALID_EXAMPLE_VALUE);
-		Arrays.fill(this.kernelValue, INVALID_KERNEL_VALUE);
+		this.kernelValue.fill(INVALID_KERNEL_VALUE);
+	}
+
+	/**
+	 * Returns whether the kernel values are stored as IEEE 754 half precision floats,
+	 * halving the memory occupation (see <code>PagedHalfFloatArray</code>)
+	 * 
+	 * @return the halfPrecision
+	 */
+	public boolean isHalfPrecision() {
+		return halfPrecision;
+	}
+
+	/**
+	 * Sets whether the kernel values are stored as IEEE 754 half precision floats,
+	 * halving the memory occupation. The relative error of the stored values is at
+	 * most 2^-11, which is negligible for normalized kernels
+	 * 
+	 * @param halfPrecision the halfPrecision to set
+	 * <p>
+	 * NOTE: all the already stored kernel computations will be lost
+	 */
+	public synchronized void setHalfPrecision(boolean halfPrecision) {
+		this.halfPrecision = halfPrecision;
+		if(this.kernelValue!=null){
+			this.setExamplesToStore(this.examplesToStore);
+		}
 	}
 	
 	@Override
 	protected Float getStoredKernelValue(Example exA, Example exB){
+		float value = this.getStoredPrimitiveKernelValue(exA, exB);
+		if(Float.isNaN(value)){
+			return null;
+		}
+		return new Float(value);
+	}
+	
+	@Override
+	protected synchronized float getStoredPrimitiveKernelValue(Example exA, Example exB){
 		
 		int indexA = this.getExampleIndex(exA);
 		int indexB = this.getExampleIndex(exB);
 		
 		if(this.cachedExample[indexA]!=exA.getId() || this.cachedExample[indexB]!=exB.getId()){
-			return null;
+			return INVALID_KERNEL_VALUE;
 		}
 				
-		int kernelValueIndex = this.getKernelValueIndex(indexA, indexB);
-		
-		if(Float.isNaN(this.kernelValue[kernelValueIndex])){			
-			return null;
-		}
+		long kernelValueIndex = this.getKernelValueIndex(indexA, indexB);
 		
-		return new Float(this.kernelValue[kernelValueIndex]);
+		return this.kernelValue.get(kernelValueIndex);
 	}
 	
 	private int getExampleIndex(Example exA){
-		return (int) (exA.getId()%this.examplesToStore);
+		long key = exA.getIndex();
+		if(key==Example.NO_INDEX){
+			key = exA.getId();
+		}
+		return (int) (key%this.examplesToStore);
 	}
 	
-	private int getKernelValueIndex(int indexA, int indexB){
-		
-		int minimum=indexA;
-		int maximum=indexB;
-		if(indexA>indexB){
-			minimum=indexB;
-			maximum=indexA;
-		}
-		if(minimum==0){
-			return maximum;
-		}
-		
-		int index=minimum*(this.examplesToStore-1);
-		index-=((minimum-1)*minimum)>>1;
-				
-		return index+maximum;
-		
+	private long getKernelValueIndex(int indexA, int indexB){
+		return getTriangularIndex(indexA, indexB, this.examplesToStore);
 	}
 	
 	@Override
-	public void setKernelValue(Example exA, Example exB, float value){
+	public synchronized void setKernelValue(Example exA, Example exB, float value){
 		
 		int indexA = this.getExampleIndex(exA);
 		int indexB = this.getExampleIndex(exB);
@@ -159,36 +206,87 @@ public class FixIndexKernelCache extends KernelCache implements Serializable{
 			this.cachedExample[indexB]=exB.getId();
 		}
 		
-		int kernelIndex=this.getKernelValueIndex(indexA, indexB);
-		this.kernelValue[kernelIndex]=value;
+		long kernelIndex=this.getKernelValueIndex(indexA, indexB);
+		this.kernelValue.set(kernelIndex, value);
 	}
 	
 	private void invalidateKernelValues(int exampleIndex){
+		long start=System.nanoTime();
 		int counter=0;
-		int baseIndex=0;
-		int indexToInvalidate=0;
+		long baseIndex=0;
+		long indexToInvalidate=0;
 		while(counter<exampleIndex){
 			indexToInvalidate=baseIndex+exampleIndex;
 			
-			this.kernelValue[indexToInvalidate] = INVALID_KERNEL_VALUE; 
+			this.kernelValue.set(indexToInvalidate, INVALID_KERNEL_VALUE); 
 			counter++;
 			baseIndex+=(this.examplesToStore-counter);
 		}
 		
-		int startingIndex = this.getKernelValueIndex(exampleIndex, exampleIndex);
-		for(int i = 0; i<this.examplesToStore-counter; i++){
-			this.kernelValue[startingIndex+i] = INVALID_KERNEL_VALUE;
+		long startingIndex = this.getKernelValueIndex(exampleIndex, exampleIndex);
+		this.kernelValue.fill(startingIndex, startingIndex+this.examplesToStore-counter, INVALID_KERNEL_VALUE);
+		//in this cache an example is invalidated only when it is replaced by a colliding one
+		this.recordInvalidation();
+		this.recordEviction(System.nanoTime()-start);
+	}
+	
+	/**
+	 * @return the number of examples that can be simultaneously stored
+	 */
+	@Override
+	public long getCapacity() {
+		return this.examplesToStore;
+	}
+	
+	/**
+	 * @return the number of examples currently stored
+	 */
+	@Override
+	public synchronized long getOccupancy() {
+		long occupancy=0;
+		for(int i=0; i<this.examplesToStore; i++){
+			if(this.cachedExample[i]!=INVALID_EXAMPLE_VALUE){
+				occupancy++;
+			}
 		}
+		return occupancy;
+	}
+	
+	@Override
+	public long getMemoryUsage() {
+		return this.cacheSize*(this.halfPrecision ? 2 : 4) + 8L*this.examplesToStore;
 	}
 	
 	@Override
-	public void flushCache() {
+	protected synchronized void visitStoredKernelValues(List<Example> examples, StoredKernelValueVisitor visitor) {
+		long[] exampleIds = new long[this.examplesToStore];
 		for(int i=0; i<this.examplesToStore; i++){
-			this.cachedExample[i] = INVALID_EXAMPLE_VALUE;
+			exampleIds[i] = this.cachedExample[i];
+		}
+		int[] listPositions = findExamples(exampleIds, examples);
+		for(int i=0; i<this.examplesToStore; i++){
+			if(listPositions[i]<0){
+				continue;
+			}
+			for(int j=i; j<this.examplesToStore; j++){
+				if(listPositions[j]<0){
+					continue;
+				}
+				float value = this.kernelValue.get(this.getKernelValueIndex(i, j));
+				if(!Float.isNaN(value)){
+					visitor.visit(Math.min(listPositions[i], listPositions[j]),
+							Math.max(listPositions[i], listPositions[j]), value);
+				}
+			}
 		}
-		for(int i=0; i<this.cacheSize; i++){
-			this.kernelValue[i] = INVALID_KERNEL_VALUE;
+	}
+	
+	@Override
+	public synchronized void flushCache() {
+		for(int i=0; i<this.examplesToStore; i++){
+			this.cachedExample[i] = INVALID_EXAMPLE_VALUE;
 		}
+		this.kernelValue.fill(INVALID_KERNEL_VALUE);
 	
 	}
 
@@ -17,9 +17,11 @@ package it.uniroma2.sag.kelp.kernel.cache;
 
 /**
  * Cache that stores quadratic norms. It has a fix dimension.
- * Every example can be assigned to a fix position in the cache that depends on its ID.
+ * Every example can be assigned to a fix position in the cache that depends on its dense index
+ * (see <code>Example.getIndex()</code>), or on its ID if it has never been added to a dataset.
  * It is an optimal solution for storing norms when the cache size is large enough to contain all the examples 
  * in the Dataset. When the Dataset is larger than the cache size, some collisions can occur.
+ * All the operations are synchronized on the cache instance
  * 
  * @author      Simone Filice
  */
@@ -31,7 +33,7 @@ import java.util.Arrays;
 import com.fasterxml.jackson.annotation.JsonTypeName;
 
 @JsonTypeName("fixIndex")
-public class FixIndexSquaredNormCache implements SquaredNormCache{
+public class FixIndexSquaredNormCache implements PrimitiveSquaredNormCache{
 	
 	private int size;
 	private float [] normValues;
@@ -69,7 +71,7 @@ public class FixIndexSquaredNormCache implements SquaredNormCache{
 	 * NOTE: when this methods is invoked, the cache is initialized from scratch, so all the currently stored norms 
 	 * will be lost 
 	 */
-	public void setSize(int cacheSize) {
+	public synchronized void setSize(int cacheSize) {
 		this.size=cacheSize;
 		this.normValues = new float[cacheSize];
 		this.storedExample = new long[cacheSize];
@@ -77,7 +79,7 @@ public class FixIndexSquaredNormCache implements SquaredNormCache{
 	}
 	
 	@Override
-	public Float getSquaredNorm(Example example){
+	public synchronized Float getSquaredNorm(Example example){
 		int exampleIndex = this.getExampleIndex(example);
 		if(this.storedExample[exampleIndex]==example.getId()){
 			return new Float(this.normValues[exampleIndex]);
@@ -86,19 +88,33 @@ public class FixIndexSquaredNormCache implements SquaredNormCache{
 		return null;
 	}
 	
+	@Override
+	public synchronized float getPrimitiveSquaredNorm(Example example){
+		int exampleIndex = this.getExampleIndex(example);
+		if(this.storedExample[exampleIndex]==example.getId()){
+			return this.normValues[exampleIndex];
+		}
+		
+		return Float.NaN;
+	}
+	
 	private int getExampleIndex(Example example){
-		return (int) (example.getId()%this.size);
+		long key = example.getIndex();
+		if(key==Example.NO_INDEX){
+			key = example.getId();
+		}
+		return (int) (key%this.size);
 	}
 	
 	@Override
-	public void setSquaredNormValue(Example example, float squaredNorm){
+	public synchronized void setSquaredNormValue(Example example, float squaredNorm){
 		int exampleIndex = this.getExampleIndex(example);
 		this.storedExample[exampleIndex] = example.getId();
 		this.normValues[exampleIndex] = squaredNorm;
 	}
 
 	@Override
-	public void flush() {
+	public synchronized void flush() {
 		Arrays.fill(storedExample, INVALID_EXAMPLE_VALUE);
 	}
 
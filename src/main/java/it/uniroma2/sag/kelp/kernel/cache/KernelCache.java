@@ -15,7 +15,12 @@
 
 package it.uniroma2.sag.kelp.kernel.cache;
 
+import gnu.trove.map.hash.TLongIntHashMap;
 import it.uniroma2.sag.kelp.data.example.Example;
+import it.uniroma2.sag.kelp.utils.StripedCounter;
+
+import java.util.LinkedList;
+import java.util.List;
 
 import com.fasterxml.jackson.annotation.JsonIdentityInfo;
 import com.fasterxml.jackson.annotation.JsonIgnore;
@@ -26,6 +31,13 @@ import com.fasterxml.jackson.databind.annotation.JsonTypeIdResolver;
 
 /**
  * Generic Cache for kernel computations 
+ * <p>
+ * Implementations must be thread-safe, as a <code>Kernel</code> can be evaluated concurrently
+ * by many threads
+ * <p>
+ * Besides hits and misses, the cache counts the evictions and the invalidations reported by
+ * the implementations, and provides a snapshot of all its statistics through
+ * <code>getStatistics</code> (see also <code>KernelCacheMonitor</code> for their JMX exposure)
  * 
  * @author      Simone Filice
  */
@@ -34,8 +46,40 @@ import com.fasterxml.jackson.databind.annotation.JsonTypeIdResolver;
 @JsonIdentityInfo(generator = ObjectIdGenerators.IntSequenceGenerator.class, property = "cacheID")
 public abstract class KernelCache {
 
-	private long cacheHit=0;
-	private long cacheMiss=0;
+	private static final long DEFAULT_STATISTICS_WINDOW = 60000;
+	private static final int MAX_STATISTICS_SAMPLES = 256;
+	
+	private final StripedCounter cacheHit = new StripedCounter();
+	private final StripedCounter cacheMiss = new StripedCounter();
+	private final StripedCounter evictions = new StripedCounter();
+	private final StripedCounter evictionTime = new StripedCounter();
+	private final StripedCounter invalidations = new StripedCounter();
+	
+	private long statisticsWindow = DEFAULT_STATISTICS_WINDOW;
+	/**
+	 * The samples of the cache statistics used to compute the hit ratio over the last
+	 * <code>statisticsWindow</code> milliseconds: every sample is {time, hits, misses}
+	 */
+	private final LinkedList<long[]> statisticsSamples = new LinkedList<long[]>();
+	
+	public KernelCache(){
+		this.statisticsSamples.add(new long[]{System.currentTimeMillis(), 0, 0});
+	}
+	
+	/**
+	 * Receives the kernel operations stored in a cache (see <code>visitStoredKernelValues</code>)
+	 */
+	public interface StoredKernelValueVisitor {
+		
+		/**
+		 * Receives a stored kernel operation
+		 * 
+		 * @param indexA the position of the first example in the visited list
+		 * @param indexB the position of the second example in the visited list, not smaller than <code>indexA</code>
+		 * @param value the kernel similarity
+		 */
+		public void visit(int indexA, int indexB, float value);
+	}
 	
 	/**
 	 * Retrieves in the cache the kernel operation between two examples
@@ -47,13 +91,146 @@ public abstract class KernelCache {
 	public Float getKernelValue(Example exA, Example exB){
 		Float value=this.getStoredKernelValue(exA, exB);
 		if(value==null){
-			cacheMiss++;
+			cacheMiss.increment();
+		}else{
+			cacheHit.increment();
+		}
+		return value;
+	}
+	
+	/**
+	 * Retrieves in the cache the kernel operation between two examples, without allocating 
+	 * any object
+	 * 
+	 * @param exA the first example
+	 * @param exB the second example
+	 * @return the kernel similarity, <code>Float.NaN</code> if a cache miss occurs
+	 */
+	public float getPrimitiveKernelValue(Example exA, Example exB){
+		float value=this.getStoredPrimitiveKernelValue(exA, exB);
+		if(Float.isNaN(value)){
+			cacheMiss.increment();
 		}else{
-			cacheHit++;
+			cacheHit.increment();
 		}
 		return value;
 	}
 	
+	/**
+	 * Retrieves in the cache the kernel operations between an example and a list of examples, 
+	 * i.e. a row of the Gram Matrix
+	 * 
+	 * @param example the example whose kernel row must be retrieved
+	 * @param examples the examples the row refers to
+	 * @param row the array to be filled: the i-th element is the kernel similarity between
+	 * <code>example</code> and the i-th example in <code>examples</code>, <code>Float.NaN</code> if
+	 * a cache miss occurs
+	 * @return the number of cache misses
+	 */
+	public int getKernelRow(Example example, List<Example> examples, float[] row){
+		this.getStoredKernelRow(example, examples, row);
+		int misses=0;
+		for(int i=0; i<examples.size(); i++){
+			if(Float.isNaN(row[i])){
+				misses++;
+			}
+		}
+		cacheMiss.add(misses);
+		cacheHit.add(examples.size()-misses);
+		return misses;
+	}
+	
+	/**
+	 * Retrieves in the cache the kernel operations between an example and a list of examples.
+	 * <p>
+	 * The default implementation invokes <code>getStoredPrimitiveKernelValue</code> for each pair:
+	 * implementations storing whole rows should override it with a bulk read
+	 * 
+	 * @param example the example whose kernel row must be retrieved
+	 * @param examples the examples the row refers to
+	 * @param row the array to be filled, <code>Float.NaN</code> in case of cache misses
+	 */
+	protected void getStoredKernelRow(Example example, List<Example> examples, float[] row){
+		for(int i=0; i<examples.size(); i++){
+			Example other = examples.get(i);
+			if(example.getId()<=other.getId()){
+				row[i]=this.getStoredPrimitiveKernelValue(example, other);
+			}else{
+				row[i]=this.getStoredPrimitiveKernelValue(other, example);
+			}
+		}
+	}
+	
+	/**
+	 * Stores some kernel operations between an example and a list of examples,
+	 * i.e. some elements of a row of the Gram Matrix
+	 * <p>
+	 * The default implementation invokes <code>setKernelValue</code> for each pair:
+	 * implementations storing whole rows should override it with a bulk write
+	 * 
+	 * @param example the example whose kernel row must be stored
+	 * @param examples the examples the row refers to
+	 * @param row the kernel row: the i-th element is the kernel similarity between
+	 * <code>example</code> and the i-th example in <code>examples</code>
+	 * @param positions the positions in <code>row</code> to be stored
+	 * @param numberOfPositions the number of valid elements in <code>positions</code>
+	 */
+	public void setKernelRow(Example example, List<Example> examples, float[] row, int[] positions, int numberOfPositions){
+		for(int p=0; p<numberOfPositions; p++){
+			int i=positions[p];
+			Example other = examples.get(i);
+			if(example.getId()<=other.getId()){
+				this.setKernelValue(example, other, row[i]);
+			}else{
+				this.setKernelValue(other, example, row[i]);
+			}
+		}
+	}
+	
+	/**
+	 * Retrieves all the kernel operations stored in the cache between any pair of the given
+	 * examples, without affecting the cache statistics.
+	 * <p>
+	 * The default implementation reads with <code>getStoredKernelRow</code> the kernel operations
+	 * between every example and the following ones: implementations should override it with a
+	 * scan of the stored values
+	 * 
+	 * @param examples the examples whose kernel operations must be retrieved
+	 * @param visitor the receiver of the stored kernel operations
+	 */
+	protected void visitStoredKernelValues(List<Example> examples, StoredKernelValueVisitor visitor){
+		float[] row = new float[examples.size()];
+		for(int i=0; i<examples.size(); i++){
+			List<Example> following = examples.subList(i, examples.size());
+			this.getStoredKernelRow(examples.get(i), following, row);
+			for(int k=0; k<following.size(); k++){
+				if(!Float.isNaN(row[k])){
+					visitor.visit(i, i+k, row[k]);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Finds some examples in a list
+	 * 
+	 * @param exampleIds the IDs of the examples to find
+	 * @param examples the list of examples
+	 * @return for every ID in <code>exampleIds</code>, the position in <code>examples</code> of
+	 * the example having that ID, or -1 if it is not in the list
+	 */
+	static int[] findExamples(long[] exampleIds, List<Example> examples){
+		TLongIntHashMap positions = new TLongIntHashMap(examples.size()*2, 0.75f, -1, -1);
+		for(int i=0; i<examples.size(); i++){
+			positions.put(examples.get(i).getId(), i);
+		}
+		int[] found = new int[exampleIds.length];
+		for(int i=0; i<exampleIds.length; i++){
+			found[i] = positions.get(exampleIds[i]);
+		}
+		return found;
+	}
+	
 	/**
 	 * Retrieves in the cache the kernel operation between two examples
 	 * 
@@ -62,6 +239,25 @@ public abstract class KernelCache {
 	 * @return the kernel similarity, <code>null<\code> if a cache miss occurs
 	 */
 	protected abstract Float getStoredKernelValue(Example exA, Example exB);
+	
+	/**
+	 * Retrieves in the cache the kernel operation between two examples, without allocating 
+	 * any object.
+	 * <p>
+	 * The default implementation adapts <code>getStoredKernelValue</code>: implementations
+	 * should override it with an allocation-free lookup
+	 * 
+	 * @param exA the first example
+	 * @param exB the second example
+	 * @return the kernel similarity, <code>Float.NaN</code> if a cache miss occurs
+	 */
+	protected float getStoredPrimitiveKernelValue(Example exA, Example exB){
+		Float value=this.getStoredKernelValue(exA, exB);
+		if(value==null){
+			return Float.NaN;
+		}
+		return value.floatValue();
+	}
 
 
 	/**
@@ -69,7 +265,7 @@ public abstract class KernelCache {
 	 */
 	@JsonIgnore
 	public long getCacheHits(){
-		return this.cacheHit;
+		return this.cacheHit.sum();
 	}
 	
 	/**
@@ -77,16 +273,194 @@ public abstract class KernelCache {
 	 */
 	@JsonIgnore
 	public long getCacheMisses(){
-		return this.cacheMiss;
+		return this.cacheMiss.sum();
+	}
+	
+	/**
+	 * @return the number of examples or kernel computations discarded to free space
+	 */
+	@JsonIgnore
+	public long getEvictions(){
+		return this.evictions.sum();
 	}
 	
 	/**
-	 * Sets cache hits and misses to 0
+	 * @return the number of times the kernel computations of an example have been invalidated,
+	 * e.g. because the example has been discarded
+	 */
+	@JsonIgnore
+	public long getInvalidations(){
+		return this.invalidations.sum();
+	}
+	
+	/**
+	 * @return the average time spent to free space for an eviction, in nanoseconds, or
+	 * <code>Double.NaN</code> if no eviction occurred
+	 */
+	@JsonIgnore
+	public double getAverageEvictionLatency(){
+		long numberOfEvictions = this.evictions.sum();
+		if(numberOfEvictions==0){
+			return Double.NaN;
+		}
+		return (double)this.evictionTime.sum()/numberOfEvictions;
+	}
+	
+	/**
+	 * Returns the number of items the cache can simultaneously store. The items are examples for
+	 * the caches storing all the kernel computations of an example (e.g. <code>FixIndexKernelCache</code>),
+	 * single kernel computations for the others (e.g. <code>SetAssociativeKernelCache</code>)
+	 * <p>
+	 * The default implementation returns -1: implementations should override it
+	 * 
+	 * @return the capacity of the cache, or -1 if it is unknown
+	 */
+	@JsonIgnore
+	public long getCapacity(){
+		return -1;
+	}
+	
+	/**
+	 * Returns the number of items currently stored in the cache, in the same unit as <code>getCapacity</code>
+	 * <p>
+	 * The default implementation returns -1: implementations should override it
+	 * 
+	 * @return the occupancy of the cache, or -1 if it is unknown
+	 */
+	@JsonIgnore
+	public long getOccupancy(){
+		return -1;
+	}
+	
+	/**
+	 * Returns an estimation of the memory allocated by the cache, both on the Java heap and outside it
+	 * <p>
+	 * The default implementation returns -1: implementations should override it
+	 * 
+	 * @return the allocated memory in bytes, or -1 if it is unknown
+	 */
+	@JsonIgnore
+	public long getMemoryUsage(){
+		return -1;
+	}
+	
+	/**
+	 * Returns the length of the sliding window the hit ratio of <code>getStatistics</code> refers to
+	 * 
+	 * @return the length of the window in milliseconds
+	 */
+	@JsonIgnore
+	public long getStatisticsWindow(){
+		return this.statisticsWindow;
+	}
+	
+	/**
+	 * Sets the length of the sliding window the hit ratio of <code>getStatistics</code> refers to.
+	 * The window is approximated through the statistics sampled by the previous invocations of
+	 * <code>getStatistics</code>, so they should be invoked periodically (as JMX consoles do)
+	 * 
+	 * @param statisticsWindow the length of the window in milliseconds
+	 */
+	@JsonIgnore
+	public void setStatisticsWindow(long statisticsWindow){
+		this.statisticsWindow = statisticsWindow;
+	}
+	
+	/**
+	 * Returns a snapshot of the statistics of the cache
+	 * 
+	 * @return the statistics of the cache
+	 */
+	@JsonIgnore
+	public KernelCacheStatistics getStatistics(){
+		long now = System.currentTimeMillis();
+		long hits = this.cacheHit.sum();
+		long misses = this.cacheMiss.sum();
+		long[] reference;
+		synchronized(this.statisticsSamples){
+			long windowStart = now - this.statisticsWindow;
+			//the newest sample not after the beginning of the window is kept as reference
+			while(this.statisticsSamples.size()>1 && this.statisticsSamples.get(1)[0]<=windowStart){
+				this.statisticsSamples.removeFirst();
+			}
+			reference = this.statisticsSamples.getFirst();
+			long[] last = this.statisticsSamples.getLast();
+			if(now-last[0] >= this.statisticsWindow/MAX_STATISTICS_SAMPLES){
+				this.statisticsSamples.add(new long[]{now, hits, misses});
+			}
+		}
+		long windowHits = hits - reference[1];
+		long windowMisses = misses - reference[2];
+		double windowHitRatio = Double.NaN;
+		if(windowHits+windowMisses>0){
+			windowHitRatio = (double)windowHits/(windowHits+windowMisses);
+		}
+		return new KernelCacheStatistics(now, hits, misses, windowHitRatio, this.getEvictions(),
+				this.getInvalidations(), this.getAverageEvictionLatency(), this.getOccupancy(),
+				this.getCapacity(), this.getMemoryUsage());
+	}
+	
+	/**
+	 * Sets all the cache statistics to 0
 	 */
 	@JsonIgnore
 	public void resetCacheStats(){
-		this.cacheHit=0;
-		this.cacheMiss=0;
+		this.cacheHit.reset();
+		this.cacheMiss.reset();
+		this.evictions.reset();
+		this.evictionTime.reset();
+		this.invalidations.reset();
+		synchronized(this.statisticsSamples){
+			this.statisticsSamples.clear();
+			this.statisticsSamples.add(new long[]{System.currentTimeMillis(), 0, 0});
+		}
+	}
+	
+	/**
+	 * Records an eviction, i.e. an example or a kernel computation that has been discarded
+	 * to free space
+	 * 
+	 * @param latency the time spent to free space, in nanoseconds
+	 */
+	protected void recordEviction(long latency){
+		this.evictions.increment();
+		this.evictionTime.add(latency);
+	}
+	
+	/**
+	 * Records the invalidation of the kernel computations of an example
+	 */
+	protected void recordInvalidation(){
+		this.invalidations.increment();
+	}
+	
+	/**
+	 * Returns the position of the kernel computation between the examples in the positions
+	 * <code>indexA</code> and <code>indexB</code> of a triangular Gram Matrix of
+	 * <code>examplesToStore</code> examples, stored row by row. The position is a <code>long</code>,
+	 * since the matrix of more than 65535 examples has more than <code>Integer.MAX_VALUE</code>
+	 * elements
+	 * 
+	 * @param indexA the position of the first example
+	 * @param indexB the position of the second example
+	 * @param examplesToStore the number of examples of the matrix
+	 * @return the position of the kernel computation
+	 */
+	protected static long getTriangularIndex(int indexA, int indexB, int examplesToStore){
+		long minimum=indexA;
+		long maximum=indexB;
+		if(indexA>indexB){
+			minimum=indexB;
+			maximum=indexA;
+		}
+		if(minimum==0){
+			return maximum;
+		}
+
+		long index=minimum*(examplesToStore-1);
+		index-=((minimum-1)*minimum)>>1;
+
+		return index+maximum;
 	}
 	
 	/**
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2026 agent
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package it.uniroma2.sag.kelp.kernel.cache;
+
+/**
+ * The JMX management interface of the caches of a kernel (see <code>KernelCacheMonitor</code>)
+ *
+ * @author agent
+ */
+public interface KernelCacheMXBean {
+
+	/**
+	 * @return the class of the monitored kernel
+	 */
+	public String getKernelType();
+
+	/**
+	 * @return the class of the kernel cache, or <code>null</code> if the kernel has no cache
+	 */
+	public String getCacheType();
+
+	/**
+	 * @return the number of kernel computations performed by the kernel
+	 */
+	public long getKernelComputations();
+
+	/**
+	 * @return a snapshot of the statistics of the kernel cache, or <code>null</code> if the
+	 * kernel has no cache
+	 */
+	public KernelCacheStatistics getStatistics();
+
+	public long getCacheHits();
+
+	public long getCacheMisses();
+
+	public double getHitRatio();
+
+	public double getWindowHitRatio();
+
+	public long getEvictions();
+
+	public long getInvalidations();
+
+	public double getAverageEvictionLatency();
+
+	public long getOccupancy();
+
+	public long getCapacity();
+
+	public long getMemoryUsage();
+
+	/**
+	 * Sets the statistics of the kernel cache to 0
+	 */
+	public void resetStatistics();
+
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2026 agent
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package it.uniroma2.sag.kelp.kernel.cache;
+
+import it.uniroma2.sag.kelp.kernel.Kernel;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Exposes through JMX the statistics of the cache of a kernel. The cache is looked up at every
+ * access, so the monitor keeps working if the cache of the kernel is replaced.
+ * <p>
+ * A monitor can be registered in the platform MBean server with <code>register</code>, e.g.
+ * <code>KernelCacheMonitor.register(kernel, "svm-tk")</code>, and then inspected with
+ * <code>jconsole</code> or any other JMX client under the <code>it.uniroma2.sag.kelp</code> domain.
+ *
+ * @author agent
+ */
+public class KernelCacheMonitor implements KernelCacheMXBean {
+
+	private static final String DOMAIN = "it.uniroma2.sag.kelp";
+
+	private final Kernel kernel;
+
+	/**
+	 * @param kernel the kernel whose cache must be monitored
+	 */
+	public KernelCacheMonitor(Kernel kernel) {
+		this.kernel = kernel;
+	}
+
+	/**
+	 * Registers a monitor of the cache of <code>kernel</code> in the platform MBean server
+	 *
+	 * @param kernel the kernel whose cache must be monitored
+	 * @param name the name identifying the kernel among the monitored ones
+	 * @return the name the monitor has been registered with
+	 * @throws JMException if the monitor cannot be registered, e.g. if the name is already used
+	 */
+	public static ObjectName register(Kernel kernel, String name) throws JMException {
+		ObjectName objectName = getObjectName(name);
+		ManagementFactory.getPlatformMBeanServer().registerMBean(new KernelCacheMonitor(kernel), objectName);
+		return objectName;
+	}
+
+	/**
+	 * Unregisters from the platform MBean server a monitor registered with <code>register</code>
+	 *
+	 * @param name the name identifying the kernel among the monitored ones
+	 * @throws JMException if the monitor cannot be unregistered, e.g. if it is not registered
+	 */
+	public static void unregister(String name) throws JMException {
+		ManagementFactory.getPlatformMBeanServer().unregisterMBean(getObjectName(name));
+	}
+
+	private static ObjectName getObjectName(String name) throws JMException {
+		return new ObjectName(DOMAIN + ":type=KernelCache,name=" + ObjectName.quote(name));
+	}
+
+	@Override
+	public String getKernelType() {
+		return this.kernel.getClass().getName();
+	}
+
+	@Override
+	public String getCacheType() {
+		KernelCache cache = this.kernel.getKernelCache();
+		return cache == null ? null : cache.getClass().getName();
+	}
+
+	@Override
+	public long getKernelComputations() {
+		return this.kernel.getKernelComputations();
+	}
+
+	@Override
+	public KernelCacheStatistics getStatistics() {
+		KernelCache cache = this.kernel.getKernelCache();
+		return cache == null ? null : cache.getStatistics();
+	}
+
+	@Override
+	public long getCacheHits() {
+		KernelCache cache = this.kernel.getKernelCache();
+		return cache == null ? 0 : cache.getCacheHits();
+	}
+
+	@Override
+	public long getCacheMisses() {
+		KernelCache cache = this.kernel.getKernelCache();
+		return cache == null ? 0 : cache.getCacheMisses();
+	}
+
+	@Override
+	public double getHitRatio() {
+		long hits = this.getCacheHits();
+		long misses = this.getCacheMisses();
+		if (hits + misses == 0) {
+			return Double.NaN;
+		}
+		return (double) hits / (hits + misses);
+	}
+
+	@Override
+	public double getWindowHitRatio() {
+		KernelCacheStatistics statistics = this.getStatistics();
+		return statistics == null ? Double.NaN : statistics.getWindowHitRatio();
+	}
+
+	@Override
+	public long getEvictions() {
+		KernelCache cache = this.kernel.getKernelCache();
+		return cache == null ? 0 : cache.getEvictions();
+	}
+
+	@Override
+	public long getInvalidations() {
+		KernelCache cache = this.kernel.getKernelCache();
+		return cache == null ? 0 : cache.getInvalidations();
+	}
+
+	@Override
+	public double getAverageEvictionLatency() {
+		KernelCache cache = this.kernel.getKernelCache();
+		return cache == null ? Double.NaN : cache.getAverageEvictionLatency();
+	}
+
+	@Override
+	public long getOccupancy() {
+		KernelCache cache = this.kernel.getKernelCache();
+		return cache == null ? -1 : cache.getOccupancy();
+	}
+
+	@Override
+	public long getCapacity() {
+		KernelCache cache = this.kernel.getKernelCache();
+		return cache == null ? -1 : cache.getCapacity();
+	}
+
+	@Override
+	public long getMemoryUsage() {
+		KernelCache cache = this.kernel.getKernelCache();
+		return cache == null ? -1 : cache.getMemoryUsage();
+	}
+
+	@Override
+	public void resetStatistics() {
+		KernelCache cache = this.kernel.getKernelCache();
+		if (cache != null) {
+			cache.resetCacheStats();
+		}
+	}
+
+}
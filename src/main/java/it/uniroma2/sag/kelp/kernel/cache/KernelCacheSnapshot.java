@@ -0,0 +1,288 @@
+/*
+ * Copyright 2026 agent
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package it.uniroma2.sag.kelp.kernel.cache;
+
+import it.uniroma2.sag.kelp.data.dataset.Dataset;
+import it.uniroma2.sag.kelp.data.example.Example;
+import it.uniroma2.sag.kelp.kernel.Kernel;
+import it.uniroma2.sag.kelp.utils.ParallelGZIPInputStream;
+import it.uniroma2.sag.kelp.utils.ParallelGZIPOutputStream;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Saves the content of the caches of a kernel to a compact binary file, and restores it in
+ * a following run, so that the kernel computations do not have to be repeated.
+ * <p>
+ * The kernel computations and the squared norms are stored by the positions of the examples
+ * in a dataset, as the example IDs change from run to run. The file is labeled with a
+ * fingerprint of the kernel configuration (its JSON description, as written by
+ * <code>Kernel.save</code>, without the caches) and of the textual description of the examples
+ * of the dataset: a snapshot is restored only if the kernel and the dataset have the same
+ * fingerprint. Thus a snapshot can be restored in caches of a different type or size.
+ * <p>
+ * Only the caches of the given kernel are considered, not the ones of the kernels it
+ * is built on. If the file path ends with .gz, the file is compressed.
+ *
+ * @author agent
+ */
+public final class KernelCacheSnapshot {
+
+	private static final int MAGIC_NUMBER = 0x4B4C5043;//"KLPC"
+	private static final int VERSION = 1;
+	private static final int END_OF_SECTION = -1;
+	private static final String DIGEST_ALGORITHM = "SHA-256";
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+	private static final String KERNEL_CACHE_PROPERTY = "kernelCache";
+	private static final String SQUARED_NORM_CACHE_PROPERTY = "squaredNormCache";
+
+	private KernelCacheSnapshot() {
+	}
+
+	/**
+	 * Computes the fingerprint of a kernel configuration and of the examples of a dataset
+	 *
+	 * @param kernel the kernel
+	 * @param dataset the dataset
+	 * @return the fingerprint
+	 * @throws IOException if the kernel cannot be serialized
+	 */
+	public static byte[] fingerprint(Kernel kernel, Dataset dataset) throws IOException {
+		MessageDigest digest = newDigest();
+		digest.update(fingerprint(kernel));
+		digest.update(fingerprint(dataset));
+		return digest.digest();
+	}
+
+	/**
+	 * Computes the fingerprint of a kernel configuration, i.e. of its JSON description
+	 * where the caches of the kernel, and of the kernels it is built on, are ignored
+	 *
+	 * @param kernel the kernel
+	 * @return the fingerprint
+	 * @throws IOException if the kernel cannot be serialized
+	 */
+	public static byte[] fingerprint(Kernel kernel) throws IOException {
+		ObjectMapper mapper = new ObjectMapper();
+		JsonNode description = mapper.valueToTree(kernel);
+		removeCaches(description);
+		return newDigest().digest(mapper.writeValueAsBytes(description));
+	}
+
+	/**
+	 * Computes the fingerprint of the examples of a dataset, i.e. of their textual descriptions
+	 * in the order they are returned by <code>getExamples()</code>
+	 *
+	 * @param dataset the dataset
+	 * @return the fingerprint
+	 * @throws IOException
+	 */
+	public static byte[] fingerprint(Dataset dataset) throws IOException {
+		MessageDigest digest = newDigest();
+		OutputStream discard = new OutputStream() {
+			@Override
+			public void write(int b) {
+			}
+
+			@Override
+			public void write(byte[] b, int off, int len) {
+			}
+		};
+		Writer writer = new OutputStreamWriter(new DigestOutputStream(discard, digest), UTF8);
+		List<Example> examples = dataset.getExamples();
+		for (Example example : examples) {
+			writer.write('\n');
+			example.appendTo(writer);
+		}
+		writer.flush();
+		return digest.digest();
+	}
+
+	private static MessageDigest newDigest() {
+		try {
+			return MessageDigest.getInstance(DIGEST_ALGORITHM);
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(DIGEST_ALGORITHM + " is not available", e);
+		}
+	}
+
+	/**
+	 * Removes the caches from the JSON description of a kernel, and of the kernels it contains
+	 */
+	private static void removeCaches(JsonNode node) {
+		if (node.isObject()) {
+			((ObjectNode) node).remove(KERNEL_CACHE_PROPERTY);
+			((ObjectNode) node).remove(SQUARED_NORM_CACHE_PROPERTY);
+		}
+		Iterator<JsonNode> children = node.elements();
+		while (children.hasNext()) {
+			removeCaches(children.next());
+		}
+	}
+
+	/**
+	 * Saves the kernel computations and the squared norms stored in the caches of
+	 * <code>kernel</code> involving the examples of <code>dataset</code>
+	 *
+	 * @param kernel the kernel whose caches must be saved
+	 * @param dataset the dataset the cached examples belong to
+	 * @param outputFilePath the path of the snapshot file
+	 * @throws IOException
+	 */
+	public static void save(Kernel kernel, Dataset dataset, String outputFilePath) throws IOException {
+		byte[] fingerprint = fingerprint(kernel, dataset);
+		List<Example> examples = dataset.getExamples();
+
+		OutputStream stream = new FileOutputStream(outputFilePath);
+		if (outputFilePath.endsWith(".gz")) {
+			stream = new ParallelGZIPOutputStream(stream);
+		}
+		final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream, 1 << 16));
+		try {
+			out.writeInt(MAGIC_NUMBER);
+			out.writeInt(VERSION);
+			out.writeInt(fingerprint.length);
+			out.write(fingerprint);
+			out.writeInt(examples.size());
+
+			KernelCache kernelCache = kernel.getKernelCache();
+			if (kernelCache != null) {
+				final IOException[] writeError = new IOException[1];
+				kernelCache.visitStoredKernelValues(examples, new KernelCache.StoredKernelValueVisitor() {
+					public void visit(int indexA, int indexB, float value) {
+						if (writeError[0] != null) {
+							return;
+						}
+						try {
+							out.writeInt(indexA);
+							out.writeInt(indexB);
+							out.writeFloat(value);
+						} catch (IOException e) {
+							writeError[0] = e;
+						}
+					}
+				});
+				if (writeError[0] != null) {
+					throw writeError[0];
+				}
+			}
+			out.writeInt(END_OF_SECTION);
+
+			SquaredNormCache normCache = kernel.getSquaredNormCache();
+			if (normCache != null) {
+				for (int i = 0; i < examples.size(); i++) {
+					Float squaredNorm = normCache.getSquaredNorm(examples.get(i));
+					if (squaredNorm != null) {
+						out.writeInt(i);
+						out.writeFloat(squaredNorm.floatValue());
+					}
+				}
+			}
+			out.writeInt(END_OF_SECTION);
+		} finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * Restores in the caches of <code>kernel</code> the kernel computations and the squared norms
+	 * saved by <code>save</code>, if the snapshot has been produced by a kernel with the same
+	 * configuration on a dataset with the same examples. The caches keep the values they
+	 * already contain, unless they have to be discarded to free space.
+	 *
+	 * @param kernel the kernel whose caches must be populated
+	 * @param dataset the dataset the cached examples belong to
+	 * @param inputFilePath the path of the snapshot file
+	 * @return <code>true</code> if the snapshot has been restored, <code>false</code> if its
+	 * fingerprint does not match the kernel and the dataset
+	 * @throws IOException
+	 */
+	public static boolean restore(Kernel kernel, Dataset dataset, String inputFilePath) throws IOException {
+		byte[] fingerprint = fingerprint(kernel, dataset);
+		List<Example> examples = dataset.getExamples();
+
+		InputStream stream = new FileInputStream(inputFilePath);
+		if (inputFilePath.endsWith(".gz")) {
+			stream = new ParallelGZIPInputStream(stream);
+		}
+		DataInputStream in = new DataInputStream(new BufferedInputStream(stream, 1 << 16));
+		try {
+			if (in.readInt() != MAGIC_NUMBER) {
+				throw new IOException(inputFilePath + " is not a kernel cache snapshot");
+			}
+			int version = in.readInt();
+			if (version != VERSION) {
+				throw new IOException("Unsupported kernel cache snapshot version: " + version);
+			}
+			byte[] storedFingerprint = new byte[in.readInt()];
+			in.readFully(storedFingerprint);
+			int numberOfExamples = in.readInt();
+			if (!Arrays.equals(fingerprint, storedFingerprint) || numberOfExamples != examples.size()) {
+				return false;
+			}
+
+			KernelCache kernelCache = kernel.getKernelCache();
+			int indexA;
+			while ((indexA = in.readInt()) != END_OF_SECTION) {
+				Example exA = examples.get(indexA);
+				Example exB = examples.get(in.readInt());
+				float value = in.readFloat();
+				if (kernelCache == null) {
+					continue;
+				}
+				if (exA.getId() <= exB.getId()) {
+					kernelCache.setKernelValue(exA, exB, value);
+				} else {
+					kernelCache.setKernelValue(exB, exA, value);
+				}
+			}
+
+			SquaredNormCache normCache = kernel.getSquaredNormCache();
+			int index;
+			while ((index = in.readInt()) != END_OF_SECTION) {
+				float squaredNorm = in.readFloat();
+				if (normCache != null) {
+					normCache.setSquaredNormValue(examples.get(index), squaredNorm);
+				}
+			}
+			return true;
+		} finally {
+			in.close();
+		}
+	}
+
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2026 agent
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package it.uniroma2.sag.kelp.kernel.cache;
+
+import java.beans.ConstructorProperties;
+import java.io.Serializable;
+
+/**
+ * An immutable snapshot of the statistics of a <code>KernelCache</code>
+ * (see <code>KernelCache.getStatistics</code>)
+ *
+ * @author agent
+ */
+public class KernelCacheStatistics implements Serializable {
+
+	private static final long serialVersionUID = 6021836615744371490L;
+
+	private final long timestamp;
+	private final long hits;
+	private final long misses;
+	private final double windowHitRatio;
+	private final long evictions;
+	private final long invalidations;
+	private final double averageEvictionLatency;
+	private final long occupancy;
+	private final long capacity;
+	private final long memoryUsage;
+
+	@ConstructorProperties({ "timestamp", "hits", "misses", "windowHitRatio", "evictions", "invalidations",
+			"averageEvictionLatency", "occupancy", "capacity", "memoryUsage" })
+	public KernelCacheStatistics(long timestamp, long hits, long misses, double windowHitRatio, long evictions,
+			long invalidations, double averageEvictionLatency, long occupancy, long capacity, long memoryUsage) {
+		this.timestamp = timestamp;
+		this.hits = hits;
+		this.misses = misses;
+		this.windowHitRatio = windowHitRatio;
+		this.evictions = evictions;
+		this.invalidations = invalidations;
+		this.averageEvictionLatency = averageEvictionLatency;
+		this.occupancy = occupancy;
+		this.capacity = capacity;
+		this.memoryUsage = memoryUsage;
+	}
+
+	/**
+	 * @return the time the snapshot has been taken, in milliseconds since the epoch
+	 */
+	public long getTimestamp() {
+		return timestamp;
+	}
+
+	/**
+	 * @return the number of cache hits
+	 */
+	public long getHits() {
+		return hits;
+	}
+
+	/**
+	 * @return the number of cache misses
+	 */
+	public long getMisses() {
+		return misses;
+	}
+
+	/**
+	 * @return the ratio between the hits and the lookups since the cache statistics have been reset,
+	 * or <code>Double.NaN</code> if no lookup occurred
+	 */
+	public double getHitRatio() {
+		if (hits + misses == 0) {
+			return Double.NaN;
+		}
+		return (double) hits / (hits + misses);
+	}
+
+	/**
+	 * @return the ratio between the hits and the lookups in the sliding window of the cache
+	 * (see <code>KernelCache.setStatisticsWindow</code>), or <code>Double.NaN</code> if no
+	 * lookup occurred
+	 */
+	public double getWindowHitRatio() {
+		return windowHitRatio;
+	}
+
+	/**
+	 * @return the number of examples or kernel computations discarded to free space
+	 */
+	public long getEvictions() {
+		return evictions;
+	}
+
+	/**
+	 * @return the number of times the kernel computations of an example have been invalidated
+	 */
+	public long getInvalidations() {
+		return invalidations;
+	}
+
+	/**
+	 * @return the average time spent to free space for an eviction, in nanoseconds, or
+	 * <code>Double.NaN</code> if no eviction occurred
+	 */
+	public double getAverageEvictionLatency() {
+		return averageEvictionLatency;
+	}
+
+	/**
+	 * @return the number of items stored in the cache, or -1 if it is unknown
+	 * (see <code>KernelCache.getCapacity</code> for the unit)
+	 */
+	public long getOccupancy() {
+		return occupancy;
+	}
+
+	/**
+	 * @return the number of items the cache can store, or -1 if it is unknown
+	 * (see <code>KernelCache.getCapacity</code> for the unit)
+	 */
+	public long getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * @return an estimation of the memory allocated by the cache in bytes, or -1 if it is unknown
+	 */
+	public long getMemoryUsage() {
+		return memoryUsage;
+	}
+
+	@Override
+	public String toString() {
+		return "hits=" + hits + ", misses=" + misses + ", hitRatio=" + getHitRatio() + ", windowHitRatio="
+				+ windowHitRatio + ", evictions=" + evictions + ", invalidations=" + invalidations
+				+ ", averageEvictionLatency=" + averageEvictionLatency + "ns, occupancy=" + occupancy + "/"
+				+ capacity + ", memoryUsage=" + memoryUsage + "B";
+	}
+
+}
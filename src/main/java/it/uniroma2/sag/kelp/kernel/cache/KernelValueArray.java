@@ -0,0 +1,65 @@
+/*
+ * Copyright 2026 agent
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package it.uniroma2.sag.kelp.kernel.cache;
+
+/**
+ * An array of kernel values indexed by <code>long</code>s. The implementations can store the
+ * values with a reduced precision, but a <code>NaN</code> must always be read back as
+ * <code>NaN</code>, as the caches use it to mark the invalid kernel values.
+ *
+ * @author agent
+ */
+interface KernelValueArray {
+
+	/**
+	 * @return the number of elements of the array
+	 */
+	long size();
+
+	/**
+	 * Returns the element in position <code>index</code>
+	 *
+	 * @param index the position of the element
+	 * @return the element in position <code>index</code>
+	 */
+	float get(long index);
+
+	/**
+	 * Sets the element in position <code>index</code>
+	 *
+	 * @param index the position of the element
+	 * @param value the value to set
+	 */
+	void set(long index, float value);
+
+	/**
+	 * Sets the elements in the positions from <code>fromIndex</code> (inclusive) to
+	 * <code>toIndex</code> (exclusive)
+	 *
+	 * @param fromIndex the position of the first element to be set
+	 * @param toIndex the position after the last element to be set
+	 * @param value the value to set
+	 */
+	void fill(long fromIndex, long toIndex, float value);
+
+	/**
+	 * Sets all the elements of the array
+	 *
+	 * @param value the value to set
+	 */
+	void fill(float value);
+
+}
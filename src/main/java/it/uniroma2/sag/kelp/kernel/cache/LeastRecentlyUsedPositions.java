@@ -0,0 +1,153 @@
+/*
+ * Copyright 2026 agent
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package it.uniroma2.sag.kelp.kernel.cache;
+
+import java.io.Serializable;
+
+/**
+ * Keeps track of the positions of a cache, i.e. the slots that can be assigned to the examples,
+ * implementing a Least Recently Used policy. The used positions are kept in a doubly linked list
+ * ordered by access time, implemented over primitive int arrays, while the free positions are
+ * kept in a stack of ints. Thus every operation costs O(1) and does not allocate any object.
+ * <p>
+ * NOTE: this class is not thread-safe
+ *
+ * @author agent
+ */
+class LeastRecentlyUsedPositions implements Serializable {
+
+	private static final long serialVersionUID = 3407434563405738916L;
+	private static final int NULL_POSITION = -1;
+
+	private int[] previous;
+	private int[] next;
+	private int mostRecentlyUsed;
+	private int leastRecentlyUsed;
+
+	private int[] freePositions;
+	private int numberOfFreePositions;
+
+	/**
+	 * Initializes the positions 0, 1, ..., <code>numberOfPositions</code>-1 as free
+	 *
+	 * @param numberOfPositions the number of positions of the cache
+	 */
+	LeastRecentlyUsedPositions(int numberOfPositions) {
+		this.previous = new int[numberOfPositions];
+		this.next = new int[numberOfPositions];
+		this.freePositions = new int[numberOfPositions];
+		this.clear();
+	}
+
+	/**
+	 * Marks all the positions as free
+	 */
+	void clear() {
+		int numberOfPositions = this.freePositions.length;
+		for (int i = 0; i < numberOfPositions; i++) {
+			//the lowest positions are assigned first
+			this.freePositions[i] = numberOfPositions - 1 - i;
+		}
+		this.numberOfFreePositions = numberOfPositions;
+		this.mostRecentlyUsed = NULL_POSITION;
+		this.leastRecentlyUsed = NULL_POSITION;
+	}
+
+	/**
+	 * @return the number of positions that are not free
+	 */
+	int getNumberOfUsedPositions() {
+		return this.freePositions.length - this.numberOfFreePositions;
+	}
+
+	/**
+	 * @return <code>true</code> if at least a position is free
+	 */
+	boolean hasFreePositions() {
+		return this.numberOfFreePositions > 0;
+	}
+
+	/**
+	 * Takes a free position, marking it as the most recently used one
+	 *
+	 * @return the acquired position
+	 */
+	int acquire() {
+		if (this.numberOfFreePositions == 0) {
+			throw new IllegalStateException("There are no free positions");
+		}
+		this.numberOfFreePositions--;
+		int position = this.freePositions[this.numberOfFreePositions];
+		this.linkAsMostRecentlyUsed(position);
+		return position;
+	}
+
+	/**
+	 * Marks a used position as the most recently used one
+	 *
+	 * @param position the accessed position
+	 */
+	void touch(int position) {
+		if (position == this.mostRecentlyUsed) {
+			return;
+		}
+		this.unlink(position);
+		this.linkAsMostRecentlyUsed(position);
+	}
+
+	/**
+	 * Frees the least recently used position
+	 *
+	 * @return the freed position
+	 */
+	int releaseLeastRecentlyUsed() {
+		int position = this.leastRecentlyUsed;
+		if (position == NULL_POSITION) {
+			throw new IllegalStateException("There are no used positions");
+		}
+		this.unlink(position);
+		this.freePositions[this.numberOfFreePositions] = position;
+		this.numberOfFreePositions++;
+		return position;
+	}
+
+	private void unlink(int position) {
+		int previousPosition = this.previous[position];
+		int nextPosition = this.next[position];
+		if (previousPosition == NULL_POSITION) {
+			this.mostRecentlyUsed = nextPosition;
+		} else {
+			this.next[previousPosition] = nextPosition;
+		}
+		if (nextPosition == NULL_POSITION) {
+			this.leastRecentlyUsed = previousPosition;
+		} else {
+			this.previous[nextPosition] = previousPosition;
+		}
+	}
+
+	private void linkAsMostRecentlyUsed(int position) {
+		this.previous[position] = NULL_POSITION;
+		this.next[position] = this.mostRecentlyUsed;
+		if (this.mostRecentlyUsed == NULL_POSITION) {
+			this.leastRecentlyUsed = position;
+		} else {
+			this.previous[this.mostRecentlyUsed] = position;
+		}
+		this.mostRecentlyUsed = position;
+	}
+
+}
@@ -0,0 +1,343 @@
+/*
+ * Copyright 2026 agent
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package it.uniroma2.sag.kelp.kernel.cache;
+
+import gnu.trove.map.hash.TLongIntHashMap;
+import it.uniroma2.sag.kelp.data.dataset.Dataset;
+import it.uniroma2.sag.kelp.data.example.Example;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.Arrays;
+
+/**
+ * A Gram Matrix stored in a memory-mapped file, so that it can be reused across different
+ * processes (and shared among concurrent JVMs through the page cache of the operating system).
+ * Only the upper triangle of the matrix is stored, packed row by row: the examples are identified
+ * by their position <code>0, 1, ..., n-1</code> in the matrix.
+ * <p>
+ * The file consists of a header (a magic number, a format version, the number of examples and the
+ * fingerprints of the kernel and of the dataset the matrix refers to, see
+ * <code>KernelCacheSnapshot.fingerprint</code>) followed by the <code>n*(n+1)/2</code> kernel values.
+ * The fingerprints allow to reject a file computed with a different kernel or on different examples. Every value is stored xor-ed with the bits of
+ * <code>Float.NaN</code>, so that the zeros of a freshly created (sparse) file are read as missing
+ * values without writing the whole file in advance.
+ * <p>
+ * As a single mapping cannot exceed 2GB, the file is mapped in several regions.
+ * The values are read and written with absolute accesses, without any lock: concurrent reads
+ * and writes of different values are safe, while a value written by a thread may be seen as
+ * missing by a concurrent reader.
+ *
+ * @author agent
+ */
+public class MappedGramMatrix {
+
+	private static final int MAGIC_NUMBER = 0x4B47524D;//"KGRM"
+	private static final int FORMAT_VERSION = 2;
+	private static final int FINGERPRINT_SIZE = 32;
+	private static final int HEADER_SIZE = 16 + 2 * FINGERPRINT_SIZE;
+	private static final int NAN_BITS = Float.floatToRawIntBits(Float.NaN);
+
+	private static final int REGION_BITS = 28;
+	private static final int VALUES_PER_REGION = 1 << REGION_BITS;//1GB regions
+	private static final long REGION_MASK = VALUES_PER_REGION - 1;
+
+	private final File file;
+	private final int numberOfExamples;
+	private final long numberOfValues;
+	private final boolean readOnly;
+	private final byte[] kernelFingerprint;
+	private final byte[] datasetFingerprint;
+	private final RandomAccessFile randomAccessFile;
+	private final MappedByteBuffer[] regions;
+
+	private MappedGramMatrix(File file, RandomAccessFile randomAccessFile, int numberOfExamples,
+			byte[] kernelFingerprint, byte[] datasetFingerprint, boolean readOnly) throws IOException {
+		this.file = file;
+		this.randomAccessFile = randomAccessFile;
+		this.numberOfExamples = numberOfExamples;
+		this.kernelFingerprint = kernelFingerprint;
+		this.datasetFingerprint = datasetFingerprint;
+		this.numberOfValues = (long) numberOfExamples * (numberOfExamples + 1) / 2;
+		this.readOnly = readOnly;
+
+		FileChannel channel = randomAccessFile.getChannel();
+		MapMode mode = readOnly ? MapMode.READ_ONLY : MapMode.READ_WRITE;
+		int numberOfRegions = (int) ((this.numberOfValues + VALUES_PER_REGION - 1) >>> REGION_BITS);
+		this.regions = new MappedByteBuffer[numberOfRegions];
+		for (int i = 0; i < numberOfRegions; i++) {
+			long firstValue = (long) i << REGION_BITS;
+			long valuesInRegion = Math.min(VALUES_PER_REGION, this.numberOfValues - firstValue);
+			this.regions[i] = channel.map(mode, HEADER_SIZE + firstValue * 4, valuesInRegion * 4);
+		}
+	}
+
+	/**
+	 * Creates a new Gram Matrix file for <code>numberOfExamples</code> examples, where all
+	 * the kernel values are missing. An already existing file is overwritten.
+	 *
+	 * @param file the file in which the matrix must be stored
+	 * @param numberOfExamples the number of rows (and columns) of the matrix
+	 * @param kernelFingerprint the fingerprint of the kernel computing the matrix
+	 * (see <code>KernelCacheSnapshot.fingerprint(Kernel)</code>)
+	 * @param datasetFingerprint the fingerprint of the dataset the matrix refers to
+	 * (see <code>KernelCacheSnapshot.fingerprint(Dataset)</code>)
+	 * @return the created matrix, opened in read-write mode
+	 * @throws IOException
+	 */
+	public static MappedGramMatrix create(File file, int numberOfExamples, byte[] kernelFingerprint,
+			byte[] datasetFingerprint) throws IOException {
+		if (numberOfExamples <= 0) {
+			throw new IllegalArgumentException("Invalid number of examples: " + numberOfExamples);
+		}
+		checkFingerprintSize(kernelFingerprint);
+		checkFingerprintSize(datasetFingerprint);
+		long numberOfValues = (long) numberOfExamples * (numberOfExamples + 1) / 2;
+		RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+		try {
+			randomAccessFile.setLength(0);
+			randomAccessFile.setLength(HEADER_SIZE + numberOfValues * 4);
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+			header.putInt(MAGIC_NUMBER).putInt(FORMAT_VERSION).putInt(numberOfExamples).putInt(0);
+			header.put(kernelFingerprint).put(datasetFingerprint);
+			header.flip();
+			randomAccessFile.getChannel().write(header, 0);
+			return new MappedGramMatrix(file, randomAccessFile, numberOfExamples, kernelFingerprint.clone(),
+					datasetFingerprint.clone(), false);
+		} catch (IOException e) {
+			randomAccessFile.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Opens an existing Gram Matrix file, checking that it has been computed with the given
+	 * kernel on the given dataset
+	 *
+	 * @param file the file in which the matrix is stored
+	 * @param readOnly whether the matrix must be opened in read-only mode. Many processes can
+	 * share the same file in read-only mode
+	 * @param kernelFingerprint the expected fingerprint of the kernel, or <code>null</code> if
+	 * it must not be checked
+	 * @param datasetFingerprint the expected fingerprint of the dataset, or <code>null</code> if
+	 * it must not be checked
+	 * @return the opened matrix
+	 * @throws IOException if the file cannot be read, it does not contain a Gram Matrix or its
+	 * fingerprints do not match the given ones
+	 */
+	public static MappedGramMatrix open(File file, boolean readOnly, byte[] kernelFingerprint,
+			byte[] datasetFingerprint) throws IOException {
+		MappedGramMatrix matrix = open(file, readOnly);
+		if (kernelFingerprint != null && !Arrays.equals(kernelFingerprint, matrix.kernelFingerprint)) {
+			matrix.close();
+			throw new IOException("The Gram Matrix in " + file + " has been computed with a different kernel");
+		}
+		if (datasetFingerprint != null && !Arrays.equals(datasetFingerprint, matrix.datasetFingerprint)) {
+			matrix.close();
+			throw new IOException("The Gram Matrix in " + file + " refers to different examples");
+		}
+		return matrix;
+	}
+
+	/**
+	 * Opens an existing Gram Matrix file
+	 *
+	 * @param file the file in which the matrix is stored
+	 * @param readOnly whether the matrix must be opened in read-only mode. Many processes can
+	 * share the same file in read-only mode
+	 * @return the opened matrix
+	 * @throws IOException if the file cannot be read or it does not contain a Gram Matrix
+	 */
+	public static MappedGramMatrix open(File file, boolean readOnly) throws IOException {
+		RandomAccessFile randomAccessFile = new RandomAccessFile(file, readOnly ? "r" : "rw");
+		try {
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+			FileChannel channel = randomAccessFile.getChannel();
+			while (header.hasRemaining()) {
+				if (channel.read(header, header.position()) < 0) {
+					throw new IOException(file + " is not a Gram Matrix file");
+				}
+			}
+			header.flip();
+			if (header.getInt() != MAGIC_NUMBER) {
+				throw new IOException(file + " is not a Gram Matrix file");
+			}
+			int version = header.getInt();
+			if (version != FORMAT_VERSION) {
+				throw new IOException("Unsupported Gram Matrix format version " + version + " in " + file);
+			}
+			int numberOfExamples = header.getInt();
+			header.getInt();//reserved
+			byte[] kernelFingerprint = new byte[FINGERPRINT_SIZE];
+			header.get(kernelFingerprint);
+			byte[] datasetFingerprint = new byte[FINGERPRINT_SIZE];
+			header.get(datasetFingerprint);
+			long expectedLength = HEADER_SIZE + (long) numberOfExamples * (numberOfExamples + 1) / 2 * 4;
+			if (randomAccessFile.length() < expectedLength) {
+				throw new IOException("Truncated Gram Matrix file " + file);
+			}
+			return new MappedGramMatrix(file, randomAccessFile, numberOfExamples, kernelFingerprint,
+					datasetFingerprint, readOnly);
+		} catch (IOException e) {
+			randomAccessFile.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * @return the file in which the matrix is stored
+	 */
+	public File getFile() {
+		return file;
+	}
+
+	/**
+	 * @return the number of rows (and columns) of the matrix
+	 */
+	public int getNumberOfExamples() {
+		return numberOfExamples;
+	}
+
+	/**
+	 * @return whether the matrix has been opened in read-only mode
+	 */
+	public boolean isReadOnly() {
+		return readOnly;
+	}
+
+	/**
+	 * @return the fingerprint of the kernel the matrix has been computed with
+	 */
+	public byte[] getKernelFingerprint() {
+		return kernelFingerprint.clone();
+	}
+
+	/**
+	 * @return the fingerprint of the dataset the matrix refers to
+	 */
+	public byte[] getDatasetFingerprint() {
+		return datasetFingerprint.clone();
+	}
+
+	/**
+	 * Returns the kernel value between the examples in positions <code>i</code> and <code>j</code>
+	 *
+	 * @param i the position of the first example
+	 * @param j the position of the second example
+	 * @return the kernel value, <code>Float.NaN</code> if it has not been stored
+	 */
+	public float getValue(int i, int j) {
+		long index = this.getValueIndex(i, j);
+		int bits = this.regions[(int) (index >>> REGION_BITS)].getInt((int) (index & REGION_MASK) << 2);
+		return Float.intBitsToFloat(bits ^ NAN_BITS);
+	}
+
+	/**
+	 * Stores the kernel value between the examples in positions <code>i</code> and <code>j</code>
+	 *
+	 * @param i the position of the first example
+	 * @param j the position of the second example
+	 * @param value the kernel value
+	 */
+	public void setValue(int i, int j, float value) {
+		long index = this.getValueIndex(i, j);
+		int bits = Float.floatToRawIntBits(value) ^ NAN_BITS;
+		this.regions[(int) (index >>> REGION_BITS)].putInt((int) (index & REGION_MASK) << 2, bits);
+	}
+
+	/**
+	 * Marks all the kernel values as missing
+	 */
+	public void clear() {
+		for (MappedByteBuffer region : this.regions) {
+			for (int offset = 0; offset < region.capacity(); offset += 4) {
+				region.putInt(offset, 0);
+			}
+		}
+	}
+
+	/**
+	 * Writes on the disk all the changes made to the matrix
+	 */
+	public void force() {
+		if (this.readOnly) {
+			return;
+		}
+		for (MappedByteBuffer region : this.regions) {
+			region.force();
+		}
+	}
+
+	/**
+	 * Writes on the disk all the changes made to the matrix and closes the file. The mapped regions
+	 * are released when the matrix is garbage collected
+	 *
+	 * @throws IOException
+	 */
+	public void close() throws IOException {
+		this.force();
+		this.randomAccessFile.close();
+	}
+
+	/**
+	 * Returns the positions of the examples of a dataset in a Gram Matrix computed on that dataset,
+	 * i.e. the order in which the examples are returned by <code>getExamples()</code>
+	 *
+	 * @param dataset the dataset the Gram Matrix refers to
+	 * @return a map from the example IDs to their positions, returning <code>-1</code> for
+	 * the examples not in <code>dataset</code>
+	 */
+	public static TLongIntHashMap getExamplePositions(Dataset dataset) {
+		TLongIntHashMap positions = new TLongIntHashMap(dataset.getNumberOfExamples(), 0.75f, -1, -1);
+		int position = 0;
+		for (Example example : dataset.getExamples()) {
+			positions.put(example.getId(), position);
+			position++;
+		}
+		return positions;
+	}
+
+	private static void checkFingerprintSize(byte[] fingerprint) {
+		if (fingerprint.length != FINGERPRINT_SIZE) {
+			throw new IllegalArgumentException("Invalid fingerprint size: " + fingerprint.length);
+		}
+	}
+
+	private long getValueIndex(int i, int j) {
+		if (i < 0 || j < 0 || i >= this.numberOfExamples || j >= this.numberOfExamples) {
+			throw new IndexOutOfBoundsException("Invalid position (" + i + ", " + j
+					+ ") in a Gram Matrix of " + this.numberOfExamples + " examples");
+		}
+		long minimum = i;
+		long maximum = j;
+		if (i > j) {
+			minimum = j;
+			maximum = i;
+		}
+		if (minimum == 0) {
+			return maximum;
+		}
+		long index = minimum * (this.numberOfExamples - 1);
+		index -= ((minimum - 1) * minimum) >> 1;
+		return index + maximum;
+	}
+
+}
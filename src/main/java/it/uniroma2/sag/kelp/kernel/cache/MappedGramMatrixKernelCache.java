@@ -0,0 +1,209 @@
+/*
+ * Copyright 2026 agent
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package it.uniroma2.sag.kelp.kernel.cache;
+
+import gnu.trove.map.hash.TLongIntHashMap;
+import it.uniroma2.sag.kelp.data.dataset.Dataset;
+import it.uniroma2.sag.kelp.data.example.Example;
+import it.uniroma2.sag.kelp.kernel.Kernel;
+
+import java.io.File;
+import java.io.IOException;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonTypeName;
+
+/**
+ * Persistent cache for kernel computations, backed by a <code>MappedGramMatrix</code>.
+ * It stores all the pairwise kernel computations among the examples of a dataset, where every example
+ * is identified by its position in the dataset. The kernel values survive the JVM, thus a Gram Matrix
+ * can be reused across different processes, cross validations and parameter tunings, provided that the
+ * dataset is loaded with the same examples in the same order. The file is labeled with the fingerprints
+ * of the kernel and of the dataset, and it is rejected if they do not match.
+ * <p>
+ * After the deserialization, <code>setExamples</code> must be invoked to open the Gram Matrix file.
+ * Kernel computations involving examples not in the dataset are never stored.
+ * <p>
+ * The lookups do not require any lock: see <code>MappedGramMatrix</code>
+ *
+ * @author      agent
+ */
+@JsonTypeName("mappedGram")
+public class MappedGramMatrixKernelCache extends KernelCache {
+
+	private static final int NULL_POSITION = -1;
+
+	private String gramMatrixFile;
+	private boolean readOnly;
+
+	private volatile MappedGramMatrix matrix;
+	private volatile TLongIntHashMap examplePositions;
+
+	/**
+	 * Initializes a cache storing the Gram Matrix of <code>dataset</code> in
+	 * <code>gramMatrixFile</code>. If the file already exists, the kernel values it contains are reused.
+	 *
+	 * @param gramMatrixFile the path of the file containing the Gram Matrix
+	 * @param kernel the kernel whose computations must be stored
+	 * @param dataset the dataset whose kernel computations must be stored
+	 * @throws IOException
+	 */
+	public MappedGramMatrixKernelCache(String gramMatrixFile, Kernel kernel, Dataset dataset) throws IOException{
+		this(gramMatrixFile, kernel, dataset, false);
+	}
+
+	/**
+	 * Initializes a cache storing the Gram Matrix of <code>dataset</code> in
+	 * <code>gramMatrixFile</code>. If the file already exists, the kernel values it contains are reused.
+	 *
+	 * @param gramMatrixFile the path of the file containing the Gram Matrix
+	 * @param kernel the kernel whose computations must be stored
+	 * @param dataset the dataset whose kernel computations must be stored
+	 * @param readOnly whether the Gram Matrix file must not be modified, i.e. it is only read
+	 * @throws IOException
+	 */
+	public MappedGramMatrixKernelCache(String gramMatrixFile, Kernel kernel, Dataset dataset, boolean readOnly) throws IOException{
+		super();
+		this.gramMatrixFile = gramMatrixFile;
+		this.readOnly = readOnly;
+		this.setExamples(kernel, dataset);
+	}
+
+	public MappedGramMatrixKernelCache(){
+		super();
+	}
+
+	/**
+	 * @return the path of the file containing the Gram Matrix
+	 */
+	public String getGramMatrixFile() {
+		return gramMatrixFile;
+	}
+
+	/**
+	 * @param gramMatrixFile the path of the file containing the Gram Matrix
+	 * <p>
+	 * NOTE: it is effective at the next invocation of <code>setExamples</code>
+	 */
+	public void setGramMatrixFile(String gramMatrixFile) {
+		this.gramMatrixFile = gramMatrixFile;
+	}
+
+	/**
+	 * @return whether the Gram Matrix file is only read
+	 */
+	public boolean isReadOnly() {
+		return readOnly;
+	}
+
+	/**
+	 * @param readOnly whether the Gram Matrix file must not be modified
+	 * <p>
+	 * NOTE: it is effective at the next invocation of <code>setExamples</code>
+	 */
+	public void setReadOnly(boolean readOnly) {
+		this.readOnly = readOnly;
+	}
+
+	/**
+	 * Opens the Gram Matrix file, assigning to each example of <code>dataset</code> its position in
+	 * the dataset. If the file does not exist it is created, unless the cache is read-only.
+	 *
+	 * @param kernel the kernel whose computations must be stored
+	 * @param dataset the dataset whose kernel computations must be stored
+	 * @throws IOException if the file cannot be opened, or it contains a Gram Matrix computed with a
+	 * different kernel or on different examples
+	 */
+	@JsonIgnore
+	public synchronized void setExamples(Kernel kernel, Dataset dataset) throws IOException{
+		File file = new File(this.gramMatrixFile);
+		byte[] kernelFingerprint = KernelCacheSnapshot.fingerprint(kernel);
+		byte[] datasetFingerprint = KernelCacheSnapshot.fingerprint(dataset);
+		MappedGramMatrix newMatrix;
+		if(file.exists() || this.readOnly){
+			newMatrix = MappedGramMatrix.open(file, this.readOnly, kernelFingerprint, datasetFingerprint);
+		}else{
+			newMatrix = MappedGramMatrix.create(file, dataset.getNumberOfExamples(), kernelFingerprint, datasetFingerprint);
+		}
+		this.close();
+		this.examplePositions = MappedGramMatrix.getExamplePositions(dataset);
+		this.matrix = newMatrix;
+	}
+
+	/**
+	 * Writes on the disk all the kernel values and closes the Gram Matrix file
+	 *
+	 * @throws IOException
+	 */
+	public synchronized void close() throws IOException{
+		MappedGramMatrix oldMatrix = this.matrix;
+		this.matrix = null;
+		if(oldMatrix!=null){
+			oldMatrix.close();
+		}
+	}
+
+	@Override
+	protected Float getStoredKernelValue(Example exA, Example exB) {
+		float value = this.getStoredPrimitiveKernelValue(exA, exB);
+		if(Float.isNaN(value)){
+			return null;
+		}
+		return new Float(value);
+	}
+
+	@Override
+	protected float getStoredPrimitiveKernelValue(Example exA, Example exB) {
+		MappedGramMatrix matrix = this.matrix;
+		if(matrix==null){
+			return Float.NaN;
+		}
+		TLongIntHashMap positions = this.examplePositions;
+		int positionA = positions.get(exA.getId());
+		int positionB = positions.get(exB.getId());
+		if(positionA==NULL_POSITION || positionB==NULL_POSITION){
+			return Float.NaN;
+		}
+		return matrix.getValue(positionA, positionB);
+	}
+
+	@Override
+	public void setKernelValue(Example exA, Example exB, float value) {
+		MappedGramMatrix matrix = this.matrix;
+		if(matrix==null || matrix.isReadOnly()){
+			return;
+		}
+		TLongIntHashMap positions = this.examplePositions;
+		int positionA = positions.get(exA.getId());
+		int positionB = positions.get(exB.getId());
+		if(positionA==NULL_POSITION || positionB==NULL_POSITION){
+			return;
+		}
+		matrix.setValue(positionA, positionB, value);
+	}
+
+	/**
+	 * Marks all the kernel values in the Gram Matrix file as missing
+	 */
+	@Override
+	public synchronized void flushCache() {
+		MappedGramMatrix matrix = this.matrix;
+		if(matrix!=null && !matrix.isReadOnly()){
+			matrix.clear();
+		}
+	}
+
+}
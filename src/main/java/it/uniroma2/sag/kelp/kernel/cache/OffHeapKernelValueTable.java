@@ -0,0 +1,205 @@
+/*
+ * Copyright 2026 agent
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package it.uniroma2.sag.kelp.kernel.cache;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * A set-associative hash table of kernel values stored outside the Java heap, either in direct
+ * <code>ByteBuffer</code>s or in a temporary file mapped in memory. Every entry contains the IDs
+ * of a pair of examples and their kernel value; when all the entries of a set are used, they
+ * are replaced in round-robin order.
+ * <p>
+ * The IDs are stored incremented by one, so that an entry filled with zeros (as the new direct
+ * buffers and files are) is empty.
+ * <p>
+ * NOTE: this class is not thread-safe
+ *
+ * @author agent
+ */
+class OffHeapKernelValueTable {
+
+	private static final int ASSOCIATIVITY = 4;
+	private static final int ENTRY_SIZE = 8 + 8 + 4;
+	private static final int SET_SIZE = ENTRY_SIZE * ASSOCIATIVITY;
+	private static final int MAX_REGION_SIZE = 1 << 30;
+	private static final int SETS_PER_REGION = MAX_REGION_SIZE / SET_SIZE;
+
+	private final long setMask;
+	private final ByteBuffer[] regions;
+	private final byte[] nextVictim;
+	private final File file;
+
+	/**
+	 * Initializes a table that can contain at least <code>kernelValuesToStore</code> kernel values
+	 *
+	 * @param kernelValuesToStore the number of kernel values that can be simultaneously stored
+	 * @param directory the directory of the temporary file storing the table, or <code>null</code>
+	 * if the table must be stored in direct buffers
+	 * @throws IOException if the temporary file cannot be created
+	 */
+	OffHeapKernelValueTable(long kernelValuesToStore, File directory) throws IOException {
+		long numberOfSets = getNumberOfSets(kernelValuesToStore);
+		if (numberOfSets > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Too many kernel values to store: " + kernelValuesToStore);
+		}
+		this.setMask = numberOfSets - 1;
+		this.nextVictim = new byte[(int) numberOfSets];
+		int numberOfRegions = (int) ((numberOfSets + SETS_PER_REGION - 1) / SETS_PER_REGION);
+		this.regions = new ByteBuffer[numberOfRegions];
+
+		if (directory == null) {
+			this.file = null;
+			for (int i = 0; i < numberOfRegions; i++) {
+				this.regions[i] = ByteBuffer.allocateDirect(this.getRegionSize(i, numberOfSets));
+			}
+			return;
+		}
+		this.file = File.createTempFile("kelp-kernel-cache", ".bin", directory);
+		this.file.deleteOnExit();
+		RandomAccessFile randomAccessFile = new RandomAccessFile(this.file, "rw");
+		try {
+			randomAccessFile.setLength(numberOfSets * SET_SIZE);
+			FileChannel channel = randomAccessFile.getChannel();
+			for (int i = 0; i < numberOfRegions; i++) {
+				//the mappings remain valid after the channel is closed
+				this.regions[i] = channel.map(FileChannel.MapMode.READ_WRITE, (long) i * SETS_PER_REGION * SET_SIZE,
+						this.getRegionSize(i, numberOfSets));
+			}
+		} finally {
+			randomAccessFile.close();
+		}
+	}
+
+	private static long getNumberOfSets(long kernelValuesToStore) {
+		long minimumSets = java.lang.Math.max(1, (kernelValuesToStore + ASSOCIATIVITY - 1) / ASSOCIATIVITY);
+		long numberOfSets = Long.highestOneBit(minimumSets);
+		if (numberOfSets < minimumSets) {
+			numberOfSets <<= 1;
+		}
+		return numberOfSets;
+	}
+
+	/**
+	 * @param kernelValuesToStore a number of kernel values to store
+	 * @return whether this table has the same size of a table initialized to store
+	 * <code>kernelValuesToStore</code> kernel values
+	 */
+	boolean hasCapacityFor(long kernelValuesToStore) {
+		return getNumberOfSets(kernelValuesToStore) == this.setMask + 1;
+	}
+
+	private int getRegionSize(int region, long numberOfSets) {
+		long sets = java.lang.Math.min(SETS_PER_REGION, numberOfSets - (long) region * SETS_PER_REGION);
+		return (int) (sets * SET_SIZE);
+	}
+
+	/**
+	 * @return the number of kernel values that can be simultaneously stored
+	 */
+	long getCapacity() {
+		return (this.setMask + 1) * ASSOCIATIVITY;
+	}
+
+	/**
+	 * @return the number of bytes occupied outside the Java heap
+	 */
+	long getSizeInBytes() {
+		return (this.setMask + 1) * SET_SIZE;
+	}
+
+	private int getSet(long smallerId, long largerId) {
+		return (int) (SetAssociativeKernelCache.hash(smallerId, largerId) & this.setMask);
+	}
+
+	/**
+	 * Returns the kernel value of a pair of examples
+	 *
+	 * @param smallerId the smaller ID of the pair
+	 * @param largerId the larger ID of the pair
+	 * @return the kernel value, or <code>Float.NaN</code> if it is not stored
+	 */
+	float get(long smallerId, long largerId) {
+		int set = this.getSet(smallerId, largerId);
+		ByteBuffer region = this.regions[set / SETS_PER_REGION];
+		int offset = (set % SETS_PER_REGION) * SET_SIZE;
+		for (int way = 0; way < ASSOCIATIVITY; way++, offset += ENTRY_SIZE) {
+			if (region.getLong(offset) == smallerId + 1 && region.getLong(offset + 8) == largerId + 1) {
+				return region.getFloat(offset + 16);
+			}
+		}
+		return Float.NaN;
+	}
+
+	/**
+	 * Stores the kernel value of a pair of examples, replacing its old value or another entry
+	 * of the same set
+	 *
+	 * @param smallerId the smaller ID of the pair
+	 * @param largerId the larger ID of the pair
+	 * @param value the kernel value
+	 */
+	void put(long smallerId, long largerId, float value) {
+		int set = this.getSet(smallerId, largerId);
+		ByteBuffer region = this.regions[set / SETS_PER_REGION];
+		int firstOffset = (set % SETS_PER_REGION) * SET_SIZE;
+		int target = -1;
+		for (int way = 0, offset = firstOffset; way < ASSOCIATIVITY; way++, offset += ENTRY_SIZE) {
+			long storedId = region.getLong(offset);
+			if (storedId == smallerId + 1 && region.getLong(offset + 8) == largerId + 1) {
+				region.putFloat(offset + 16, value);
+				return;
+			}
+			if (target < 0 && storedId == 0) {
+				target = offset;
+			}
+		}
+		if (target < 0) {
+			int victim = this.nextVictim[set];
+			this.nextVictim[set] = (byte) ((victim + 1) % ASSOCIATIVITY);
+			target = firstOffset + victim * ENTRY_SIZE;
+		}
+		region.putLong(target, smallerId + 1);
+		region.putLong(target + 8, largerId + 1);
+		region.putFloat(target + 16, value);
+	}
+
+	/**
+	 * Removes all the kernel values
+	 */
+	void clear() {
+		for (ByteBuffer region : this.regions) {
+			for (int offset = 0; offset < region.capacity(); offset += ENTRY_SIZE) {
+				region.putLong(offset, 0);
+			}
+		}
+	}
+
+	/**
+	 * Releases the temporary file, if any. The memory is released when the table is garbage collected:
+	 * until then, the direct buffers and the mapped regions keep their native memory
+	 */
+	void release() {
+		if (this.file != null) {
+			this.file.delete();
+		}
+	}
+
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2026 agent
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package it.uniroma2.sag.kelp.kernel.cache;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * An array of floats indexed by <code>long</code>s, that can exceed the maximum size of a Java array.
+ * The values are stored in pages of fixed size, i.e. in a <code>float[][]</code>.
+ * <p>
+ * See <code>PagedHalfFloatArray</code> for a version storing the values in half the memory.
+ * <p>
+ * NOTE: this class is not thread-safe
+ *
+ * @author agent
+ */
+class PagedFloatArray implements KernelValueArray, Serializable {
+
+	private static final long serialVersionUID = -6417150046216093745L;
+
+	private static final int PAGE_BITS = 20;
+	private static final int PAGE_SIZE = 1 << PAGE_BITS;//4MB pages
+	private static final long PAGE_MASK = PAGE_SIZE - 1;
+
+	private final long size;
+	private final float[][] pages;
+
+	/**
+	 * Initializes an array of <code>size</code> zeros
+	 *
+	 * @param size the number of elements of the array
+	 */
+	PagedFloatArray(long size) {
+		this.size = size;
+		long numberOfPages = (size + PAGE_SIZE - 1) >>> PAGE_BITS;
+		if (numberOfPages > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Too large array: " + size);
+		}
+		this.pages = new float[(int) numberOfPages][];
+		for (int i = 0; i < this.pages.length; i++) {
+			long pageLength = Math.min(PAGE_SIZE, size - ((long) i << PAGE_BITS));
+			this.pages[i] = new float[(int) pageLength];
+		}
+	}
+
+	/**
+	 * @return the number of elements of the array
+	 */
+	public long size() {
+		return this.size;
+	}
+
+	/**
+	 * Returns the element in position <code>index</code>
+	 *
+	 * @param index the position of the element
+	 * @return the element in position <code>index</code>
+	 */
+	public float get(long index) {
+		return this.pages[(int) (index >>> PAGE_BITS)][(int) (index & PAGE_MASK)];
+	}
+
+	/**
+	 * Sets the element in position <code>index</code>
+	 *
+	 * @param index the position of the element
+	 * @param value the value to set
+	 */
+	public void set(long index, float value) {
+		this.pages[(int) (index >>> PAGE_BITS)][(int) (index & PAGE_MASK)] = value;
+	}
+
+	/**
+	 * Sets the elements in the positions from <code>fromIndex</code> (inclusive) to
+	 * <code>toIndex</code> (exclusive)
+	 *
+	 * @param fromIndex the position of the first element to be set
+	 * @param toIndex the position after the last element to be set
+	 * @param value the value to set
+	 */
+	public void fill(long fromIndex, long toIndex, float value) {
+		while (fromIndex < toIndex) {
+			int page = (int) (fromIndex >>> PAGE_BITS);
+			int offset = (int) (fromIndex & PAGE_MASK);
+			int end = (int) Math.min(this.pages[page].length, offset + (toIndex - fromIndex));
+			Arrays.fill(this.pages[page], offset, end, value);
+			fromIndex += end - offset;
+		}
+	}
+
+	/**
+	 * Sets all the elements of the array
+	 *
+	 * @param value the value to set
+	 */
+	public void fill(float value) {
+		for (float[] page : this.pages) {
+			Arrays.fill(page, value);
+		}
+	}
+
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2026 agent
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package it.uniroma2.sag.kelp.kernel.cache;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * An array of floats indexed by <code>long</code>s, storing every value as an IEEE 754 half
+ * precision float (2 bytes) in pages of fixed size, i.e. in a <code>short[][]</code>.
+ * <p>
+ * The values are rounded to the nearest half float: the relative error is at most 2^-11 for
+ * absolute values in [6.1e-5, 65504], larger values are stored as infinities and smaller ones
+ * lose precision gradually. <code>NaN</code> is preserved.
+ * <p>
+ * NOTE: this class is not thread-safe
+ *
+ * @author agent
+ */
+class PagedHalfFloatArray implements KernelValueArray, Serializable {
+
+	private static final long serialVersionUID = 2914561072340817256L;
+
+	private static final int PAGE_BITS = 21;
+	private static final int PAGE_SIZE = 1 << PAGE_BITS;//4MB pages
+	private static final long PAGE_MASK = PAGE_SIZE - 1;
+
+	private static final short HALF_NAN = 0x7e00;
+	private static final short HALF_INFINITY = 0x7c00;
+
+	/**
+	 * The float value of every half float, indexed by its bits
+	 */
+	private static final float[] HALF_TO_FLOAT = new float[1 << 16];
+	static {
+		for (int i = 0; i < HALF_TO_FLOAT.length; i++) {
+			HALF_TO_FLOAT[i] = halfToFloat((short) i);
+		}
+	}
+
+	private final long size;
+	private final short[][] pages;
+
+	/**
+	 * Initializes an array of <code>size</code> zeros
+	 *
+	 * @param size the number of elements of the array
+	 */
+	PagedHalfFloatArray(long size) {
+		this.size = size;
+		long numberOfPages = (size + PAGE_SIZE - 1) >>> PAGE_BITS;
+		if (numberOfPages > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Too large array: " + size);
+		}
+		this.pages = new short[(int) numberOfPages][];
+		for (int i = 0; i < this.pages.length; i++) {
+			long pageLength = Math.min(PAGE_SIZE, size - ((long) i << PAGE_BITS));
+			this.pages[i] = new short[(int) pageLength];
+		}
+	}
+
+	/**
+	 * Converts a float to the nearest half float (ties to even)
+	 *
+	 * @param value the value to convert
+	 * @return the bits of the half float
+	 */
+	static short floatToHalf(float value) {
+		int bits = Float.floatToRawIntBits(value);
+		int sign = (bits >>> 16) & 0x8000;
+		int exponent = ((bits >>> 23) & 0xff) - 127 + 15;
+		int mantissa = bits & 0x7fffff;
+
+		if (exponent == 0xff - 127 + 15) {
+			//infinity or NaN
+			return mantissa != 0 ? HALF_NAN : (short) (sign | HALF_INFINITY);
+		}
+		if (exponent >= 0x1f) {
+			//overflow
+			return (short) (sign | HALF_INFINITY);
+		}
+		if (exponent <= 0) {
+			//subnormal half float, or zero
+			if (exponent < -10) {
+				return (short) sign;
+			}
+			mantissa |= 0x800000;
+			int shift = 14 - exponent;
+			int half = mantissa >> shift;
+			int remainder = mantissa & ((1 << shift) - 1);
+			int halfway = 1 << (shift - 1);
+			if (remainder > halfway || (remainder == halfway && (half & 1) != 0)) {
+				half++;
+			}
+			return (short) (sign | half);
+		}
+		int half = (exponent << 10) | (mantissa >> 13);
+		int remainder = mantissa & 0x1fff;
+		if (remainder > 0x1000 || (remainder == 0x1000 && (half & 1) != 0)) {
+			//a carry into the exponent correctly rounds to the next power of two, or to infinity
+			half++;
+		}
+		return (short) (sign | half);
+	}
+
+	/**
+	 * Converts a half float to a float, without any loss of precision
+	 *
+	 * @param half the bits of the half float
+	 * @return the float value
+	 */
+	static float halfToFloat(short half) {
+		int sign = (half & 0x8000) << 16;
+		int exponent = (half >>> 10) & 0x1f;
+		int mantissa = half & 0x3ff;
+		if (exponent == 0) {
+			float value = Math.scalb((float) mantissa, -24);
+			return sign == 0 ? value : -value;
+		}
+		if (exponent == 0x1f) {
+			return Float.intBitsToFloat(sign | 0x7f800000 | (mantissa << 13));
+		}
+		return Float.intBitsToFloat(sign | ((exponent - 15 + 127) << 23) | (mantissa << 13));
+	}
+
+	@Override
+	public long size() {
+		return this.size;
+	}
+
+	@Override
+	public float get(long index) {
+		return HALF_TO_FLOAT[this.pages[(int) (index >>> PAGE_BITS)][(int) (index & PAGE_MASK)] & 0xffff];
+	}
+
+	@Override
+	public void set(long index, float value) {
+		this.pages[(int) (index >>> PAGE_BITS)][(int) (index & PAGE_MASK)] = floatToHalf(value);
+	}
+
+	@Override
+	public void fill(long fromIndex, long toIndex, float value) {
+		short half = floatToHalf(value);
+		while (fromIndex < toIndex) {
+			int page = (int) (fromIndex >>> PAGE_BITS);
+			int offset = (int) (fromIndex & PAGE_MASK);
+			int end = (int) Math.min(this.pages[page].length, offset + (toIndex - fromIndex));
+			Arrays.fill(this.pages[page], offset, end, half);
+			fromIndex += end - offset;
+		}
+	}
+
+	@Override
+	public void fill(float value) {
+		short half = floatToHalf(value);
+		for (short[] page : this.pages) {
+			Arrays.fill(page, half);
+		}
+	}
+
+}
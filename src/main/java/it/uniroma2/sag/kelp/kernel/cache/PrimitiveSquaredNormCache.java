@@ -0,0 +1,37 @@
+/*
+ * Copyright 2026 agent
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package it.uniroma2.sag.kelp.kernel.cache;
+
+import it.uniroma2.sag.kelp.data.example.Example;
+
+/**
+ * A <code>SquaredNormCache</code> whose lookups do not allocate any object. A <code>Kernel</code>
+ * uses <code>getPrimitiveSquaredNorm</code> on the caches implementing this interface, and
+ * <code>getSquaredNorm</code> on any other cache.
+ * 
+ * @author agent
+ */
+public interface PrimitiveSquaredNormCache extends SquaredNormCache {
+
+	/**
+	 * Returns a previously stored norm of a given example, without allocating any object
+	 * 
+	 * @param example the instance whose squared norm is required
+	 * @return the squared norm or <code>Float.NaN</code> if a cache miss occurs
+	 */
+	public float getPrimitiveSquaredNorm(Example example);
+
+}
@@ -0,0 +1,482 @@
+/*
+ * Copyright 2026 agent
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package it.uniroma2.sag.kelp.kernel.cache;
+
+import it.uniroma2.sag.kelp.data.example.Example;
+
+import java.io.Serializable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.fasterxml.jackson.annotation.JsonTypeName;
+
+/**
+ * Cache for kernel computations designed to be shared among many threads, e.g. parallel
+ * learners working on the same dataset. Like <code>DynamicIndexKernelCache</code> it stores
+ * all the pairwise kernel computations among any set of examples with cardinality not exceeding
+ * the <code>examplesToStore</code> parameter, in a packed triangular matrix.
+ * <p>
+ * The triangular matrix is partitioned into <code>numberOfSegments</code> segments, each one
+ * protected by its own lock, so that threads storing kernel values in different segments do not
+ * block each other. Reads never acquire a lock: every cache position has a version number that
+ * is changed whenever the position is assigned to a different example, and a read is considered
+ * valid only if the versions of the involved positions did not change while reading.
+ * <p>
+ * When free space is required, a single example is discarded according to the CLOCK (second
+ * chance) policy, an approximation of the Least Recently Used policy that does not require
+ * any bookkeeping during the reads.
+ * <p>
+ * The examples having a dense index (see <code>Example.getIndex()</code>) are mapped to their cache
+ * positions through an array indexed by their index, so that the lookups do not allocate any object.
+ * Only the examples that have never been added to a dataset are looked up by ID in a hash map.
+ * <p>
+ * Given a number of examples to store m, the memory occupation is about m*(m+1)/2 floats = m*(m+1)*2B
+ *
+ * @author agent
+ */
+@JsonTypeName("segmentedDynamicIndex")
+public class SegmentedDynamicIndexKernelCache extends KernelCache implements Serializable {
+
+	private static final long serialVersionUID = -1787311263420524512L;
+	private static final int INVALID_KERNEL_VALUE = Float.floatToRawIntBits(Float.NaN);
+	private static final long NULL_EXAMPLE_ID = -1;
+	private static final int NULL_POSITION = -1;
+	private static final int MINIMUM_INDEX_TABLE_SIZE = 16;
+	private static final int DEFAULT_NUMBER_OF_SEGMENTS = 64;
+
+	private int examplesToStore;
+	private int numberOfSegments = DEFAULT_NUMBER_OF_SEGMENTS;
+	private long cacheSize;//the number of kernel computations that can be stored
+	private int segmentSize;
+
+	/**
+	 * The cache position of every example, plus one, indexed by the example index. It is replaced by
+	 * a larger copy, holding the insertion lock, when an example with a larger index is inserted
+	 */
+	private volatile AtomicIntegerArray fromExampleIndexToCachePosition;
+	/**
+	 * The cache positions of the examples without an index
+	 */
+	private ConcurrentHashMap<Long, Integer> fromExampleIdToCachePosition;
+	private int[] cachePositionExampleIndex;
+	private AtomicLongArray cachePositionOwner;
+	/**
+	 * The version of every cache position. It is odd while the position is being cleaned
+	 */
+	private AtomicIntegerArray cachePositionVersion;
+	/**
+	 * The kernel values, stored as raw float bits
+	 */
+	private AtomicIntegerArray[] segments;
+	private ReentrantLock[] segmentLocks;
+
+	private ReentrantLock insertionLock;
+	private boolean[] referenced;
+	private int[] freePositions;
+	private int numberOfFreePositions;
+	private int clockHand;
+
+	/**
+	 * Initializes a SegmentedDynamicIndexKernelCache that can contain all the possible pairwise
+	 * kernel computations between up to <code>examplesToStore</code> examples
+	 *
+	 * @param examplesToStore the maximum number of examples whose pairwise kernel computations
+	 * can be simultaneously stored
+	 */
+	public SegmentedDynamicIndexKernelCache(int examplesToStore) {
+		this(examplesToStore, DEFAULT_NUMBER_OF_SEGMENTS);
+	}
+
+	/**
+	 * Initializes a SegmentedDynamicIndexKernelCache that can contain all the possible pairwise
+	 * kernel computations between up to <code>examplesToStore</code> examples
+	 *
+	 * @param examplesToStore the maximum number of examples whose pairwise kernel computations
+	 * can be simultaneously stored
+	 * @param numberOfSegments the number of independently locked segments
+	 */
+	public SegmentedDynamicIndexKernelCache(int examplesToStore, int numberOfSegments) {
+		this();
+		checkNumberOfSegments(numberOfSegments);
+		this.numberOfSegments = numberOfSegments;
+		setExamplesToStore(examplesToStore);
+	}
+
+	public SegmentedDynamicIndexKernelCache() {
+		super();
+		this.insertionLock = new ReentrantLock();
+	}
+
+	/**
+	 * Returns the maximum number of examples whose pairwise kernel computations
+	 * can be simultaneously stored
+	 *
+	 * @return the examplesToStore
+	 */
+	public int getExamplesToStore() {
+		return examplesToStore;
+	}
+
+	/**
+	 * Sets the maximum number of examples whose pairwise kernel computations
+	 * can be simultaneously stored
+	 *
+	 * @param examplesToStore the examplesToStore to set
+	 * <p>
+	 * NOTE: all the already stored kernel computations will be lost
+	 */
+	public void setExamplesToStore(int examplesToStore) {
+		this.insertionLock.lock();
+		try {
+			this.examplesToStore = examplesToStore;
+			this.initialize();
+		} finally {
+			this.insertionLock.unlock();
+		}
+	}
+
+	/**
+	 * Returns the number of independently locked segments the cache is partitioned into
+	 *
+	 * @return the number of segments
+	 */
+	public int getNumberOfSegments() {
+		return numberOfSegments;
+	}
+
+	/**
+	 * Sets the number of independently locked segments the cache is partitioned into
+	 *
+	 * @param numberOfSegments the number of segments
+	 * <p>
+	 * NOTE: all the already stored kernel computations will be lost
+	 */
+	public void setNumberOfSegments(int numberOfSegments) {
+		checkNumberOfSegments(numberOfSegments);
+		this.insertionLock.lock();
+		try {
+			this.numberOfSegments = numberOfSegments;
+			if (this.examplesToStore > 0) {
+				this.initialize();
+			}
+		} finally {
+			this.insertionLock.unlock();
+		}
+	}
+
+	private static void checkNumberOfSegments(int numberOfSegments) {
+		if (numberOfSegments < 1) {
+			throw new IllegalArgumentException("Invalid number of segments: " + numberOfSegments);
+		}
+	}
+
+	private void initialize() {
+		this.cacheSize = (long) examplesToStore * (examplesToStore + 1) / 2;
+		long size = (this.cacheSize + this.numberOfSegments - 1) / this.numberOfSegments;
+		if (size > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Too few segments for " + examplesToStore
+					+ " examples: every segment can contain at most " + Integer.MAX_VALUE + " kernel values");
+		}
+		this.segmentSize = (int) Math.max(size, 1);
+		this.segments = new AtomicIntegerArray[this.numberOfSegments];
+		this.segmentLocks = new ReentrantLock[this.numberOfSegments];
+		for (int i = 0; i < this.numberOfSegments; i++) {
+			long segmentLength = Math.min(this.segmentSize, this.cacheSize - (long) i * this.segmentSize);
+			this.segments[i] = new AtomicIntegerArray((int) Math.max(segmentLength, 0));
+			this.segmentLocks[i] = new ReentrantLock();
+		}
+
+		this.fromExampleIndexToCachePosition = new AtomicIntegerArray(Math.max(examplesToStore,
+				MINIMUM_INDEX_TABLE_SIZE));
+		this.fromExampleIdToCachePosition = new ConcurrentHashMap<Long, Integer>();
+		this.cachePositionExampleIndex = new int[examplesToStore];
+		this.cachePositionOwner = new AtomicLongArray(examplesToStore);
+		this.cachePositionVersion = new AtomicIntegerArray(examplesToStore);
+		this.referenced = new boolean[examplesToStore];
+		this.freePositions = new int[examplesToStore];
+		this.reset();
+	}
+
+	/**
+	 * Empties all the data structures. It must be invoked holding the insertion lock
+	 * and all the segment locks
+	 */
+	private void reset() {
+		for (AtomicIntegerArray segment : this.segments) {
+			for (int i = 0; i < segment.length(); i++) {
+				segment.set(i, INVALID_KERNEL_VALUE);
+			}
+		}
+		AtomicIntegerArray indexTable = this.fromExampleIndexToCachePosition;
+		for (int i = 0; i < indexTable.length(); i++) {
+			indexTable.set(i, 0);
+		}
+		this.fromExampleIdToCachePosition.clear();
+		for (int i = 0; i < this.examplesToStore; i++) {
+			this.cachePositionOwner.set(i, NULL_EXAMPLE_ID);
+			this.cachePositionExampleIndex[i] = Example.NO_INDEX;
+			this.referenced[i] = false;
+			//positions are popped from the end of the stack
+			this.freePositions[i] = this.examplesToStore - 1 - i;
+		}
+		this.numberOfFreePositions = this.examplesToStore;
+		this.clockHand = 0;
+	}
+
+	@Override
+	protected Float getStoredKernelValue(Example exA, Example exB) {
+		float value = this.getStoredPrimitiveKernelValue(exA, exB);
+		if (Float.isNaN(value)) {
+			return null;
+		}
+		return value;
+	}
+
+	@Override
+	protected float getStoredPrimitiveKernelValue(Example exA, Example exB) {
+		long idA = exA.getId();
+		long idB = exB.getId();
+
+		int posA = this.getPosition(exA);
+		int posB = this.getPosition(exB);
+		if (posA == NULL_POSITION || posB == NULL_POSITION) {
+			return Float.NaN;
+		}
+
+		int versionA = this.cachePositionVersion.get(posA);
+		int versionB = this.cachePositionVersion.get(posB);
+		if ((versionA & 1) != 0 || (versionB & 1) != 0
+				|| this.cachePositionOwner.get(posA) != idA || this.cachePositionOwner.get(posB) != idB) {
+			return Float.NaN;
+		}
+
+		long kernelIndex = this.getKernelValueIndex(posA, posB);
+		float value = Float.intBitsToFloat(this.segments[(int) (kernelIndex / this.segmentSize)]
+				.get((int) (kernelIndex % this.segmentSize)));
+
+		if (this.cachePositionVersion.get(posA) != versionA || this.cachePositionVersion.get(posB) != versionB) {
+			//the positions have been reassigned while reading
+			return Float.NaN;
+		}
+		if (Float.isNaN(value)) {
+			return Float.NaN;
+		}
+		this.referenced[posA] = true;
+		this.referenced[posB] = true;
+		return value;
+	}
+
+	private long getKernelValueIndex(int indexA, int indexB) {
+		return getTriangularIndex(indexA, indexB, this.examplesToStore);
+	}
+
+	@Override
+	public void setKernelValue(Example exA, Example exB, float value) {
+		long idA = exA.getId();
+		long idB = exB.getId();
+
+		int positionA = this.getOrInsertPosition(exA);
+		int positionB = positionA;
+		if (idA != idB) {
+			positionB = this.getOrInsertPosition(exB);
+		}
+
+		long kernelIndex = this.getKernelValueIndex(positionA, positionB);
+		int segmentIndex = (int) (kernelIndex / this.segmentSize);
+		ReentrantLock lock = this.segmentLocks[segmentIndex];
+		lock.lock();
+		try {
+			//an eviction could have reassigned the positions in the meanwhile
+			if (this.cachePositionOwner.get(positionA) == idA && this.cachePositionOwner.get(positionB) == idB) {
+				this.segments[segmentIndex].set((int) (kernelIndex % this.segmentSize), Float.floatToRawIntBits(value));
+			}
+		} finally {
+			lock.unlock();
+		}
+		this.referenced[positionA] = true;
+		this.referenced[positionB] = true;
+	}
+
+	/**
+	 * Returns the cache position of an example. The position must be validated against
+	 * <code>cachePositionOwner</code>, as it can be reassigned at any time
+	 *
+	 * @return the position of <code>example</code>, <code>NULL_POSITION</code> if it has no position
+	 */
+	private int getPosition(Example example) {
+		int index = example.getIndex();
+		if (index == Example.NO_INDEX) {
+			Integer position = this.fromExampleIdToCachePosition.get(example.getId());
+			return position == null ? NULL_POSITION : position.intValue();
+		}
+		AtomicIntegerArray indexTable = this.fromExampleIndexToCachePosition;
+		if (index >= indexTable.length()) {
+			return NULL_POSITION;
+		}
+		return indexTable.get(index) - 1;
+	}
+
+	private int getOrInsertPosition(Example example) {
+		long exampleId = example.getId();
+		int position = this.getPosition(example);
+		if (position != NULL_POSITION && this.cachePositionOwner.get(position) == exampleId) {
+			return position;
+		}
+		this.insertionLock.lock();
+		try {
+			position = this.getPosition(example);
+			if (position != NULL_POSITION && this.cachePositionOwner.get(position) == exampleId) {
+				return position;
+			}
+			if (this.numberOfFreePositions == 0) {
+				this.removeOldValue();
+			}
+			this.numberOfFreePositions--;
+			int newPosition = this.freePositions[this.numberOfFreePositions];
+			this.cachePositionOwner.set(newPosition, exampleId);
+			this.referenced[newPosition] = true;
+			int index = example.getIndex();
+			this.cachePositionExampleIndex[newPosition] = index;
+			if (index == Example.NO_INDEX) {
+				this.fromExampleIdToCachePosition.put(exampleId, newPosition);
+			} else {
+				this.ensureIndexTableCapacity(index);
+				this.fromExampleIndexToCachePosition.set(index, newPosition + 1);
+			}
+			return newPosition;
+		} finally {
+			this.insertionLock.unlock();
+		}
+	}
+
+	/**
+	 * Enlarges the table of the example indices so that it contains <code>index</code>.
+	 * It must be invoked holding the insertion lock
+	 */
+	private void ensureIndexTableCapacity(int index) {
+		AtomicIntegerArray indexTable = this.fromExampleIndexToCachePosition;
+		if (index < indexTable.length()) {
+			return;
+		}
+		int newLength = (int) Math.min(Integer.MAX_VALUE, Math.max(index + 1L, 2L * indexTable.length()));
+		AtomicIntegerArray newIndexTable = new AtomicIntegerArray(newLength);
+		for (int i = 0; i < indexTable.length(); i++) {
+			newIndexTable.set(i, indexTable.get(i));
+		}
+		this.fromExampleIndexToCachePosition = newIndexTable;
+	}
+
+	/**
+	 * Discards an example according to the CLOCK policy. It must be invoked holding the
+	 * insertion lock
+	 */
+	private void removeOldValue() {
+		long start = System.nanoTime();
+		while (this.referenced[this.clockHand]) {
+			this.referenced[this.clockHand] = false;
+			this.clockHand = (this.clockHand + 1) % this.examplesToStore;
+		}
+		int victim = this.clockHand;
+		this.clockHand = (this.clockHand + 1) % this.examplesToStore;
+
+		this.lockAllSegments();
+		try {
+			this.cachePositionVersion.incrementAndGet(victim);
+			int victimIndex = this.cachePositionExampleIndex[victim];
+			if (victimIndex == Example.NO_INDEX) {
+				this.fromExampleIdToCachePosition.remove(this.cachePositionOwner.get(victim));
+			} else {
+				this.fromExampleIndexToCachePosition.set(victimIndex, 0);
+			}
+			this.cachePositionExampleIndex[victim] = Example.NO_INDEX;
+			this.cachePositionOwner.set(victim, NULL_EXAMPLE_ID);
+			this.invalidateKernelValues(victim);
+			this.cachePositionVersion.incrementAndGet(victim);
+		} finally {
+			this.unlockAllSegments();
+		}
+		this.freePositions[this.numberOfFreePositions] = victim;
+		this.numberOfFreePositions++;
+		this.recordEviction(System.nanoTime() - start);
+	}
+
+	private void invalidateKernelValues(int exampleIndex) {
+		for (int i = 0; i < this.examplesToStore; i++) {
+			long kernelIndex = this.getKernelValueIndex(exampleIndex, i);
+			this.segments[(int) (kernelIndex / this.segmentSize)]
+					.set((int) (kernelIndex % this.segmentSize), INVALID_KERNEL_VALUE);
+		}
+		this.recordInvalidation();
+	}
+
+	/**
+	 * @return the number of examples that can be simultaneously stored
+	 */
+	@Override
+	public long getCapacity() {
+		return this.examplesToStore;
+	}
+
+	/**
+	 * @return the number of examples currently stored
+	 */
+	@Override
+	public long getOccupancy() {
+		return this.examplesToStore - this.numberOfFreePositions;
+	}
+
+	@Override
+	public long getMemoryUsage() {
+		//the position tables and the map entries take about 64 bytes per example
+		return this.cacheSize * 4 + 64L * this.examplesToStore;
+	}
+
+	private void lockAllSegments() {
+		for (ReentrantLock lock : this.segmentLocks) {
+			lock.lock();
+		}
+	}
+
+	private void unlockAllSegments() {
+		for (ReentrantLock lock : this.segmentLocks) {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public void flushCache() {
+		this.insertionLock.lock();
+		try {
+			this.lockAllSegments();
+			try {
+				for (int i = 0; i < this.examplesToStore; i++) {
+					this.cachePositionVersion.incrementAndGet(i);
+				}
+				this.reset();
+				for (int i = 0; i < this.examplesToStore; i++) {
+					this.cachePositionVersion.incrementAndGet(i);
+				}
+			} finally {
+				this.unlockAllSegments();
+			}
+		} finally {
+			this.insertionLock.unlock();
+		}
+	}
+
+}
@@ -0,0 +1,376 @@
+/*
+ * Copyright 2026 agent
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package it.uniroma2.sag.kelp.kernel.cache;
+
+import it.uniroma2.sag.kelp.data.example.Example;
+
+import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import com.fasterxml.jackson.annotation.JsonTypeName;
+
+/**
+ * Cache for kernel computations organized as an n-way set-associative hash table of single
+ * kernel values. Like <code>FixIndexKernelCache</code> every kernel value has some reserved
+ * cache space, but it depends on a hash of the IDs of both the examples instead of the
+ * remainder of their IDs: sparse IDs (e.g. after shuffling or loading many datasets) are
+ * spread uniformly over the cache, a collision discards a single kernel value instead of a
+ * whole row of the kernel matrix, and two examples can always be stored together.
+ * <p>
+ * Every kernel value can be stored in any of the <code>associativity</code> entries of its set;
+ * when the set is full, an entry is discarded according to the CLOCK (second chance) policy
+ * restricted to the set. Reads never acquire a lock: every set has a version number that is
+ * odd while the set is being modified, and a read is considered valid only if the version
+ * did not change while reading. Writes lock only the set they modify.
+ * <p>
+ * Given a number of kernel values to store n, the memory occupation is about 21*n bytes (two
+ * example IDs, the value and a reference flag for each entry). It is convenient when the
+ * kernel computations of a small fraction of the possible pairs of examples can be stored.
+ *
+ * @author agent
+ */
+@JsonTypeName("setAssociative")
+public class SetAssociativeKernelCache extends KernelCache implements Serializable {
+
+	private static final long serialVersionUID = 4176359218207416331L;
+	private static final int INVALID_KERNEL_VALUE = Float.floatToRawIntBits(Float.NaN);
+	private static final long NULL_EXAMPLE_ID = -1;
+	private static final int DEFAULT_ASSOCIATIVITY = 8;
+	/**
+	 * The IDs of the examples take two slots per entry, so <code>2 * MAX_NUMBER_OF_ENTRIES</code>
+	 * must be a valid array size
+	 */
+	private static final int MAX_NUMBER_OF_ENTRIES = 1 << 29;
+
+	private long kernelValuesToStore;
+	private int associativity = DEFAULT_ASSOCIATIVITY;
+	private int setMask;
+
+	/**
+	 * The IDs of the examples of every entry: the smaller ID is at position 2*entry and
+	 * the larger one at position 2*entry+1
+	 */
+	private AtomicLongArray entryExamples;
+	/**
+	 * The kernel values, stored as raw float bits
+	 */
+	private AtomicIntegerArray entryValues;
+	/**
+	 * The version of every set. It is odd while the set is being modified
+	 */
+	private AtomicIntegerArray setVersion;
+	private boolean[] referenced;
+	private int[] clockHands;
+
+	/**
+	 * Initializes a SetAssociativeKernelCache that can contain at least
+	 * <code>kernelValuesToStore</code> kernel computations
+	 *
+	 * @param kernelValuesToStore the number of kernel computations that can be
+	 * simultaneously stored
+	 */
+	public SetAssociativeKernelCache(long kernelValuesToStore) {
+		this(kernelValuesToStore, DEFAULT_ASSOCIATIVITY);
+	}
+
+	/**
+	 * Initializes a SetAssociativeKernelCache that can contain at least
+	 * <code>kernelValuesToStore</code> kernel computations
+	 *
+	 * @param kernelValuesToStore the number of kernel computations that can be
+	 * simultaneously stored
+	 * @param associativity the number of entries of every set
+	 */
+	public SetAssociativeKernelCache(long kernelValuesToStore, int associativity) {
+		this();
+		this.associativity = associativity;
+		setKernelValuesToStore(kernelValuesToStore);
+	}
+
+	public SetAssociativeKernelCache() {
+		super();
+	}
+
+	/**
+	 * Returns the number of kernel computations that can be simultaneously stored
+	 *
+	 * @return the kernelValuesToStore
+	 */
+	public long getKernelValuesToStore() {
+		return kernelValuesToStore;
+	}
+
+	/**
+	 * Sets the number of kernel computations that can be simultaneously stored. It is
+	 * rounded up so that the number of sets is a power of two
+	 *
+	 * @param kernelValuesToStore the kernelValuesToStore to set
+	 * <p>
+	 * NOTE: all the already stored kernel computations will be lost
+	 */
+	public synchronized void setKernelValuesToStore(long kernelValuesToStore) {
+		this.kernelValuesToStore = kernelValuesToStore;
+		this.initialize();
+	}
+
+	/**
+	 * Returns the number of entries of every set, i.e. the number of different cache
+	 * entries a kernel computation can be stored in
+	 *
+	 * @return the associativity
+	 */
+	public int getAssociativity() {
+		return associativity;
+	}
+
+	/**
+	 * Sets the number of entries of every set, i.e. the number of different cache
+	 * entries a kernel computation can be stored in
+	 *
+	 * @param associativity the associativity to set
+	 * <p>
+	 * NOTE: all the already stored kernel computations will be lost
+	 */
+	public synchronized void setAssociativity(int associativity) {
+		this.associativity = associativity;
+		if (this.kernelValuesToStore > 0) {
+			this.initialize();
+		}
+	}
+
+	private void initialize() {
+		if (this.associativity < 1) {
+			throw new IllegalArgumentException("Invalid associativity: " + this.associativity);
+		}
+		if (this.kernelValuesToStore < 1 || this.kernelValuesToStore > MAX_NUMBER_OF_ENTRIES) {
+			throw new IllegalArgumentException("Invalid number of kernel values to store: "
+					+ this.kernelValuesToStore + " (at most " + MAX_NUMBER_OF_ENTRIES + " are supported)");
+		}
+		long minimumSets = (this.kernelValuesToStore + this.associativity - 1) / this.associativity;
+		int numberOfSets = 1;
+		while (numberOfSets < minimumSets) {
+			numberOfSets <<= 1;
+		}
+		if ((long) numberOfSets * this.associativity > MAX_NUMBER_OF_ENTRIES) {
+			throw new IllegalArgumentException("Too many kernel values to store with associativity "
+					+ this.associativity + ": at most " + MAX_NUMBER_OF_ENTRIES + " entries are supported");
+		}
+		int numberOfEntries = numberOfSets * this.associativity;
+		this.setMask = numberOfSets - 1;
+		this.entryExamples = new AtomicLongArray(numberOfEntries * 2);
+		this.entryValues = new AtomicIntegerArray(numberOfEntries);
+		this.setVersion = new AtomicIntegerArray(numberOfSets);
+		this.referenced = new boolean[numberOfEntries];
+		this.clockHands = new int[numberOfSets];
+		for (int set = 0; set < numberOfSets; set++) {
+			this.reset(set);
+		}
+	}
+
+	/**
+	 * Empties a set. It must be invoked holding the lock on the set
+	 */
+	private void reset(int set) {
+		int firstEntry = set * this.associativity;
+		for (int entry = firstEntry; entry < firstEntry + this.associativity; entry++) {
+			this.entryExamples.set(entry * 2, NULL_EXAMPLE_ID);
+			this.entryExamples.set(entry * 2 + 1, NULL_EXAMPLE_ID);
+			this.entryValues.set(entry, INVALID_KERNEL_VALUE);
+			this.referenced[entry] = false;
+		}
+		this.clockHands[set] = 0;
+	}
+
+	/**
+	 * Returns the set a kernel computation is stored in
+	 */
+	private int getSet(long smallerId, long largerId) {
+		return (int) hash(smallerId, largerId) & this.setMask;
+	}
+
+	/**
+	 * Combines the IDs of a pair of examples and mixes them with the finalizer of MurmurHash3,
+	 * so that consecutive or strided IDs are spread uniformly over all the bits of the hash
+	 *
+	 * @param smallerId the smaller ID of the pair
+	 * @param largerId the larger ID of the pair
+	 * @return the hash of the pair
+	 */
+	static long hash(long smallerId, long largerId) {
+		long hash = smallerId * 0x9e3779b97f4a7c15L + largerId;
+		hash ^= hash >>> 33;
+		hash *= 0xff51afd7ed558ccdL;
+		hash ^= hash >>> 33;
+		hash *= 0xc4ceb9fe1a85ec53L;
+		hash ^= hash >>> 33;
+		return hash;
+	}
+
+	@Override
+	protected Float getStoredKernelValue(Example exA, Example exB) {
+		float value = this.getStoredPrimitiveKernelValue(exA, exB);
+		if (Float.isNaN(value)) {
+			return null;
+		}
+		return value;
+	}
+
+	@Override
+	protected float getStoredPrimitiveKernelValue(Example exA, Example exB) {
+		long smallerId = exA.getId();
+		long largerId = exB.getId();
+		if (smallerId > largerId) {
+			smallerId = exB.getId();
+			largerId = exA.getId();
+		}
+		int set = this.getSet(smallerId, largerId);
+
+		int version = this.setVersion.get(set);
+		if ((version & 1) != 0) {
+			//the set is being modified
+			return Float.NaN;
+		}
+		int firstEntry = set * this.associativity;
+		for (int entry = firstEntry; entry < firstEntry + this.associativity; entry++) {
+			if (this.entryExamples.get(entry * 2) == smallerId && this.entryExamples.get(entry * 2 + 1) == largerId) {
+				float value = Float.intBitsToFloat(this.entryValues.get(entry));
+				if (this.setVersion.get(set) != version) {
+					return Float.NaN;
+				}
+				this.referenced[entry] = true;
+				return value;
+			}
+		}
+		return Float.NaN;
+	}
+
+	@Override
+	public void setKernelValue(Example exA, Example exB, float value) {
+		long smallerId = exA.getId();
+		long largerId = exB.getId();
+		if (smallerId > largerId) {
+			smallerId = exB.getId();
+			largerId = exA.getId();
+		}
+		int set = this.getSet(smallerId, largerId);
+		int version = this.lockSet(set);
+		try {
+			int entry = this.findEntry(set, smallerId, largerId);
+			this.entryExamples.set(entry * 2, smallerId);
+			this.entryExamples.set(entry * 2 + 1, largerId);
+			this.entryValues.set(entry, Float.floatToRawIntBits(value));
+			this.referenced[entry] = true;
+		} finally {
+			this.setVersion.set(set, version + 2);
+		}
+	}
+
+	/**
+	 * Returns the entry of <code>set</code> that must contain the kernel computation between
+	 * the given examples: the entry already containing it, an empty entry or the entry chosen by
+	 * the CLOCK policy. It must be invoked holding the lock on the set
+	 */
+	private int findEntry(int set, long smallerId, long largerId) {
+		int firstEntry = set * this.associativity;
+		int emptyEntry = -1;
+		for (int entry = firstEntry; entry < firstEntry + this.associativity; entry++) {
+			long entrySmallerId = this.entryExamples.get(entry * 2);
+			if (entrySmallerId == smallerId && this.entryExamples.get(entry * 2 + 1) == largerId) {
+				return entry;
+			}
+			if (emptyEntry < 0 && entrySmallerId == NULL_EXAMPLE_ID) {
+				emptyEntry = entry;
+			}
+		}
+		if (emptyEntry >= 0) {
+			return emptyEntry;
+		}
+		long start = System.nanoTime();
+		int hand = this.clockHands[set];
+		while (this.referenced[firstEntry + hand]) {
+			this.referenced[firstEntry + hand] = false;
+			hand = (hand + 1) % this.associativity;
+		}
+		this.clockHands[set] = (hand + 1) % this.associativity;
+		this.recordEviction(System.nanoTime() - start);
+		return firstEntry + hand;
+	}
+
+	/**
+	 * Acquires the lock on a set by making its version odd
+	 *
+	 * @return the even version of the set before acquiring the lock
+	 */
+	private int lockSet(int set) {
+		while (true) {
+			int version = this.setVersion.get(set);
+			if ((version & 1) == 0 && this.setVersion.compareAndSet(set, version, version + 1)) {
+				return version;
+			}
+			Thread.yield();
+		}
+	}
+
+	/**
+	 * @return the number of kernel computations that can be simultaneously stored
+	 */
+	@Override
+	public long getCapacity() {
+		return this.entryValues == null ? 0 : this.entryValues.length();
+	}
+
+	/**
+	 * @return the number of kernel computations currently stored
+	 */
+	@Override
+	public long getOccupancy() {
+		if (this.entryExamples == null) {
+			return 0;
+		}
+		long occupancy = 0;
+		for (int entry = 0; entry < this.entryValues.length(); entry++) {
+			if (this.entryExamples.get(entry * 2) != NULL_EXAMPLE_ID) {
+				occupancy++;
+			}
+		}
+		return occupancy;
+	}
+
+	@Override
+	public long getMemoryUsage() {
+		if (this.entryValues == null) {
+			return 0;
+		}
+		return 21L * this.entryValues.length() + 8L * this.clockHands.length;
+	}
+
+	@Override
+	public synchronized void flushCache() {
+		if (this.setVersion == null) {
+			return;
+		}
+		for (int set = 0; set < this.setVersion.length(); set++) {
+			int version = this.lockSet(set);
+			try {
+				this.reset(set);
+			} finally {
+				this.setVersion.set(set, version + 2);
+			}
+		}
+	}
+
+}
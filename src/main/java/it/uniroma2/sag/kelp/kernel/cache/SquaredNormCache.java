@@ -24,6 +24,10 @@ import it.uniroma2.sag.kelp.data.example.Example;
 
 /**
  * Cache for store squared norms
+ * <p>
+ * Implementations must be thread-safe, as a <code>Kernel</code> can be evaluated concurrently
+ * by many threads. Implementations should also implement <code>PrimitiveSquaredNormCache</code>,
+ * in order to avoid boxing the squared norms at every lookup
  * 
  * @author      Simone Filice
  */
@@ -23,6 +23,7 @@ import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Queue;
 
 import com.fasterxml.jackson.annotation.JsonTypeName;
@@ -35,7 +36,11 @@ import com.fasterxml.jackson.annotation.JsonTypeName;
  * requirement of memory space, the cache stores only <code>n</code> stripes.
  * When the number of stripes is exceeded, they are removed according to a FIFO
  * policy.
- * 
+ * <p>
+ * Whole rows are read and written in bulk by <code>getKernelRow</code> and
+ * <code>setKernelRow</code>.
+ * <p>
+ * All the operations are synchronized on the cache instance
  * 
  * @author Danilo Croce
  * 
@@ -152,7 +157,7 @@ public class StripeKernelCache extends KernelCache implements Serializable {
 	 * @param maxNumberOfRows
 	 *            the maxNumberOfRows to set
 	 */
-	public void setMaxNumberOfRows(int maxNumberOfRows) {
+	public synchronized void setMaxNumberOfRows(int maxNumberOfRows) {
 		this.maxNumberOfRows = maxNumberOfRows;
 		this.buffer = new float[this.maxNumberOfRows][];
 
@@ -172,7 +177,7 @@ public class StripeKernelCache extends KernelCache implements Serializable {
 	 * @param numberOfColumns
 	 *            the numberOfColumns to set
 	 */
-	public void setNumberOfColumns(int numberOfColumns) {
+	public synchronized void setNumberOfColumns(int numberOfColumns) {
 		this.numberOfColumns = numberOfColumns;
 	}
 
@@ -201,7 +206,7 @@ public class StripeKernelCache extends KernelCache implements Serializable {
 	private long lastAddedIndexRow=-1;
 
 	@Override
-	public void setKernelValue(Example exA, Example exB, float value) {
+	public synchronized void setKernelValue(Example exA, Example exB, float value) {
 
 		// Get the example identifier
 		long indexA = exA.getId();
@@ -219,23 +224,9 @@ public class StripeKernelCache extends KernelCache implements Serializable {
 		int colId;
 
 		// Get the column id in the matrix assigned to exB
-		if (columnDict.containsKey(indexB)) {
-			colId = columnDict.get(indexB);
-		} else {
-			// Each element should be added as column in the kernel buffer, so
-			// it is
-			// expected to find a free column in the matrix.
-			if (matrixColumnIndex == numberOfColumns) {
-				info("The example " + indexB
-						+ " cannot be stored because the matrix (of size "
-						+ numberOfColumns + " is full");
-				return;
-			}
-			// Add to the dict a mapping between the example and the row in the
-			// matrix buffer
-			colId = matrixColumnIndex;
-			columnDict.put(indexB, matrixColumnIndex);
-			matrixColumnIndex++;
+		colId = getColumn(indexB);
+		if (colId == -1) {
+			return;
 		}
 
 		/*
@@ -251,29 +242,7 @@ public class StripeKernelCache extends KernelCache implements Serializable {
 			this.buffer[rowId][colId] = value;
 		}// Otherwise, a new row must be added. Note: do not add row for K_ii
 		else if (indexA != indexB) {
-			// If there are no free rows, the oldest element (i.e. the first
-			// element in addedFIFOItems) is removed and the corresponding row
-			// is cleared
-			if (freeRowsIds.isEmpty()) {
-				long elementToRemove = this.examplesIdQueue.poll();
-				int rowToClear = this.rowDict.get(elementToRemove);
-				// All the element in the row are set as invalid
-				Arrays.fill(this.buffer[rowToClear], INVALID_KERNEL_VALUE);
-				// A new element is added in the list of empty rows
-				this.freeRowsIds.add(rowToClear);
-				// The deleted row is removed from the dictionary
-				this.rowDict.remove(elementToRemove);
-			}
-			// The first free row is selected and cleared
-			rowId = this.freeRowsIds.get(0);
-			this.freeRowsIds.remove(0);
-			if (this.buffer[rowId] == null)
-				this.buffer[rowId] = new float[this.numberOfColumns];
-			Arrays.fill(this.buffer[rowId], INVALID_KERNEL_VALUE);
-			this.examplesIdQueue.add(indexA);
-
-			// The row is assigned to exA
-			this.rowDict.put(indexA, rowId);
+			rowId = addRow(indexA);
 			// The value is added
 			this.buffer[rowId][colId] = value;
 		}
@@ -282,12 +251,135 @@ public class StripeKernelCache extends KernelCache implements Serializable {
 
 	}
 
+	/**
+	 * Returns the column assigned to an example, assigning a new column if
+	 * the example has not a column yet
+	 * 
+	 * @param exampleId
+	 *            The Id of the <code>Example</code>
+	 * @return the column assigned to the example, -1 if the matrix is full
+	 */
+	private int getColumn(long exampleId) {
+		if (columnDict.containsKey(exampleId)) {
+			return columnDict.get(exampleId);
+		}
+		// Each element should be added as column in the kernel buffer, so
+		// it is
+		// expected to find a free column in the matrix.
+		if (matrixColumnIndex == numberOfColumns) {
+			info("The example " + exampleId
+					+ " cannot be stored because the matrix (of size "
+					+ numberOfColumns + " is full");
+			return -1;
+		}
+		// Add to the dict a mapping between the example and the row in the
+		// matrix buffer
+		int colId = matrixColumnIndex;
+		columnDict.put(exampleId, matrixColumnIndex);
+		matrixColumnIndex++;
+		return colId;
+	}
+
+	/**
+	 * Assigns a new row to an example, removing the oldest row if there are
+	 * no free rows
+	 * 
+	 * @param exampleId
+	 *            The Id of the <code>Example</code>
+	 * @return the row assigned to the example
+	 */
+	private int addRow(long exampleId) {
+		// If there are no free rows, the oldest element (i.e. the first
+		// element in addedFIFOItems) is removed and the corresponding row
+		// is cleared
+		if (freeRowsIds.isEmpty()) {
+			long start = System.nanoTime();
+			long elementToRemove = this.examplesIdQueue.poll();
+			int rowToClear = this.rowDict.get(elementToRemove);
+			// All the element in the row are set as invalid
+			Arrays.fill(this.buffer[rowToClear], INVALID_KERNEL_VALUE);
+			// A new element is added in the list of empty rows
+			this.freeRowsIds.add(rowToClear);
+			// The deleted row is removed from the dictionary
+			this.rowDict.remove(elementToRemove);
+			this.recordInvalidation();
+			this.recordEviction(System.nanoTime() - start);
+		}
+		// The first free row is selected and cleared
+		int rowId = this.freeRowsIds.get(0);
+		this.freeRowsIds.remove(0);
+		if (this.buffer[rowId] == null)
+			this.buffer[rowId] = new float[this.numberOfColumns];
+		Arrays.fill(this.buffer[rowId], INVALID_KERNEL_VALUE);
+		this.examplesIdQueue.add(exampleId);
+
+		// The row is assigned to the example
+		this.rowDict.put(exampleId, rowId);
+		return rowId;
+	}
+
+	/**
+	 * Stores the kernel values directly in the stripe of <code>example</code>,
+	 * adding a new stripe if it is not in the cache
+	 */
+	@Override
+	public synchronized void setKernelRow(Example example, List<Example> examples,
+			float[] row, int[] positions, int numberOfPositions) {
+		long exampleId = example.getId();
+		int rowId;
+		if (rowDict.containsKey(exampleId)) {
+			rowId = this.rowDict.get(exampleId);
+		} else {
+			rowId = addRow(exampleId);
+		}
+		float[] stripe = this.buffer[rowId];
+		for (int p = 0; p < numberOfPositions; p++) {
+			int i = positions[p];
+			int colId = getColumn(examples.get(i).getId());
+			if (colId == -1) {
+				continue;
+			}
+			stripe[colId] = row[i];
+		}
+		lastAddedIndexRow = exampleId;
+	}
+
+	/**
+	 * @return the number of rows, i.e. of examples, that can be simultaneously stored
+	 */
+	@Override
+	public long getCapacity() {
+		return this.maxNumberOfRows;
+	}
+
+	/**
+	 * @return the number of rows currently stored
+	 */
+	@Override
+	public synchronized long getOccupancy() {
+		return this.rowDict == null ? 0 : this.rowDict.size();
+	}
+
+	@Override
+	public synchronized long getMemoryUsage() {
+		if (this.buffer == null) {
+			return 0;
+		}
+		long allocatedRows = 0;
+		for (float[] row : this.buffer) {
+			if (row != null) {
+				allocatedRows++;
+			}
+		}
+		return allocatedRows * this.numberOfColumns * 4;
+	}
+
 	private void info(String string) {
 		System.err.println(string);
 	}
 
 	@Override
-	public void flushCache() {
+	public synchronized void flushCache() {
 		this.matrixColumnIndex = 0;
 
 		this.freeRowsIds.clear();
@@ -310,6 +402,44 @@ public class StripeKernelCache extends KernelCache implements Serializable {
 	@Override
 	protected Float getStoredKernelValue(Example exA, Example exB) {
 
+		float res = getStoredPrimitiveKernelValue(exA, exB);
+
+		if (Float.isNaN(res)) {
+			return null;
+		} else {
+			return res;
+		}
+	}
+
+	/**
+	 * Reads the kernel values directly from the stripe of <code>example</code>,
+	 * when it is in the cache
+	 */
+	@Override
+	protected synchronized void getStoredKernelRow(Example example,
+			List<Example> examples, float[] row) {
+		long exampleId = example.getId();
+		if (!rowDict.containsKey(exampleId)) {
+			super.getStoredKernelRow(example, examples, row);
+			return;
+		}
+		float[] stripe = this.buffer[this.rowDict.get(exampleId)];
+		for (int i = 0; i < examples.size(); i++) {
+			long otherId = examples.get(i).getId();
+			float res = INVALID_KERNEL_VALUE;
+			if (columnDict.containsKey(otherId)) {
+				res = stripe[columnDict.get(otherId)];
+			}
+			if (Float.isNaN(res)) {
+				res = search(otherId, exampleId);
+			}
+			row[i] = res;
+		}
+	}
+
+	@Override
+	protected synchronized float getStoredPrimitiveKernelValue(Example exA, Example exB) {
+
 		long indexA = exA.getId();
 		long indexB = exB.getId();
 
@@ -317,10 +447,6 @@ public class StripeKernelCache extends KernelCache implements Serializable {
 		if (Float.isNaN(res))
 			res = search(indexB, indexA);
 
-		if (Float.isNaN(res)) {
-			return null;
-		} else {
-			return res;
-		}
+		return res;
 	}
 }
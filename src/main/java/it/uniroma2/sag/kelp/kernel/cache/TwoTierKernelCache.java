@@ -0,0 +1,231 @@
+/*
+ * Copyright 2026 agent
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package it.uniroma2.sag.kelp.kernel.cache;
+
+import it.uniroma2.sag.kelp.data.example.Example;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+
+import com.fasterxml.jackson.annotation.JsonTypeName;
+
+/**
+ * Cache for kernel computations with two tiers. The first tier is a <code>DynamicIndexKernelCache</code>
+ * on the Java heap. When an example is discarded from the first tier, its kernel computations are
+ * moved to a second, larger tier stored outside the Java heap, i.e. in direct buffers or in a
+ * temporary file mapped in memory, instead of being lost. A kernel computation not found in the
+ * first tier is looked up in the second one, and moved back to the first tier when found.
+ * <p>
+ * The second tier is a 4-way set-associative hash table: given a number of kernel values to spill n,
+ * its occupation is about 20*n bytes. It is convenient when computing a kernel is much more
+ * expensive than reading a few bytes from memory or disk.
+ * <p>
+ * The second tier is not serialized: it is empty after deserialization. When the second tier
+ * is replaced (see <code>setSpilledKernelValuesToStore</code> and <code>setSpillDirectory</code>),
+ * the native memory of the previous one is released only when it is garbage collected.
+ * All the operations are synchronized on the cache instance
+ *
+ * @author agent
+ */
+@JsonTypeName("twoTier")
+public class TwoTierKernelCache extends DynamicIndexKernelCache implements Serializable {
+
+	private static final long serialVersionUID = -3124889712455079731L;
+
+	private long spilledKernelValuesToStore;
+	private String spillDirectory;
+	private transient OffHeapKernelValueTable spilledKernelValues;
+
+	/**
+	 * Initializes a TwoTierKernelCache whose second tier is stored in direct buffers
+	 *
+	 * @param examplesToStore the maximum number of examples whose pairwise kernel computations
+	 * can be simultaneously stored in the first tier
+	 * @param spilledKernelValuesToStore the number of kernel computations that can be
+	 * simultaneously stored in the second tier
+	 */
+	public TwoTierKernelCache(int examplesToStore, long spilledKernelValuesToStore) {
+		this(examplesToStore, spilledKernelValuesToStore, null);
+	}
+
+	/**
+	 * Initializes a TwoTierKernelCache
+	 *
+	 * @param examplesToStore the maximum number of examples whose pairwise kernel computations
+	 * can be simultaneously stored in the first tier
+	 * @param spilledKernelValuesToStore the number of kernel computations that can be
+	 * simultaneously stored in the second tier
+	 * @param spillDirectory the directory where the second tier is stored in a temporary file,
+	 * or <code>null</code> if it must be stored in direct buffers
+	 */
+	public TwoTierKernelCache(int examplesToStore, long spilledKernelValuesToStore, String spillDirectory) {
+		super(examplesToStore);
+		this.spillDirectory = spillDirectory;
+		setSpilledKernelValuesToStore(spilledKernelValuesToStore);
+	}
+
+	public TwoTierKernelCache() {
+		super();
+	}
+
+	/**
+	 * Returns the number of kernel computations that can be simultaneously stored in the second tier
+	 *
+	 * @return the spilledKernelValuesToStore
+	 */
+	public long getSpilledKernelValuesToStore() {
+		return spilledKernelValuesToStore;
+	}
+
+	/**
+	 * Sets the number of kernel computations that can be simultaneously stored in the second tier.
+	 * It is rounded up to a power of two
+	 *
+	 * @param spilledKernelValuesToStore the spilledKernelValuesToStore to set
+	 * <p>
+	 * NOTE: all the kernel computations stored in the second tier will be lost. If the rounded
+	 * capacity does not change, the second tier is cleared and reused; otherwise it is replaced,
+	 * and the direct buffers or the mapped file of the previous one keep their native memory until
+	 * they are garbage collected, so this method should not be invoked repeatedly with different
+	 * capacities
+	 */
+	public synchronized void setSpilledKernelValuesToStore(long spilledKernelValuesToStore) {
+		this.spilledKernelValuesToStore = spilledKernelValuesToStore;
+		if (this.spilledKernelValues != null && spilledKernelValuesToStore > 0
+				&& this.spilledKernelValues.hasCapacityFor(spilledKernelValuesToStore)) {
+			this.spilledKernelValues.clear();
+		} else {
+			this.releaseSpilledKernelValues();
+		}
+	}
+
+	/**
+	 * Returns the directory where the second tier is stored in a temporary file
+	 *
+	 * @return the spillDirectory, or <code>null</code> if the second tier is stored in direct buffers
+	 */
+	public String getSpillDirectory() {
+		return spillDirectory;
+	}
+
+	/**
+	 * Sets the directory where the second tier is stored in a temporary file
+	 *
+	 * @param spillDirectory the spillDirectory to set, or <code>null</code> if the second tier must
+	 * be stored in direct buffers
+	 * <p>
+	 * NOTE: all the kernel computations stored in the second tier will be lost. If the directory
+	 * does not change, the second tier is cleared and reused; otherwise it is replaced, and the
+	 * temporary file of the previous one is deleted, but its direct buffers or mapped regions keep
+	 * their native memory until they are garbage collected
+	 */
+	public synchronized void setSpillDirectory(String spillDirectory) {
+		boolean sameDirectory = spillDirectory == null ? this.spillDirectory == null
+				: spillDirectory.equals(this.spillDirectory);
+		this.spillDirectory = spillDirectory;
+		if (sameDirectory && this.spilledKernelValues != null) {
+			this.spilledKernelValues.clear();
+		} else {
+			this.releaseSpilledKernelValues();
+		}
+	}
+
+	/**
+	 * Returns the second tier, allocating it if it has not been allocated yet
+	 *
+	 * @return the second tier, or <code>null</code> if it has no capacity
+	 */
+	private OffHeapKernelValueTable getSpilledKernelValues() {
+		if (this.spilledKernelValues == null && this.spilledKernelValuesToStore > 0) {
+			try {
+				this.spilledKernelValues = new OffHeapKernelValueTable(this.spilledKernelValuesToStore,
+						this.spillDirectory == null ? null : new File(this.spillDirectory));
+			} catch (IOException e) {
+				throw new IllegalStateException("Cannot create the second tier of the kernel cache in "
+						+ this.spillDirectory, e);
+			}
+		}
+		return this.spilledKernelValues;
+	}
+
+	private void releaseSpilledKernelValues() {
+		if (this.spilledKernelValues != null) {
+			this.spilledKernelValues.release();
+			this.spilledKernelValues = null;
+		}
+	}
+
+	@Override
+	protected synchronized float getStoredPrimitiveKernelValue(Example exA, Example exB) {
+		float value = super.getStoredPrimitiveKernelValue(exA, exB);
+		if (!Float.isNaN(value)) {
+			return value;
+		}
+		OffHeapKernelValueTable secondTier = this.getSpilledKernelValues();
+		if (secondTier == null) {
+			return Float.NaN;
+		}
+		if (exA.getId() <= exB.getId()) {
+			value = secondTier.get(exA.getId(), exB.getId());
+		} else {
+			value = secondTier.get(exB.getId(), exA.getId());
+		}
+		if (!Float.isNaN(value)) {
+			super.setKernelValue(exA, exB, value);
+		}
+		return value;
+	}
+
+	@Override
+	protected void exampleEvicted(int position) {
+		OffHeapKernelValueTable secondTier = this.getSpilledKernelValues();
+		if (secondTier == null) {
+			return;
+		}
+		long exampleId = this.getCachedExampleId(position);
+		for (int otherPosition = 0; otherPosition < this.getExamplesToStore(); otherPosition++) {
+			long otherExampleId = this.getCachedExampleId(otherPosition);
+			if (otherExampleId == -1) {
+				continue;
+			}
+			float value = this.getCachedKernelValue(position, otherPosition);
+			if (Float.isNaN(value)) {
+				continue;
+			}
+			if (exampleId <= otherExampleId) {
+				secondTier.put(exampleId, otherExampleId, value);
+			} else {
+				secondTier.put(otherExampleId, exampleId, value);
+			}
+		}
+	}
+
+	@Override
+	public long getMemoryUsage() {
+		OffHeapKernelValueTable secondTier = this.spilledKernelValues;
+		return super.getMemoryUsage() + (secondTier == null ? 0 : secondTier.getSizeInBytes());
+	}
+
+	@Override
+	public synchronized void flushCache() {
+		super.flushCache();
+		if (this.spilledKernelValues != null) {
+			this.spilledKernelValues.clear();
+		}
+	}
+
+}
@@ -39,7 +39,10 @@ public class ExperimentUtils {
 	private static Logger logger = LoggerFactory.getLogger(ExperimentUtils.class);
 	
 	/**
-	 * Evaluates a prediction function over a testset
+	 * Evaluates a prediction function over a testset. The examples are accessed through
+	 * <code>getExamples</code>, without moving the sequential iterator of the testset. If the
+	 * testset does not support <code>getExamples</code> (e.g. a <code>StreamingDataset</code>),
+	 * it is read sequentially from its beginning, after a <code>reset</code>
 	 * 
 	 * @param predictionFunction the prediction function to be evaluated
 	 * @param evaluator the evaluator to be applied during the evaluation process
@@ -49,14 +52,32 @@ public class ExperimentUtils {
 	public static List<Prediction> test(PredictionFunction predictionFunction,  Evaluator evaluator, Dataset testset ){
 	
 		List<Prediction> predictions = new ArrayList<Prediction>();
-		for(Example ex : testset.getExamples()){
-			Prediction prediction = predictionFunction.predict(ex);
-			evaluator.addCount(ex, prediction);
-			predictions.add(prediction);
+		List<Example> examples;
+		try{
+			examples = testset.getExamples();
+		}catch(UnsupportedOperationException e){
+			examples = null;
+		}
+		if(examples == null){
+			testset.reset();
+			while(testset.hasNextExample()){
+				test(predictionFunction, evaluator, testset.getNextExample(), predictions);
+			}
+		}else{
+			for(Example ex : examples){
+				test(predictionFunction, evaluator, ex, predictions);
+			}
 		}
 		return predictions;
 	}
 	
+	private static void test(PredictionFunction predictionFunction, Evaluator evaluator, Example ex,
+			List<Prediction> predictions){
+		Prediction prediction = predictionFunction.predict(ex);
+		evaluator.addCount(ex, prediction);
+		predictions.add(prediction);
+	}
+	
 	/**
 	 * Performs a n-fold cross validation
 	 * 
@@ -90,13 +111,14 @@ public class ExperimentUtils {
 	}
 	
 	
-	private static SimpleDataset getAllExcept(Dataset[] folds, int i) {
-		SimpleDataset ret = new SimpleDataset();
+	static SimpleDataset getAllExcept(Dataset[] folds, int i) {
+		SimpleDataset[] others = new SimpleDataset[folds.length - 1];
+		int position = 0;
 		for (int k = 0; k < folds.length; ++k) {
 			if (i != k)
-				ret.addExamples(folds[k]);
+				others[position++] = (SimpleDataset) folds[k];
 		}
-		return ret;
+		return SimpleDataset.concatenate(others);
 	}
 
 }
@@ -20,7 +20,6 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStreamWriter;
 import java.io.PrintStream;
-import java.util.zip.GZIPOutputStream;
 
 import com.fasterxml.jackson.annotation.JsonInclude.Include;
 import com.fasterxml.jackson.core.JsonParseException;
@@ -79,7 +78,7 @@ public class JacksonSerializerWrapper implements ObjectSerializer {
 	public void writeValueOnGzipFile(Object object, String filePath)
 			throws IOException {
 		FileOutputStream out = new FileOutputStream(new File(filePath));
-		GZIPOutputStream gzip = new GZIPOutputStream(out);
+		ParallelGZIPOutputStream gzip = new ParallelGZIPOutputStream(out);
 		OutputStreamWriter writer = new OutputStreamWriter(gzip);
 		// writer.write(toWrite.toCharArray());
 		ow.writeValue(gzip, object);
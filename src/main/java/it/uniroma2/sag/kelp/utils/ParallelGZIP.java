@@ -0,0 +1,91 @@
+/*
+ * Copyright 2026 agent
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package it.uniroma2.sag.kelp.utils;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * The constants of the multi-member GZIP format written by <code>ParallelGZIPOutputStream</code>
+ * and read by <code>ParallelGZIPInputStream</code>, and the thread pool shared by the streams.
+ * <p>
+ * Every member is a standard GZIP member whose header contains an extra field (subfield
+ * identifier "KP") storing the total size in bytes of the member, so that a reader can split the
+ * file in members without decompressing it. The extra field is ignored by the other GZIP readers.
+ *
+ * @author agent
+ */
+final class ParallelGZIP {
+
+	static final int ID1 = 0x1f;
+	static final int ID2 = 0x8b;
+	static final int DEFLATE = 8;
+	static final int FEXTRA = 4;
+	static final int OS_UNKNOWN = 255;
+	static final int FIXED_HEADER_SIZE = 10;
+	static final int TRAILER_SIZE = 8;
+
+	static final int SUBFIELD_ID1 = 'K';
+	static final int SUBFIELD_ID2 = 'P';
+	static final int SUBFIELD_DATA_SIZE = 4;
+	static final int EXTRA_FIELD_SIZE = 4 + SUBFIELD_DATA_SIZE;
+	static final int HEADER_SIZE = FIXED_HEADER_SIZE + 2 + EXTRA_FIELD_SIZE;
+
+	static final int DEFAULT_BLOCK_SIZE = 1 << 20;
+
+	private static ExecutorService sharedExecutor;
+
+	private ParallelGZIP() {
+	}
+
+	/**
+	 * @return a pool of daemon threads, as many as the available processors, shared by all the
+	 * streams not provided with their own <code>ExecutorService</code>
+	 */
+	static synchronized ExecutorService getSharedExecutor() {
+		if (sharedExecutor == null) {
+			sharedExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(),
+					new ThreadFactory() {
+						public Thread newThread(Runnable runnable) {
+							Thread thread = new Thread(runnable, "kelp-gzip");
+							thread.setDaemon(true);
+							return thread;
+						}
+					});
+		}
+		return sharedExecutor;
+	}
+
+	static void writeShortLE(byte[] buffer, int offset, int value) {
+		buffer[offset] = (byte) value;
+		buffer[offset + 1] = (byte) (value >>> 8);
+	}
+
+	static void writeIntLE(byte[] buffer, int offset, int value) {
+		writeShortLE(buffer, offset, value);
+		writeShortLE(buffer, offset + 2, value >>> 16);
+	}
+
+	static int readShortLE(byte[] buffer, int offset) {
+		return (buffer[offset] & 0xff) | ((buffer[offset + 1] & 0xff) << 8);
+	}
+
+	static int readIntLE(byte[] buffer, int offset) {
+		return readShortLE(buffer, offset) | (readShortLE(buffer, offset + 2) << 16);
+	}
+
+}
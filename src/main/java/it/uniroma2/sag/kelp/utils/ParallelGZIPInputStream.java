@@ -0,0 +1,293 @@
+/*
+ * Copyright 2026 agent
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package it.uniroma2.sag.kelp.utils;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.SequenceInputStream;
+import java.util.LinkedList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * An <code>InputStream</code> decompressing GZIP data with a pool of threads. The members written
+ * by a <code>ParallelGZIPOutputStream</code> store their size in their header: they are read
+ * ahead and decompressed in parallel, and returned in the same order they appear in the file.
+ * The data starting from the first member not written by a <code>ParallelGZIPOutputStream</code>
+ * (e.g. any file compressed by <code>gzip</code>) are decompressed sequentially through a
+ * <code>GZIPInputStream</code>.
+ * <p>
+ * NOTE: this class is not thread-safe
+ *
+ * @author agent
+ */
+public class ParallelGZIPInputStream extends InputStream {
+
+	private static final int BLOCKS_PER_THREAD = 2;
+
+	private final DataInputStream in;
+	private final ExecutorService executor;
+	private final int maxBlocksInFlight;
+
+	private LinkedList<Future<byte[]>> decompressingBlocks;
+	private InputStream sequentialStream;
+	private boolean endOfMembers;
+
+	private byte[] block;
+	private int blockPosition;
+	private boolean closed;
+
+	/**
+	 * Initializes a stream decompressing the members with the thread pool shared by all the
+	 * parallel GZIP streams
+	 *
+	 * @param in the underlying input stream
+	 */
+	public ParallelGZIPInputStream(InputStream in) {
+		this(in, ParallelGZIP.getSharedExecutor(), Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * @param in the underlying input stream
+	 * @param executor the thread pool decompressing the members
+	 * @param numberOfThreads the number of threads of <code>executor</code>, used to bound the
+	 * number of members read ahead
+	 */
+	public ParallelGZIPInputStream(InputStream in, ExecutorService executor, int numberOfThreads) {
+		this.in = new DataInputStream(new BufferedInputStream(in, 1 << 16));
+		this.executor = executor;
+		this.maxBlocksInFlight = java.lang.Math.max(1, numberOfThreads) * BLOCKS_PER_THREAD;
+		this.decompressingBlocks = new LinkedList<Future<byte[]>>();
+	}
+
+	/**
+	 * Reads the members ahead, until <code>maxBlocksInFlight</code> members are being decompressed,
+	 * a member without the size in its header is found, or the end of the stream is reached
+	 */
+	private void readAhead() throws IOException {
+		while (!this.endOfMembers && this.decompressingBlocks.size() < this.maxBlocksInFlight) {
+			final byte[] member = this.readMember();
+			if (member == null) {
+				this.endOfMembers = true;
+				break;
+			}
+			this.decompressingBlocks.add(this.executor.submit(new Callable<byte[]>() {
+				public byte[] call() throws IOException {
+					return decompress(member);
+				}
+			}));
+		}
+	}
+
+	/**
+	 * Reads the next member whose header contains its size
+	 *
+	 * @return the next member, or <code>null</code> if the stream is ended or the next member
+	 * does not contain its size (in that case <code>sequentialStream</code> is initialized)
+	 */
+	private byte[] readMember() throws IOException {
+		byte[] header = new byte[ParallelGZIP.FIXED_HEADER_SIZE];
+		int read = 0;
+		while (read < header.length) {
+			int n = this.in.read(header, read, header.length - read);
+			if (n < 0) {
+				if (read == 0) {
+					return null;
+				}
+				throw new EOFException("Truncated GZIP header");
+			}
+			read += n;
+		}
+		if ((header[0] & 0xff) != ParallelGZIP.ID1 || (header[1] & 0xff) != ParallelGZIP.ID2) {
+			throw new ZipException("Not in GZIP format");
+		}
+
+		if ((header[3] & ParallelGZIP.FEXTRA) != 0) {
+			byte[] extraLength = new byte[2];
+			this.in.readFully(extraLength);
+			byte[] extraField = new byte[ParallelGZIP.readShortLE(extraLength, 0)];
+			this.in.readFully(extraField);
+			int memberSize = findMemberSize(extraField);
+			if (memberSize >= 0) {
+				int headerSize = ParallelGZIP.FIXED_HEADER_SIZE + 2 + extraField.length;
+				if (memberSize < headerSize + ParallelGZIP.TRAILER_SIZE) {
+					throw new ZipException("Corrupted GZIP member: wrong size");
+				}
+				byte[] member = new byte[memberSize];
+				System.arraycopy(header, 0, member, 0, header.length);
+				System.arraycopy(extraLength, 0, member, header.length, 2);
+				System.arraycopy(extraField, 0, member, header.length + 2, extraField.length);
+				this.in.readFully(member, headerSize, memberSize - headerSize);
+				return member;
+			}
+			byte[] fullHeader = new byte[header.length + 2 + extraField.length];
+			System.arraycopy(header, 0, fullHeader, 0, header.length);
+			System.arraycopy(extraLength, 0, fullHeader, header.length, 2);
+			System.arraycopy(extraField, 0, fullHeader, header.length + 2, extraField.length);
+			header = fullHeader;
+		}
+		//the member has not been written by a ParallelGZIPOutputStream
+		this.sequentialStream = new GZIPInputStream(new SequenceInputStream(new ByteArrayInputStream(header),
+				this.in), 1 << 16);
+		return null;
+	}
+
+	/**
+	 * Returns the member size stored in the "KP" subfield of <code>extraField</code>, -1 if
+	 * the subfield does not exist
+	 */
+	private static int findMemberSize(byte[] extraField) {
+		int position = 0;
+		while (position + 4 <= extraField.length) {
+			int subfieldLength = ParallelGZIP.readShortLE(extraField, position + 2);
+			if (extraField[position] == ParallelGZIP.SUBFIELD_ID1 && extraField[position + 1] == ParallelGZIP.SUBFIELD_ID2
+					&& subfieldLength == ParallelGZIP.SUBFIELD_DATA_SIZE && position + 8 <= extraField.length) {
+				return ParallelGZIP.readIntLE(extraField, position + 4);
+			}
+			position += 4 + subfieldLength;
+		}
+		return -1;
+	}
+
+	/**
+	 * Decompresses a member written by a <code>ParallelGZIPOutputStream</code>
+	 */
+	static byte[] decompress(byte[] member) throws IOException {
+		int headerSize = ParallelGZIP.FIXED_HEADER_SIZE + 2 + ParallelGZIP.readShortLE(member, ParallelGZIP.FIXED_HEADER_SIZE);
+		int trailerStart = member.length - ParallelGZIP.TRAILER_SIZE;
+		if (trailerStart < headerSize) {
+			throw new ZipException("Corrupted GZIP member");
+		}
+		byte[] data = new byte[ParallelGZIP.readIntLE(member, trailerStart + 4)];
+		Inflater inflater = new Inflater(true);
+		try {
+			inflater.setInput(member, headerSize, trailerStart - headerSize);
+			int inflated = 0;
+			while (inflated < data.length) {
+				int n = inflater.inflate(data, inflated, data.length - inflated);
+				if (n == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary())) {
+					break;
+				}
+				inflated += n;
+			}
+			if (inflated != data.length) {
+				throw new ZipException("Corrupted GZIP member: wrong size");
+			}
+		} catch (DataFormatException e) {
+			throw new ZipException(e.getMessage());
+		} finally {
+			inflater.end();
+		}
+		CRC32 crc = new CRC32();
+		crc.update(data);
+		if ((int) crc.getValue() != ParallelGZIP.readIntLE(member, trailerStart)) {
+			throw new ZipException("Corrupted GZIP member: wrong CRC");
+		}
+		return data;
+	}
+
+	/**
+	 * Makes <code>block</code> contain unread data
+	 *
+	 * @return <code>false</code> if all the members decompressed in parallel have been read
+	 */
+	private boolean fetchBlock() throws IOException {
+		if (this.closed) {
+			throw new IOException("Stream closed");
+		}
+		while (this.block == null || this.blockPosition == this.block.length) {
+			this.readAhead();
+			if (this.decompressingBlocks.isEmpty()) {
+				return false;
+			}
+			Future<byte[]> oldest = this.decompressingBlocks.removeFirst();
+			try {
+				this.block = oldest.get();
+				this.blockPosition = 0;
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("Interrupted while decompressing");
+			} catch (ExecutionException e) {
+				Throwable cause = e.getCause();
+				if (cause instanceof IOException) {
+					throw (IOException) cause;
+				}
+				throw new IOException(cause);
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public int read() throws IOException {
+		if (!this.fetchBlock()) {
+			return this.sequentialStream == null ? -1 : this.sequentialStream.read();
+		}
+		return this.block[this.blockPosition++] & 0xff;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		if (len == 0) {
+			return 0;
+		}
+		if (!this.fetchBlock()) {
+			return this.sequentialStream == null ? -1 : this.sequentialStream.read(b, off, len);
+		}
+		int copied = java.lang.Math.min(len, this.block.length - this.blockPosition);
+		System.arraycopy(this.block, this.blockPosition, b, off, copied);
+		this.blockPosition += copied;
+		return copied;
+	}
+
+	@Override
+	public int available() throws IOException {
+		if (this.block != null && this.blockPosition < this.block.length) {
+			return this.block.length - this.blockPosition;
+		}
+		return 0;
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (this.closed) {
+			return;
+		}
+		this.closed = true;
+		for (Future<byte[]> decompressingBlock : this.decompressingBlocks) {
+			decompressingBlock.cancel(false);
+		}
+		this.decompressingBlocks.clear();
+		if (this.sequentialStream != null) {
+			this.sequentialStream.close();
+		} else {
+			this.in.close();
+		}
+	}
+
+}
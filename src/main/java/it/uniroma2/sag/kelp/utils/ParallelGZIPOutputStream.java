@@ -0,0 +1,230 @@
+/*
+ * Copyright 2026 agent
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package it.uniroma2.sag.kelp.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.LinkedList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * An <code>OutputStream</code> compressing data in the GZIP format with a pool of threads.
+ * The data are split in blocks that are compressed independently into distinct GZIP members,
+ * written in the same order of the blocks. The result is a standard multi-member GZIP file,
+ * readable by <code>gunzip</code> and <code>GZIPInputStream</code>; moreover, every member
+ * stores its size in its header, so that <code>ParallelGZIPInputStream</code> can decompress
+ * the members in parallel.
+ * <p>
+ * The number of blocks being compressed is bounded, so the memory occupation does not depend
+ * on the size of the data.
+ * <p>
+ * NOTE: this class is not thread-safe
+ *
+ * @author agent
+ */
+public class ParallelGZIPOutputStream extends OutputStream {
+
+	private static final int BLOCKS_PER_THREAD = 2;
+
+	private final OutputStream out;
+	private final ExecutorService executor;
+	private final int blockSize;
+	private final int maxBlocksInFlight;
+
+	private byte[] block;
+	private int blockLength;
+	private LinkedList<Future<byte[]>> compressingBlocks;
+	private boolean membersWritten;
+	private boolean closed;
+
+	/**
+	 * Initializes a stream compressing blocks of 1MB with the thread pool shared by all the
+	 * parallel GZIP streams
+	 *
+	 * @param out the underlying output stream
+	 */
+	public ParallelGZIPOutputStream(OutputStream out) {
+		this(out, ParallelGZIP.DEFAULT_BLOCK_SIZE, ParallelGZIP.getSharedExecutor(),
+				Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * @param out the underlying output stream
+	 * @param blockSize the number of uncompressed bytes in every GZIP member
+	 * @param executor the thread pool compressing the blocks
+	 * @param numberOfThreads the number of threads of <code>executor</code>, used to bound the
+	 * number of blocks being compressed
+	 */
+	public ParallelGZIPOutputStream(OutputStream out, int blockSize, ExecutorService executor, int numberOfThreads) {
+		if (blockSize < 1) {
+			throw new IllegalArgumentException("Invalid block size: " + blockSize);
+		}
+		this.out = out;
+		this.executor = executor;
+		this.blockSize = blockSize;
+		this.maxBlocksInFlight = java.lang.Math.max(1, numberOfThreads) * BLOCKS_PER_THREAD;
+		this.block = new byte[blockSize];
+		this.compressingBlocks = new LinkedList<Future<byte[]>>();
+	}
+
+	@Override
+	public void write(int b) throws IOException {
+		this.block[this.blockLength++] = (byte) b;
+		if (this.blockLength == this.blockSize) {
+			this.submitBlock();
+		}
+	}
+
+	@Override
+	public void write(byte[] b, int off, int len) throws IOException {
+		while (len > 0) {
+			int copied = java.lang.Math.min(len, this.blockSize - this.blockLength);
+			System.arraycopy(b, off, this.block, this.blockLength, copied);
+			this.blockLength += copied;
+			off += copied;
+			len -= copied;
+			if (this.blockLength == this.blockSize) {
+				this.submitBlock();
+			}
+		}
+	}
+
+	/**
+	 * Compresses the current block in the thread pool, writing the oldest compressed blocks
+	 * if too many blocks are being compressed
+	 */
+	private void submitBlock() throws IOException {
+		final byte[] data = this.block;
+		final int length = this.blockLength;
+		this.compressingBlocks.add(this.executor.submit(new Callable<byte[]>() {
+			public byte[] call() throws IOException {
+				return compress(data, length);
+			}
+		}));
+		this.block = new byte[this.blockSize];
+		this.blockLength = 0;
+		while (this.compressingBlocks.size() > this.maxBlocksInFlight) {
+			this.writeOldestBlock();
+		}
+	}
+
+	private void writeOldestBlock() throws IOException {
+		Future<byte[]> oldest = this.compressingBlocks.removeFirst();
+		try {
+			this.out.write(oldest.get());
+			this.membersWritten = true;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while compressing");
+		} catch (ExecutionException e) {
+			throw new IOException(e.getCause());
+		}
+	}
+
+	/**
+	 * Builds a GZIP member containing the first <code>length</code> bytes of <code>data</code>
+	 */
+	static byte[] compress(byte[] data, int length) throws IOException {
+		ByteArrayOutputStream member = new ByteArrayOutputStream(length / 2 + ParallelGZIP.HEADER_SIZE
+				+ ParallelGZIP.TRAILER_SIZE);
+		byte[] header = new byte[ParallelGZIP.HEADER_SIZE];
+		header[0] = (byte) ParallelGZIP.ID1;
+		header[1] = (byte) ParallelGZIP.ID2;
+		header[2] = (byte) ParallelGZIP.DEFLATE;
+		header[3] = (byte) ParallelGZIP.FEXTRA;
+		header[9] = (byte) ParallelGZIP.OS_UNKNOWN;
+		ParallelGZIP.writeShortLE(header, 10, ParallelGZIP.EXTRA_FIELD_SIZE);
+		header[12] = (byte) ParallelGZIP.SUBFIELD_ID1;
+		header[13] = (byte) ParallelGZIP.SUBFIELD_ID2;
+		ParallelGZIP.writeShortLE(header, 14, ParallelGZIP.SUBFIELD_DATA_SIZE);
+		//bytes 16-19 will contain the member size
+		member.write(header);
+
+		Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+		try {
+			DeflaterOutputStream deflaterStream = new DeflaterOutputStream(member, deflater, 1 << 16);
+			deflaterStream.write(data, 0, length);
+			deflaterStream.finish();
+		} finally {
+			deflater.end();
+		}
+
+		CRC32 crc = new CRC32();
+		crc.update(data, 0, length);
+		byte[] trailer = new byte[ParallelGZIP.TRAILER_SIZE];
+		ParallelGZIP.writeIntLE(trailer, 0, (int) crc.getValue());
+		ParallelGZIP.writeIntLE(trailer, 4, length);
+		member.write(trailer);
+
+		byte[] bytes = member.toByteArray();
+		ParallelGZIP.writeIntLE(bytes, 16, bytes.length);
+		return bytes;
+	}
+
+	/**
+	 * Writes the blocks that have been compressed and flushes the underlying stream. The current
+	 * block is not compressed until it is full, or the stream is closed.
+	 */
+	@Override
+	public void flush() throws IOException {
+		while (!this.compressingBlocks.isEmpty()) {
+			this.writeOldestBlock();
+		}
+		this.out.flush();
+	}
+
+	/**
+	 * Compresses and writes all the pending data, without closing the underlying stream
+	 *
+	 * @throws IOException
+	 */
+	public void finish() throws IOException {
+		if (this.closed) {
+			return;
+		}
+		if (this.blockLength > 0 || (!this.membersWritten && this.compressingBlocks.isEmpty())) {
+			//an empty member is written if there are no data, producing a valid GZIP file
+			this.submitBlock();
+		}
+		this.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (this.closed) {
+			return;
+		}
+		try {
+			this.finish();
+		} finally {
+			this.closed = true;
+			for (Future<byte[]> compressingBlock : this.compressingBlocks) {
+				compressingBlock.cancel(false);
+			}
+			this.compressingBlocks.clear();
+			this.out.close();
+		}
+	}
+
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2026 agent
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package it.uniroma2.sag.kelp.utils;
+
+import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A thread-safe counter that can be incremented concurrently by many threads without
+ * making them compete on a single memory location. The count is split among several stripes,
+ * each one on its own cache line, and every thread updates the stripe selected by its identifier.
+ * Reading the counter sums all the stripes.
+ * <p>
+ * It provides the same functionalities of <code>java.util.concurrent.atomic.LongAdder</code>,
+ * that is not available on Java 6.
+ *
+ * @author agent
+ */
+public class StripedCounter implements Serializable {
+
+	private static final long serialVersionUID = -3216839532408521370L;
+
+	/**
+	 * The distance (in longs) between two stripes. 8 longs fill a 64 bytes cache line
+	 */
+	private static final int PADDING = 8;
+
+	private static final int NUMBER_OF_STRIPES = numberOfStripes();
+
+	private final AtomicLongArray cells;
+
+	/**
+	 * Initializes a counter to 0
+	 */
+	public StripedCounter() {
+		this.cells = new AtomicLongArray(NUMBER_OF_STRIPES * PADDING);
+	}
+
+	/**
+	 * Increments the counter by one
+	 */
+	public void increment() {
+		this.add(1);
+	}
+
+	/**
+	 * Adds <code>value</code> to the counter
+	 *
+	 * @param value the value to be added
+	 */
+	public void add(long value) {
+		this.cells.getAndAdd(stripeIndex(), value);
+	}
+
+	/**
+	 * Returns the current value of the counter. The returned value is not an atomic
+	 * snapshot: increments happening during the sum may or may not be counted
+	 *
+	 * @return the current value of the counter
+	 */
+	public long sum() {
+		long sum = 0;
+		for (int i = 0; i < NUMBER_OF_STRIPES; i++) {
+			sum += this.cells.get(i * PADDING);
+		}
+		return sum;
+	}
+
+	/**
+	 * Sets the counter to 0
+	 */
+	public void reset() {
+		for (int i = 0; i < NUMBER_OF_STRIPES; i++) {
+			this.cells.set(i * PADDING, 0);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return Long.toString(this.sum());
+	}
+
+	private static int stripeIndex() {
+		long threadId = Thread.currentThread().getId();
+		int hash = (int) (threadId ^ (threadId >>> 32));
+		hash *= 0x9E3779B9;
+		hash ^= hash >>> 16;
+		return (hash & (NUMBER_OF_STRIPES - 1)) * PADDING;
+	}
+
+	private static int numberOfStripes() {
+		int stripes = 1;
+		int required = Runtime.getRuntime().availableProcessors() * 2;
+		while (stripes < required) {
+			stripes <<= 1;
+		}
+		return stripes;
+	}
+
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2026 agent
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package it.uniroma2.sag.kelp.data.dataset;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import it.uniroma2.sag.kelp.data.example.Example;
+import it.uniroma2.sag.kelp.data.example.ExampleFactory;
+import it.uniroma2.sag.kelp.data.example.ExamplePair;
+import it.uniroma2.sag.kelp.data.representation.BinaryStringRepresentation;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * @author agent
+ */
+public class BinaryDatasetTest {
+
+	private static final String[] ROWS = {
+		"c1 |BSTR:a| first text |ESTR| |BSTR:b| second |ESTR|",
+		"c1 c2 |BSTR:a| only one |ESTR|",
+		"reg:0.5 c2 |BSTR:a| a regression example |ESTR|",
+		"c3 |<| |BSTR:a| left |ESTR| |,| |BSTR:a| right |ESTR| |>| |BSTR:p| pair |ESTR|"
+	};
+
+	@Test
+	public void testRoundTrip() throws Exception {
+		List<Example> examples = new ArrayList<Example>();
+		for (String row : ROWS) {
+			examples.add(ExampleFactory.parseExample(row));
+		}
+		examples.get(0).addRepresentation("bin", new BinaryStringRepresentation("binary body"));
+
+		File file = File.createTempFile("binaryDataset", ".klpb");
+		file.deleteOnExit();
+		BinaryDatasetWriter writer = new BinaryDatasetWriter(file.getPath());
+		for (Example example : examples) {
+			writer.writeNextExample(example);
+		}
+		writer.close();
+
+		BinaryDatasetReader reader = new BinaryDatasetReader(file.getPath());
+		try {
+			assertEquals(examples.size(), reader.getNumberOfExamples());
+			for (int pass = 0; pass < 2; pass++) {
+				for (Example example : examples) {
+					assertTrue(reader.hasNext());
+					assertSameContent(example, reader.readNextExample());
+				}
+				assertFalse(reader.hasNext());
+				reader.restartReading();
+			}
+			assertTrue(reader.readExample(0).getRepresentation("bin") instanceof BinaryStringRepresentation);
+			assertSame(reader.readExample(0).getLabels()[0], reader.readExample(1).getLabels()[0]);
+		} finally {
+			reader.close();
+		}
+	}
+
+	private static void assertSameContent(Example expected, Example actual) {
+		assertEquals(expected.getClass(), actual.getClass());
+		assertArrayEquals(expected.getLabels(), actual.getLabels());
+		assertArrayEquals(expected.getRegressionLabels(), actual.getRegressionLabels());
+		assertEquals(expected.getRepresentations(), actual.getRepresentations());
+		if (expected instanceof ExamplePair) {
+			assertSameContent(((ExamplePair) expected).getLeftExample(), ((ExamplePair) actual).getLeftExample());
+			assertSameContent(((ExamplePair) expected).getRightExample(), ((ExamplePair) actual).getRightExample());
+		}
+	}
+
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2026 agent
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package it.uniroma2.sag.kelp.data.dataset;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * @author agent
+ */
+public class ParallelDatasetReaderTest {
+
+	private static final int NUMBER_OF_EXAMPLES = 1000;
+
+	private static File file;
+	private static List<String> expected;
+
+	@BeforeClass
+	public static void writeDataset() throws Exception {
+		file = File.createTempFile("parallelDataset", ".klp");
+		Writer writer = new FileWriter(file);
+		try {
+			for (int i = 0; i < NUMBER_OF_EXAMPLES; i++) {
+				writer.write("c" + (i % 3) + " |BSTR:a| example " + i + " |ESTR|\n");
+			}
+		} finally {
+			writer.close();
+		}
+		DatasetReader reader = new DatasetReader(file.getPath());
+		expected = readAll(reader, NUMBER_OF_EXAMPLES);
+		reader.close();
+		assertEquals(NUMBER_OF_EXAMPLES, expected.size());
+	}
+
+	@AfterClass
+	public static void deleteDataset() {
+		file.delete();
+	}
+
+	/**
+	 * Reads at most <code>limit</code> examples, returning their textual descriptions
+	 */
+	private static List<String> readAll(DatasetReader reader, int limit) throws Exception {
+		List<String> examples = new ArrayList<String>();
+		while (examples.size() < limit && reader.hasNext()) {
+			examples.add(reader.readNextExample().toString());
+		}
+		return examples;
+	}
+
+	@Test
+	public void testOrderedReading() throws Exception {
+		ParallelDatasetReader reader = new ParallelDatasetReader(file.getPath(), 4, true, 7);
+		try {
+			assertEquals(expected, readAll(reader, Integer.MAX_VALUE));
+			assertFalse(reader.hasNext());
+		} finally {
+			reader.close();
+		}
+	}
+
+	@Test
+	public void testUnorderedReading() throws Exception {
+		ParallelDatasetReader reader = new ParallelDatasetReader(file.getPath(), 4, false, 7);
+		try {
+			List<String> examples = readAll(reader, Integer.MAX_VALUE);
+			Collections.sort(examples);
+			List<String> sortedExpected = new ArrayList<String>(expected);
+			Collections.sort(sortedExpected);
+			assertEquals(sortedExpected, examples);
+		} finally {
+			reader.close();
+		}
+	}
+
+	@Test
+	public void testRestartReading() throws Exception {
+		Random random = new Random(0);
+		ParallelDatasetReader reader = new ParallelDatasetReader(file.getPath(), 4, true, 7);
+		try {
+			for (int i = 0; i < 30; i++) {
+				//interrupt the reading at random points, also before any example is read
+				int limit = random.nextInt(NUMBER_OF_EXAMPLES);
+				assertEquals(expected.subList(0, limit), readAll(reader, limit));
+				reader.restartReading();
+			}
+			assertEquals(expected, readAll(reader, Integer.MAX_VALUE));
+			reader.restartReading();
+			assertEquals(expected, readAll(reader, Integer.MAX_VALUE));
+		} finally {
+			reader.close();
+		}
+	}
+
+	@Test(expected = IOException.class)
+	public void testReadingPastTheEnd() throws Exception {
+		ParallelDatasetReader reader = new ParallelDatasetReader(file.getPath(), 2, true, 100);
+		try {
+			readAll(reader, Integer.MAX_VALUE);
+			reader.readNextExample();
+		} finally {
+			reader.close();
+		}
+	}
+
+}
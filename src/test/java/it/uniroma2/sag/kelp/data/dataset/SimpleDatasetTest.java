@@ -0,0 +1,509 @@
+/*
+ * Copyright 2026 agent
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package it.uniroma2.sag.kelp.data.dataset;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import it.uniroma2.sag.kelp.data.example.Example;
+import it.uniroma2.sag.kelp.data.example.ExampleFactory;
+import it.uniroma2.sag.kelp.data.label.Label;
+import it.uniroma2.sag.kelp.data.label.StringLabel;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * @author agent
+ */
+public class SimpleDatasetTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testExamplesCannotBeModifiedOutsideTheDataset() throws Exception {
+		SimpleDataset dataset = createDataset(20);
+		dataset.split(0.5f);
+		try {
+			Collections.shuffle(dataset.getExamples(), new Random(1));
+			fail("the examples must be reordered through shuffleExamples");
+		} catch (UnsupportedOperationException e) {
+			// expected
+		}
+		try {
+			dataset.getExamples().add(dataset.getExample(0));
+			fail("the examples must be added through addExample");
+		} catch (UnsupportedOperationException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void testSplitAfterShuffle() throws Exception {
+		SimpleDataset dataset = createDataset(20);
+		List<Example> expected = new ArrayList<Example>(dataset.getExamples());
+		dataset.split(0.5f);
+		dataset.shuffleExamples(new Random(1));
+		Collections.shuffle(expected, new Random(1));
+		assertEquals(expected, dataset.getExamples());
+
+		SimpleDataset[] split = dataset.split(0.5f);
+		assertEquals(expected.subList(0, 10), split[0].getExamples());
+		assertEquals(expected.subList(10, 20), split[1].getExamples());
+
+		dataset.addExample(ExampleFactory.parseExample("c3 |BSTR:s| added |ESTR|"));
+		expected.add(dataset.getExample(20));
+		split = dataset.split(0.5f);
+		assertEquals(expected.subList(0, 11), split[0].getExamples());
+		assertEquals(expected.subList(11, 21), split[1].getExamples());
+	}
+
+	@Test
+	public void testSplittingMethods() throws Exception {
+		assertSplittingMethods(createDataset(23));
+	}
+
+	@Test
+	public void testSplittingMethodsOnViews() throws Exception {
+		SimpleDataset dataset = createDataset(47);
+		SimpleDataset[] split = dataset.split(0.7f);
+		assertSplittingMethods(split[0]);
+		assertSplittingMethods(split[1]);
+
+		SimpleDataset[] folds = split[0].getShuffledDataset().nFoldingClassDistributionInvariant(2);
+		assertSplittingMethods(folds[0]);
+		assertSplittingMethods(SimpleDataset.concatenate(folds[1], split[1]));
+		assertSplittingMethods(dataset.splitClassDistributionInvariant(0.4f)[1].nFolding(3)[2]);
+	}
+
+	@Test
+	public void testShuffleExamplesOnView() throws Exception {
+		SimpleDataset dataset = createDataset(30);
+		List<Example> originalExamples = new ArrayList<Example>(dataset.getExamples());
+		SimpleDataset[] split = dataset.split(0.5f);
+		List<Example> expected = new ArrayList<Example>(split[0].getExamples());
+		SimpleDataset[] folds = split[0].nFolding(3);
+
+		split[0].shuffleExamples(new Random(3));
+		Collections.shuffle(expected, new Random(3));
+		assertEquals(expected, split[0].getExamples());
+		assertSplittingMethods(split[0]);
+
+		// the shuffle must not affect the dataset the view has been created from, nor its other views
+		assertEquals(originalExamples, dataset.getExamples());
+		assertEquals(originalExamples.subList(15, 30), split[1].getExamples());
+		assertEquals(originalExamples.subList(0, 5), folds[0].getExamples());
+	}
+
+	@Test
+	public void testAddExampleOnView() throws Exception {
+		SimpleDataset dataset = createDataset(30);
+		List<Example> originalExamples = new ArrayList<Example>(dataset.getExamples());
+		SimpleDataset[] split = dataset.split(0.5f);
+		SimpleDataset[] folds = split[0].nFolding(3);
+
+		Example added = ExampleFactory.parseExample("c4 |BSTR:s| added |ESTR|");
+		split[0].addExample(added);
+		List<Example> expected = new ArrayList<Example>(originalExamples.subList(0, 15));
+		expected.add(added);
+		assertEquals(expected, split[0].getExamples());
+		assertEquals(1, split[0].getNumberOfPositiveExamples(added.getLabels()[0]));
+		assertSplittingMethods(split[0]);
+
+		assertEquals(originalExamples, dataset.getExamples());
+		assertEquals(0, dataset.getNumberOfPositiveExamples(added.getLabels()[0]));
+		assertEquals(originalExamples.subList(15, 30), split[1].getExamples());
+		assertEquals(originalExamples.subList(0, 5), folds[0].getExamples());
+		assertEquals(31, SimpleDataset.concatenate(split[0], split[1]).getNumberOfExamples());
+	}
+
+	@Test
+	public void testConcatenate() throws Exception {
+		SimpleDataset dataset = createDataset(25);
+		SimpleDataset[] folds = dataset.nFolding(4);
+		assertSameDataset(dataset, SimpleDataset.concatenate(folds));
+
+		SimpleDataset other = createDataset(6);
+		SimpleDataset expected = new SimpleDataset();
+		expected.addExamples(folds[3]);
+		expected.addExamples(other);
+		expected.addExamples(folds[0]);
+		assertSameDataset(expected, SimpleDataset.concatenate(folds[3], other, folds[0]));
+		assertSameDataset(new SimpleDataset(), SimpleDataset.concatenate());
+	}
+
+	@Test
+	public void testIndexedExampleList() throws Exception {
+		Example[] base = createDataset(6).getExamples().toArray(new Example[6]);
+		IndexedExampleList list = new IndexedExampleList(base, new int[] { 4, 0, 5 });
+		assertEquals(3, list.size());
+		assertEquals(base[4], list.get(0));
+		assertEquals(base[5], list.get(2));
+		assertEquals(0, list.getBaseIndex(1));
+		try {
+			list.get(3);
+			fail();
+		} catch (IndexOutOfBoundsException e) {
+			// expected
+		}
+		try {
+			list.set(0, base[1]);
+			fail();
+		} catch (UnsupportedOperationException e) {
+			// expected
+		}
+
+		List<Example> expected = new ArrayList<Example>();
+		Collections.addAll(expected, base);
+		IndexedExampleList all = new IndexedExampleList(base);
+		assertEquals(expected, all);
+		all.shuffle(new Random(5));
+		Collections.shuffle(expected, new Random(5));
+		assertEquals(expected, all);
+	}
+
+	@Test
+	public void testGetExamplesOfClasses() throws Exception {
+		SimpleDataset dataset = createDataset(41);
+		assertExamplesOfClasses(dataset);
+
+		// the examples of both c1 and c2 must be extracted once, in their original position
+		SimpleDataset examplesOfC1C2 = dataset.getExamplesOfClasses(Arrays.asList(label("c2"), label("c1")));
+		assertEquals(33, examplesOfC1C2.getNumberOfExamples());
+		assertEquals(dataset.getExamples().subList(0, 4), examplesOfC1C2.getExamples().subList(0, 4));
+		assertEquals(dataset.getExample(5), examplesOfC1C2.getExample(4));
+		assertEquals(25, examplesOfC1C2.getNumberOfPositiveExamples(label("c1")));
+		assertEquals(17, examplesOfC1C2.getNumberOfPositiveExamples(label("c2")));
+	}
+
+	@Test
+	public void testGetExamplesOfClassesOnViews() throws Exception {
+		SimpleDataset dataset = createDataset(41);
+		dataset.getExamplesOfClasses(Arrays.asList(label("c1")));
+		SimpleDataset[] folds = dataset.nFolding(3);
+		assertExamplesOfClasses(folds[1]);
+		assertExamplesOfClasses(SimpleDataset.concatenate(folds[2], folds[0]));
+		assertExamplesOfClasses(folds[0].getShuffledDataset());
+		assertExamplesOfClasses(dataset.getExamplesOfClasses(Arrays.asList(label("c2"), label("c3"))));
+
+		folds[1].shuffleExamples(new Random(2));
+		assertExamplesOfClasses(folds[1]);
+		dataset.shuffleExamples(new Random(2));
+		assertExamplesOfClasses(dataset);
+		folds[2].addExample(ExampleFactory.parseExample("c2 c3 |BSTR:s| added |ESTR|"));
+		assertExamplesOfClasses(folds[2]);
+		dataset.addExample(ExampleFactory.parseExample("c3 c1 |BSTR:s| added |ESTR|"));
+		assertExamplesOfClasses(dataset);
+	}
+
+	@Test
+	public void testExtractExamplesOfClasses() throws Exception {
+		SimpleDataset dataset = createDataset(17);
+		List<Label> labels = Arrays.asList(label("c3"), label("c2"));
+		assertSameDataset(referenceExamplesOfClasses(dataset, labels),
+				(SimpleDataset) SimpleDataset.extractExamplesOfClasses(dataset, labels));
+
+		Dataset extracted = SimpleDataset.extractExamplesOfClasses(dataset.split(0.5f)[1], labels);
+		assertSameDataset(referenceExamplesOfClasses(dataset.split(0.5f)[1], labels), (SimpleDataset) extracted);
+
+		// a subclass of SimpleDataset is scanned and copied into a new instance of the same class
+		SimpleDataset subclassDataset = new SubclassDataset();
+		subclassDataset.addExamples(dataset);
+		extracted = SimpleDataset.extractExamplesOfClasses(subclassDataset, labels);
+		assertEquals(SubclassDataset.class, extracted.getClass());
+		assertSameDataset(referenceExamplesOfClasses(dataset, labels), (SimpleDataset) extracted);
+	}
+
+	public static class SubclassDataset extends SimpleDataset {
+	}
+
+	@Test
+	public void testShardsWithWildcard() throws Exception {
+		SimpleDataset dataset = createDataset(103);
+		File directory = this.folder.newFolder("shards");
+		String trainPath = new File(directory, "train.gz").getPath();
+		List<String> trainShards = dataset.saveShards(trainPath, 12, 5);
+		SimpleDataset other = createDataset(9);
+		List<String> devShards = other.split(0.5f)[1].saveShards(new File(directory, "dev").getPath(), 2);
+
+		assertEquals(12, trainShards.size());
+		for (int shard = 0; shard < trainShards.size(); shard++) {
+			File shardFile = new File(trainShards.get(shard));
+			assertEquals(String.format("train.part-%05d.gz", shard), shardFile.getName());
+			assertTrue(isGzipped(shardFile));
+		}
+		assertEquals(new File(directory, "dev.part-00000").getPath(), devShards.get(0));
+		assertEquals(new File(directory, "dev.part-00001").getPath(), devShards.get(1));
+		assertFalse(isGzipped(new File(devShards.get(0))));
+
+		// the shards beyond part-00009 must be read after it, and the dev shards must be ignored
+		SimpleDataset reloaded = new SimpleDataset();
+		reloaded.populateShards(new File(directory, "train.part-*.gz").getPath(), 3);
+		assertSameContent(dataset, reloaded);
+
+		reloaded = new SimpleDataset();
+		reloaded.populateShards(new File(directory, "dev.part-0000?").getPath(), 1);
+		assertSameContent(other.split(0.5f)[1], reloaded);
+
+		try {
+			new SimpleDataset().populateShards(new File(directory, "test.part-*").getPath(), 2);
+			fail();
+		} catch (FileNotFoundException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void testShardsInDirectory() throws Exception {
+		SimpleDataset dataset = createDataset(58);
+		File directory = this.folder.newFolder("shards");
+		// more shards than threads, some of them empty
+		List<String> shards = dataset.nFolding(2)[1].saveShards(new File(directory, "data").getPath(), 40, 3);
+		assertEquals(40, shards.size());
+		File hidden = new File(directory, ".hidden");
+		FileWriter writer = new FileWriter(hidden);
+		writer.write("not a shard\n");
+		writer.close();
+		assertTrue(hidden.isHidden());
+
+		for (int numberOfThreads = 1; numberOfThreads <= 8; numberOfThreads *= 8) {
+			SimpleDataset reloaded = new SimpleDataset();
+			reloaded.populateShards(directory.getPath(), numberOfThreads);
+			assertSameContent(dataset.nFolding(2)[1], reloaded);
+		}
+	}
+
+	private static boolean isGzipped(File file) throws IOException {
+		InputStream input = new FileInputStream(file);
+		try {
+			return input.read() == 0x1f && input.read() == 0x8b;
+		} finally {
+			input.close();
+		}
+	}
+
+	/**
+	 * Checks that a dataset read from a file has the same examples, in the same order, and
+	 * the same statistics of <code>expected</code>
+	 */
+	private static void assertSameContent(SimpleDataset expected, SimpleDataset actual) {
+		assertEquals(expected.getNumberOfExamples(), actual.getNumberOfExamples());
+		for (int i = 0; i < expected.getNumberOfExamples(); i++) {
+			assertEquals(expected.getExample(i).toString(), actual.getExample(i).toString());
+		}
+		HashSet<Label> labels = new HashSet<Label>(expected.getClassificationLabels());
+		assertEquals(labels, new HashSet<Label>(actual.getClassificationLabels()));
+		for (Label label : labels) {
+			assertEquals(expected.getNumberOfPositiveExamples(label), actual.getNumberOfPositiveExamples(label));
+		}
+		assertEquals(new HashSet<Label>(expected.getRegressionProperties()),
+				new HashSet<Label>(actual.getRegressionProperties()));
+	}
+
+	/**
+	 * Checks <code>getExamplesOfClasses</code> against a scan of the examples through
+	 * <code>isExampleOf</code>, for several lists of labels
+	 */
+	private static void assertExamplesOfClasses(SimpleDataset dataset) {
+		List<List<Label>> labelLists = new ArrayList<List<Label>>();
+		labelLists.add(new ArrayList<Label>());
+		labelLists.add(Arrays.asList(label("c1")));
+		labelLists.add(Arrays.asList(label("c3")));
+		labelLists.add(Arrays.asList(label("c4")));
+		labelLists.add(Arrays.asList(label("c1"), label("c2")));
+		labelLists.add(Arrays.asList(label("c2"), label("c1"), label("c4")));
+		labelLists.add(Arrays.asList(label("c3"), label("c1"), label("c3")));
+		labelLists.add(Arrays.asList(label("c1"), label("c2"), label("c3")));
+		for (List<Label> labels : labelLists) {
+			assertSameDataset(referenceExamplesOfClasses(dataset, labels), dataset.getExamplesOfClasses(labels));
+		}
+	}
+
+	private static SimpleDataset referenceExamplesOfClasses(SimpleDataset dataset, List<Label> labels) {
+		SimpleDataset examplesOfClasses = new SimpleDataset();
+		for (Example example : dataset.getExamples()) {
+			for (Label label : labels) {
+				if (example.isExampleOf(label)) {
+					examplesOfClasses.addExample(example);
+					break;
+				}
+			}
+		}
+		return examplesOfClasses;
+	}
+
+	private static Label label(String className) {
+		return new StringLabel(className);
+	}
+
+	/**
+	 * Checks the splitting and shuffling methods of <code>dataset</code> against their
+	 * original implementations, which copied the examples in new datasets
+	 */
+	private static void assertSplittingMethods(SimpleDataset dataset) {
+		SimpleDataset copy = new SimpleDataset();
+		copy.addExamples(dataset);
+		assertSameDataset(copy, dataset);
+
+		for (float percentage : new float[] { 0f, 0.3f, 0.5f, 0.75f, 1f }) {
+			assertSameDatasets(referenceSplit(copy, percentage), dataset.split(percentage));
+			assertSameDatasets(referenceSplitClassDistributionInvariant(copy, percentage),
+					dataset.splitClassDistributionInvariant(percentage));
+		}
+		for (int n = 1; n <= 4; n++) {
+			assertSameDatasets(referenceNFolding(copy, n), dataset.nFolding(n));
+			assertSameDatasets(referenceNFoldingClassDistributionInvariant(copy, n),
+					dataset.nFoldingClassDistributionInvariant(n));
+		}
+
+		dataset.setSeed(11);
+		List<Example> shuffled = new ArrayList<Example>(copy.getExamples());
+		Collections.shuffle(shuffled, new Random(11));
+		SimpleDataset expected = new SimpleDataset();
+		for (Example example : shuffled) {
+			expected.addExample(example);
+		}
+		assertSameDataset(expected, dataset.getShuffledDataset());
+		assertSameDataset(copy, dataset);
+	}
+
+	private static void assertSameDatasets(SimpleDataset[] expected, SimpleDataset[] actual) {
+		assertEquals(expected.length, actual.length);
+		for (int i = 0; i < expected.length; i++) {
+			assertSameDataset(expected[i], actual[i]);
+		}
+	}
+
+	/**
+	 * Checks that two datasets have the same examples in the same order, the same number of
+	 * examples of each class and the same regression properties
+	 */
+	public static void assertSameDataset(SimpleDataset expected, SimpleDataset actual) {
+		assertEquals(expected.getExamples(), actual.getExamples());
+		assertEquals(expected.getNumberOfExamples(), actual.getNumberOfExamples());
+		HashSet<Label> labels = new HashSet<Label>(expected.getClassificationLabels());
+		assertEquals(labels, new HashSet<Label>(actual.getClassificationLabels()));
+		for (Label label : labels) {
+			assertEquals(expected.getNumberOfPositiveExamples(label), actual.getNumberOfPositiveExamples(label));
+			assertEquals(expected.getNumberOfNegativeExamples(label), actual.getNumberOfNegativeExamples(label));
+		}
+		assertEquals(new HashSet<Label>(expected.getRegressionProperties()),
+				new HashSet<Label>(actual.getRegressionProperties()));
+	}
+
+	private static SimpleDataset[] newDatasets(int n) {
+		SimpleDataset[] datasets = new SimpleDataset[n];
+		for (int i = 0; i < n; i++) {
+			datasets[i] = new SimpleDataset();
+		}
+		return datasets;
+	}
+
+	private static SimpleDataset[] referenceSplit(SimpleDataset dataset, float percentage) {
+		SimpleDataset[] datasets = newDatasets(2);
+		for (int i = 0; i < dataset.getNumberOfExamples(); i++) {
+			if (i < dataset.getNumberOfExamples() * percentage) {
+				datasets[0].addExample(dataset.getExample(i));
+			} else {
+				datasets[1].addExample(dataset.getExample(i));
+			}
+		}
+		return datasets;
+	}
+
+	private static SimpleDataset[] referenceSplitClassDistributionInvariant(SimpleDataset dataset, float percentage) {
+		SimpleDataset[] datasets = newDatasets(2);
+		HashMap<Label, Integer> examplesD0 = new HashMap<Label, Integer>();
+		for (int i = 0; i < dataset.getNumberOfExamples(); i++) {
+			Example example = dataset.getExample(i);
+			Label label = example.getLabels()[0];
+			int currentPositiveExamples = examplesD0.containsKey(label) ? examplesD0.get(label).intValue() : 0;
+			if (currentPositiveExamples < dataset.getNumberOfPositiveExamples(label) * percentage) {
+				datasets[0].addExample(example);
+				examplesD0.put(label, new Integer(currentPositiveExamples + 1));
+			} else {
+				datasets[1].addExample(example);
+			}
+		}
+		return datasets;
+	}
+
+	private static SimpleDataset[] referenceNFolding(SimpleDataset dataset, int n) {
+		SimpleDataset[] datasets = newDatasets(n);
+		for (int i = 0; i < dataset.getNumberOfExamples(); i++) {
+			datasets[n * i / dataset.getNumberOfExamples()].addExample(dataset.getExample(i));
+		}
+		return datasets;
+	}
+
+	private static SimpleDataset[] referenceNFoldingClassDistributionInvariant(SimpleDataset dataset, int n) {
+		SimpleDataset[] datasets = newDatasets(n);
+		HashMap<Label, Integer> usedExamples = new HashMap<Label, Integer>();
+		for (int i = 0; i < dataset.getNumberOfExamples(); i++) {
+			Example example = dataset.getExample(i);
+			Label label = example.getLabels()[0];
+			int currentPositiveExamples = usedExamples.containsKey(label) ? usedExamples.get(label).intValue() : 0;
+			datasets[n * currentPositiveExamples / dataset.getNumberOfPositiveExamples(label)].addExample(example);
+			usedExamples.put(label, new Integer(currentPositiveExamples + 1));
+		}
+		return datasets;
+	}
+
+	/**
+	 * Creates a dataset of <code>n</code> examples: one example out of five is a positive example
+	 * of both "c1" and "c2", and one out of five has the regression property "reg"
+	 */
+	public static SimpleDataset createDataset(int n) throws Exception {
+		SimpleDataset dataset = new SimpleDataset();
+		for (int i = 0; i < n; i++) {
+			String labels;
+			switch (i % 5) {
+			case 0:
+				labels = "c1 c2";
+				break;
+			case 1:
+			case 2:
+				labels = "c1";
+				break;
+			case 3:
+				labels = "c2";
+				break;
+			default:
+				labels = "c3 reg:" + i;
+			}
+			dataset.addExample(ExampleFactory.parseExample(labels + " |BSTR:s| e" + i + " |ESTR|"));
+		}
+		return dataset;
+	}
+
+}
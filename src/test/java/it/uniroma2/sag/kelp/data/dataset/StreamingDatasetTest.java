@@ -0,0 +1,209 @@
+/*
+ * Copyright 2026 agent
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package it.uniroma2.sag.kelp.data.dataset;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import it.uniroma2.sag.kelp.data.example.Example;
+import it.uniroma2.sag.kelp.data.label.Label;
+import it.uniroma2.sag.kelp.data.manipulator.Manipulator;
+import it.uniroma2.sag.kelp.data.representation.StringRepresentation;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * @author agent
+ */
+public class StreamingDatasetTest {
+
+	private static final int NUMBER_OF_EXAMPLES = 157;
+
+	private static File file;
+	private static SimpleDataset expected;
+
+	@BeforeClass
+	public static void writeDataset() throws Exception {
+		file = writeDataset(NUMBER_OF_EXAMPLES);
+		expected = new SimpleDataset();
+		expected.populate(file.getPath());
+		assertEquals(NUMBER_OF_EXAMPLES, expected.getNumberOfExamples());
+	}
+
+	@AfterClass
+	public static void deleteDataset() {
+		file.delete();
+	}
+
+	/**
+	 * Writes a dataset of <code>n</code> examples of the classes "c0", "c1" and "c2", where one
+	 * example out of four belongs also to "multi" and one out of five has the regression
+	 * property "reg"
+	 */
+	public static File writeDataset(int n) throws IOException {
+		File file = File.createTempFile("streamingDataset", ".klp");
+		Writer writer = new FileWriter(file);
+		try {
+			for (int i = 0; i < n; i++) {
+				writer.write("c" + (i % 3));
+				if (i % 4 == 0) {
+					writer.write(" multi");
+				}
+				if (i % 5 == 0) {
+					writer.write(" reg:" + i);
+				}
+				writer.write(" |BSTR:s| example " + i + " |ESTR|\n");
+			}
+		} finally {
+			writer.close();
+		}
+		return file;
+	}
+
+	@Test
+	public void testReset() throws Exception {
+		assertReset(new StreamingDataset(file.getPath()));
+	}
+
+	@Test
+	public void testResetWithReadAheadThreads() throws Exception {
+		assertReset(new StreamingDataset(file.getPath(), 3));
+	}
+
+	private static void assertReset(StreamingDataset dataset) throws Exception {
+		try {
+			for (int pass = 0; pass < 3; pass++) {
+				List<String> read = new ArrayList<String>();
+				while (dataset.hasNextExample()) {
+					if (read.size() % 2 == 0) {
+						read.add(dataset.getNextExample().toString());
+					} else {
+						for (Example example : dataset.getNextExamples(10)) {
+							read.add(example.toString());
+						}
+					}
+				}
+				assertEquals(toStrings(expected.getExamples()), read);
+				assertNull(dataset.getNextExample());
+				assertTrue(dataset.getNextExamples(5).isEmpty());
+				dataset.reset();
+			}
+
+			// a reset in the middle of the reading restarts from the first example
+			dataset.getNextExamples(42);
+			dataset.reset();
+			assertEquals(toStrings(expected.getExamples().subList(0, 3)), toStrings(dataset.getNextExamples(3)));
+		} finally {
+			dataset.close();
+		}
+	}
+
+	@Test
+	public void testManipulatorsAfterReset() throws Exception {
+		for (int readAheadThreads = 0; readAheadThreads <= 2; readAheadThreads += 2) {
+			StreamingDataset dataset = new StreamingDataset(file.getPath(), readAheadThreads);
+			try {
+				CountingManipulator manipulator = new CountingManipulator();
+				dataset.manipulate(manipulator);
+				for (int pass = 1; pass <= 2; pass++) {
+					int read = 0;
+					while (dataset.hasNextExample()) {
+						Example example = dataset.getNextExample();
+						assertEquals(new StringRepresentation("manipulated"), example.getRepresentation("m"));
+						read++;
+					}
+					assertEquals(NUMBER_OF_EXAMPLES, read);
+					assertEquals(pass * NUMBER_OF_EXAMPLES, manipulator.manipulatedExamples);
+					dataset.reset();
+				}
+			} finally {
+				dataset.close();
+			}
+		}
+	}
+
+	@Test
+	public void testStatistics() throws Exception {
+		for (int readAheadThreads = 0; readAheadThreads <= 2; readAheadThreads += 2) {
+			StreamingDataset dataset = new StreamingDataset(file.getPath(), readAheadThreads);
+			try {
+				List<Example> firstExamples = dataset.getNextExamples(5);
+				assertEquals(NUMBER_OF_EXAMPLES, dataset.getNumberOfExamples());
+				HashSet<Label> labels = new HashSet<Label>(expected.getClassificationLabels());
+				assertEquals(4, labels.size());
+				assertEquals(labels, new HashSet<Label>(dataset.getClassificationLabels()));
+				for (Label label : labels) {
+					assertEquals(expected.getNumberOfPositiveExamples(label), dataset.getNumberOfPositiveExamples(label));
+					assertEquals(expected.getNumberOfNegativeExamples(label), dataset.getNumberOfNegativeExamples(label));
+				}
+				assertEquals(new HashSet<Label>(expected.getRegressionProperties()),
+						new HashSet<Label>(dataset.getRegressionProperties()));
+
+				// computing the statistics must not move the sequential reading
+				assertEquals(toStrings(expected.getExamples().subList(0, 5)), toStrings(firstExamples));
+				assertEquals(expected.getExample(5).toString(), dataset.getNextExample().toString());
+			} finally {
+				dataset.close();
+			}
+		}
+	}
+
+	@Test
+	public void testRandomAccessIsNotSupported() throws Exception {
+		StreamingDataset dataset = new StreamingDataset(file.getPath());
+		try {
+			dataset.getExamples();
+			fail();
+		} catch (UnsupportedOperationException e) {
+			// expected
+		} finally {
+			dataset.close();
+		}
+	}
+
+	private static List<String> toStrings(List<Example> examples) {
+		List<String> strings = new ArrayList<String>();
+		for (Example example : examples) {
+			strings.add(example.toString());
+		}
+		return strings;
+	}
+
+	private static class CountingManipulator implements Manipulator {
+
+		private int manipulatedExamples;
+
+		@Override
+		public void manipulate(Example example) {
+			example.addRepresentation("m", new StringRepresentation("manipulated"));
+			this.manipulatedExamples++;
+		}
+
+	}
+
+}
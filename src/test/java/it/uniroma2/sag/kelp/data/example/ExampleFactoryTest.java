@@ -0,0 +1,67 @@
+/*
+ * Copyright 2026 agent
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package it.uniroma2.sag.kelp.data.example;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * @author agent
+ */
+public class ExampleFactoryTest {
+
+	/**
+	 * Pairs of rows and of their descriptions as returned by the original parser
+	 */
+	private static final String[][] ROWS = {
+		{ "c1 |BSTR:a| first text |ESTR| |BSTR:b| second |ESTR|",
+			"c1 |BSTR:a| first text|ESTR| |BSTR:b| second|ESTR| " },
+		{ "c1 c2 |BSTR| unnamed |ESTR| |BSTR| other |ESTR|",
+			"c1 c2 |BSTR:0| unnamed|ESTR| |BSTR:1| other|ESTR| " },
+		{ "c3  |BSTR:a|  padded   |ESTR|   |BSTR:b|x|ESTR|",
+			"c3 |BSTR:a| padded|ESTR| |BSTR:b| x|ESTR| " },
+		{ "reg:0.5 c2 |BSTR:a| a:colon in the body |ESTR|",
+			"c2 reg:0.5 |BSTR:a| a:colon in the body|ESTR| " },
+		{ "c1 |BSTR| a:colon after an unnamed header |ESTR|",
+			"c1 |BSTR:0| a:colon after an unnamed header|ESTR| " },
+		{ "c1 |BSTR:a:b| name with colon |ESTR|",
+			"c1 |BSTR:a:b| name with colon|ESTR| " },
+		{ "c3 |<| |BSTR:a| left |ESTR| |,| |BSTR:a| right |ESTR| |>| |BSTR:p| pair |ESTR|",
+			"c3 |<||BSTR:a| left|ESTR| |,||BSTR:a| right|ESTR| |>||BSTR:p| pair|ESTR| " }
+	};
+
+	@Test
+	public void testParsingMatchesOriginalParser() throws Exception {
+		for (String[] row : ROWS) {
+			assertEquals(row[1], ExampleFactory.parseExample(row[0]).toString());
+			assertEquals(row[1], ExampleFactory.parseExample(row[0], true).toString());
+		}
+	}
+
+	@Test
+	public void testParsingIsStable() throws Exception {
+		for (String[] row : ROWS) {
+			assertEquals(row[1], ExampleFactory.parseExample(row[1]).toString());
+		}
+	}
+
+	@Test(expected = InstantiationException.class)
+	public void testUnterminatedRepresentation() throws Exception {
+		ExampleFactory.parseExample("c1 |BSTR:a| no end");
+	}
+
+}
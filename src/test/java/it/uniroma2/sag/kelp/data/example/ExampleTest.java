@@ -0,0 +1,104 @@
+/*
+ * Copyright 2026 agent
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package it.uniroma2.sag.kelp.data.example;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import it.uniroma2.sag.kelp.data.manipulator.Manipulator;
+import it.uniroma2.sag.kelp.data.representation.Representation;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.commons.lang3.SerializationUtils;
+import org.junit.Test;
+
+/**
+ * @author agent
+ */
+public class ExampleTest {
+
+	/**
+	 * An example defined outside the library, which only overrides <code>toString</code>
+	 */
+	private static class ExternalExample extends Example {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		public void setRepresentations(HashMap<String, Representation> representations) {
+		}
+
+		@Override
+		public Map<String, Representation> getRepresentations() {
+			return new HashMap<String, Representation>();
+		}
+
+		@Override
+		public void addRepresentation(String representationName, Representation representation) {
+		}
+
+		@Override
+		public int getNumberOfRepresentations() {
+			return 0;
+		}
+
+		@Override
+		public Representation getRepresentation(String representationName) {
+			return null;
+		}
+
+		@Override
+		public void manipulate(Manipulator manipulator) {
+		}
+
+		@Override
+		public String toString() {
+			return "external";
+		}
+	}
+
+	@Test
+	public void testAppendToFallsBackOnToString() throws Exception {
+		StringBuilder output = new StringBuilder();
+		new ExternalExample().appendTo(output);
+		assertEquals("external", output.toString());
+	}
+
+	@Test
+	public void testAppendToMatchesToString() throws Exception {
+		String[] rows = { "c1 |BSTR:a| first |ESTR| |BSTR:b| second |ESTR|",
+				"c |<| l1 |BSTR:l| L |ESTR| |,| r1 |BSTR:r| R |ESTR| |>| |BSTR:d| direct |ESTR|" };
+		for (String row : rows) {
+			Example example = ExampleFactory.parseExample(row);
+			StringBuilder output = new StringBuilder();
+			example.appendTo(output);
+			assertEquals(example.toString(), output.toString());
+			assertEquals(example.toString(), ExampleFactory.parseExample(example.toString()).toString());
+		}
+	}
+
+	@Test
+	public void testIndexIsNotSerialized() throws Exception {
+		Example example = ExampleFactory.parseExample("c1 |BSTR:a| first |ESTR|");
+		example.assignIndex();
+		Example copy = SerializationUtils.clone(example);
+		assertEquals(example.getId(), copy.getId());
+		assertEquals(Example.NO_INDEX, copy.getIndex());
+		copy.assignIndex();
+		assertTrue(copy.getIndex() > example.getIndex());
+	}
+
+}
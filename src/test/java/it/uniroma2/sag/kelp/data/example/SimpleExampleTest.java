@@ -0,0 +1,101 @@
+/*
+ * Copyright 2026 agent
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package it.uniroma2.sag.kelp.data.example;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import it.uniroma2.sag.kelp.data.representation.StringRepresentation;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Test;
+
+/**
+ * @author agent
+ */
+public class SimpleExampleTest {
+
+	private static final String[] ROWS = {
+		"c1 |BSTR:a| first text |ESTR| |BSTR:b| second |ESTR|",
+		"c1 c2 |BSTR:a| only one |ESTR|",
+		"c3  |BSTR:a|  padded   |ESTR|   |BSTR:b|x|ESTR|",
+		"reg:0.5 |BSTR:a| a regression example |ESTR|"
+	};
+
+	@Test
+	public void testLazyParsingEqualsEagerParsing() throws Exception {
+		for (String row : ROWS) {
+			Example eager = ExampleFactory.parseExample(row, false);
+			Example lazy = ExampleFactory.parseExample(row, true);
+			assertEquals(eager.getNumberOfRepresentations(), lazy.getNumberOfRepresentations());
+			assertEquals(eager.getRepresentation("a"), lazy.getRepresentation("a"));
+			assertEquals(eager.getRepresentations(), lazy.getRepresentations());
+			assertArrayEquals(eager.getLabels(), lazy.getLabels());
+			assertArrayEquals(eager.getRegressionLabels(), lazy.getRegressionLabels());
+			assertTrue(((SimpleExample) eager).equalsIgnoreLabels((SimpleExample) lazy));
+			assertEquals(eager.toString(), ExampleFactory.parseExample(row, true).toString());
+		}
+	}
+
+	@Test
+	public void testAddRepresentationDuringLazyParsing() throws Exception {
+		for (int i = 0; i < 500; i++) {
+			final Example example = ExampleFactory.parseExample(ROWS[0], true);
+			final CountDownLatch start = new CountDownLatch(1);
+			Thread parser = new Thread() {
+				@Override
+				public void run() {
+					try {
+						start.await();
+					} catch (InterruptedException e) {
+						return;
+					}
+					example.getRepresentation("a");
+					example.getRepresentation("b");
+				}
+			};
+			parser.start();
+			start.countDown();
+			example.addRepresentation("c", new StringRepresentation("added"));
+			parser.join();
+			assertEquals(3, example.getNumberOfRepresentations());
+			assertEquals(new StringRepresentation("added"), example.getRepresentation("c"));
+			assertNotNull(example.getRepresentation("a"));
+			assertNotNull(example.getRepresentation("b"));
+		}
+	}
+
+	@Test
+	public void testSerializationParsesPendingRepresentations() throws Exception {
+		Example lazy = ExampleFactory.parseExample(ROWS[0], true);
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ObjectOutputStream out = new ObjectOutputStream(bytes);
+		out.writeObject(lazy);
+		out.close();
+		ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+		Example copy = (Example) in.readObject();
+		in.close();
+		assertTrue(copy.getRepresentations().containsKey("b"));
+		assertEquals(ExampleFactory.parseExample(ROWS[0], false).getRepresentations(), copy.getRepresentations());
+	}
+
+}
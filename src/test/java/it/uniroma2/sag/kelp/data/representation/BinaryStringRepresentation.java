@@ -0,0 +1,51 @@
+/*
+ * Copyright 2026 agent
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package it.uniroma2.sag.kelp.data.representation;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import com.fasterxml.jackson.annotation.JsonTypeName;
+
+/**
+ * A <code>StringRepresentation</code> with a binary encoding, used by the tests
+ *
+ * @author agent
+ */
+@JsonTypeName("BINSTR")
+public class BinaryStringRepresentation extends StringRepresentation implements BinaryRepresentation {
+
+	private static final long serialVersionUID = 3317915127740425128L;
+
+	public BinaryStringRepresentation() {
+	}
+
+	public BinaryStringRepresentation(String text) {
+		super(text);
+	}
+
+	@Override
+	public void writeData(DataOutput output) throws IOException {
+		output.writeUTF(this.getText());
+	}
+
+	@Override
+	public void readData(DataInput input) throws IOException {
+		this.setDataFromText(input.readUTF());
+	}
+
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2026 agent
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package it.uniroma2.sag.kelp.data.representation;
+
+import com.fasterxml.jackson.annotation.JsonTypeName;
+
+/**
+ * A representation made of a plain string, used by the tests
+ *
+ * @author agent
+ */
+@JsonTypeName("STR")
+public class StringRepresentation implements Representation {
+
+	private static final long serialVersionUID = -4270964367436585062L;
+
+	private String text;
+
+	public StringRepresentation() {
+	}
+
+	public StringRepresentation(String text) {
+		this.text = text;
+	}
+
+	public String getText() {
+		return text;
+	}
+
+	@Override
+	public void setDataFromText(String representationDescription) {
+		this.text = representationDescription;
+	}
+
+	@Override
+	public String getTextFromData() {
+		return text;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (!(obj instanceof StringRepresentation)) {
+			return false;
+		}
+		String otherText = ((StringRepresentation) obj).text;
+		return text == null ? otherText == null : text.equals(otherText);
+	}
+
+	@Override
+	public int hashCode() {
+		return text == null ? 0 : text.hashCode();
+	}
+
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright 2026 agent
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package it.uniroma2.sag.kelp.kernel;
+
+import static org.junit.Assert.assertEquals;
+import it.uniroma2.sag.kelp.data.dataset.SimpleDataset;
+import it.uniroma2.sag.kelp.data.example.Example;
+import it.uniroma2.sag.kelp.data.example.ExampleFactory;
+import it.uniroma2.sag.kelp.data.representation.StringRepresentation;
+import it.uniroma2.sag.kelp.kernel.cache.DynamicIndexKernelCache;
+import it.uniroma2.sag.kelp.kernel.cache.KernelCache;
+import it.uniroma2.sag.kelp.kernel.cache.KernelCacheSnapshot;
+import it.uniroma2.sag.kelp.kernel.cache.MappedGramMatrix;
+
+import java.io.File;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * @author agent
+ */
+public class GramMatrixBuilderTest {
+
+	private static final int NUMBER_OF_EXAMPLES = 37;
+
+	// it does not divide the number of examples
+	private static final int TILE_SIZE = 8;
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testDenseMatrix() throws Exception {
+		SimpleDataset dataset = createDataset(NUMBER_OF_EXAMPLES);
+		List<Example> examples = dataset.getExamples();
+		for (int numberOfThreads = 1; numberOfThreads <= 3; numberOfThreads += 2) {
+			StringKernel kernel = new StringKernel("s");
+			float[][] matrix = createBuilder(kernel, numberOfThreads).computeDenseMatrix(dataset);
+			assertEquals(NUMBER_OF_EXAMPLES, matrix.length);
+			for (int i = 0; i < NUMBER_OF_EXAMPLES; i++) {
+				assertEquals(NUMBER_OF_EXAMPLES, matrix[i].length);
+				for (int j = 0; j < NUMBER_OF_EXAMPLES; j++) {
+					assertEquals(expectedValue(kernel, examples.get(i), examples.get(j)), matrix[i][j], 0);
+				}
+			}
+			// every value of the upper triangle is computed exactly once
+			assertEquals(NUMBER_OF_EXAMPLES * (NUMBER_OF_EXAMPLES + 1) / 2, kernel.getKernelComputations());
+		}
+	}
+
+	@Test
+	public void testPackedMatrix() throws Exception {
+		SimpleDataset dataset = createDataset(NUMBER_OF_EXAMPLES);
+		List<Example> examples = dataset.getExamples();
+		for (int numberOfThreads = 1; numberOfThreads <= 3; numberOfThreads += 2) {
+			StringKernel kernel = new StringKernel("s");
+			float[] matrix = createBuilder(kernel, numberOfThreads).computePackedMatrix(dataset);
+			assertEquals(NUMBER_OF_EXAMPLES * (NUMBER_OF_EXAMPLES + 1) / 2, matrix.length);
+			int position = 0;
+			for (int i = 0; i < NUMBER_OF_EXAMPLES; i++) {
+				for (int j = i; j < NUMBER_OF_EXAMPLES; j++) {
+					assertEquals(expectedValue(kernel, examples.get(i), examples.get(j)), matrix[position], 0);
+					position++;
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testRectangularMatrix() throws Exception {
+		List<Example> rows = createDataset(13).getExamples();
+		List<Example> columns = createDataset(NUMBER_OF_EXAMPLES).getExamples();
+		for (int numberOfThreads = 1; numberOfThreads <= 3; numberOfThreads += 2) {
+			StringKernel kernel = new StringKernel("s");
+			float[][] matrix = createBuilder(kernel, numberOfThreads).computeDenseMatrix(rows, columns);
+			assertEquals(rows.size(), matrix.length);
+			for (int i = 0; i < rows.size(); i++) {
+				assertEquals(columns.size(), matrix[i].length);
+				for (int j = 0; j < columns.size(); j++) {
+					assertEquals(expectedValue(kernel, rows.get(i), columns.get(j)), matrix[i][j], 0);
+				}
+			}
+			assertEquals(rows.size() * columns.size(), kernel.getKernelComputations());
+		}
+	}
+
+	@Test
+	public void testMappedGramMatrix() throws Exception {
+		SimpleDataset dataset = createDataset(NUMBER_OF_EXAMPLES);
+		List<Example> examples = dataset.getExamples();
+		StringKernel kernel = new StringKernel("s");
+		MappedGramMatrix matrix = MappedGramMatrix.create(new File(this.folder.getRoot(), "gram.bin"),
+				NUMBER_OF_EXAMPLES, KernelCacheSnapshot.fingerprint(kernel), KernelCacheSnapshot.fingerprint(dataset));
+		try {
+			// the values already in the matrix must not be recomputed
+			matrix.setValue(3, 20, -1f);
+			matrix.setValue(36, 36, -2f);
+			createBuilder(kernel, 3).computeGramMatrix(dataset, matrix);
+			for (int i = 0; i < NUMBER_OF_EXAMPLES; i++) {
+				for (int j = i; j < NUMBER_OF_EXAMPLES; j++) {
+					float expected = expectedValue(kernel, examples.get(i), examples.get(j));
+					if (i == 3 && j == 20) {
+						expected = -1f;
+					} else if (i == 36 && j == 36) {
+						expected = -2f;
+					}
+					assertEquals(expected, matrix.getValue(i, j), 0);
+				}
+			}
+			assertEquals(NUMBER_OF_EXAMPLES * (NUMBER_OF_EXAMPLES + 1) / 2 - 2, kernel.getKernelComputations());
+		} finally {
+			matrix.close();
+		}
+	}
+
+	@Test
+	public void testFillKernelCache() throws Exception {
+		SimpleDataset dataset = createDataset(NUMBER_OF_EXAMPLES);
+		List<Example> examples = dataset.getExamples();
+		for (int numberOfThreads = 1; numberOfThreads <= 3; numberOfThreads += 2) {
+			StringKernel kernel = new StringKernel("s");
+			KernelCache cache = new DynamicIndexKernelCache(2 * NUMBER_OF_EXAMPLES);
+			kernel.setKernelCache(cache);
+			GramMatrixBuilder builder = createBuilder(kernel, numberOfThreads);
+			builder.fillKernelCache(dataset);
+			assertEquals(0, kernel.getNumberOfHits());
+			for (int i = 0; i < NUMBER_OF_EXAMPLES; i++) {
+				for (int j = 0; j < NUMBER_OF_EXAMPLES; j++) {
+					assertEquals(expectedValue(kernel, examples.get(i), examples.get(j)),
+							cache.getKernelValue(examples.get(i), examples.get(j)).floatValue(), 0);
+				}
+			}
+
+			// the values in the cache are reused by the following computations
+			List<Example> rows = createDataset(11).getExamples();
+			builder.fillKernelCache(rows, examples);
+			kernel.reset();
+			float[][] matrix = builder.computeDenseMatrix(rows, examples);
+			assertEquals(rows.size() * NUMBER_OF_EXAMPLES, kernel.getNumberOfHits());
+			builder.computeDenseMatrix(dataset);
+			assertEquals(0, kernel.getNumberOfMisses());
+			for (int i = 0; i < rows.size(); i++) {
+				for (int j = 0; j < NUMBER_OF_EXAMPLES; j++) {
+					assertEquals(expectedValue(kernel, rows.get(i), examples.get(j)), matrix[i][j], 0);
+					assertEquals(matrix[i][j], cache.getKernelValue(rows.get(i), examples.get(j)).floatValue(), 0);
+				}
+			}
+		}
+	}
+
+	private static GramMatrixBuilder createBuilder(Kernel kernel, int numberOfThreads) {
+		GramMatrixBuilder builder = new GramMatrixBuilder(kernel, numberOfThreads);
+		builder.setTileSize(TILE_SIZE);
+		return builder;
+	}
+
+	private static float expectedValue(StringKernel kernel, Example exA, Example exB) {
+		return kernel.kernelComputation((StringRepresentation) exA.getRepresentation("s"),
+				(StringRepresentation) exB.getRepresentation("s"));
+	}
+
+	private static SimpleDataset createDataset(int numberOfExamples) throws Exception {
+		SimpleDataset dataset = new SimpleDataset();
+		for (int i = 0; i < numberOfExamples; i++) {
+			dataset.addExample(ExampleFactory.parseExample("c |BSTR:s| " + Integer.toString(i * 7919, 7) + " |ESTR|"));
+		}
+		return dataset;
+	}
+
+}
@@ -0,0 +1,220 @@
+/*
+ * Copyright 2026 agent
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package it.uniroma2.sag.kelp.kernel;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import it.uniroma2.sag.kelp.data.dataset.SimpleDataset;
+import it.uniroma2.sag.kelp.data.example.Example;
+import it.uniroma2.sag.kelp.data.example.ExampleFactory;
+import it.uniroma2.sag.kelp.data.representation.StringRepresentation;
+import it.uniroma2.sag.kelp.kernel.cache.DynamicIndexKernelCache;
+import it.uniroma2.sag.kelp.kernel.cache.KernelCache;
+import it.uniroma2.sag.kelp.kernel.cache.StripeKernelCache;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RunnableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * @author agent
+ */
+public class KernelInnerProductRowTest {
+
+	// more than two chunks of kernel computations, the last one partial
+	private static final int NUMBER_OF_EXAMPLES = 150;
+
+	private static final int CHUNK_SIZE = 64;
+
+	private SimpleDataset dataset;
+	private List<Example> examples;
+	private CountingExecutor executor;
+
+	/**
+	 * An executor counting the submitted tasks
+	 */
+	private static class CountingExecutor extends ThreadPoolExecutor {
+
+		private final AtomicInteger submittedTasks = new AtomicInteger();
+
+		CountingExecutor(int numberOfThreads) {
+			super(numberOfThreads, numberOfThreads, 0, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>());
+		}
+
+		@Override
+		protected <T> RunnableFuture<T> newTaskFor(Callable<T> callable) {
+			this.submittedTasks.incrementAndGet();
+			return super.newTaskFor(callable);
+		}
+
+	}
+
+	@Before
+	public void createDataset() throws Exception {
+		this.dataset = new SimpleDataset();
+		for (int i = 0; i < NUMBER_OF_EXAMPLES; i++) {
+			this.dataset.addExample(ExampleFactory.parseExample("c |BSTR:s| " + Integer.toString(i * 7919, 5) + " |ESTR|"));
+		}
+		this.examples = this.dataset.getExamples();
+		this.executor = new CountingExecutor(3);
+	}
+
+	@After
+	public void shutdownExecutor() {
+		this.executor.shutdownNow();
+	}
+
+	@Test
+	public void testWithoutCache() throws Exception {
+		for (CountingExecutor rowExecutor : new CountingExecutor[] { null, this.executor }) {
+			StringKernel kernel = new StringKernel("s");
+			Example example = this.examples.get(42);
+			float[] row = this.computeRow(kernel, example, rowExecutor);
+			assertRow(kernel, example, row);
+			assertEquals(NUMBER_OF_EXAMPLES, kernel.getKernelComputations());
+			assertEquals(0, kernel.getNumberOfHits());
+		}
+		assertEquals(tasks(NUMBER_OF_EXAMPLES), this.executor.submittedTasks.get());
+
+		float[] row = new float[NUMBER_OF_EXAMPLES];
+		StringKernel kernel = new StringKernel("s");
+		kernel.innerProductRow(this.examples.get(3), this.dataset, row);
+		assertRow(kernel, this.examples.get(3), row);
+		try {
+			kernel.innerProductRow(this.examples.get(3), this.examples, new float[NUMBER_OF_EXAMPLES - 1]);
+			fail();
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void testStripeKernelCacheSerially() throws Exception {
+		this.assertPartiallyWarmCache(new StripeKernelCache(this.dataset), null);
+	}
+
+	@Test
+	public void testStripeKernelCacheWithExecutor() throws Exception {
+		this.assertPartiallyWarmCache(new StripeKernelCache(this.dataset), this.executor);
+	}
+
+	@Test
+	public void testDynamicIndexKernelCacheSerially() throws Exception {
+		this.assertPartiallyWarmCache(new DynamicIndexKernelCache(NUMBER_OF_EXAMPLES), null);
+	}
+
+	@Test
+	public void testDynamicIndexKernelCacheWithExecutor() throws Exception {
+		this.assertPartiallyWarmCache(new DynamicIndexKernelCache(NUMBER_OF_EXAMPLES), this.executor);
+	}
+
+	/**
+	 * Computes the rows of two examples on a cache containing one third of the first row,
+	 * checking the kernel values, the values written back in the cache and the hits and
+	 * misses of both the kernel and the cache
+	 */
+	private void assertPartiallyWarmCache(KernelCache cache, CountingExecutor rowExecutor) {
+		StringKernel kernel = new StringKernel("s");
+		kernel.setKernelCache(cache);
+		Example first = this.examples.get(0);
+		int warmValues = 0;
+		// the first value stored in a StripeKernelCache cannot be on the diagonal
+		for (int i = 3; i < NUMBER_OF_EXAMPLES; i += 3) {
+			kernel.innerProduct(first, this.examples.get(i));
+			warmValues++;
+		}
+		kernel.reset();
+		cache.resetCacheStats();
+
+		float[] row = this.computeRow(kernel, first, rowExecutor);
+		assertRow(kernel, first, row);
+		assertEquals(NUMBER_OF_EXAMPLES, kernel.getKernelComputations());
+		assertEquals(warmValues, kernel.getNumberOfHits());
+		assertEquals(warmValues, cache.getCacheHits());
+		assertEquals(NUMBER_OF_EXAMPLES - warmValues, cache.getCacheMisses());
+		if (rowExecutor != null) {
+			assertEquals(tasks(NUMBER_OF_EXAMPLES - warmValues), rowExecutor.submittedTasks.get());
+		}
+
+		// the computed values have been written back
+		kernel.reset();
+		cache.resetCacheStats();
+		row = this.computeRow(kernel, first, rowExecutor);
+		assertRow(kernel, first, row);
+		assertEquals(NUMBER_OF_EXAMPLES, kernel.getNumberOfHits());
+		assertEquals(0, cache.getCacheMisses());
+		for (Example other : this.examples) {
+			assertEquals(expectedValue(kernel, first, other), cache.getKernelValue(first, other).floatValue(), 0);
+		}
+
+		// the row of another example finds in the cache only its value with the first example
+		kernel.reset();
+		cache.resetCacheStats();
+		Example second = this.examples.get(NUMBER_OF_EXAMPLES / 2);
+		row = this.computeRow(kernel, second, rowExecutor);
+		assertRow(kernel, second, row);
+		assertEquals(NUMBER_OF_EXAMPLES, kernel.getKernelComputations());
+		assertEquals(1, kernel.getNumberOfHits());
+		assertEquals(1, cache.getCacheHits());
+		assertEquals(NUMBER_OF_EXAMPLES - 1, cache.getCacheMisses());
+		for (int i = 0; i < NUMBER_OF_EXAMPLES; i += 7) {
+			assertEquals(row[i], kernel.innerProduct(this.examples.get(i), second), 0);
+		}
+		assertEquals(1 + (NUMBER_OF_EXAMPLES + 6) / 7, kernel.getNumberOfHits());
+	}
+
+	/**
+	 * Computes the kernel row of <code>example</code> in an array longer than needed, checking
+	 * that the exceeding elements are not modified
+	 */
+	private float[] computeRow(Kernel kernel, Example example, CountingExecutor rowExecutor) {
+		float[] row = new float[NUMBER_OF_EXAMPLES + 3];
+		row[NUMBER_OF_EXAMPLES] = -1;
+		if (rowExecutor != null) {
+			rowExecutor.submittedTasks.set(0);
+		}
+		kernel.innerProductRow(example, this.examples, row, rowExecutor);
+		assertEquals(-1, row[NUMBER_OF_EXAMPLES], 0);
+		return row;
+	}
+
+	private void assertRow(StringKernel kernel, Example example, float[] row) {
+		for (int i = 0; i < NUMBER_OF_EXAMPLES; i++) {
+			assertEquals(expectedValue(kernel, example, this.examples.get(i)), row[i], 0);
+		}
+	}
+
+	/**
+	 * @return the number of tasks computing <code>missing</code> kernel values in parallel
+	 */
+	private static int tasks(int missing) {
+		return missing <= CHUNK_SIZE ? 0 : (missing + CHUNK_SIZE - 1) / CHUNK_SIZE;
+	}
+
+	private static float expectedValue(StringKernel kernel, Example exA, Example exB) {
+		return kernel.kernelComputation((StringRepresentation) exA.getRepresentation("s"),
+				(StringRepresentation) exB.getRepresentation("s"));
+	}
+
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2026 agent
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package it.uniroma2.sag.kelp.kernel;
+
+import static org.junit.Assert.assertEquals;
+import it.uniroma2.sag.kelp.data.example.Example;
+import it.uniroma2.sag.kelp.data.example.ExampleFactory;
+import it.uniroma2.sag.kelp.kernel.cache.DynamicIndexSquaredNormCache;
+import it.uniroma2.sag.kelp.kernel.cache.SquaredNormCache;
+
+import java.util.HashMap;
+
+import org.junit.Test;
+
+/**
+ * @author agent
+ */
+public class KernelSquaredNormTest {
+
+	/**
+	 * A cache implementing only <code>SquaredNormCache</code>, as the caches written before
+	 * <code>PrimitiveSquaredNormCache</code> was introduced
+	 */
+	public static class BoxedSquaredNormCache implements SquaredNormCache {
+
+		private HashMap<Long, Float> norms = new HashMap<Long, Float>();
+
+		@Override
+		public synchronized Float getSquaredNorm(Example example) {
+			return this.norms.get(example.getId());
+		}
+
+		@Override
+		public synchronized void setSquaredNormValue(Example example, float squaredNorm) {
+			this.norms.put(example.getId(), squaredNorm);
+		}
+
+		@Override
+		public synchronized void flush() {
+			this.norms.clear();
+		}
+	}
+
+	private static void checkCache(SquaredNormCache normCache) throws Exception {
+		StringKernel kernel = new StringKernel("s");
+		kernel.setSquaredNormCache(normCache);
+		Example example = ExampleFactory.parseExample("c |BSTR:s| abcd |ESTR|");
+		float expected = kernel.kernelComputation(example, example);
+		assertEquals(expected, kernel.squaredNorm(example), 0);
+		assertEquals(0, kernel.getNumberOfHits());
+		assertEquals(expected, kernel.squaredNorm(example), 0);
+		assertEquals(1, kernel.getNumberOfHits());
+		assertEquals(expected, normCache.getSquaredNorm(example), 0);
+	}
+
+	@Test
+	public void testPrimitiveSquaredNormCache() throws Exception {
+		checkCache(new DynamicIndexSquaredNormCache(10));
+	}
+
+	@Test
+	public void testBoxedSquaredNormCache() throws Exception {
+		checkCache(new BoxedSquaredNormCache());
+	}
+
+}
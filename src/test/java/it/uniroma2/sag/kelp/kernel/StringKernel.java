@@ -0,0 +1,54 @@
+/*
+ * Copyright 2026 agent
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package it.uniroma2.sag.kelp.kernel;
+
+import it.uniroma2.sag.kelp.data.representation.StringRepresentation;
+
+import com.fasterxml.jackson.annotation.JsonTypeName;
+
+/**
+ * A symmetric kernel on <code>StringRepresentation</code>s, used by the tests: it counts the
+ * positions where the two strings have the same character, plus the inverse of one plus the
+ * difference of their lengths
+ *
+ * @author agent
+ */
+@JsonTypeName("stringTest")
+public class StringKernel extends DirectKernel<StringRepresentation> {
+
+	public StringKernel(String representationIdentifier) {
+		super(representationIdentifier);
+	}
+
+	public StringKernel() {
+		super();
+	}
+
+	@Override
+	public float kernelComputation(StringRepresentation repA, StringRepresentation repB) {
+		String a = repA.getText();
+		String b = repB.getText();
+		int length = Math.min(a.length(), b.length());
+		float value = 1f / (1 + Math.abs(a.length() - b.length()));
+		for (int i = 0; i < length; i++) {
+			if (a.charAt(i) == b.charAt(i)) {
+				value++;
+			}
+		}
+		return value;
+	}
+
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2026 agent
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package it.uniroma2.sag.kelp.kernel.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import it.uniroma2.sag.kelp.data.example.Example;
+
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * @author agent
+ */
+public class DynamicIndexKernelCacheTest extends KernelCacheTestBase {
+
+	@Override
+	protected KernelCache createCache(int examplesToStore) {
+		return new DynamicIndexKernelCache(examplesToStore);
+	}
+
+	@Test
+	public void testLeastRecentlyUsedExampleIsEvicted() throws Exception {
+		KernelCache cache = this.createCache(4);
+		List<Example> examples = this.createExamples(5);
+		for (int i = 0; i < 4; i++) {
+			store(cache, examples.get(i), examples.get(i));
+		}
+		//the first example becomes the most recently used one
+		assertValue(examples.get(0), examples.get(0), lookup(cache, examples.get(0), examples.get(0)));
+		store(cache, examples.get(4), examples.get(4));
+
+		assertEquals(1, cache.getEvictions());
+		assertTrue(Float.isNaN(lookup(cache, examples.get(1), examples.get(1))));
+		for (int i : new int[] { 0, 2, 3, 4 }) {
+			assertValue(examples.get(i), examples.get(i), lookup(cache, examples.get(i), examples.get(i)));
+		}
+	}
+
+}
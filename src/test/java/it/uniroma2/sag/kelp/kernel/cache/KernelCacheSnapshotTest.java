@@ -0,0 +1,110 @@
+/*
+ * Copyright 2026 agent
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package it.uniroma2.sag.kelp.kernel.cache;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import it.uniroma2.sag.kelp.data.dataset.SimpleDataset;
+import it.uniroma2.sag.kelp.data.example.Example;
+import it.uniroma2.sag.kelp.data.example.ExampleFactory;
+import it.uniroma2.sag.kelp.kernel.Kernel;
+import it.uniroma2.sag.kelp.kernel.StringKernel;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * @author agent
+ */
+public class KernelCacheSnapshotTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	static SimpleDataset createDataset(int numberOfExamples) throws Exception {
+		SimpleDataset dataset = new SimpleDataset();
+		for (int i = 0; i < numberOfExamples; i++) {
+			dataset.addExample(ExampleFactory.parseExample("c" + (i % 3) + " |BSTR:s| text" + (i * 7919 % 1000) + " |ESTR|"));
+		}
+		return dataset;
+	}
+
+	private static void computeGramMatrix(Kernel kernel, List<Example> examples) {
+		for (Example exA : examples) {
+			for (Example exB : examples) {
+				kernel.innerProduct(exA, exB);
+			}
+		}
+	}
+
+	@Test
+	public void testFingerprintIgnoresCaches() throws Exception {
+		SimpleDataset dataset = createDataset(10);
+		StringKernel kernelA = new StringKernel("s");
+		kernelA.setKernelCache(new FixIndexKernelCache(10));
+		kernelA.setSquaredNormCache(new DynamicIndexSquaredNormCache(10));
+		StringKernel kernelB = new StringKernel("s");
+		kernelB.setKernelCache(new DynamicIndexKernelCache(50));
+		StringKernel kernelC = new StringKernel("t");
+
+		assertArrayEquals(KernelCacheSnapshot.fingerprint(kernelA, dataset),
+				KernelCacheSnapshot.fingerprint(kernelB, dataset));
+		assertFalse(Arrays.equals(KernelCacheSnapshot.fingerprint(kernelA, dataset),
+				KernelCacheSnapshot.fingerprint(kernelC, dataset)));
+		assertFalse(Arrays.equals(KernelCacheSnapshot.fingerprint(kernelA, dataset),
+				KernelCacheSnapshot.fingerprint(kernelA, createDataset(11))));
+	}
+
+	@Test
+	public void testRoundTripAcrossCacheSizes() throws Exception {
+		for (String extension : new String[] { ".bin", ".bin.gz" }) {
+			SimpleDataset dataset = createDataset(40);
+			List<Example> examples = dataset.getExamples();
+			StringKernel source = new StringKernel("s");
+			source.setKernelCache(new DynamicIndexKernelCache(40));
+			computeGramMatrix(source, examples);
+			File snapshot = folder.newFile("snapshot" + extension);
+			KernelCacheSnapshot.save(source, dataset, snapshot.getPath());
+
+			//the examples are read again, so they have different IDs
+			SimpleDataset reloaded = createDataset(40);
+			List<Example> reloadedExamples = reloaded.getExamples();
+			StringKernel target = new StringKernel("s");
+			target.setKernelCache(new DynamicIndexKernelCache(80));
+			assertTrue(KernelCacheSnapshot.restore(target, reloaded, snapshot.getPath()));
+			computeGramMatrix(target, reloadedExamples);
+			assertEquals(0, target.getNumberOfMisses());
+			for (int i = 0; i < examples.size(); i++) {
+				for (int j = 0; j < examples.size(); j++) {
+					assertEquals(source.innerProduct(examples.get(i), examples.get(j)),
+							target.innerProduct(reloadedExamples.get(i), reloadedExamples.get(j)), 0);
+				}
+			}
+
+			StringKernel other = new StringKernel("t");
+			other.setKernelCache(new DynamicIndexKernelCache(80));
+			assertFalse(KernelCacheSnapshot.restore(other, reloaded, snapshot.getPath()));
+		}
+	}
+
+}
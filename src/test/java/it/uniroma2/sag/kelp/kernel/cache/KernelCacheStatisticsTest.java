@@ -0,0 +1,159 @@
+/*
+ * Copyright 2026 agent
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package it.uniroma2.sag.kelp.kernel.cache;
+
+import static it.uniroma2.sag.kelp.kernel.cache.KernelCacheTestBase.createExamples;
+import static it.uniroma2.sag.kelp.kernel.cache.KernelCacheTestBase.lookup;
+import static it.uniroma2.sag.kelp.kernel.cache.KernelCacheTestBase.store;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import it.uniroma2.sag.kelp.data.example.Example;
+import it.uniroma2.sag.kelp.kernel.StringKernel;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+
+import org.junit.Test;
+
+/**
+ * @author agent
+ */
+public class KernelCacheStatisticsTest {
+
+	private static final long WINDOW = 200;
+
+	@Test
+	public void testSlidingWindow() throws Exception {
+		List<Example> examples = createExamples(4, true);
+		KernelCache cache = new DynamicIndexKernelCache(4);
+		cache.setStatisticsWindow(WINDOW);
+		store(cache, examples.get(0), examples.get(1));
+
+		// first window: 3 hits and 1 miss
+		lookup(cache, examples.get(0), examples.get(1));
+		lookup(cache, examples.get(1), examples.get(0));
+		lookup(cache, examples.get(0), examples.get(1));
+		lookup(cache, examples.get(0), examples.get(2));
+		KernelCacheStatistics statistics = cache.getStatistics();
+		assertEquals(3, statistics.getHits());
+		assertEquals(1, statistics.getMisses());
+		assertEquals(0.75, statistics.getWindowHitRatio(), 1e-9);
+
+		// second window: 1 hit and 3 misses, while the totals include the first window
+		Thread.sleep(WINDOW + 100);
+		lookup(cache, examples.get(0), examples.get(1));
+		lookup(cache, examples.get(0), examples.get(2));
+		lookup(cache, examples.get(0), examples.get(3));
+		lookup(cache, examples.get(2), examples.get(3));
+		statistics = cache.getStatistics();
+		assertEquals(4, statistics.getHits());
+		assertEquals(4, statistics.getMisses());
+		assertEquals(0.5, statistics.getHitRatio(), 1e-9);
+		assertEquals(0.25, statistics.getWindowHitRatio(), 1e-9);
+
+		// a window without accesses has no hit ratio
+		Thread.sleep(WINDOW + 100);
+		statistics = cache.getStatistics();
+		assertEquals(4, statistics.getHits());
+		assertTrue(Double.isNaN(statistics.getWindowHitRatio()));
+
+		cache.resetCacheStats();
+		lookup(cache, examples.get(0), examples.get(1));
+		statistics = cache.getStatistics();
+		assertEquals(1, statistics.getHits());
+		assertEquals(0, statistics.getMisses());
+		assertEquals(1, statistics.getWindowHitRatio(), 1e-9);
+	}
+
+	@Test
+	public void testInvalidations() throws Exception {
+		List<Example> examples = createExamples(5, true);
+		StripeKernelCache cache = new StripeKernelCache(2, examples.size());
+		float[] row = new float[examples.size()];
+		int[] positions = { 0, 1, 2, 3, 4 };
+		for (int i = 0; i < 2; i++) {
+			cache.setKernelRow(examples.get(i), examples, row, positions, positions.length);
+		}
+		assertEquals(0, cache.getStatistics().getInvalidations());
+
+		// every new stripe discards the oldest one
+		for (int i = 2; i < examples.size(); i++) {
+			cache.setKernelRow(examples.get(i), examples, row, positions, positions.length);
+			KernelCacheStatistics statistics = cache.getStatistics();
+			assertEquals(i - 1, statistics.getInvalidations());
+			assertEquals(i - 1, statistics.getEvictions());
+			assertEquals(i - 1, cache.getInvalidations());
+		}
+		assertEquals(2, cache.getStatistics().getOccupancy());
+
+		cache.resetCacheStats();
+		assertEquals(0, cache.getStatistics().getInvalidations());
+	}
+
+	@Test
+	public void testMonitorRegistration() throws Exception {
+		List<Example> examples = createExamples(3, true);
+		StringKernel kernel = new StringKernel("s");
+		kernel.setKernelCache(new DynamicIndexKernelCache(3));
+		kernel.innerProduct(examples.get(0), examples.get(1));
+		kernel.innerProduct(examples.get(1), examples.get(0));
+		kernel.innerProduct(examples.get(1), examples.get(2));
+
+		String name = "monitor test";
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		ObjectName objectName = KernelCacheMonitor.register(kernel, name);
+		try {
+			assertEquals("it.uniroma2.sag.kelp", objectName.getDomain());
+			assertEquals("KernelCache", objectName.getKeyProperty("type"));
+			assertEquals(name, ObjectName.unquote(objectName.getKeyProperty("name")));
+			assertTrue(server.isRegistered(objectName));
+			try {
+				KernelCacheMonitor.register(kernel, name);
+				fail("A monitor has been registered twice with the same name");
+			} catch (InstanceAlreadyExistsException e) {
+				// expected
+			}
+
+			assertEquals(StringKernel.class.getName(), server.getAttribute(objectName, "KernelType"));
+			assertEquals(DynamicIndexKernelCache.class.getName(), server.getAttribute(objectName, "CacheType"));
+			assertEquals(3L, server.getAttribute(objectName, "KernelComputations"));
+			assertEquals(1L, server.getAttribute(objectName, "CacheHits"));
+			assertEquals(2L, server.getAttribute(objectName, "CacheMisses"));
+			assertEquals(1 / 3.0, (Double) server.getAttribute(objectName, "HitRatio"), 1e-9);
+			assertEquals(0L, server.getAttribute(objectName, "Invalidations"));
+			CompositeData statistics = (CompositeData) server.getAttribute(objectName, "Statistics");
+			assertEquals(1L, statistics.get("hits"));
+			assertEquals(2L, statistics.get("misses"));
+			assertEquals(kernel.getKernelCache().getCapacity(), statistics.get("capacity"));
+
+			server.invoke(objectName, "resetStatistics", new Object[0], new String[0]);
+			assertEquals(0L, server.getAttribute(objectName, "CacheHits"));
+			assertEquals(0L, server.getAttribute(objectName, "CacheMisses"));
+			assertTrue(Double.isNaN((Double) server.getAttribute(objectName, "HitRatio")));
+		} finally {
+			KernelCacheMonitor.unregister(name);
+		}
+		assertFalse(server.isRegistered(objectName));
+	}
+
+}
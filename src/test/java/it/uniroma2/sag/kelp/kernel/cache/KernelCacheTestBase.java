@@ -0,0 +1,198 @@
+/*
+ * Copyright 2026 agent
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package it.uniroma2.sag.kelp.kernel.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import it.uniroma2.sag.kelp.data.dataset.SimpleDataset;
+import it.uniroma2.sag.kelp.data.example.Example;
+import it.uniroma2.sag.kelp.data.example.ExampleFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+/**
+ * The tests shared by all the <code>KernelCache</code> implementations
+ *
+ * @author agent
+ */
+public abstract class KernelCacheTestBase {
+
+	/**
+	 * @param examplesToStore the number of examples whose pairwise kernel values should fit
+	 * in the cache
+	 * @return a new cache
+	 */
+	protected abstract KernelCache createCache(int examplesToStore);
+
+	/**
+	 * @return whether the values of the evicted examples are lost
+	 */
+	protected boolean evictionLosesValues() {
+		return true;
+	}
+
+	/**
+	 * Creates <code>numberOfExamples</code> examples: the even ones are added to a dataset, thus
+	 * they have a dense index, while the odd ones have no index
+	 */
+	protected List<Example> createExamples(int numberOfExamples) throws Exception {
+		return createExamples(numberOfExamples, false);
+	}
+
+	/**
+	 * Creates <code>numberOfExamples</code> examples, adding to a dataset all of them or only the
+	 * even ones
+	 */
+	static List<Example> createExamples(int numberOfExamples, boolean indexAll) throws Exception {
+		List<Example> examples = new ArrayList<Example>(numberOfExamples);
+		SimpleDataset dataset = new SimpleDataset();
+		for (int i = 0; i < numberOfExamples; i++) {
+			Example example = ExampleFactory.parseExample("c |BSTR:s| example" + i + " |ESTR|");
+			if (indexAll || i % 2 == 0) {
+				dataset.addExample(example);
+			}
+			examples.add(example);
+		}
+		return examples;
+	}
+
+	static float expectedValue(Example exA, Example exB) {
+		return exA.getId() * 31 + exB.getId() + 0.5f;
+	}
+
+	/**
+	 * Stores a kernel value, passing the examples ordered by ID as <code>Kernel</code> does
+	 */
+	static void store(KernelCache cache, Example exA, Example exB) {
+		if (exA.getId() <= exB.getId()) {
+			cache.setKernelValue(exA, exB, expectedValue(exA, exB));
+		} else {
+			cache.setKernelValue(exB, exA, expectedValue(exB, exA));
+		}
+	}
+
+	static float lookup(KernelCache cache, Example exA, Example exB) {
+		if (exA.getId() <= exB.getId()) {
+			return cache.getPrimitiveKernelValue(exA, exB);
+		}
+		return cache.getPrimitiveKernelValue(exB, exA);
+	}
+
+	static void assertValue(Example exA, Example exB, float value) {
+		if (exA.getId() <= exB.getId()) {
+			assertEquals(expectedValue(exA, exB), value, 0);
+		} else {
+			assertEquals(expectedValue(exB, exA), value, 0);
+		}
+	}
+
+	@Test
+	public void testHitAndMiss() throws Exception {
+		KernelCache cache = this.createCache(16);
+		List<Example> examples = createExamples(4);
+		for (int i = 0; i < examples.size(); i++) {
+			for (int j = i; j < examples.size(); j++) {
+				assertTrue(Float.isNaN(lookup(cache, examples.get(i), examples.get(j))));
+				store(cache, examples.get(i), examples.get(j));
+			}
+		}
+		for (int i = 0; i < examples.size(); i++) {
+			for (int j = 0; j < examples.size(); j++) {
+				assertValue(examples.get(i), examples.get(j), lookup(cache, examples.get(i), examples.get(j)));
+			}
+		}
+		assertEquals(10, cache.getCacheMisses());
+		assertEquals(16, cache.getCacheHits());
+
+		cache.flushCache();
+		assertTrue(Float.isNaN(lookup(cache, examples.get(0), examples.get(1))));
+	}
+
+	@Test
+	public void testEviction() throws Exception {
+		KernelCache cache = this.createCache(8);
+		List<Example> examples = createExamples(64);
+		for (int i = 0; i + 1 < examples.size(); i++) {
+			store(cache, examples.get(i), examples.get(i + 1));
+		}
+		assertTrue(cache.getEvictions() > 0);
+		Example last = examples.get(examples.size() - 1);
+		Example beforeLast = examples.get(examples.size() - 2);
+		assertValue(beforeLast, last, lookup(cache, beforeLast, last));
+
+		int found = 0;
+		for (int i = 0; i + 1 < examples.size(); i++) {
+			float value = lookup(cache, examples.get(i), examples.get(i + 1));
+			if (!Float.isNaN(value)) {
+				assertValue(examples.get(i), examples.get(i + 1), value);
+				found++;
+			}
+		}
+		if (this.evictionLosesValues()) {
+			assertTrue(found < examples.size() - 1);
+		} else {
+			assertEquals(examples.size() - 1, found);
+		}
+	}
+
+	@Test
+	public void testConcurrentSetAndGet() throws Exception {
+		final KernelCache cache = this.createCache(32);
+		final List<Example> examples = createExamples(128);
+		final AtomicInteger wrongValues = new AtomicInteger();
+		final AtomicInteger hits = new AtomicInteger();
+		Thread[] threads = new Thread[8];
+		for (int t = 0; t < threads.length; t++) {
+			final long seed = t;
+			threads[t] = new Thread() {
+				@Override
+				public void run() {
+					Random random = new Random(seed);
+					for (int k = 0; k < 20000; k++) {
+						//most of the accesses involve a small working set
+						int bound = k % 4 == 0 ? examples.size() : 24;
+						Example exA = examples.get(random.nextInt(bound));
+						Example exB = examples.get(random.nextInt(bound));
+						float value = lookup(cache, exA, exB);
+						if (Float.isNaN(value)) {
+							store(cache, exA, exB);
+						} else {
+							hits.incrementAndGet();
+							float expected = exA.getId() <= exB.getId() ? expectedValue(exA, exB) : expectedValue(exB, exA);
+							if (value != expected) {
+								wrongValues.incrementAndGet();
+							}
+						}
+					}
+				}
+			};
+		}
+		for (Thread thread : threads) {
+			thread.start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		assertEquals(0, wrongValues.get());
+		assertTrue(hits.get() > 0);
+	}
+
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2026 agent
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package it.uniroma2.sag.kelp.kernel.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import it.uniroma2.sag.kelp.data.dataset.SimpleDataset;
+import it.uniroma2.sag.kelp.data.example.Example;
+import it.uniroma2.sag.kelp.data.example.ExampleFactory;
+import it.uniroma2.sag.kelp.kernel.StringKernel;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * @author agent
+ */
+public class MappedGramMatrixKernelCacheTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testValuesAreReusedAcrossRuns() throws Exception {
+		File file = new File(folder.getRoot(), "gram.bin");
+		SimpleDataset dataset = KernelCacheSnapshotTest.createDataset(30);
+		StringKernel kernel = new StringKernel("s");
+		MappedGramMatrixKernelCache cache = new MappedGramMatrixKernelCache(file.getPath(), kernel, dataset);
+		kernel.setKernelCache(cache);
+		List<Example> examples = dataset.getExamples();
+		for (Example exA : examples) {
+			for (Example exB : examples) {
+				kernel.innerProduct(exA, exB);
+			}
+		}
+		cache.close();
+
+		SimpleDataset reloaded = KernelCacheSnapshotTest.createDataset(30);
+		StringKernel reloadedKernel = new StringKernel("s");
+		MappedGramMatrixKernelCache reloadedCache = new MappedGramMatrixKernelCache(file.getPath(),
+				reloadedKernel, reloaded, true);
+		reloadedKernel.setKernelCache(reloadedCache);
+		List<Example> reloadedExamples = reloaded.getExamples();
+		for (int i = 0; i < examples.size(); i++) {
+			for (int j = 0; j < examples.size(); j++) {
+				assertEquals(kernel.innerProduct(examples.get(i), examples.get(j)),
+						reloadedKernel.innerProduct(reloadedExamples.get(i), reloadedExamples.get(j)), 0);
+			}
+		}
+		assertEquals(0, reloadedKernel.getNumberOfMisses());
+		reloadedCache.close();
+	}
+
+	@Test
+	public void testStaleFilesAreRejected() throws Exception {
+		File file = new File(folder.getRoot(), "gram.bin");
+		SimpleDataset dataset = KernelCacheSnapshotTest.createDataset(20);
+		new MappedGramMatrixKernelCache(file.getPath(), new StringKernel("s"), dataset).close();
+
+		//same number of examples, different content
+		SimpleDataset otherDataset = new SimpleDataset();
+		for (int i = 0; i < 20; i++) {
+			otherDataset.addExample(ExampleFactory.parseExample("c |BSTR:s| other" + i + " |ESTR|"));
+		}
+		try {
+			new MappedGramMatrixKernelCache(file.getPath(), new StringKernel("s"), otherDataset);
+			fail("A Gram Matrix computed on different examples has been accepted");
+		} catch (IOException e) {
+			//expected
+		}
+		try {
+			new MappedGramMatrixKernelCache(file.getPath(), new StringKernel("t"), dataset);
+			fail("A Gram Matrix computed with a different kernel has been accepted");
+		} catch (IOException e) {
+			//expected
+		}
+		new MappedGramMatrixKernelCache(file.getPath(), new StringKernel("s"), dataset).close();
+	}
+
+}
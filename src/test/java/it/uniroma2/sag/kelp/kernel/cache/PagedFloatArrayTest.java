@@ -0,0 +1,80 @@
+/*
+ * Copyright 2026 agent
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package it.uniroma2.sag.kelp.kernel.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import org.junit.Test;
+
+/**
+ * @author agent
+ */
+public class PagedFloatArrayTest {
+
+	private static final int PAGE_SIZE = 1 << 20;
+
+	@Test
+	public void testTriangularIndexPast65536Examples() {
+		int examplesToStore = 70000;
+		long size = (long) examplesToStore * (examplesToStore + 1) / 2;
+		assertEquals(0, KernelCache.getTriangularIndex(0, 0, examplesToStore));
+		assertEquals(examplesToStore - 1, KernelCache.getTriangularIndex(0, examplesToStore - 1, examplesToStore));
+		assertEquals(examplesToStore, KernelCache.getTriangularIndex(1, 1, examplesToStore));
+		assertEquals(size - 1, KernelCache.getTriangularIndex(examplesToStore - 1, examplesToStore - 1, examplesToStore));
+		assertEquals(size - 2, KernelCache.getTriangularIndex(examplesToStore - 1, examplesToStore - 2, examplesToStore));
+
+		//the rows are contiguous: each one begins right after the end of the previous one
+		for (int i = 65530; i < examplesToStore - 1; i++) {
+			long rowEnd = KernelCache.getTriangularIndex(i, examplesToStore - 1, examplesToStore);
+			assertEquals(rowEnd + 1, KernelCache.getTriangularIndex(i + 1, i + 1, examplesToStore));
+		}
+	}
+
+	@Test
+	public void testTriangularIndexIsDense() {
+		int examplesToStore = 50;
+		boolean[] used = new boolean[examplesToStore * (examplesToStore + 1) / 2];
+		for (int i = 0; i < examplesToStore; i++) {
+			for (int j = i; j < examplesToStore; j++) {
+				int index = (int) KernelCache.getTriangularIndex(j, i, examplesToStore);
+				assertFalse(used[index]);
+				used[index] = true;
+			}
+		}
+	}
+
+	@Test
+	public void testPages() {
+		PagedFloatArray array = new PagedFloatArray(2L * PAGE_SIZE + 10);
+		assertEquals(2L * PAGE_SIZE + 10, array.size());
+		array.fill(Float.NaN);
+		array.fill(PAGE_SIZE - 5, 2L * PAGE_SIZE + 5, 1);
+		assertEquals(Float.NaN, array.get(PAGE_SIZE - 6), 0);
+		assertEquals(1, array.get(PAGE_SIZE - 5), 0);
+		assertEquals(1, array.get(PAGE_SIZE), 0);
+		assertEquals(1, array.get(2L * PAGE_SIZE + 4), 0);
+		assertEquals(Float.NaN, array.get(2L * PAGE_SIZE + 5), 0);
+
+		array.set(PAGE_SIZE - 1, 2);
+		array.set(PAGE_SIZE, 3);
+		array.set(2L * PAGE_SIZE + 9, 4);
+		assertEquals(2, array.get(PAGE_SIZE - 1), 0);
+		assertEquals(3, array.get(PAGE_SIZE), 0);
+		assertEquals(4, array.get(2L * PAGE_SIZE + 9), 0);
+	}
+
+}
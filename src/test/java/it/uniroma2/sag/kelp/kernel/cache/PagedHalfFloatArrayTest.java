@@ -0,0 +1,103 @@
+/*
+ * Copyright 2026 agent
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package it.uniroma2.sag.kelp.kernel.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * @author agent
+ */
+public class PagedHalfFloatArrayTest {
+
+	private static void assertHalf(int expectedBits, float value) {
+		assertEquals(Float.toString(value), (short) expectedBits, PagedHalfFloatArray.floatToHalf(value));
+	}
+
+	@Test
+	public void testKnownValues() {
+		assertHalf(0x0000, 0f);
+		assertHalf(0x8000, -0f);
+		assertHalf(0x3c00, 1f);
+		assertHalf(0xc000, -2f);
+		assertHalf(0x3800, 0.5f);
+		assertHalf(0x3555, 1f / 3);
+		assertHalf(0x7bff, 65504f);
+		assertHalf(0x0400, (float) Math.pow(2, -14));
+		assertHalf(0x0001, (float) Math.pow(2, -24));
+		assertHalf(0x7c00, Float.POSITIVE_INFINITY);
+		assertHalf(0xfc00, Float.NEGATIVE_INFINITY);
+		assertTrue(Float.isNaN(PagedHalfFloatArray.halfToFloat(PagedHalfFloatArray.floatToHalf(Float.NaN))));
+	}
+
+	@Test
+	public void testRounding() {
+		//ties are rounded to even
+		assertHalf(0x3c00, 1f + (float) Math.pow(2, -11));
+		assertHalf(0x3c02, 1f + 3 * (float) Math.pow(2, -11));
+		assertHalf(0x0000, (float) Math.pow(2, -25));
+		assertHalf(0x0002, 3 * (float) Math.pow(2, -25));
+		//values rounded beyond the largest half float become infinities
+		assertHalf(0x7bff, 65519f);
+		assertHalf(0x7c00, 65520f);
+		assertHalf(0x7c00, 1e10f);
+		assertHalf(0x0000, 1e-10f);
+	}
+
+	@Test
+	public void testEveryHalfFloatIsPreserved() {
+		for (int bits = 0; bits < 1 << 16; bits++) {
+			short half = (short) bits;
+			float value = PagedHalfFloatArray.halfToFloat(half);
+			if (Float.isNaN(value)) {
+				continue;
+			}
+			assertEquals(half, PagedHalfFloatArray.floatToHalf(value));
+		}
+	}
+
+	@Test
+	public void testRelativeError() {
+		Random random = new Random(0);
+		for (int i = 0; i < 100000; i++) {
+			float value = (float) Math.exp(random.nextDouble() * (Math.log(65504) - Math.log(6.1e-5)) + Math.log(6.1e-5));
+			if (random.nextBoolean()) {
+				value = -value;
+			}
+			float converted = PagedHalfFloatArray.halfToFloat(PagedHalfFloatArray.floatToHalf(value));
+			assertTrue(value + " -> " + converted, Math.abs(converted - value) <= Math.abs(value) * Math.pow(2, -11));
+		}
+	}
+
+	@Test
+	public void testArray() {
+		PagedHalfFloatArray array = new PagedHalfFloatArray(10);
+		array.fill(Float.NaN);
+		assertTrue(Float.isNaN(array.get(3)));
+		array.set(3, 0.25f);
+		array.set(4, 1f / 3);
+		assertEquals(0.25f, array.get(3), 0);
+		assertEquals(1f / 3, array.get(4), Math.pow(2, -12));
+		array.fill(2, 5, 7f);
+		assertEquals(7f, array.get(4), 0);
+		assertTrue(Float.isNaN(array.get(5)));
+	}
+
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2026 agent
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package it.uniroma2.sag.kelp.kernel.cache;
+
+import org.junit.Test;
+
+/**
+ * @author agent
+ */
+public class SetAssociativeKernelCacheTest extends KernelCacheTestBase {
+
+	@Override
+	protected KernelCache createCache(int examplesToStore) {
+		return new SetAssociativeKernelCache(examplesToStore * (examplesToStore + 1) / 2, 2);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testTooManyKernelValues() {
+		new SetAssociativeKernelCache((1L << 29) + 1);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testTooManyEntriesAfterRounding() {
+		new SetAssociativeKernelCache((1L << 29) - 1, 3);
+	}
+
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2026 agent
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package it.uniroma2.sag.kelp.kernel.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import it.uniroma2.sag.kelp.data.example.Example;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+/**
+ * A <code>StripeKernelCache</code> stores whole rows, so it is tested through the row methods
+ *
+ * @author agent
+ */
+public class StripeKernelCacheTest {
+
+	private static float[] expectedRow(Example example, List<Example> examples) {
+		float[] row = new float[examples.size()];
+		for (int i = 0; i < row.length; i++) {
+			row[i] = KernelCacheTestBase.expectedValue(example, examples.get(i));
+		}
+		return row;
+	}
+
+	private static void storeRow(KernelCache cache, Example example, List<Example> examples) {
+		int[] positions = new int[examples.size()];
+		for (int i = 0; i < positions.length; i++) {
+			positions[i] = i;
+		}
+		cache.setKernelRow(example, examples, expectedRow(example, examples), positions, positions.length);
+	}
+
+	@Test
+	public void testHitAndMiss() throws Exception {
+		List<Example> examples = KernelCacheTestBase.createExamples(8, false);
+		StripeKernelCache cache = new StripeKernelCache(4, examples.size());
+		float[] row = new float[examples.size()];
+		assertEquals(examples.size(), cache.getKernelRow(examples.get(0), examples, row));
+
+		storeRow(cache, examples.get(0), examples);
+		assertEquals(0, cache.getKernelRow(examples.get(0), examples, row));
+		for (int i = 0; i < row.length; i++) {
+			assertEquals(KernelCacheTestBase.expectedValue(examples.get(0), examples.get(i)), row[i], 0);
+		}
+		//only the kernel value stored in the stripe of the first example is found
+		assertEquals(examples.size() - 1, cache.getKernelRow(examples.get(1), examples, row));
+
+		cache.flushCache();
+		assertEquals(examples.size(), cache.getKernelRow(examples.get(0), examples, row));
+	}
+
+	@Test
+	public void testEviction() throws Exception {
+		List<Example> examples = KernelCacheTestBase.createExamples(8, false);
+		StripeKernelCache cache = new StripeKernelCache(4, examples.size());
+		for (int i = 0; i < 5; i++) {
+			storeRow(cache, examples.get(i), examples);
+		}
+		assertEquals(1, cache.getEvictions());
+		assertEquals(4, cache.getOccupancy());
+		float[] row = new float[examples.size()];
+		assertTrue(cache.getKernelRow(examples.get(0), examples, row) > 0);
+		assertEquals(0, cache.getKernelRow(examples.get(4), examples, row));
+	}
+
+	@Test
+	public void testConcurrentSetAndGet() throws Exception {
+		final List<Example> examples = KernelCacheTestBase.createExamples(64, false);
+		final StripeKernelCache cache = new StripeKernelCache(16, examples.size());
+		final AtomicInteger wrongValues = new AtomicInteger();
+		final AtomicInteger hits = new AtomicInteger();
+		Thread[] threads = new Thread[8];
+		for (int t = 0; t < threads.length; t++) {
+			final long seed = t;
+			threads[t] = new Thread() {
+				@Override
+				public void run() {
+					Random random = new Random(seed);
+					float[] row = new float[examples.size()];
+					for (int k = 0; k < 2000; k++) {
+						Example example = examples.get(random.nextInt(24));
+						if (cache.getKernelRow(example, examples, row) > 0) {
+							storeRow(cache, example, examples);
+							continue;
+						}
+						hits.incrementAndGet();
+						for (int i = 0; i < row.length; i++) {
+							if (row[i] != KernelCacheTestBase.expectedValue(example, examples.get(i))) {
+								wrongValues.incrementAndGet();
+							}
+						}
+					}
+				}
+			};
+		}
+		for (Thread thread : threads) {
+			thread.start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		assertEquals(0, wrongValues.get());
+		assertTrue(hits.get() > 0);
+	}
+
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2026 agent
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package it.uniroma2.sag.kelp.kernel.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import it.uniroma2.sag.kelp.data.example.Example;
+
+import java.io.File;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * @author agent
+ */
+public class TwoTierKernelCacheTest extends KernelCacheTestBase {
+
+	@Override
+	protected KernelCache createCache(int examplesToStore) {
+		return new TwoTierKernelCache(examplesToStore, 1 << 12);
+	}
+
+	@Override
+	protected boolean evictionLosesValues() {
+		return false;
+	}
+
+	@Test
+	public void testSpillDirectory() throws Exception {
+		File directory = new File(System.getProperty("java.io.tmpdir"));
+		TwoTierKernelCache cache = new TwoTierKernelCache(4, 1 << 12, directory.getPath());
+		List<Example> examples = createExamples(32);
+		for (int i = 0; i + 1 < examples.size(); i++) {
+			store(cache, examples.get(i), examples.get(i + 1));
+		}
+		for (int i = 0; i + 1 < examples.size(); i++) {
+			assertValue(examples.get(i), examples.get(i + 1), lookup(cache, examples.get(i), examples.get(i + 1)));
+		}
+		cache.setSpillDirectory(null);
+	}
+
+	@Test
+	public void testSecondTierReuse() throws Exception {
+		TwoTierKernelCache cache = new TwoTierKernelCache(2, 1000);
+		List<Example> examples = createExamples(8);
+		for (int i = 0; i + 1 < examples.size(); i++) {
+			store(cache, examples.get(i), examples.get(i + 1));
+		}
+		long memoryUsage = cache.getMemoryUsage();
+		cache.setSpilledKernelValuesToStore(1020);
+		assertEquals(memoryUsage, cache.getMemoryUsage());
+		assertTrue(Float.isNaN(lookup(cache, examples.get(0), examples.get(1))));
+
+		cache.setSpilledKernelValuesToStore(4000);
+		assertTrue(Float.isNaN(lookup(cache, examples.get(0), examples.get(1))));
+		assertTrue(cache.getMemoryUsage() > memoryUsage);
+	}
+
+}
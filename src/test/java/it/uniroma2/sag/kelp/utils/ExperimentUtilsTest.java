@@ -0,0 +1,165 @@
+/*
+ * Copyright 2026 agent
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package it.uniroma2.sag.kelp.utils;
+
+import static it.uniroma2.sag.kelp.data.dataset.SimpleDatasetTest.assertSameDataset;
+import static it.uniroma2.sag.kelp.data.dataset.SimpleDatasetTest.createDataset;
+import static org.junit.Assert.assertEquals;
+import it.uniroma2.sag.kelp.data.dataset.Dataset;
+import it.uniroma2.sag.kelp.data.dataset.SimpleDataset;
+import it.uniroma2.sag.kelp.data.dataset.StreamingDataset;
+import it.uniroma2.sag.kelp.data.dataset.StreamingDatasetTest;
+import it.uniroma2.sag.kelp.data.example.Example;
+import it.uniroma2.sag.kelp.data.label.Label;
+import it.uniroma2.sag.kelp.data.label.StringLabel;
+import it.uniroma2.sag.kelp.data.representation.StringRepresentation;
+import it.uniroma2.sag.kelp.predictionfunction.Prediction;
+import it.uniroma2.sag.kelp.predictionfunction.PredictionFunction;
+import it.uniroma2.sag.kelp.predictionfunction.classifier.BinaryMarginClassifierOutput;
+import it.uniroma2.sag.kelp.predictionfunction.model.Model;
+import it.uniroma2.sag.kelp.utils.evaluation.Evaluator;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * @author agent
+ */
+public class ExperimentUtilsTest {
+
+	@Test
+	public void testGetAllExcept() throws Exception {
+		SimpleDataset dataset = createDataset(37);
+		Dataset[] folds = dataset.nFoldingClassDistributionInvariant(5);
+		for (int i = 0; i < folds.length; i++) {
+			SimpleDataset expected = new SimpleDataset();
+			for (int k = 0; k < folds.length; k++) {
+				if (k != i) {
+					expected.addExamples(folds[k]);
+				}
+			}
+			assertSameDataset(expected, ExperimentUtils.getAllExcept(folds, i));
+		}
+	}
+
+	@Test
+	public void testOnStreamingDataset() throws Exception {
+		File file = StreamingDatasetTest.writeDataset(83);
+		try {
+			SimpleDataset dataset = new SimpleDataset();
+			dataset.populate(file.getPath());
+			RecordingEvaluator expectedEvaluator = new RecordingEvaluator();
+			List<Prediction> expectedPredictions = ExperimentUtils.test(new ExampleNumberFunction(), expectedEvaluator,
+					dataset);
+			assertEquals(83, expectedPredictions.size());
+
+			for (int readAheadThreads = 0; readAheadThreads <= 2; readAheadThreads += 2) {
+				StreamingDataset testset = new StreamingDataset(file.getPath(), readAheadThreads);
+				try {
+					// the evaluation must start from the first example, also after a partial reading
+					testset.getNextExamples(10);
+					for (int pass = 0; pass < 2; pass++) {
+						RecordingEvaluator evaluator = new RecordingEvaluator();
+						List<Prediction> predictions = ExperimentUtils.test(new ExampleNumberFunction(), evaluator,
+								testset);
+						assertEquals(expectedEvaluator.examples, evaluator.examples);
+						assertEquals(expectedPredictions.size(), predictions.size());
+						for (int i = 0; i < predictions.size(); i++) {
+							assertEquals(expectedPredictions.get(i).getScore(ExampleNumberFunction.LABEL),
+									predictions.get(i).getScore(ExampleNumberFunction.LABEL));
+							assertEquals(evaluator.predictions.get(i), predictions.get(i));
+						}
+					}
+				} finally {
+					testset.close();
+				}
+			}
+		} finally {
+			file.delete();
+		}
+	}
+
+	/**
+	 * Predicts the number in the text of the "s" representation of an example
+	 */
+	public static class ExampleNumberFunction implements PredictionFunction {
+
+		private static final Label LABEL = new StringLabel("c0");
+
+		@Override
+		public Prediction predict(Example example) {
+			String text = ((StringRepresentation) example.getRepresentation("s")).getText().trim();
+			return new BinaryMarginClassifierOutput(LABEL, Float.parseFloat(text.substring(text.lastIndexOf(' ') + 1)));
+		}
+
+		@Override
+		public void reset() {
+		}
+
+		@Override
+		public void setLabels(List<Label> labels) {
+		}
+
+		@Override
+		public List<Label> getLabels() {
+			List<Label> labels = new ArrayList<Label>();
+			labels.add(LABEL);
+			return labels;
+		}
+
+		@Override
+		public Model getModel() {
+			return null;
+		}
+
+		@Override
+		public void setModel(Model model) {
+		}
+
+	}
+
+	private static class RecordingEvaluator extends Evaluator {
+
+		private List<String> examples = new ArrayList<String>();
+		private List<Prediction> predictions = new ArrayList<Prediction>();
+
+		@Override
+		public void addCount(Example test, Prediction predicted) {
+			this.examples.add(test.toString());
+			this.predictions.add(predicted);
+		}
+
+		@Override
+		protected void compute() {
+		}
+
+		@Override
+		public void clear() {
+			this.examples.clear();
+			this.predictions.clear();
+		}
+
+		@Override
+		public Evaluator duplicate() {
+			return new RecordingEvaluator();
+		}
+
+	}
+
+}
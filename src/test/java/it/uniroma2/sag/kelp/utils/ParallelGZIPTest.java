@@ -0,0 +1,137 @@
+/*
+ * Copyright 2026 agent
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package it.uniroma2.sag.kelp.utils;
+
+import static org.junit.Assert.assertArrayEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * @author agent
+ */
+public class ParallelGZIPTest {
+
+	private static final int BLOCK_SIZE = 1000;
+	private static final int NUMBER_OF_THREADS = 4;
+
+	private ExecutorService executor;
+
+	@Before
+	public void createExecutor() {
+		this.executor = Executors.newFixedThreadPool(NUMBER_OF_THREADS);
+	}
+
+	@After
+	public void shutdownExecutor() {
+		this.executor.shutdown();
+	}
+
+	/**
+	 * Creates some data alternating compressible text and random bytes
+	 */
+	private static byte[] createData(int length) {
+		Random random = new Random(length);
+		byte[] data = new byte[length];
+		for (int i = 0; i < length; i++) {
+			data[i] = (i / 777) % 2 == 0 ? (byte) ('a' + i % 7) : (byte) random.nextInt();
+		}
+		return data;
+	}
+
+	private byte[] compressInParallel(byte[] data) throws IOException {
+		ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+		OutputStream out = new ParallelGZIPOutputStream(compressed, BLOCK_SIZE, this.executor, NUMBER_OF_THREADS);
+		//odd writes, not aligned with the blocks
+		for (int offset = 0; offset < data.length; offset += 333) {
+			out.write(data, offset, java.lang.Math.min(333, data.length - offset));
+		}
+		out.close();
+		return compressed.toByteArray();
+	}
+
+	private static byte[] compressSequentially(byte[] data) throws IOException {
+		ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+		OutputStream out = new GZIPOutputStream(compressed);
+		out.write(data);
+		out.close();
+		return compressed.toByteArray();
+	}
+
+	private static byte[] readAll(InputStream in) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		byte[] buffer = new byte[517];
+		int read;
+		while ((read = in.read(buffer)) != -1) {
+			out.write(buffer, 0, read);
+		}
+		in.close();
+		return out.toByteArray();
+	}
+
+	private byte[] decompressInParallel(byte[] compressed) throws IOException {
+		return readAll(new ParallelGZIPInputStream(new ByteArrayInputStream(compressed), this.executor,
+				NUMBER_OF_THREADS));
+	}
+
+	@Test
+	public void testRoundTrip() throws IOException {
+		for (int length : new int[] { 0, 1, BLOCK_SIZE, 50 * BLOCK_SIZE + 17 }) {
+			byte[] data = createData(length);
+			assertArrayEquals(data, this.decompressInParallel(this.compressInParallel(data)));
+		}
+	}
+
+	@Test
+	public void testReadWithGZIPInputStream() throws IOException {
+		byte[] data = createData(50 * BLOCK_SIZE + 17);
+		byte[] compressed = this.compressInParallel(data);
+		assertArrayEquals(data, readAll(new GZIPInputStream(new ByteArrayInputStream(compressed))));
+	}
+
+	@Test
+	public void testReadGZIPOutputStreamData() throws IOException {
+		byte[] data = createData(50 * BLOCK_SIZE + 17);
+		assertArrayEquals(data, this.decompressInParallel(compressSequentially(data)));
+	}
+
+	@Test
+	public void testReadMixedMembers() throws IOException {
+		byte[] first = createData(20 * BLOCK_SIZE + 3);
+		byte[] second = createData(7 * BLOCK_SIZE + 1);
+		ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+		compressed.write(this.compressInParallel(first));
+		compressed.write(compressSequentially(second));
+
+		ByteArrayOutputStream data = new ByteArrayOutputStream();
+		data.write(first);
+		data.write(second);
+		assertArrayEquals(data.toByteArray(), this.decompressInParallel(compressed.toByteArray()));
+	}
+
+}